@@ -36,6 +36,9 @@ dependencies {
     // 🔹 Starter Web de Spring Boot: Proporciona funcionalidades web básicas
     implementation("org.springframework.boot:spring-boot-starter-web")
 
+    // 🔹 Starter WebSocket: canal STOMP del chat en tiempo real
+    implementation("org.springframework.boot:spring-boot-starter-websocket")
+
     // 🔹 Starter de Seguridad de Spring Boot: Agrega funciones de autenticación y seguridad
     implementation("org.springframework.boot:spring-boot-starter-security")
 
@@ -96,6 +99,9 @@ dependencies {
     implementation("org.simplejavamail:simple-java-mail:8.12.5")
     implementation("org.simplejavamail:batch-module:8.12.5")
 
+    // 🔹 Actuator: métricas de la aplicación (Micrometer)
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
     // 🔹 Kotlin Reflection: Soporta reflexión en tiempo de ejecución en Kotlin
     implementation("org.jetbrains.kotlin:kotlin-reflect")
 
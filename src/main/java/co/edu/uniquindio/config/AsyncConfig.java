@@ -1,10 +1,161 @@
 package co.edu.uniquindio.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig implements AsyncConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    /**
+     * Nombre del executor que atiende los eventos de dominio después del commit.
+     */
+    public static final String EVENTOS_EXECUTOR = "eventosExecutor";
+
+    /**
+     * Nombre del executor que genera los documentos PDF de contratos.
+     */
+    public static final String PDF_EXECUTOR = "pdfExecutor";
+
+    /**
+     * Nombre del executor que factura las particiones de clientes en paralelo.
+     */
+    public static final String FACTURACION_EXECUTOR = "facturacionExecutor";
+
+    /**
+     * Nombre del executor que escribe los eventos del chat en las suscripciones SSE.
+     */
+    public static final String CHAT_EXECUTOR = "chatExecutor";
+
+
+    /**
+     * Executor acotado para los listeners de eventos de dominio (generación de PDF y notificaciones).
+     * <p>
+     * Si la cola se llena, el evento se procesa en el hilo que lo publicó: se pierde la respuesta
+     * inmediata de esa solicitud, pero ningún evento se descarta.
+     * </p>
+     */
+    @Bean(name = EVENTOS_EXECUTOR)
+    public ThreadPoolTaskExecutor eventosExecutor(MeterRegistry registry,
+                                                  @Value("${store-it.eventos.hilos:4}") int hilos,
+                                                  @Value("${store-it.eventos.cola:500}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("eventos-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        Gauge.builder("storeit.eventos.cola", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Eventos de dominio en espera de ser procesados")
+                .register(registry);
+        return executor;
+    }
+
+
+    /**
+     * Executor acotado para generar los PDF de contratos en segundo plano.
+     * <p>
+     * A diferencia de los eventos, una tarea rechazada no se ejecuta en el hilo que la envió:
+     * el documento queda {@code PENDIENTE} en la base de datos y la tarea de recuperación lo vuelve a enviar.
+     * </p>
+     */
+    @Bean(name = PDF_EXECUTOR)
+    public ThreadPoolTaskExecutor pdfExecutor(MeterRegistry registry,
+                                              @Value("${store-it.pdf.trabajos.hilos:2}") int hilos,
+                                              @Value("${store-it.pdf.trabajos.cola:100}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("pdf-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        Gauge.builder("storeit.pdf.trabajos.cola", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Documentos PDF en espera de ser generados")
+                .register(registry);
+        return executor;
+    }
+
+
+    /**
+     * Executor acotado para las particiones de la facturación mensual.
+     * <p>
+     * La cola es corta a propósito: cuando se llena, el hilo que reparte las particiones procesa una él
+     * mismo, así la lectura de clientes nunca se adelanta demasiado a la escritura de facturas.
+     * </p>
+     */
+    @Bean(name = FACTURACION_EXECUTOR)
+    public ThreadPoolTaskExecutor facturacionExecutor(MeterRegistry registry,
+                                                      @Value("${store-it.facturacion.hilos:4}") int hilos,
+                                                      @Value("${store-it.facturacion.cola:8}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("facturacion-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        Gauge.builder("storeit.facturacion.cola", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Particiones de facturación en espera")
+                .register(registry);
+        return executor;
+    }
+
+
+    /**
+     * Executor acotado para repartir los eventos del chat a las suscripciones SSE.
+     * <p>
+     * Escribir en una conexión lenta no retiene al hilo que envió el mensaje. Si la cola se llena, el
+     * evento se reparte en el hilo que lo publicó, como antes: ningún evento se descarta.
+     * </p>
+     */
+    @Bean(name = CHAT_EXECUTOR)
+    public ThreadPoolTaskExecutor chatExecutor(MeterRegistry registry,
+                                               @Value("${store-it.chat.tiempo-real.hilos:2}") int hilos,
+                                               @Value("${store-it.chat.tiempo-real.cola:1000}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("chat-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+
+        Gauge.builder("storeit.chat.entregas.cola", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Entregas SSE del chat en espera")
+                .register(registry);
+        return executor;
+    }
+
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (error, metodo, parametros) ->
+                logger.error("Error en la tarea asíncrona {}: {}", metodo.getName(), error.getMessage(), error);
+    }
 }
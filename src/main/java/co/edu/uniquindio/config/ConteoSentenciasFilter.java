@@ -0,0 +1,44 @@
+package co.edu.uniquindio.config;
+
+import co.edu.uniquindio.utils.ConteoSentenciasInspector;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtro que reporta el número de sentencias SQL ejecutadas por cada solicitud HTTP.
+ * <p>
+ * El reporte se escribe en nivel DEBUG con el formato {@code METODO URI -> N sentencias SQL},
+ * y sirve para comparar los viajes a la base de datos de los flujos principales
+ * (creación de productos, contratos, traslados de personal, etc.).
+ * </p>
+ */
+@Component
+public class ConteoSentenciasFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConteoSentenciasFilter.class);
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        ConteoSentenciasInspector.reiniciar();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} {} -> {} sentencias SQL",
+                        request.getMethod(), request.getRequestURI(), ConteoSentenciasInspector.obtenerConteo());
+            }
+            ConteoSentenciasInspector.limpiar();
+        }
+    }
+}
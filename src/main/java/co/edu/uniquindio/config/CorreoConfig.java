@@ -0,0 +1,55 @@
+package co.edu.uniquindio.config;
+
+import org.simplejavamail.api.mailer.Mailer;
+import org.simplejavamail.api.mailer.config.TransportStrategy;
+import org.simplejavamail.mailer.MailerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del {@link Mailer} compartido por el despachador de correos.
+ * <p>
+ * Se crea una sola vez y mantiene un pool de conexiones SMTP autenticadas (módulo {@code batch-module}
+ * de Simple Java Mail), de modo que los envíos reutilizan la sesión TLS en lugar de abrir una por correo.
+ * El mismo tamaño limita el pool de hilos del mailer, que es la concurrencia máxima de envío.
+ * </p>
+ */
+@Configuration
+public class CorreoConfig {
+
+    @Value("${smtp.host}")
+    private String host;
+
+    @Value("${smtp.port}")
+    private int port;
+
+    @Value("${smtp.user}")
+    private String user;
+
+    @Value("${smtp.password}")
+    private String password;
+
+    // SMTP_TLS en producción; SMTP (sin cifrado) para un servidor local de pruebas
+    @Value("${store-it.correo.transporte:SMTP_TLS}")
+    private TransportStrategy transporte;
+
+    @Value("${store-it.correo.concurrencia:4}")
+    private int concurrencia;
+
+    @Value("${store-it.correo.timeout-ms:30000}")
+    private int timeoutMs;
+
+
+    @Bean(destroyMethod = "shutdownConnectionPool")
+    public Mailer mailer() {
+        return MailerBuilder
+                .withSMTPServer(host, port, user, password)
+                .withTransportStrategy(transporte)
+                .withSessionTimeout(timeoutMs)
+                .withConnectionPoolCoreSize(concurrencia)
+                .withConnectionPoolMaxSize(concurrencia)
+                .withThreadPoolSize(concurrencia)
+                .buildMailer();
+    }
+}
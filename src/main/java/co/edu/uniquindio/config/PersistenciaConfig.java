@@ -0,0 +1,23 @@
+package co.edu.uniquindio.config;
+
+import co.edu.uniquindio.utils.ConteoSentenciasInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración adicional de Hibernate.
+ * <p>
+ * Registra el {@link ConteoSentenciasInspector} para poder reportar cuántas sentencias SQL
+ * ejecuta cada solicitud (ver {@link ConteoSentenciasFilter}).
+ * </p>
+ */
+@Configuration
+public class PersistenciaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer conteoSentenciasCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new ConteoSentenciasInspector());
+    }
+}
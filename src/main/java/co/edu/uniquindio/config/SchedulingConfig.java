@@ -0,0 +1,25 @@
+package co.edu.uniquindio.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Habilita la ejecución de las tareas anotadas con {@code @Scheduled}.
+ * <p>
+ * El broker STOMP del chat registra su propio {@code TaskScheduler}, lo que desactiva el que Spring Boot
+ * crea por defecto. Por eso se declara aquí, con el nombre {@code taskScheduler} que buscan las tareas
+ * programadas y la configuración {@code spring.task.scheduling.*}.
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
@@ -2,6 +2,7 @@ package co.edu.uniquindio.config;
 
 import co.edu.uniquindio.security.AuthenticationEntryPoint;
 import co.edu.uniquindio.security.JWTFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -57,10 +58,14 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // Define las reglas de autorización para las rutas de la API
                 .authorizeHttpRequests(req -> req
+                        // Las respuestas asíncronas (flujos SSE del chat) ya se autorizaron en la solicitud original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Permite acceso público a la documentación de Swagger
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/store-it/**").permitAll()
+                        // Canal STOMP del chat: el token se valida en la trama CONNECT (ChatStompInterceptor)
+                        .requestMatchers("/ws/**").permitAll()
                         .requestMatchers("/api/agente-ventas/**").hasAuthority("ROLE_AGENTE_VENTAS")
                         .requestMatchers("/api/cliente/**").hasAuthority("ROLE_CLIENTE")
                         .requestMatchers("/api/recursos-humanos/**").hasAuthority("ROLE_RECURSOS_HUMANOS")
@@ -1,5 +1,6 @@
 package co.edu.uniquindio.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.thymeleaf.TemplateEngine;
@@ -15,12 +16,20 @@ import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 @Configuration
 public class ThymeleafConfig {
 
+    @Value("${store-it.pdf.cache-plantillas:true}")
+    private boolean cachePlantillas;
+
     /**
      * Bean que configura el `TemplateResolver` de Thymeleaf.
      * <p>
      * Este resolver busca las plantillas HTML dentro del directorio especificado (por defecto `src/main/resources/templates`)
      * y las interpreta como HTML.
      *
+     * <p>
+     * Las plantillas se guardan ya analizadas en la caché de Thymeleaf, así cada PDF solo evalúa las expresiones
+     * en lugar de volver a leer y analizar el archivo. Para editar plantillas en caliente durante el desarrollo
+     * se puede desactivar con {@code store-it.pdf.cache-plantillas=false}.
+     *
      * @return instancia configurada de {@link ClassLoaderTemplateResolver}
      */
     @Bean
@@ -30,7 +39,7 @@ public class ThymeleafConfig {
         templateResolver.setSuffix(".html");                        // Sufijo esperado para las plantillas
         templateResolver.setTemplateMode("HTML");                   // Tipo de plantilla: HTML
         templateResolver.setCharacterEncoding("UTF-8");             // Codificación utilizada
-        templateResolver.setCacheable(false);                       // Desactiva cache para desarrollo
+        templateResolver.setCacheable(cachePlantillas);             // Plantillas analizadas una sola vez
         return templateResolver;
     }
 
@@ -0,0 +1,80 @@
+package co.edu.uniquindio.config;
+
+import co.edu.uniquindio.security.ChatStompInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * Configura el canal STOMP sobre WebSocket del chat.
+ * <p>
+ * Los clientes se conectan a {@code /ws/chat} enviando su token en el encabezado {@code Authorization}
+ * de la trama {@code CONNECT}, se suscriben a {@code /topic/chat/<idChatSession>} y envían el aviso de
+ * escritura a {@code /app/chat/<idChatSession>/escribiendo}. El broker es el simple en memoria, con latidos
+ * en ambos sentidos para detectar conexiones caídas.
+ * </p>
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final ChatStompInterceptor chatStompInterceptor;
+
+    // Programador que Spring crea para el broker; se usa para los latidos STOMP
+    private TaskScheduler brokerScheduler;
+
+    // Intervalo de latido STOMP, en ambos sentidos
+    @Value("${store-it.chat.tiempo-real.latido-ms:25000}")
+    private long latidoMs;
+
+    // Tamaño máximo de un mensaje entrante
+    @Value("${store-it.chat.tiempo-real.tamano-mensaje:16384}")
+    private int tamanoMensaje;
+
+
+    public WebSocketConfig(@Lazy ChatStompInterceptor chatStompInterceptor) {
+        this.chatStompInterceptor = chatStompInterceptor;
+    }
+
+
+    @Autowired
+    public void setBrokerScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler brokerScheduler) {
+        this.brokerScheduler = brokerScheduler;
+    }
+
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws/chat").setAllowedOriginPatterns("*");
+    }
+
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[]{latidoMs, latidoMs})
+                .setTaskScheduler(brokerScheduler);
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(chatStompInterceptor);
+    }
+
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(tamanoMensaje);
+    }
+}
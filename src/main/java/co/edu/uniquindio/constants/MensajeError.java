@@ -8,6 +8,7 @@ public class MensajeError {
     public static final String TELEFONO_INVALIDO = "Uno o más teléfonos no son válidos para el país indicado.";
 
     public static final String TELEFONO_YA_EXISTENTE = "Teléfono ya registrado en el sistema.";
+    public static final String TELEFONOS_IGUALES = "El teléfono secundario no puede ser igual al principal.";
 
 
     // ---------- > PAIS <-----------------
@@ -21,12 +22,32 @@ public class MensajeError {
 
     public static final String CHAT_NO_ENCONTRADO = "El chat no ha sido encontrado o no esta registrado.";
 
+    public static final String CHAT_NO_ACTIVO = "La sesión de chat ya no está activa";
+
+    public static final String CHAT_SIN_ACCESO = "No participa en esta sesión de chat.";
+
+    public static final String MENSAJE_CHAT_NO_ENCONTRADO = "El mensaje no existe en esta sesión de chat.";
+
+    public static final String MENSAJE_CHAT_INVALIDO = "El mensaje debe indicar el remitente y tener entre 1 y 1000 caracteres.";
+
+    public static final String CHAT_ESCRITURA_SATURADA = "Hay demasiados mensajes de chat pendientes de guardar, intente de nuevo en unos segundos.";
+
+    public static final String CHAT_DIARIO_FALLIDO = "No se pudo registrar el mensaje de chat.";
+
+    public static final String ERROR_ARCHIVAR_CHAT = "Error al escribir el archivo de mensajes de chat.";
+
+    public static final String HISTORIAL_CURSOR_DOBLE = "Indique solo uno de los cursores 'antes' o 'despues'.";
+
     // -----------> IMÁGENES <-------------
 
     public static final String ERROR_SUBIR_IMAGEN = "Error al convertir o subir la imagen.";
 
     public static final String ERROR_ELIMINAR_IMAGEN = "Error al eliminar la imagen";
 
+    public static final String FORMATO_IMAGEN_NO_SOPORTADO = "La imagen debe ser JPG, PNG, GIF o WEBP.";
+
+    public static final String IMAGEN_NO_ENCONTRADA = "La imagen no existe.";
+
     // -----------> EMAIL <----------------
 
     public static final String ERROR_ENVIO_CORREO = "Error al construir o enviar el correo electrónico al destinatario: ";
@@ -39,6 +60,12 @@ public class MensajeError {
 
     public static final String ERROR_CONSTRUIR_PDF = "Error al construir o enviar el PDF.";
 
+    public static final String ERROR_GUARDAR_ARCHIVO = "Error al guardar el archivo en el almacén.";
+
+    public static final String DOCUMENTO_NO_EXISTE = "El contrato no tiene un documento de ese tipo.";
+
+    public static final String DOCUMENTO_NO_DISPONIBLE = "El documento ya no está disponible, se está generando de nuevo.";
+
 
     // -----------> SEDE <---------------------
 
@@ -124,8 +151,14 @@ public class MensajeError {
 
     public static final String ESPACIO_EXCEDE = "El espacio solicitado excede el espacio disponible";
 
+    public static final String AREA_NO_VALIDA = "El área del espacio debe ser mayor que cero";
+
     public static final String ESPACIO_EN_USO = "El espacio solicitado se encuentra en uso";
 
+    public static final String TRASLADO_MISMO_ESPACIO = "El espacio de destino debe ser diferente al de origen.";
+
+    public static final String ESPACIO_OTRO_CLIENTE = "El espacio de destino no está contratado por el mismo cliente.";
+
 
     // -----------> CONTRATO <---------------------
 
@@ -140,6 +173,15 @@ public class MensajeError {
     public static final String CONTRATO_NO_VERIFICADO = "El contrato ya se encuentra activo o fue cancelado";
 
 
+    // -----------> FACTURACIÓN <---------------------
+
+    public static final String EJECUCION_FACTURACION_NO_ENCONTRADA = "La ejecución de facturación no existe o ya expiró.";
+
+
     public static final String PRODUCTO_NO_ENCONTRADO = "El producto no ha sido encontrado o no esta registrado.";
 
+    public static final String FORMATO_CARGA_INVALIDO = "El archivo de carga no tiene un formato válido (JSON o CSV).";
+
+    public static final String LINEA_CARGA_NULA = "La carga contiene un elemento nulo; corrija el archivo y vuelva a enviarlo.";
+
 }
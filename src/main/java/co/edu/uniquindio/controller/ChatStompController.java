@@ -0,0 +1,30 @@
+package co.edu.uniquindio.controller;
+
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * Recibe por STOMP los eventos efímeros del chat, que no se guardan en la base de datos.
+ * <p>
+ * Los mensajes se siguen enviando por los endpoints REST, que los guardan y luego los reparten.
+ */
+@Controller
+@RequiredArgsConstructor
+public class ChatStompController {
+
+    private final ChatTiempoRealServicio chatTiempoRealServicio;
+
+
+    @MessageMapping("/chat/{idChatSession}/escribiendo")
+    public void escribiendo(@DestinationVariable Long idChatSession, Principal principal)
+            throws ElementoNoEncontradoException {
+        chatTiempoRealServicio.publicarEscribiendo(idChatSession,
+                chatTiempoRealServicio.autorizar(idChatSession, principal.getName()));
+    }
+}
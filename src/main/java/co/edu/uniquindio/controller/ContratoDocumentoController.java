@@ -0,0 +1,72 @@
+package co.edu.uniquindio.controller;
+
+import co.edu.uniquindio.dto.MensajeDTO;
+import co.edu.uniquindio.dto.objects.contrato.DocumentoPdfDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.objects.enums.EstadoDocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.TipoDocumentoPdf;
+import co.edu.uniquindio.service.objects.DocumentoPdfServicio;
+import co.edu.uniquindio.utils.EnvioArchivos;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Descarga de los PDF generados de los contratos, compartida por clientes y agentes de ventas.
+ * <p>
+ * Cada rol accede bajo su propio prefijo (y sus reglas de seguridad); el servicio verifica además
+ * que el usuario autenticado sea parte del contrato.
+ */
+@RestController // Indica que esta clase es un controlador REST
+@RequiredArgsConstructor // Genera automáticamente el constructor con los atributos finales
+@RequestMapping({"/api/cliente/contrato", "/api/agente-ventas/contrato"})
+@SecurityRequirement(name = "bearerAuth") // Requiere autenticación Bearer
+public class ContratoDocumentoController {
+
+    private final DocumentoPdfServicio documentoPdfServicio;
+
+
+    @GetMapping("/{idContrato}/pdf/estado")
+    public ResponseEntity<MensajeDTO<DocumentoPdfDto>> estadoPdf(@PathVariable Long idContrato,
+                                                                @RequestParam(defaultValue = "CONTRATO") TipoDocumentoPdf tipo,
+                                                                Authentication autenticacion)
+            throws ElementoNoEncontradoException {
+
+        DocumentoPdfDto documento = documentoPdfServicio.consultar(idContrato, tipo, Long.valueOf(autenticacion.getName()));
+        return ResponseEntity.ok(new MensajeDTO<>(false, documento));
+    }
+
+
+    /**
+     * Descarga el PDF guardado del contrato, con soporte de {@code ETag} y {@code Range}.
+     * Si todavía se está generando, responde {@code 202} con su estado para volver a intentar.
+     */
+    @GetMapping("/{idContrato}/pdf")
+    public ResponseEntity<MensajeDTO<DocumentoPdfDto>> descargarPdf(@PathVariable Long idContrato,
+                                                                   @RequestParam(defaultValue = "CONTRATO") TipoDocumentoPdf tipo,
+                                                                   Authentication autenticacion,
+                                                                   HttpServletRequest request,
+                                                                   HttpServletResponse response)
+            throws ElementoNoEncontradoException, IOException {
+
+        DocumentoPdfDto documento = documentoPdfServicio.consultar(idContrato, tipo, Long.valueOf(autenticacion.getName()));
+
+        if (documento.estado() != EstadoDocumentoPdf.LISTO) {
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(new MensajeDTO<>(false, documento));
+        }
+
+        EnvioArchivos.enviar(request, response, documentoPdfServicio.archivo(documento), documento.huella(),
+                MediaType.APPLICATION_PDF_VALUE, tipo.getNombreArchivo() + "-" + idContrato + ".pdf");
+        return null; // La respuesta ya se escribió directamente
+    }
+}
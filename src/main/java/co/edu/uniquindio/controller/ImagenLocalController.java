@@ -0,0 +1,40 @@
+package co.edu.uniquindio.controller;
+
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.service.utils.ImagenesLocalesServicio;
+import co.edu.uniquindio.service.utils.ImagenesLocalesServicio.ImagenLocal;
+import co.edu.uniquindio.utils.EnvioArchivos;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Sirve las imágenes del almacén local cuando el perfil {@value ImagenesLocalesServicio#PERFIL} está activo.
+ * <p>
+ * Es público, como las URLs de Cloudinary a las que reemplaza. El parámetro {@code ancho} devuelve una
+ * versión reducida (miniaturas del mapa de bodegas y sedes).
+ */
+@RestController
+@RequiredArgsConstructor
+@Profile(ImagenesLocalesServicio.PERFIL)
+@RequestMapping("/api/store-it/imagenes")
+public class ImagenLocalController {
+
+    private final ImagenesLocalesServicio imagenesLocalesServicio;
+
+
+    @GetMapping("/{nombre:.+}")
+    public void obtenerImagen(@PathVariable String nombre,
+                              @RequestParam(required = false) Integer ancho,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws ElementoNoEncontradoException, IOException {
+
+        ImagenLocal imagen = imagenesLocalesServicio.buscar(nombre, ancho);
+        EnvioArchivos.enviar(request, response, imagen.ruta(), imagen.etag(), imagen.tipoContenido(),
+                imagen.ruta().getFileName().toString(), EnvioArchivos.CACHE_INMUTABLE);
+    }
+}
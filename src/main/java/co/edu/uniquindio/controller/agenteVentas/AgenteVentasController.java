@@ -38,7 +38,7 @@ public class AgenteVentasController {
                                                            @RequestParam(required = false) String codigoPaisSecundario,
                                                            @RequestParam(required = false) String telefonoSecundario,
                                                            @RequestParam(required = false) MultipartFile imagenPerfil)
-            throws ElementoIncorrectoException, ElementoNulosException, ElementoNoEncontradoException {
+            throws ElementoIncorrectoException, ElementoNulosException, ElementoNoEncontradoException, ElementoRepetidoException {
 
         // Verificamos si el ID del DTO coincide con el ID de la URL (esto es una validación opcional)
         if (!id.equals(idAgenteVentas)) {
@@ -3,13 +3,18 @@ package co.edu.uniquindio.controller.cliente;
 import co.edu.uniquindio.dto.MensajeDTO;
 import co.edu.uniquindio.dto.common.chat.ChatSessionDto;
 import co.edu.uniquindio.dto.common.chat.EnviarMensajeDto;
-import co.edu.uniquindio.dto.common.chat.MensajeChatDto;
+import co.edu.uniquindio.dto.common.chat.HistorialChatDto;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
 import co.edu.uniquindio.model.common.enums.RemitenteChat;
 import co.edu.uniquindio.service.common.ChatSessionServicio;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/cliente/chat")
@@ -18,21 +23,23 @@ public class ClienteChatController {
 
 
     private final ChatSessionServicio chatService;
+    private final ChatTiempoRealServicio chatTiempoRealServicio;
 
 
     @PostMapping("/iniciar/{clienteId}")
-    public ResponseEntity<MensajeDTO<ChatSessionDto>> iniciarChat(@PathVariable Long clienteId)
+    public ResponseEntity<MensajeDTO<ChatSessionDto>> iniciarChat(@PathVariable Long clienteId,
+                                                                  @RequestParam(required = false) Long idSede)
             throws ElementoNoEncontradoException {
 
-        ChatSessionDto chatSession = chatService.iniciarChat(clienteId);
+        ChatSessionDto chatSession = chatService.iniciarChat(clienteId, idSede);
         return ResponseEntity.ok(new MensajeDTO<>(false, chatSession));
     }
 
     @PostMapping("/enviar")
-    public ResponseEntity<MensajeDTO<MensajeChatDto>> enviarMensaje(@RequestBody EnviarMensajeDto dto)
+    public ResponseEntity<MensajeDTO<MensajeChatResumenDto>> enviarMensaje(@RequestBody EnviarMensajeDto dto)
             throws ElementoNoEncontradoException {
 
-        MensajeChatDto mensaje = chatService.enviarMensaje(dto);
+        MensajeChatResumenDto mensaje = chatService.enviarMensaje(dto);
         return ResponseEntity.ok(new MensajeDTO<>(false,mensaje));
     }
 
@@ -46,4 +53,42 @@ public class ClienteChatController {
     }
 
 
-}
\ No newline at end of file
+    /**
+     * Historial de la sesión por páginas: sin cursores, los mensajes más recientes; con {@code antes} o
+     * {@code despues} (ID de mensaje), la página anterior o siguiente.
+     */
+    @GetMapping("/{chatSessionId}/mensajes")
+    public ResponseEntity<MensajeDTO<HistorialChatDto>> historialChat(@PathVariable Long chatSessionId,
+                                                                      @RequestParam(required = false) Long antes,
+                                                                      @RequestParam(required = false) Long despues,
+                                                                      @RequestParam(required = false) Integer tamano,
+                                                                      Authentication authentication)
+            throws ElementoNoEncontradoException {
+
+        HistorialChatDto historial = chatService.obtenerHistorial(chatSessionId, authentication.getName(),
+                antes, despues, tamano);
+        return ResponseEntity.ok(new MensajeDTO<>(false, historial));
+    }
+
+
+    /**
+     * Abre el flujo Server-Sent Events de la sesión (mensajes, presencia y escritura), alternativa al
+     * canal STOMP {@code /ws/chat} para los clientes que no pueden abrir un WebSocket.
+     */
+    @GetMapping(value = "/{chatSessionId}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventosChat(@PathVariable Long chatSessionId, Authentication authentication)
+            throws ElementoNoEncontradoException {
+
+        return chatTiempoRealServicio.suscribir(chatSessionId, authentication.getName());
+    }
+
+
+    @PostMapping("/{chatSessionId}/escribiendo")
+    public ResponseEntity<Void> escribiendo(@PathVariable Long chatSessionId, Authentication authentication)
+            throws ElementoNoEncontradoException {
+
+        chatTiempoRealServicio.publicarEscribiendo(chatSessionId,
+                chatTiempoRealServicio.autorizar(chatSessionId, authentication.getName()));
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,7 @@
 package co.edu.uniquindio.controller.cliente;
 
 import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.objects.factura.ResumenDeudaClienteDto;
 import co.edu.uniquindio.dto.users.cliente.ClienteDto;
 import co.edu.uniquindio.dto.users.cliente.EditarClienteDto;
 import co.edu.uniquindio.dto.MensajeDTO;
@@ -10,6 +11,7 @@ import co.edu.uniquindio.exception.ElementoIncorrectoException;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
 import co.edu.uniquindio.exception.ElementoNulosException;
 import co.edu.uniquindio.exception.ElementoRepetidoException;
+import co.edu.uniquindio.service.objects.CobranzaServicio;
 import co.edu.uniquindio.service.users.ClienteServicio;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
@@ -29,6 +31,9 @@ public class ClienteController {
     // Servicio que contiene la lógica de negocio para clientes
     private final ClienteServicio clienteServicio;
 
+    // Servicio de cobranza, con el resumen de deuda vencida por cliente
+    private final CobranzaServicio cobranzaServicio;
+
 
     /**
      * Método encargado de eliminar un cliente del sistema.
@@ -59,7 +64,7 @@ public class ClienteController {
                                                                   @RequestParam(required = false) String telefonoSecundario,
                                                                   @RequestParam(required = false) MultipartFile imagenPerfil)
             throws ElementoIncorrectoException, ElementoNulosException,
-            ElementoNoEncontradoException {
+            ElementoNoEncontradoException, ElementoRepetidoException {
 
         // Verificamos si el ID del DTO coincide con el ID de la URL (esto es una validación opcional)
         if (!id.equals(idCliente)) {
@@ -142,5 +147,16 @@ public class ClienteController {
     }
 
 
-
+    /**
+     * Endpoint para obtener la deuda vencida de un cliente (facturas vencidas, total y la más antigua).
+     * <p>
+     * Lee el resumen precalculado por la cobranza diaria, sin agregar las facturas del cliente.
+     *
+     * @param id El identificador único del cliente.
+     * @return Un {@link ResponseEntity} que contiene un {@link MensajeDTO} con el resumen de deuda.
+     */
+    @GetMapping("/deuda/{id}")
+    public ResponseEntity<MensajeDTO<ResumenDeudaClienteDto>> obtenerResumenDeuda(@PathVariable Long id) {
+        return ResponseEntity.ok(new MensajeDTO<>(false, cobranzaServicio.obtenerResumenDeuda(id)));
+    }
 }
@@ -3,15 +3,25 @@ package co.edu.uniquindio.controller.personalBodega;
 import co.edu.uniquindio.dto.MensajeDTO;
 import co.edu.uniquindio.dto.objects.espacio.EspacioDto;
 import co.edu.uniquindio.dto.objects.producto.CrearProductoDto;
+import co.edu.uniquindio.dto.objects.producto.LineaCargaProductoDto;
 import co.edu.uniquindio.dto.objects.producto.ProductoDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoCargaProductosDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoMovimientoLoteDto;
+import co.edu.uniquindio.dto.objects.producto.RetiroLoteDto;
 import co.edu.uniquindio.dto.objects.producto.RetiroProductoDto;
+import co.edu.uniquindio.dto.objects.producto.TrasladoLoteDto;
+import co.edu.uniquindio.exception.ElementoIncorrectoException;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
 import co.edu.uniquindio.service.objects.ProductoServicio;
+import co.edu.uniquindio.utils.LectorCargaProductos;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -22,16 +32,35 @@ public class PersonalProductoController {
 
 
     private final ProductoServicio productoServicio;
+    private final LectorCargaProductos lectorCargaProductos;
 
 
     @PostMapping("/registrar-producto")
     public ResponseEntity<MensajeDTO<String>> crearProducto(@RequestBody CrearProductoDto crearProductoDTO)
-            throws ElementoNoEncontradoException {
+            throws ElementoNoEncontradoException, ElementoIncorrectoException {
         productoServicio.crearProducto(crearProductoDTO);
         return ResponseEntity.status(201).body(new MensajeDTO<>(false, "Producto registrado exitosamente"));
     }
 
 
+    /**
+     * Carga masiva de productos en un espacio. El cuerpo puede ser un arreglo JSON
+     * ({@code application/json}) o un CSV con encabezado ({@code text/csv}); ver {@link LectorCargaProductos}.
+     */
+    @PostMapping(value = "/espacio/{idEspacio}/registrar-productos",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, LectorCargaProductos.TEXT_CSV})
+    public ResponseEntity<MensajeDTO<ResultadoCargaProductosDto>> registrarProductosLote(
+            @PathVariable Long idEspacio,
+            @RequestParam Long idPersonalBodega,
+            HttpServletRequest request)
+            throws ElementoNoEncontradoException, ElementoIncorrectoException, IOException {
+
+        List<LineaCargaProductoDto> lineas = lectorCargaProductos.leer(request.getInputStream(), request.getContentType());
+        ResultadoCargaProductosDto resultado = productoServicio.registrarProductosLote(idEspacio, idPersonalBodega, lineas);
+        return ResponseEntity.status(201).body(new MensajeDTO<>(false, resultado));
+    }
+
+
     @GetMapping("/cliente/{email}/espacios")
     public ResponseEntity<List<EspacioDto>> listarEspaciosCliente(@PathVariable String email)
             throws ElementoNoEncontradoException {
@@ -51,7 +80,20 @@ public class PersonalProductoController {
         return ResponseEntity.status(201).body(new MensajeDTO<>(false, "Producto retirado exitosamente"));
     }
 
-    @GetMapping("/cliente/{email}/productos")
+    @PostMapping("/retirar-productos")
+    public ResponseEntity<MensajeDTO<ResultadoMovimientoLoteDto>> retirarProductosLote(@RequestBody RetiroLoteDto retiroLoteDto)
+            throws ElementoNoEncontradoException {
+        return ResponseEntity.ok(new MensajeDTO<>(false, productoServicio.retirarProductosLote(retiroLoteDto)));
+    }
+
+
+    @PostMapping("/trasladar-productos")
+    public ResponseEntity<MensajeDTO<ResultadoMovimientoLoteDto>> trasladarProductosLote(@RequestBody TrasladoLoteDto trasladoLoteDto)
+            throws ElementoNoEncontradoException, ElementoIncorrectoException {
+        return ResponseEntity.ok(new MensajeDTO<>(false, productoServicio.trasladarProductosLote(trasladoLoteDto)));
+    }
+
+        @GetMapping("/cliente/{email}/productos")
     public ResponseEntity<List<ProductoDto>> listarProductosCliente(@PathVariable String email)
             throws ElementoNoEncontradoException {
 
@@ -8,6 +8,7 @@ import co.edu.uniquindio.dto.users.personalBodega.PersonalBodegaDto;
 import co.edu.uniquindio.exception.ElementoIncorrectoException;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
 import co.edu.uniquindio.exception.ElementoNulosException;
+import co.edu.uniquindio.exception.ElementoRepetidoException;
 import co.edu.uniquindio.service.users.PersonalBodegaServicio;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
@@ -44,7 +45,7 @@ public class personalBodegaController {
                                                            @RequestParam(required = false) String codigoPaisSecundario,
                                                            @RequestParam(required = false) String telefonoSecundario,
                                                            @RequestParam(required = false) MultipartFile imagenPerfil)
-            throws ElementoIncorrectoException, ElementoNulosException, ElementoNoEncontradoException {
+            throws ElementoIncorrectoException, ElementoNulosException, ElementoNoEncontradoException, ElementoRepetidoException {
 
         // Verificamos si el ID del DTO coincide con el ID de la URL (esto es una validación opcional)
         if (!id.equals(idPersonalBodega)) {
@@ -8,6 +8,7 @@ import co.edu.uniquindio.dto.users.recursosHumanos.RecursosHumanosDto;
 import co.edu.uniquindio.exception.ElementoIncorrectoException;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
 import co.edu.uniquindio.exception.ElementoNulosException;
+import co.edu.uniquindio.exception.ElementoRepetidoException;
 import co.edu.uniquindio.service.users.ClienteServicio;
 import co.edu.uniquindio.service.users.PersonalBodegaServicio;
 import co.edu.uniquindio.service.users.RecursosHumanosServicio;
@@ -55,7 +56,7 @@ public class RecursosHumanosController {
                                                                   @RequestParam(required = false) String telefonoSecundario,
                                                                   @RequestParam(required = false) MultipartFile imagenPerfil)
             throws ElementoIncorrectoException, ElementoNulosException,
-            ElementoNoEncontradoException {
+            ElementoNoEncontradoException, ElementoRepetidoException {
 
         // Verificación del ID de la URL y el ID de los datos recibidos
         if (!id.equals(idRRHH)) {
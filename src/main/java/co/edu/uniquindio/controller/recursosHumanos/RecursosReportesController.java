@@ -1,15 +1,21 @@
 package co.edu.uniquindio.controller.recursosHumanos;
 
 import co.edu.uniquindio.dto.objects.contrato.ContratoDto;
+import co.edu.uniquindio.dto.objects.factura.EjecucionFacturacionDto;
 import co.edu.uniquindio.dto.objects.sede.SedeDto;
 import co.edu.uniquindio.dto.users.agenteVentas.AgenteVentasDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.service.objects.FacturacionServicio;
 import co.edu.uniquindio.service.objects.SedeServicio;
 import co.edu.uniquindio.service.users.AgenteVentaServicio;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController // Indica que esta clase es un controlador REST
@@ -21,6 +27,7 @@ public class RecursosReportesController {
 
     private final SedeServicio sedeServicio;
     private final AgenteVentaServicio agenteVentaServicio;
+    private final FacturacionServicio facturacionServicio;
 
 
     @GetMapping("/sedes")
@@ -59,4 +66,26 @@ public class RecursosReportesController {
         return ResponseEntity.ok(contratosDto); // Si hay contratos, retornamos la lista
     }
 
+
+    /**
+     * Inicia en segundo plano la facturación del mes de la fecha indicada (por defecto, hoy) y responde
+     * {@code 202} con la ejecución; su avance se consulta en la URL de {@code Location}. Los clientes que
+     * ya tienen factura de ese mes no se vuelven a facturar.
+     */
+    @PostMapping("/facturacion")
+    public ResponseEntity<EjecucionFacturacionDto> facturarPeriodo(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        EjecucionFacturacionDto ejecucion = facturacionServicio.iniciarFacturacion(fecha != null ? fecha : LocalDate.now());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/recursos-humanos/reportes/facturacion/" + ejecucion.id()))
+                .body(ejecucion);
+    }
+
+
+    @GetMapping("/facturacion/{idEjecucion}")
+    public ResponseEntity<EjecucionFacturacionDto> consultarFacturacion(@PathVariable String idEjecucion)
+            throws ElementoNoEncontradoException {
+        return ResponseEntity.ok(facturacionServicio.consultarEjecucion(idEjecucion));
+    }
+
 }
@@ -0,0 +1,26 @@
+package co.edu.uniquindio.dto.common.chat;
+
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.model.common.enums.TipoEventoChat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento enviado en tiempo real a los suscriptores de una sesión de chat (STOMP o SSE).
+ *
+ * @param tipo          tipo de evento.
+ * @param idChatSession ID de la sesión de chat.
+ * @param remitente     participante que originó el evento ({@code null} si lo originó el sistema).
+ * @param mensaje       mensaje enviado; solo en los eventos {@link TipoEventoChat#MENSAJE}.
+ * @param fecha         momento del evento.
+ */
+public record EventoChatDto(
+
+        TipoEventoChat tipo,
+        Long idChatSession,
+        RemitenteChat remitente,
+        MensajeChatResumenDto mensaje,
+        LocalDateTime fecha
+
+) {
+}
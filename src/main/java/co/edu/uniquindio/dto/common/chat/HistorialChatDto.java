@@ -0,0 +1,23 @@
+package co.edu.uniquindio.dto.common.chat;
+
+import java.util.List;
+
+/**
+ * Página del historial de una sesión de chat, paginada por cursor.
+ * <p>
+ * Los mensajes vienen en orden de envío. Para pedir la página anterior se usa el ID del primero como
+ * {@code antes}; para la siguiente, el ID del último como {@code despues}.
+ * </p>
+ *
+ * @param mensajes       mensajes de la página, del más antiguo al más reciente.
+ * @param hayAnteriores  si quedan mensajes más antiguos que el primero de la página.
+ * @param hayPosteriores si quedan mensajes más recientes que el último de la página.
+ */
+public record HistorialChatDto(
+
+        List<MensajeChatResumenDto> mensajes,
+        boolean hayAnteriores,
+        boolean hayPosteriores
+
+) {
+}
@@ -0,0 +1,25 @@
+package co.edu.uniquindio.dto.common.chat;
+
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mensaje de chat sin la sesión ni sus participantes, para enviarlo en tiempo real y listar historiales.
+ *
+ * @param id            ID del mensaje.
+ * @param idChatSession ID de la sesión de chat.
+ * @param remitente     quién lo envió.
+ * @param contenido     texto del mensaje.
+ * @param fechaEnvio    momento de envío.
+ */
+public record MensajeChatResumenDto(
+
+        Long id,
+        Long idChatSession,
+        RemitenteChat remitente,
+        String contenido,
+        LocalDateTime fechaEnvio
+
+) {
+}
@@ -0,0 +1,21 @@
+package co.edu.uniquindio.dto.common.chat;
+
+import co.edu.uniquindio.model.common.enums.EstadoChat;
+
+/**
+ * Participantes y estado de una sesión de chat, leídos con una proyección para autorizar suscripciones.
+ *
+ * @param idChatSession ID de la sesión de chat.
+ * @param idCliente     ID del cliente ({@code null} si la sesión no tiene cliente).
+ * @param idAgente      ID del agente de ventas asignado.
+ * @param estado        estado de la sesión.
+ */
+public record ParticipantesChatDto(
+
+        Long idChatSession,
+        Long idCliente,
+        Long idAgente,
+        EstadoChat estado
+
+) {
+}
@@ -0,0 +1,17 @@
+package co.edu.uniquindio.dto.common.chat;
+
+/**
+ * Resultado de una ejecución del archivado de mensajes de chat.
+ *
+ * @param sesiones sesiones finalizadas cuyos mensajes se archivaron.
+ * @param mensajes mensajes movidos de {@code mensajes_chat} a los archivos comprimidos.
+ * @param archivos archivos comprimidos creados (uno por lote).
+ */
+public record ResumenArchivoChatDto(
+
+        int sesiones,
+        int mensajes,
+        int archivos
+
+) {
+}
@@ -0,0 +1,26 @@
+package co.edu.uniquindio.dto.objects.contrato;
+
+import java.time.LocalDate;
+
+/**
+ * Datos de contacto de las partes de un contrato, leídos con una proyección para notificar
+ * procesos masivos sin cargar las entidades completas.
+ *
+ * @param idContrato    ID del contrato.
+ * @param emailCliente  email de la cuenta del cliente.
+ * @param nombreCliente nombre del cliente.
+ * @param emailAgente   email de la cuenta del agente de ventas.
+ * @param nombreAgente  nombre del agente de ventas.
+ * @param fechaFin      fecha de finalización del contrato.
+ */
+public record ContactoContratoDto(
+
+        Long idContrato,
+        String emailCliente,
+        String nombreCliente,
+        String emailAgente,
+        String nombreAgente,
+        LocalDate fechaFin
+
+) {
+}
@@ -0,0 +1,28 @@
+package co.edu.uniquindio.dto.objects.contrato;
+
+import co.edu.uniquindio.model.objects.enums.EstadoDocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.TipoDocumentoPdf;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado del PDF generado de un contrato.
+ *
+ * @param idContrato      ID del contrato.
+ * @param tipo            tipo de documento.
+ * @param estado          estado de la generación; solo {@code LISTO} se puede descargar.
+ * @param huella          resumen SHA-256 del PDF disponible (ETag de la descarga), o {@code null}.
+ * @param tamano          tamaño del PDF en bytes, o {@code null}.
+ * @param fechaGeneracion momento en que se generó el PDF disponible, o {@code null}.
+ */
+public record DocumentoPdfDto(
+
+        Long idContrato,
+        TipoDocumentoPdf tipo,
+        EstadoDocumentoPdf estado,
+        String huella,
+        Long tamano,
+        LocalDateTime fechaGeneracion
+
+) {
+}
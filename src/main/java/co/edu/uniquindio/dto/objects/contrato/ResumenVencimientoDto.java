@@ -0,0 +1,15 @@
+package co.edu.uniquindio.dto.objects.contrato;
+
+/**
+ * Resultado de una ejecución del proceso de vencimiento de contratos.
+ *
+ * @param finalizados   contratos activos que pasaron a {@code FINALIZADO} y liberaron su espacio.
+ * @param recordatorios contratos cuyos recordatorios de renovación se encolaron.
+ */
+public record ResumenVencimientoDto(
+
+        int finalizados,
+        int recordatorios
+
+) {
+}
@@ -0,0 +1,26 @@
+package co.edu.uniquindio.dto.objects.factura;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Datos de una factura vencida necesarios para generar y enviar su aviso de cobro, leídos con una proyección.
+ *
+ * @param idFactura     ID de la factura.
+ * @param periodo       mes facturado ({@code yyyy-MM}).
+ * @param nombreCliente nombre del cliente.
+ * @param emailCliente  email de la cuenta del cliente.
+ * @param valorTotal    valor pendiente, con IVA.
+ * @param fechaPago     fecha límite de pago que ya pasó.
+ */
+public record AvisoFacturaVencidaDto(
+
+        Long idFactura,
+        String periodo,
+        String nombreCliente,
+        String emailCliente,
+        BigDecimal valorTotal,
+        LocalDate fechaPago
+
+) {
+}
@@ -0,0 +1,19 @@
+package co.edu.uniquindio.dto.objects.factura;
+
+import java.math.BigDecimal;
+
+/**
+ * Datos mínimos de un contrato activo para facturarlo, leídos con una proyección.
+ *
+ * @param idContrato ID del contrato.
+ * @param idCliente  ID del cliente del contrato.
+ * @param valor      valor mensual del contrato, sin IVA.
+ */
+public record ContratoFacturableDto(
+
+        Long idContrato,
+        Long idCliente,
+        BigDecimal valor
+
+) {
+}
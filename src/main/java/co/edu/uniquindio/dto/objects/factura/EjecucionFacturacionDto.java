@@ -0,0 +1,31 @@
+package co.edu.uniquindio.dto.objects.factura;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una ejecución de la facturación mensual iniciada bajo demanda.
+ *
+ * @param id      identificador de la ejecución, para consultar su avance.
+ * @param periodo mes que se factura ({@code yyyy-MM}).
+ * @param estado  estado de la ejecución.
+ * @param inicio  momento en que se inició.
+ * @param resumen resultado de la ejecución; {@code null} mientras está en curso o si falló.
+ * @param error   mensaje del error si la ejecución falló.
+ */
+public record EjecucionFacturacionDto(
+
+        String id,
+        String periodo,
+        Estado estado,
+        LocalDateTime inicio,
+        ResumenFacturacionDto resumen,
+        String error
+
+) {
+
+    public enum Estado {
+        EN_CURSO,
+        TERMINADA,
+        FALLIDA
+    }
+}
@@ -0,0 +1,17 @@
+package co.edu.uniquindio.dto.objects.factura;
+
+/**
+ * Resultado de una ejecución de la cobranza de facturas vencidas.
+ *
+ * @param clientesConDeuda clientes con facturas vencidas según el resumen recalculado.
+ * @param avisos           avisos de cobro encolados.
+ * @param fallidos         avisos que no se pudieron generar; se reintentan en la siguiente ejecución.
+ */
+public record ResumenCobranzaDto(
+
+        int clientesConDeuda,
+        int avisos,
+        int fallidos
+
+) {
+}
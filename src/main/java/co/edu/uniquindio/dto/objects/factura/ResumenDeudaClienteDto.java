@@ -0,0 +1,25 @@
+package co.edu.uniquindio.dto.objects.factura;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Deuda vencida de un cliente, tal como quedó en el último cálculo de la cobranza.
+ *
+ * @param idCliente          ID del cliente.
+ * @param facturasVencidas   facturas pendientes cuya fecha de pago ya pasó.
+ * @param totalVencido       suma de sus valores, con IVA.
+ * @param vencidaMasAntigua  fecha de pago más antigua entre ellas ({@code null} si no tiene deuda).
+ * @param actualizado        momento del cálculo ({@code null} si no tiene deuda).
+ */
+public record ResumenDeudaClienteDto(
+
+        Long idCliente,
+        int facturasVencidas,
+        BigDecimal totalVencido,
+        LocalDate vencidaMasAntigua,
+        LocalDateTime actualizado
+
+) {
+}
@@ -0,0 +1,23 @@
+package co.edu.uniquindio.dto.objects.factura;
+
+/**
+ * Resultado de una ejecución de la facturación mensual.
+ *
+ * @param periodo            mes facturado ({@code yyyy-MM}).
+ * @param facturas           facturas creadas (una por cliente).
+ * @param contratos          contratos facturados (detalles creados).
+ * @param omitidas           clientes que ya tenían factura del periodo y no se volvieron a facturar.
+ * @param duracionMs         duración de la ejecución en milisegundos.
+ * @param contratosPorSegundo rendimiento de la ejecución.
+ */
+public record ResumenFacturacionDto(
+
+        String periodo,
+        int facturas,
+        int contratos,
+        int omitidas,
+        long duracionMs,
+        double contratosPorSegundo
+
+) {
+}
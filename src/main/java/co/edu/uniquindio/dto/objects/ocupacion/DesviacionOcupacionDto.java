@@ -0,0 +1,20 @@
+package co.edu.uniquindio.dto.objects.ocupacion;
+
+/**
+ * DTO que describe una diferencia encontrada entre el contador de área ocupada persistido
+ * y el valor recalculado a partir de los datos de origen.
+ *
+ * @param entidad        Tipo de entidad reconciliada ({@code BODEGA} o {@code ESPACIO}).
+ * @param id             Identificador de la entidad.
+ * @param areaRegistrada Área ocupada que tenía el contador, en metros cuadrados.
+ * @param areaCalculada  Área ocupada recalculada, en metros cuadrados.
+ */
+public record DesviacionOcupacionDto(
+
+        String entidad,
+        Long id,
+        Double areaRegistrada,
+        Double areaCalculada
+
+) {
+}
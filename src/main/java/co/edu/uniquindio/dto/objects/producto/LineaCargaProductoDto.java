@@ -0,0 +1,17 @@
+package co.edu.uniquindio.dto.objects.producto;
+
+/**
+ * Línea leída de un archivo de carga masiva.
+ *
+ * @param numero   Número de la línea (o posición en el arreglo JSON), empezando en 1.
+ * @param producto Producto leído, o {@code null} si la línea no se pudo interpretar.
+ * @param error    Motivo por el que la línea no se pudo interpretar, o {@code null}.
+ */
+public record LineaCargaProductoDto(
+
+        int numero,
+        ProductoLoteDto producto,
+        String error
+
+) {
+}
@@ -0,0 +1,24 @@
+package co.edu.uniquindio.dto.objects.producto;
+
+import co.edu.uniquindio.model.objects.enums.TipoProducto;
+
+/**
+ * Línea de una carga masiva de productos. El espacio, el cliente y el personal responsable
+ * son comunes a toda la carga, por lo que no se repiten en cada línea.
+ *
+ * @param nombre       Nombre del producto.
+ * @param descripcion  Descripción del producto.
+ * @param areaOcupada  Área que ocupa el producto, en metros cuadrados.
+ * @param altura       Altura del producto, en metros.
+ * @param tipoProducto Tipo de producto.
+ */
+public record ProductoLoteDto(
+
+        String nombre,
+        String descripcion,
+        Double areaOcupada,
+        Double altura,
+        TipoProducto tipoProducto
+
+) {
+}
@@ -0,0 +1,23 @@
+package co.edu.uniquindio.dto.objects.producto;
+
+import java.util.List;
+
+/**
+ * Reporte de una carga masiva de productos en un espacio.
+ *
+ * @param idEspacio     Espacio en el que se registraron los productos.
+ * @param registrados   Número de productos registrados.
+ * @param rechazados    Número de líneas rechazadas.
+ * @param areaReservada Área total reservada en el espacio, en metros cuadrados.
+ * @param lineas        Resultado de cada línea, en el orden de la carga.
+ */
+public record ResultadoCargaProductosDto(
+
+        Long idEspacio,
+        int registrados,
+        int rechazados,
+        Double areaReservada,
+        List<ResultadoLineaProductoDto> lineas
+
+) {
+}
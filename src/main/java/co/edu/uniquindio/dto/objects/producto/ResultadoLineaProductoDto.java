@@ -0,0 +1,19 @@
+package co.edu.uniquindio.dto.objects.producto;
+
+/**
+ * Resultado del registro de una línea de una carga masiva de productos.
+ *
+ * @param linea      Número de la línea en la carga.
+ * @param registrado {@code true} si el producto fue registrado.
+ * @param idProducto ID asignado al producto, o {@code null} si fue rechazado.
+ * @param mensaje    Motivo del rechazo, o {@code null} si fue registrado.
+ */
+public record ResultadoLineaProductoDto(
+
+        int linea,
+        boolean registrado,
+        Long idProducto,
+        String mensaje
+
+) {
+}
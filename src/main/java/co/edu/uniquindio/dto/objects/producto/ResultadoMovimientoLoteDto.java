@@ -0,0 +1,27 @@
+package co.edu.uniquindio.dto.objects.producto;
+
+import co.edu.uniquindio.model.objects.enums.TipoMovimiento;
+
+import java.util.List;
+
+/**
+ * Resultado de un retiro o traslado de varios productos.
+ *
+ * @param tipoMovimiento   {@code RETIRO} o {@code TRASLADO}.
+ * @param idEspacioOrigen  Espacio del que salieron los productos.
+ * @param idEspacioDestino Espacio al que llegaron, o {@code null} en un retiro.
+ * @param productosMovidos Número de productos retirados o trasladados.
+ * @param areaMovida       Área total liberada en el origen, en metros cuadrados.
+ * @param noEncontrados    IDs solicitados que no están en bodega en el espacio de origen.
+ */
+public record ResultadoMovimientoLoteDto(
+
+        TipoMovimiento tipoMovimiento,
+        Long idEspacioOrigen,
+        Long idEspacioDestino,
+        int productosMovidos,
+        Double areaMovida,
+        List<Long> noEncontrados
+
+) {
+}
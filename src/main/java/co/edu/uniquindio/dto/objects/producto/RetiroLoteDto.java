@@ -0,0 +1,21 @@
+package co.edu.uniquindio.dto.objects.producto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Solicitud de retiro de varios productos de un espacio.
+ *
+ * @param idEspacio    Espacio del que se retiran los productos.
+ * @param idPersonal   Personal de bodega responsable del retiro.
+ * @param idsProductos Productos a retirar; si es vacío se retiran todos los productos en bodega del espacio.
+ */
+public record RetiroLoteDto(
+
+        @NotNull Long idEspacio,
+        @NotNull Long idPersonal,
+        List<Long> idsProductos
+
+) {
+}
@@ -0,0 +1,23 @@
+package co.edu.uniquindio.dto.objects.producto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Solicitud de traslado de varios productos entre dos espacios del mismo cliente.
+ *
+ * @param idEspacioOrigen  Espacio en el que están los productos.
+ * @param idEspacioDestino Espacio al que se trasladan.
+ * @param idPersonal       Personal de bodega responsable del traslado.
+ * @param idsProductos     Productos a trasladar; si es vacío se trasladan todos los productos en bodega del origen.
+ */
+public record TrasladoLoteDto(
+
+        @NotNull Long idEspacioOrigen,
+        @NotNull Long idEspacioDestino,
+        @NotNull Long idPersonal,
+        List<Long> idsProductos
+
+) {
+}
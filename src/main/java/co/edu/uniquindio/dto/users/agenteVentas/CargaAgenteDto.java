@@ -0,0 +1,17 @@
+package co.edu.uniquindio.dto.users.agenteVentas;
+
+/**
+ * Carga de chats de un agente de ventas, leída con una proyección para reconstruir el registro de asignación.
+ *
+ * @param idAgente  ID del agente de ventas.
+ * @param idSede    ID de la sede del agente.
+ * @param activas   sesiones de chat activas que atiende.
+ */
+public record CargaAgenteDto(
+
+        Long idAgente,
+        Long idSede,
+        Long activas
+
+) {
+}
@@ -0,0 +1,25 @@
+package co.edu.uniquindio.dto.users.common;
+
+import co.edu.uniquindio.model.users.base.enums.EstadoCuenta;
+import co.edu.uniquindio.model.users.enums.RolPersona;
+import co.edu.uniquindio.model.users.enums.TipoEmail;
+
+/**
+ * Resultado de una búsqueda en el directorio de identidades.
+ *
+ * @param email        Email buscado.
+ * @param tipoEmail    Si el email es el personal o el empresarial de la persona.
+ * @param rol          Tipo de persona a la que pertenece.
+ * @param personaId    ID de la persona en la tabla de su rol.
+ * @param estadoCuenta Estado de la cuenta de la persona.
+ */
+public record IdentidadDto(
+
+        String email,
+        TipoEmail tipoEmail,
+        RolPersona rol,
+        Long personaId,
+        EstadoCuenta estadoCuenta
+
+) {
+}
@@ -0,0 +1,19 @@
+package co.edu.uniquindio.event.contrato;
+
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+
+import java.time.Instant;
+
+/**
+ * Se publica al cancelar un contrato.
+ *
+ * @param idContrato     ID del contrato cancelado.
+ * @param estadoAnterior estado que tenía el contrato antes de cancelarse.
+ * @param ocurrido       instante de publicación.
+ */
+public record ContratoCancelado(Long idContrato, EstadoContrato estadoAnterior, Instant ocurrido) implements EventoContrato {
+
+    public ContratoCancelado(Long idContrato, EstadoContrato estadoAnterior) {
+        this(idContrato, estadoAnterior, Instant.now());
+    }
+}
@@ -0,0 +1,16 @@
+package co.edu.uniquindio.event.contrato;
+
+import java.time.Instant;
+
+/**
+ * Se publica al crear un contrato, pendiente de la firma del cliente.
+ *
+ * @param idContrato ID del contrato creado.
+ * @param ocurrido   instante de publicación.
+ */
+public record ContratoCreado(Long idContrato, Instant ocurrido) implements EventoContrato {
+
+    public ContratoCreado(Long idContrato) {
+        this(idContrato, Instant.now());
+    }
+}
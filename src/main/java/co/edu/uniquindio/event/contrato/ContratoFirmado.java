@@ -0,0 +1,25 @@
+package co.edu.uniquindio.event.contrato;
+
+import java.time.Instant;
+
+/**
+ * Se publica cuando el cliente o el agente de ventas firman un contrato.
+ *
+ * @param idContrato ID del contrato firmado.
+ * @param firmante   quién firmó el contrato.
+ * @param ocurrido   instante de publicación.
+ */
+public record ContratoFirmado(Long idContrato, Firmante firmante, Instant ocurrido) implements EventoContrato {
+
+    /**
+     * Parte del contrato que firma.
+     */
+    public enum Firmante {
+        CLIENTE,       // El contrato queda VERIFICADO_POR_CLIENTE
+        AGENTE_VENTAS  // El contrato queda ACTIVO
+    }
+
+    public ContratoFirmado(Long idContrato, Firmante firmante) {
+        this(idContrato, firmante, Instant.now());
+    }
+}
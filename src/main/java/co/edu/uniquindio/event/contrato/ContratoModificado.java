@@ -0,0 +1,16 @@
+package co.edu.uniquindio.event.contrato;
+
+import java.time.Instant;
+
+/**
+ * Se publica al editar un contrato que aún no ha sido verificado por el cliente.
+ *
+ * @param idContrato ID del contrato modificado.
+ * @param ocurrido   instante de publicación.
+ */
+public record ContratoModificado(Long idContrato, Instant ocurrido) implements EventoContrato {
+
+    public ContratoModificado(Long idContrato) {
+        this(idContrato, Instant.now());
+    }
+}
@@ -0,0 +1,23 @@
+package co.edu.uniquindio.event.contrato;
+
+import java.time.Instant;
+
+/**
+ * Evento de dominio del ciclo de vida de un contrato.
+ * <p>
+ * Los eventos se publican dentro de la transacción que cambia el contrato. Antes del commit se registra
+ * la notificación correspondiente en esa misma transacción, y el trabajo que la procesa se ejecuta después,
+ * por eso llevan únicamente el ID: el PDF se genera con el estado confirmado del contrato.
+ */
+public sealed interface EventoContrato permits ContratoCreado, ContratoFirmado, ContratoModificado, ContratoCancelado {
+
+    /**
+     * @return ID del contrato afectado.
+     */
+    Long idContrato();
+
+    /**
+     * @return instante en que se publicó el evento.
+     */
+    Instant ocurrido();
+}
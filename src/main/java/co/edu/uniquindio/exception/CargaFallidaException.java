@@ -18,6 +18,10 @@ package co.edu.uniquindio.exception;
  */
 public class CargaFallidaException extends RuntimeException{
 
+    public CargaFallidaException(String mensaje) {
+        super(mensaje);
+    }
+
     public CargaFallidaException(String mensaje, Throwable cause) {
         super(mensaje, cause);
     }
@@ -1,10 +1,12 @@
 package co.edu.uniquindio.mapper.common;
 
 import co.edu.uniquindio.dto.common.chat.MensajeChatDto;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
 import co.edu.uniquindio.mapper.objects.SedeMapper;
 import co.edu.uniquindio.model.common.Mensaje;
 import co.edu.uniquindio.utils.QuantityAreaConverter;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring",
         uses = {QuantityAreaConverter.class, SedeMapper.class})
@@ -12,4 +14,7 @@ public interface MensajeMapper {
 
     MensajeChatDto toMensajeDTO(Mensaje mensaje);
 
+    @Mapping(target = "idChatSession", source = "chatSession.id")
+    MensajeChatResumenDto toResumenDTO(Mensaje mensaje);
+
 }
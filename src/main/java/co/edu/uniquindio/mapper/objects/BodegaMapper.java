@@ -40,6 +40,7 @@ public interface BodegaMapper {
     @Mapping(target = "fotos", ignore = true)
     @Mapping(target = "ubicacion", source = "ubicacion")
     @Mapping(target = "areaTotal", source = "areaTotal", qualifiedByName = "toQuantity")
+    @Mapping(target = "areaOcupada", constant = "0.0")
     @Mapping(target = "espacios",expression = "java(new java.util.ArrayList<>())")
     @Mapping(target = "personalBodega", expression = "java(new java.util.ArrayList<>())")
     Bodega toEntity (CrearBodegaDto crearBodegaDto);
@@ -69,6 +70,7 @@ public interface BodegaMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "fotos", ignore = true)
     @Mapping(target = "areaTotal", source = "areaTotal", qualifiedByName = "toQuantity")
+    @Mapping(target = "areaOcupada", ignore = true)
     void toEntity(EditarBodegaDto editarBodegaDto, @MappingTarget Bodega bodega);
 
 
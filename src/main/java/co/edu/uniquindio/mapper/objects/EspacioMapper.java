@@ -40,6 +40,7 @@ public interface EspacioMapper {
     @Mapping(target = "contrato", ignore = true)
     @Mapping(target = "areaTotal", source = "areaTotal", qualifiedByName = "toQuantity")
     @Mapping(target = "areaDisponible", source = "areaTotal", qualifiedByName = "toQuantity")
+    @Mapping(target = "areaOcupada", constant = "0.0")
     @Mapping(target = "estadoEspacio", constant = "LIBRE")
     @Mapping(target = "productos",expression = "java(new java.util.ArrayList<>())")
     @Mapping(target = "movimientos",expression = "java(new java.util.ArrayList<>())")
@@ -67,6 +68,7 @@ public interface EspacioMapper {
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "areaTotal", source = "areaTotal", qualifiedByName = "toQuantity")
+    @Mapping(target = "areaOcupada", ignore = true)
     void toEntity (EditarEspacioDto editarEspacioDto, @MappingTarget Espacio espacio);
 
 
@@ -20,11 +20,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "chat_sessions")
+@Table(name = "chat_sessions",
+        indexes = @Index(name = "idx_chat_sessions_limpieza", columnList = "estado, archivado_en, ultima_actividad"))
 public class ChatSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_sessions_seq")
+    @SequenceGenerator(name = "chat_sessions_seq", sequenceName = "chat_sessions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -48,6 +50,14 @@ public class ChatSession {
     @Column(name = "fin_chat")
     private LocalDateTime finChat;
 
+    @Column(name = "ultima_actividad")
+    @Comment("Fecha del último mensaje o cambio de estado; la usa la limpieza de sesiones inactivas.")
+    private LocalDateTime ultimaActividad;
+
+    @Column(name = "archivado_en")
+    @Comment("Fecha en que sus mensajes se movieron al archivo comprimido; null si siguen en mensajes_chat.")
+    private LocalDateTime archivadoEn;
+
     /**
      * Lista de mensajes enviados en esta sesión de chat.
      * Cada sesión puede tener múltiples mensajes.
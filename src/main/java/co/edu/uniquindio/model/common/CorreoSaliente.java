@@ -0,0 +1,92 @@
+package co.edu.uniquindio.model.common;
+
+import co.edu.uniquindio.model.common.enums.EstadoCorreo;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Comment;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un correo en la bandeja de salida ({@code outbox}).
+ * <p>
+ * Los servicios no envían correos directamente: registran una fila en esta tabla dentro de su propia
+ * transacción, de modo que el correo solo existe si la operación que lo origina se confirma.
+ * El {@code DespachadorCorreos} drena la tabla por lotes sobre una conexión SMTP reutilizada,
+ * reintentando con espera exponencial los envíos que fallen.
+ * <p>
+ * Cada correo es persistido en la base de datos en la tabla {@code outbox_correos}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_correos",
+        indexes = @Index(name = "idx_outbox_estado_intento", columnList = "estado, proximo_intento"))
+public class CorreoSaliente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_correos_seq")
+    @SequenceGenerator(name = "outbox_correos_seq", sequenceName = "outbox_correos_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "destinatario", nullable = false)
+    @Comment("Dirección de correo del destinatario.")
+    private String destinatario;
+
+    @Column(name = "responder_a")
+    @Comment("Dirección de respuesta (Reply-To), si el correo la requiere.")
+    private String responderA;
+
+    @Column(name = "asunto", nullable = false)
+    @Comment("Asunto del correo.")
+    private String asunto;
+
+    @Lob
+    @Column(name = "cuerpo", nullable = false)
+    @Comment("Cuerpo del correo en texto plano.")
+    private String cuerpo;
+
+    @Column(name = "nombre_adjunto")
+    @Comment("Nombre del archivo adjunto, si lo hay.")
+    private String nombreAdjunto;
+
+    @Lob
+    @Column(name = "adjunto")
+    @Comment("Contenido del archivo adjunto (PDF).")
+    private byte[] adjunto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    @Comment("Estado del envío: PENDIENTE, ENVIANDO, ENVIADO o FALLIDO.")
+    private EstadoCorreo estado;
+
+    @Column(name = "intentos", nullable = false)
+    @Comment("Cantidad de intentos de envío fallidos.")
+    private int intentos;
+
+    @Column(name = "proximo_intento", nullable = false)
+    @Comment("Momento a partir del cual el correo puede enviarse (o reintentarse).")
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "reclamado_en")
+    @Comment("Momento en que el despachador tomó el correo para enviarlo.")
+    private LocalDateTime reclamadoEn;
+
+    @Column(name = "fecha_envio")
+    @Comment("Momento en que el servidor SMTP aceptó el correo.")
+    private LocalDateTime fechaEnvio;
+
+    @Column(name = "ultimo_error", length = 1000)
+    @Comment("Mensaje del último error de envío.")
+    private String ultimoError;
+
+    @CreationTimestamp
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+}
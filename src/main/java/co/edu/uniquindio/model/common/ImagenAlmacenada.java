@@ -0,0 +1,63 @@
+package co.edu.uniquindio.model.common;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que relaciona el contenido de una imagen subida con su URL en el almacén de imágenes.
+ * <p>
+ * La {@code huella} es el resumen SHA-256 de los bytes: si se vuelve a subir el mismo archivo se
+ * reutiliza la URL existente y solo se incrementa {@code referencias}. Cuando una foto o imagen de
+ * perfil se reemplaza, la referencia se libera; las imágenes que llevan un tiempo sin referencias se
+ * eliminan del almacén.
+ * <p>
+ * Cada imagen es persistida en la base de datos en la tabla {@code imagenes_almacenadas}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "imagenes_almacenadas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_imagen_huella", columnNames = "huella"),
+        indexes = {
+                @Index(name = "idx_imagen_url", columnList = "url"),
+                @Index(name = "idx_imagen_sin_referencias", columnList = "referencias, fecha_sin_referencias")
+        })
+public class ImagenAlmacenada {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "imagenes_almacenadas_seq")
+    @SequenceGenerator(name = "imagenes_almacenadas_seq", sequenceName = "imagenes_almacenadas_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "huella", nullable = false, length = 64)
+    @Comment("Resumen SHA-256 del contenido de la imagen.")
+    private String huella;
+
+    @Column(name = "url", nullable = false, length = 500)
+    @Comment("URL devuelta por el almacén de imágenes.")
+    private String url;
+
+    @Column(name = "id_imagen", nullable = false, length = 300)
+    @Comment("ID de la imagen en el almacén, necesario para eliminarla.")
+    private String idImagen;
+
+    @Column(name = "referencias", nullable = false)
+    @Comment("Número de usuarios o bodegas que usan la imagen.")
+    private int referencias;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    @Comment("Momento en que se subió la imagen.")
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_sin_referencias")
+    @Comment("Momento en que la imagen se quedó sin referencias; nulo mientras se use.")
+    private LocalDateTime fechaSinReferencias;
+}
@@ -17,21 +17,25 @@ import java.time.LocalDateTime;
  * Un mensaje está asociado a una sesión de chat específica y contiene información
  * detallada acerca de su remitente, contenido y la fecha en la que fue enviado.
  * <p>
- * Cada mensaje es persistido en la base de datos en la tabla {@code mensajes_chat}.
+ * Cada mensaje es persistido en la base de datos en la tabla {@code mensajes_chat}. El índice
+ * {@code (chat_session_id, fecha_envio, id)} sigue el orden del historial y sirve de cursor para paginarlo;
+ * no incluye {@code remitente} ni {@code contenido}, que se leen de la tabla para cada mensaje de la página.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "mensajes_chat")
+@Table(name = "mensajes_chat",
+        indexes = @Index(name = "idx_mensajes_chat_sesion_fecha", columnList = "chat_session_id, fecha_envio, id"))
 public class Mensaje {
 
     /**
      * Identificador único del mensaje.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mensajes_chat_seq")
+    @SequenceGenerator(name = "mensajes_chat_seq", sequenceName = "mensajes_chat_seq", allocationSize = 50)
     private Long id;
 
     /**
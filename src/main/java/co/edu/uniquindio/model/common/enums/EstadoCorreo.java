@@ -0,0 +1,13 @@
+package co.edu.uniquindio.model.common.enums;
+
+/**
+ * Estado de un correo en la bandeja de salida.
+ */
+public enum EstadoCorreo {
+
+    PENDIENTE,  // En espera de envío (o de un nuevo intento)
+    ENVIANDO,   // Reclamado por el despachador, envío en curso
+    ENVIADO,
+    FALLIDO     // Agotó los reintentos
+
+}
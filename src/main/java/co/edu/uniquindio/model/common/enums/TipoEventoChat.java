@@ -0,0 +1,14 @@
+package co.edu.uniquindio.model.common.enums;
+
+/**
+ * Tipos de evento que se envían en tiempo real a los participantes de una sesión de chat.
+ */
+public enum TipoEventoChat {
+
+    MENSAJE,
+    CONECTADO,
+    DESCONECTADO,
+    ESCRIBIENDO,
+    FINALIZADO
+
+}
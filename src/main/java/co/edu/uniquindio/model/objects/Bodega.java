@@ -3,11 +3,11 @@ package co.edu.uniquindio.model.objects;
 
 import co.edu.uniquindio.model.common.Ubicacion;
 import co.edu.uniquindio.model.objects.enums.EstadoBodega;
-import co.edu.uniquindio.model.objects.enums.EstadoEspacio;
 import co.edu.uniquindio.utils.QuantityAreaConverter;
 import co.edu.uniquindio.model.users.PersonalBodega;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.Comment;
 
 import javax.measure.Quantity;
@@ -39,7 +39,8 @@ public class Bodega {
      * No puede ser modificado una vez creado.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bodegas_seq")
+    @SequenceGenerator(name = "bodegas_seq", sequenceName = "bodegas_seq", allocationSize = 50)
     @Column(name = "id")
     @Comment("ID único de la bodega.")
     private Long id;
@@ -89,6 +90,16 @@ public class Bodega {
     @Comment("Área total de la bodega en metros cuadrados.")
     private Quantity<Area> areaTotal;
 
+    /**
+     * Área ya asignada a los {@link Espacio} de la bodega, en metros cuadrados.
+     * <p>Se mantiene como contador para no recorrer la lista de espacios en cada validación de capacidad.
+     * Solo se modifica con las actualizaciones condicionales de {@code BodegaRepo}, por eso no es {@code updatable}.</p>
+     */
+    @ColumnDefault("0")
+    @Column(name = "area_ocupada", nullable = false, updatable = false)
+    @Comment("Área asignada a espacios en metros cuadrados.")
+    private Double areaOcupada = 0.0;
+
     /**
      * Altura máxima disponible en la bodega en metros.
      * Este campo es obligatorio
@@ -121,16 +132,13 @@ public class Bodega {
 
 
     /**
-     * Calcula el área ocupada por los espacios contratados dentro de la bodega.
-     * Solo se suman los espacios que no están libres.
+     * Retorna el área ocupada por los espacios registrados dentro de la bodega.
+     * El valor proviene del contador {@code areaOcupada}, por lo que no carga los espacios.
      *
      * @return el área ocupada en metros cuadrados.
      */
     public double calcularAreaOcupada() {
-        return espacios.stream()
-                .filter(e -> e.getEstadoEspacio() != EstadoEspacio.LIBRE) // Filtramos los espacios que están ocupados
-                .mapToDouble(e -> e.getAreaDisponible().to(tech.units.indriya.unit.Units.SQUARE_METRE).getValue().doubleValue())
-                .sum(); // Sumamos todas las áreas ocupadas y retornamos el valor total
+        return areaOcupada == null ? 0.0 : areaOcupada;
     }
 
     /**
@@ -29,7 +29,12 @@ import org.hibernate.annotations.Comment;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "contratos")
+@Table(name = "contratos",
+        indexes = {
+                @Index(name = "idx_contrato_estado_inicio", columnList = "estado, fecha_inicio"),
+                @Index(name = "idx_contrato_estado_fin", columnList = "estado, fecha_fin"),
+                @Index(name = "idx_contrato_estado_cliente", columnList = "estado, cliente_id")
+        })
 public class Contrato {
 
     /**
@@ -37,7 +42,8 @@ public class Contrato {
      * Este campo se genera automáticamente y no se puede actualizar una vez asignado.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contratos_seq")
+    @SequenceGenerator(name = "contratos_seq", sequenceName = "contratos_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, updatable = false)
     @Comment("ID único del contrato generado automáticamente.")
     private Long id;
@@ -58,6 +64,14 @@ public class Contrato {
     @Comment("Fecha de finalización del contrato.")
     private LocalDate fechaFin;
 
+    /**
+     * Fecha en que se encoló el recordatorio de renovación del contrato.
+     * Es nula mientras no se haya enviado; así cada contrato recibe un solo recordatorio.
+     */
+    @Column(name = "fecha_recordatorio")
+    @Comment("Fecha en que se encoló el recordatorio de renovación del contrato.")
+    private LocalDateTime fechaRecordatorio;
+
 
     /**
      * Fecha de firma del Cliente en el contrato
@@ -32,7 +32,8 @@ public class DetalleFactura {
 
     // ID único de la entidad.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_factura_seq")
+    @SequenceGenerator(name = "detalle_factura_seq", sequenceName = "detalle_factura_seq", allocationSize = 50)
     @Column(name = "id")
     @Comment("ID único del detalle de factura")
     private Long id;
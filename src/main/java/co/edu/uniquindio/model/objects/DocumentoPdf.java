@@ -0,0 +1,81 @@
+package co.edu.uniquindio.model.objects;
+
+import co.edu.uniquindio.model.objects.enums.EstadoDocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.TipoDocumentoPdf;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa el PDF generado de un {@link Contrato} y el trabajo que lo produce.
+ * <p>
+ * Hay una fila por contrato y tipo de documento. Cada cambio del contrato vuelve a dejar la fila en
+ * {@code PENDIENTE} e incrementa su {@code version}; un hilo del pool de PDF la reclama, renderiza el
+ * documento, guarda los bytes en el almacén de archivos por su resumen SHA-256 ({@code huella}) y la
+ * marca {@code LISTO} solo si la versión no cambió mientras tanto. Las descargas sirven el archivo
+ * guardado sin volver a renderizarlo.
+ * <p>
+ * Cada documento es persistido en la base de datos en la tabla {@code documentos_pdf}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "documentos_pdf",
+        uniqueConstraints = @UniqueConstraint(name = "uk_documento_contrato_tipo", columnNames = {"contrato_id", "tipo"}),
+        indexes = @Index(name = "idx_documento_estado", columnList = "estado, fecha_solicitud"))
+public class DocumentoPdf {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documentos_pdf_seq")
+    @SequenceGenerator(name = "documentos_pdf_seq", sequenceName = "documentos_pdf_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "contrato_id", nullable = false)
+    @Comment("ID del contrato al que pertenece el documento.")
+    private Long idContrato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    @Comment("Tipo de documento: CONTRATO o AVISO_DEUDA.")
+    private TipoDocumentoPdf tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    @Comment("Estado de la generación: PENDIENTE, GENERANDO, LISTO o FALLIDO.")
+    private EstadoDocumentoPdf estado;
+
+    @Column(name = "version", nullable = false)
+    @Comment("Número de solicitudes de generación; descarta los renderizados de versiones anteriores.")
+    private long version;
+
+    @Column(name = "huella", length = 64)
+    @Comment("Resumen SHA-256 del PDF generado, nombre del archivo en el almacén y ETag de la descarga.")
+    private String huella;
+
+    @Column(name = "tamano")
+    @Comment("Tamaño del PDF generado, en bytes.")
+    private Long tamano;
+
+    @Column(name = "fecha_solicitud", nullable = false)
+    @Comment("Momento de la última solicitud de generación.")
+    private LocalDateTime fechaSolicitud;
+
+    @Column(name = "reclamado_en")
+    @Comment("Momento en que un hilo tomó el documento para generarlo.")
+    private LocalDateTime reclamadoEn;
+
+    @Column(name = "fecha_generacion")
+    @Comment("Momento en que se guardó el PDF actual.")
+    private LocalDateTime fechaGeneracion;
+
+    @Column(name = "ultimo_error", length = 1000)
+    @Comment("Mensaje del último error de generación.")
+    private String ultimoError;
+}
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.Comment;
 
 import javax.measure.Quantity;
@@ -36,7 +37,8 @@ import java.util.List;
          * Identificador único del espacio.
          */
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "espacios_seq")
+        @SequenceGenerator(name = "espacios_seq", sequenceName = "espacios_seq", allocationSize = 50)
         @Column(name = "id", nullable = false, unique = true) // Columna para el ID. No puede ser nula y debe ser única.
         private Long id;
 
@@ -67,6 +69,16 @@ import java.util.List;
         @Comment("Área modificable del espacio en metros cuadrados.")
         private Quantity<Area> areaDisponible;
 
+        /**
+         * Área ocupada por los productos en bodega, en metros cuadrados.
+         * <p>Se mantiene como contador en cada ingreso o retiro para no recorrer la lista de productos.
+         * Solo se modifica con las actualizaciones condicionales de {@code EspacioRepo}, por eso no es {@code updatable}.</p>
+         */
+        @ColumnDefault("0")
+        @Column(name = "area_ocupada", nullable = false, updatable = false)
+        @Comment("Área ocupada por productos en metros cuadrados.")
+        private Double areaOcupada = 0.0;
+
         /**
          * Altura del espacio en metros.
          */
@@ -109,14 +121,13 @@ import java.util.List;
 
 
         /**
-         * Calcula el área total ocupada por los productos dentro del espacio.
+         * Retorna el área total ocupada por los productos dentro del espacio.
+         * El valor proviene del contador {@code areaOcupada}, por lo que no carga los productos.
          *
          * @return Área ocupada en metros cuadrados (double).
          */
         public double calcularAreaOcupada() {
-            return productos.stream()
-                    .mapToDouble(p -> p.getAreaOcupada().to(tech.units.indriya.unit.Units.SQUARE_METRE).getValue().doubleValue())
-                    .sum(); // Sumamos todas las áreas ocupadas y retornamos el valor total
+            return areaOcupada == null ? 0.0 : areaOcupada;
         }
 
         /**
@@ -158,30 +169,4 @@ import java.util.List;
                     .doubleValue() - calcularAreaOcupada();
         }
 
-        /**
-         * Agrega un producto al espacio si hay suficiente área disponible.
-         * También actualiza el estado del espacio después de la operación.
-         *
-         * @param producto el producto a agregar al espacio
-         * @throws IllegalStateException si no hay suficiente área disponible para el producto
-         */
-        public void agregarProducto(Producto producto) {
-            // Convertimos el área ocupada del producto a metros cuadrados
-            double areaProducto = producto.getAreaOcupada()
-                    .to(tech.units.indriya.unit.Units.SQUARE_METRE)
-                    .getValue()
-                    .doubleValue();
-
-            // Verificamos si el espacio tiene suficiente área disponible
-            if (areaProducto > areaDisponible()) {
-                throw new IllegalStateException("No hay suficiente área disponible en el espacio para agregar el producto.");
-            }
-            // Asociamos el producto a este espacio
-            producto.setEspacio(this);
-            // Agregamos el producto a la lista de productos del espacio
-            productos.add(producto);
-            // Actualizamos el estado del espacio según la nueva ocupación
-            actualizarEstadoEspacio();
-        }
-
 }
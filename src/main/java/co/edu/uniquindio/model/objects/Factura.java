@@ -10,6 +10,7 @@ import lombok.Setter;
 import org.hibernate.annotations.Comment;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -38,14 +39,17 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "facturas")
+@Table(name = "facturas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_factura_cliente_periodo", columnNames = {"id_cliente", "periodo"}),
+        indexes = @Index(name = "idx_factura_estado_pago", columnList = "estado_factura, fecha_pago"))
 public class Factura {
 
     /**
      * ID único de la factura.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "facturas_seq")
+    @SequenceGenerator(name = "facturas_seq", sequenceName = "facturas_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, updatable = false)
     @Comment("ID único de la factura")
     private Long id;
@@ -58,6 +62,13 @@ public class Factura {
     @Comment("Cliente asociado a esta factura")
     private Cliente cliente;
 
+    /**
+     * Mes facturado en formato {@code yyyy-MM}; un cliente tiene una sola factura por periodo.
+     */
+    @Column(name = "periodo", nullable = false, length = 7)
+    @Comment("Mes facturado (yyyy-MM); único por cliente")
+    private String periodo;
+
     /**
      * Fecha en la que se emitió la factura.
      */
@@ -93,6 +104,13 @@ public class Factura {
     @Comment("Estado del contrato (pendiente, pagada, cancelada)")
     private EstadoFactura estadoFactura;
 
+    /**
+     * Fecha del último aviso de cobro enviado por la factura vencida ({@code null} si no se ha enviado ninguno).
+     */
+    @Column(name = "fecha_ultimo_aviso")
+    @Comment("Fecha del último aviso de cobro enviado por la factura vencida")
+    private LocalDate fechaUltimoAviso;
+
     /**
      * Lista de {@link DetalleFactura} incluidos en la factura.
      */
@@ -108,8 +126,8 @@ public class Factura {
         for (DetalleFactura detalle : detallesFactura) {
             total = total.add(detalle.getValor());
         }
-        // Se aplica IVA al valor total
-        return total.add(total.multiply(iva));
+        // Se aplica IVA al valor total, redondeado a centavos
+        return total.add(total.multiply(iva)).setScale(2, RoundingMode.HALF_UP);
     }
 
 
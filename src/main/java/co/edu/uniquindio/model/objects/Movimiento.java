@@ -40,7 +40,8 @@ public class Movimiento {
      * No puede ser modificado una vez creado.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_producto_seq")
+    @SequenceGenerator(name = "movimientos_producto_seq", sequenceName = "movimientos_producto_seq", allocationSize = 50)
     @Comment("ID único del movimiento.")
     private Long id;
 
@@ -0,0 +1,68 @@
+package co.edu.uniquindio.model.objects;
+
+import co.edu.uniquindio.model.objects.enums.EstadoNotificacionContrato;
+import co.edu.uniquindio.model.objects.enums.TipoNotificacionContrato;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Comment;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una notificación por correo pendiente de un cambio de {@link Contrato}.
+ * <p>
+ * La fila se escribe en la misma transacción que cambia el contrato, así que la notificación existe
+ * si y solo si el cambio se confirmó, aunque el proceso caiga justo después del commit. Un trabajo
+ * en segundo plano genera el PDF y registra los correos en la bandeja de salida en una sola
+ * transacción; si algo falla, no queda ningún correo a medias y la fila se reintenta con espera exponencial.
+ * <p>
+ * Cada notificación es persistida en la base de datos en la tabla {@code notificaciones_contrato}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "notificaciones_contrato",
+        indexes = @Index(name = "idx_notificacion_estado_intento", columnList = "estado, proximo_intento"))
+public class NotificacionContrato {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notificaciones_contrato_seq")
+    @SequenceGenerator(name = "notificaciones_contrato_seq", sequenceName = "notificaciones_contrato_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "contrato_id", nullable = false)
+    @Comment("ID del contrato que cambió.")
+    private Long idContrato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    @Comment("Cambio que se notifica: CREADO, FIRMADO_CLIENTE, FIRMADO_AGENTE, MODIFICADO o CANCELADO.")
+    private TipoNotificacionContrato tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    @Comment("Estado de la notificación: PENDIENTE, ENCOLADA o FALLIDA.")
+    private EstadoNotificacionContrato estado;
+
+    @Column(name = "intentos", nullable = false)
+    @Comment("Cantidad de intentos fallidos de generar la notificación.")
+    private int intentos;
+
+    @Column(name = "proximo_intento", nullable = false)
+    @Comment("Momento a partir del cual la notificación puede procesarse (o reintentarse).")
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "ultimo_error", length = 1000)
+    @Comment("Mensaje del último error al generar la notificación.")
+    private String ultimoError;
+
+    @CreationTimestamp
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+}
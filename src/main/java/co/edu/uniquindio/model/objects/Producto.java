@@ -41,7 +41,8 @@ public class Producto {
      * <br> Unique identifier for the product.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_seq")
+    @SequenceGenerator(name = "producto_seq", sequenceName = "producto_seq", allocationSize = 50)
     @Column(name = "id")
     @Comment("ID único del producto")
     private Long id;
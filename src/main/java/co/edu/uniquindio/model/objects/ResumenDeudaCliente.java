@@ -0,0 +1,52 @@
+package co.edu.uniquindio.model.objects;
+
+import co.edu.uniquindio.model.users.Cliente;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Comment;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen precalculado de la deuda vencida de un {@link Cliente}.
+ * <p>
+ * La cobranza diaria lo recalcula con una sola sentencia {@code MERGE} a partir de las {@link Factura}
+ * pendientes vencidas y elimina las filas de los clientes que ya no deben nada, de modo que los paneles de
+ * cuenta leen una fila por cliente en lugar de agregar sus facturas en cada consulta.
+ * <p>
+ * Cada resumen es persistido en la base de datos en la tabla {@code resumen_deuda_clientes}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "resumen_deuda_clientes")
+public class ResumenDeudaCliente {
+
+    @Id
+    @Column(name = "id_cliente", nullable = false, updatable = false)
+    @Comment("ID del cliente con deuda vencida")
+    private Long idCliente;
+
+    @Column(name = "facturas_vencidas", nullable = false)
+    @Comment("Facturas pendientes cuya fecha de pago ya pasó")
+    private int facturasVencidas;
+
+    @Column(name = "total_vencido", nullable = false, precision = 19, scale = 2)
+    @Comment("Suma de las facturas vencidas, con IVA")
+    private BigDecimal totalVencido;
+
+    @Column(name = "vencida_mas_antigua", nullable = false)
+    @Comment("Fecha de pago más antigua entre las facturas vencidas")
+    private LocalDate vencidaMasAntigua;
+
+    @Column(name = "actualizado", nullable = false)
+    @Comment("Momento del último cálculo")
+    private LocalDateTime actualizado;
+}
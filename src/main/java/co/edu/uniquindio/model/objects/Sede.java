@@ -31,7 +31,8 @@ public class Sede {
      * ID único de la sede.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sedes_seq")
+    @SequenceGenerator(name = "sedes_seq", sequenceName = "sedes_seq", allocationSize = 50)
     @Column(name = "id")
     @Comment("ID único de la sede")
     private Long id;
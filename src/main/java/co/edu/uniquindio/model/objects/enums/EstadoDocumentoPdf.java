@@ -0,0 +1,13 @@
+package co.edu.uniquindio.model.objects.enums;
+
+/**
+ * Estado de la generación de un documento PDF de contrato.
+ */
+public enum EstadoDocumentoPdf {
+
+    PENDIENTE,  // Solicitado, en espera de un hilo de generación
+    GENERANDO,  // Reclamado por un hilo, renderizado en curso
+    LISTO,      // Guardado en el almacén de archivos y disponible para descarga
+    FALLIDO     // El renderizado falló; una nueva solicitud lo reintenta
+
+}
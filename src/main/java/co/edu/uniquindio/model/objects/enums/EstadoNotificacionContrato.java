@@ -0,0 +1,12 @@
+package co.edu.uniquindio.model.objects.enums;
+
+/**
+ * Estado de una notificación de contrato pendiente de convertirse en correos.
+ */
+public enum EstadoNotificacionContrato {
+
+    PENDIENTE,  // En espera de que se genere su PDF (o de un nuevo intento)
+    ENCOLADA,   // Sus correos ya están en la bandeja de salida
+    FALLIDA     // Agotó los reintentos
+
+}
@@ -0,0 +1,19 @@
+package co.edu.uniquindio.model.objects.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Tipos de documento PDF que se generan para un contrato.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TipoDocumentoPdf {
+
+    CONTRATO("contrato"),       // Contrato de arrendamiento con las firmas registradas
+    AVISO_DEUDA("aviso-deuda"); // Aviso de deuda de un contrato activo cancelado
+
+    // Prefijo del nombre del archivo descargado
+    private final String nombreArchivo;
+
+}
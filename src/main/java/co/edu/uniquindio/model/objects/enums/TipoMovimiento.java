@@ -7,7 +7,8 @@ import co.edu.uniquindio.model.objects.Movimiento;
  *
  * <ul>
  *   <li>{@link #INGRESO} - El producto entra al sistema y es almacenado en una bodega.</li>
- *   <li>{@link #RETIRO} - El producto es retirado de la bodega, ya sea por el cliente o por traslado.</li>
+ *   <li>{@link #RETIRO} - El producto es retirado de la bodega por el cliente.</li>
+ *   <li>{@link #TRASLADO} - El producto se mueve de un espacio a otro; el movimiento registra el espacio de origen.</li>
  * </ul>
  *
  * Se utiliza para registrar y clasificar las acciones sobre los productos durante su ciclo de vida logístico.
@@ -16,6 +17,7 @@ public enum TipoMovimiento {
 
 
     INGRESO,
-    RETIRO
+    RETIRO,
+    TRASLADO
 }
 
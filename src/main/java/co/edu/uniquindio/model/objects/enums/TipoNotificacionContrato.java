@@ -0,0 +1,14 @@
+package co.edu.uniquindio.model.objects.enums;
+
+/**
+ * Cambio de contrato que origina una notificación por correo.
+ */
+public enum TipoNotificacionContrato {
+
+    CREADO,           // Contrato adjunto al agente y solicitud de firma al cliente
+    FIRMADO_CLIENTE,  // Aviso al agente de que el cliente firmó
+    FIRMADO_AGENTE,   // Contrato activado: aviso al cliente y al agente
+    MODIFICADO,
+    CANCELADO         // Solo contratos que estaban activos, con el aviso de deuda
+
+}
@@ -29,7 +29,8 @@ public abstract class  Persona {
      * No puede ser modificado una vez creado.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // ID creado automáticamente por la base de datos
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "personas_seq") // ID tomado de una secuencia compartida por todas las personas
+    @SequenceGenerator(name = "personas_seq", sequenceName = "personas_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, updatable = false)
     @Comment("ID interno único de la persona creado automáticamente por el sistema.")
     private Long id;
@@ -0,0 +1,65 @@
+package co.edu.uniquindio.model.users.common;
+
+import co.edu.uniquindio.model.users.base.enums.EstadoCuenta;
+import co.edu.uniquindio.model.users.enums.RolPersona;
+import co.edu.uniquindio.model.users.enums.TipoEmail;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Comment;
+
+/**
+ * Entrada del directorio unificado de identidades.
+ * <p>
+ * Relaciona cada email con el que se puede iniciar sesión (personal o empresarial) con la persona
+ * a la que pertenece, sin importar en cuál de las cuatro tablas de usuarios esté registrada.
+ * Así el inicio de sesión y las validaciones de unicidad se resuelven con una sola búsqueda indexada.
+ * </p>
+ *
+ * <p>
+ * Las filas se mantienen desde el {@code DirectorioIdentidadListener} al guardar cualquier persona,
+ * y se reconstruyen completas al arrancar la aplicación.
+ * </p>
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "directorio_identidades",
+        uniqueConstraints = @UniqueConstraint(name = "uk_directorio_email_tipo_rol",
+                columnNames = {"email", "tipo_email", "rol"}),
+        indexes = @Index(name = "idx_directorio_persona", columnList = "rol, persona_id"))
+public class IdentidadDirectorio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "directorio_identidades_seq")
+    @SequenceGenerator(name = "directorio_identidades_seq", sequenceName = "directorio_identidades_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "email", nullable = false)
+    @Comment("Email personal o empresarial con el que se identifica la persona.")
+    private String email;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_email", nullable = false)
+    @Comment("Origen del email: PERSONAL o EMPRESARIAL.")
+    private TipoEmail tipoEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rol", nullable = false)
+    @Comment("Tipo de persona (tabla) a la que pertenece el email.")
+    private RolPersona rol;
+
+    @Column(name = "persona_id", nullable = false)
+    @Comment("ID de la persona en la tabla de su rol.")
+    private Long personaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_cuenta", nullable = false)
+    @Comment("Estado de la cuenta de la persona.")
+    private EstadoCuenta estadoCuenta;
+}
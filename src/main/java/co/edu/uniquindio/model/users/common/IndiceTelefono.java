@@ -0,0 +1,52 @@
+package co.edu.uniquindio.model.users.common;
+
+import co.edu.uniquindio.model.users.enums.RolPersona;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Comment;
+
+/**
+ * Entrada del índice de teléfonos registrados.
+ * <p>
+ * Cada teléfono principal o secundario de cualquier persona se guarda una sola vez en formato E.164
+ * (por ejemplo {@code +573001234567}), con una restricción de unicidad. Así la validación de teléfono
+ * repetido se resuelve con una búsqueda indexada en lugar de consultar las cuatro tablas de usuarios.
+ * </p>
+ *
+ * <p>
+ * Las filas se mantienen desde el {@code IndiceTelefonoListener} al guardar o eliminar cualquier persona,
+ * y se reconstruyen completas al arrancar la aplicación.
+ * </p>
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "indice_telefonos",
+        uniqueConstraints = @UniqueConstraint(name = "uk_indice_telefono", columnNames = "telefono"),
+        indexes = @Index(name = "idx_indice_telefono_persona", columnList = "rol, persona_id"))
+public class IndiceTelefono {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "indice_telefonos_seq")
+    @SequenceGenerator(name = "indice_telefonos_seq", sequenceName = "indice_telefonos_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "telefono", nullable = false, length = 20)
+    @Comment("Teléfono normalizado en formato E.164.")
+    private String telefono;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rol", nullable = false)
+    @Comment("Tipo de persona (tabla) a la que pertenece el teléfono.")
+    private RolPersona rol;
+
+    @Column(name = "persona_id", nullable = false)
+    @Comment("ID de la persona en la tabla de su rol.")
+    private Long personaId;
+}
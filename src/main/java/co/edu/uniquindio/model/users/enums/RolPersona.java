@@ -0,0 +1,36 @@
+package co.edu.uniquindio.model.users.enums;
+
+import co.edu.uniquindio.model.users.AgenteVentas;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.PersonalBodega;
+import co.edu.uniquindio.model.users.RecursosHumanos;
+import co.edu.uniquindio.model.users.base.Persona;
+
+/**
+ * Enumeración de los tipos de persona que pueden iniciar sesión en el sistema.
+ * <p>
+ * El orden de declaración es la prioridad con la que se resuelve un email que pertenece
+ * a más de una cuenta (el mismo orden en que el inicio de sesión recorre los tipos de usuario).
+ */
+public enum RolPersona {
+
+    CLIENTE,
+    AGENTE_VENTAS,
+    PERSONAL_BODEGA,
+    RECURSOS_HUMANOS;
+
+
+    /**
+     * Obtiene el rol correspondiente al tipo concreto de una persona.
+     *
+     * @param persona persona a clasificar.
+     * @return el rol de la persona, o {@code null} si no es un tipo de usuario conocido.
+     */
+    public static RolPersona de(Persona persona) {
+        if (persona instanceof Cliente) return CLIENTE;
+        if (persona instanceof AgenteVentas) return AGENTE_VENTAS;
+        if (persona instanceof PersonalBodega) return PERSONAL_BODEGA;
+        if (persona instanceof RecursosHumanos) return RECURSOS_HUMANOS;
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package co.edu.uniquindio.model.users.enums;
+
+/**
+ * Enumeración que indica el origen de un email registrado en el directorio de identidades.
+ * <ul>
+ * <li> {@code PERSONAL}: email de la cuenta de usuario. </li>
+ * <li> {@code EMPRESARIAL}: email corporativo de los datos laborales de un empleado. </li>
+ * </ul>
+ */
+public enum TipoEmail {
+
+    PERSONAL,
+    EMPRESARIAL
+}
@@ -0,0 +1,61 @@
+package co.edu.uniquindio.repository.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reclama lotes de filas con {@code SELECT ... FOR UPDATE SKIP LOCKED} para que varias instancias
+ * se repartan el trabajo sin tomar las mismas filas.
+ * <p>
+ * En Oracle el límite del lote no puede ir en la consulta: {@code ROWNUM} se evalúa antes de saltar
+ * las filas bloqueadas (una instancia puede quedarse sin lote aunque haya trabajo libre) y
+ * {@code FETCH FIRST} no se admite junto con {@code FOR UPDATE} (ORA-02014). Con {@code SKIP LOCKED}
+ * cada fila se bloquea al leerse, así que el límite se aplica en el cursor: el tamaño de fetch y el
+ * máximo de filas del statement son el tamaño del lote, y no se bloquea ninguna fila de más.
+ * </p>
+ *
+ * <p>
+ * Las consultas usan parámetros posicionales ({@code ?}) y deben devolver el id en la primera columna.
+ * Se ejecutan sobre la conexión de la transacción en curso, que es la que mantiene los bloqueos.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class BloqueoFilasRepo {
+
+    private final JdbcTemplate jdbcTemplate;
+
+
+    /**
+     * Ejecuta la consulta de bloqueo y devuelve, como máximo, {@code limite} ids bloqueados.
+     *
+     * @param consulta   {@code SELECT id ... ORDER BY ... FOR UPDATE SKIP LOCKED}, sin límite de filas.
+     * @param limite     Tamaño máximo del lote.
+     * @param parametros Valores de los parámetros posicionales, en orden.
+     * @return Los ids bloqueados, en el orden de la consulta.
+     */
+    public List<Long> bloquear(String consulta, int limite, Object... parametros) {
+        return jdbcTemplate.query(conexion -> {
+            PreparedStatement sentencia = conexion.prepareStatement(consulta);
+            sentencia.setFetchSize(limite);
+            sentencia.setMaxRows(limite);
+            for (int i = 0; i < parametros.length; i++) {
+                StatementCreatorUtils.setParameterValue(sentencia, i + 1, SqlTypeValue.TYPE_UNKNOWN, parametros[i]);
+            }
+            return sentencia;
+        }, resultado -> {
+            List<Long> ids = new ArrayList<>(limite);
+            while (ids.size() < limite && resultado.next()) {
+                ids.add(resultado.getLong(1));
+            }
+            return ids;
+        });
+    }
+}
@@ -1,11 +1,19 @@
 package co.edu.uniquindio.repository.common;
 
 import co.edu.uniquindio.dto.common.chat.ChatSessionDto;
+import co.edu.uniquindio.dto.common.chat.ParticipantesChatDto;
 import co.edu.uniquindio.model.common.ChatSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatSessionRepo extends JpaRepository<ChatSession, Long> {
@@ -14,5 +22,88 @@ public interface ChatSessionRepo extends JpaRepository<ChatSession, Long> {
 
 
     List<ChatSessionDto> findByAgenteVentas_Id(Long agenteVentasId);
-}
 
+
+    /**
+     * Participantes y estado de una sesión, sin cargar el cliente ni el agente.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.common.chat.ParticipantesChatDto(s.id, c.id, s.agenteVentas.id, s.estado)
+        FROM ChatSession s LEFT JOIN s.cliente c
+        WHERE s.id = :id
+    """)
+    Optional<ParticipantesChatDto> buscarParticipantes(@Param("id") Long id);
+
+
+    /**
+     * Consulta para {@code BloqueoFilasRepo#bloquear}: sesiones activas sin actividad desde el límite
+     * (parámetro), saltando las que otra transacción tenga bloqueadas. Usa el índice
+     * {@code (estado, archivado_en, ultima_actividad)}. Debe ejecutarse dentro de la transacción que las finaliza.
+     */
+    String INACTIVAS = """
+        SELECT id FROM chat_sessions
+        WHERE estado = 'ACTIVO' AND archivado_en IS NULL AND ultima_actividad < ?
+        ORDER BY ultima_actividad, id
+        FOR UPDATE SKIP LOCKED
+    """;
+
+
+    /**
+     * Consulta para {@code BloqueoFilasRepo#bloquear}: sesiones finalizadas, aún sin archivar, cuya última
+     * actividad es anterior al límite (parámetro). Debe ejecutarse dentro de la transacción que las archiva.
+     */
+    String POR_ARCHIVAR = """
+        SELECT id FROM chat_sessions
+        WHERE estado = 'FINALIZADO' AND archivado_en IS NULL AND ultima_actividad < ?
+        ORDER BY ultima_actividad, id
+        FOR UPDATE SKIP LOCKED
+    """;
+
+
+    /**
+     * Agente de cada sesión indicada (repetido si atiende varias).
+     */
+    @Query("SELECT s.agenteVentas.id FROM ChatSession s WHERE s.id IN :ids")
+    List<Long> listarAgentes(@Param("ids") Collection<Long> ids);
+
+
+    /**
+     * Finaliza la sesión solo si sigue activa.
+     *
+     * @return {@code 1} si esta llamada la finalizó; {@code 0} si ya estaba cerrada.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE chat_sessions SET estado = 'FINALIZADO', fin_chat = :ahora, ultima_actividad = :ahora
+        WHERE id = :id AND estado = 'ACTIVO'
+    """, nativeQuery = true)
+    int finalizarActiva(@Param("id") Long id, @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Finaliza las sesiones indicadas con una sola sentencia.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE chat_sessions SET estado = 'FINALIZADO', fin_chat = :ahora, ultima_actividad = :ahora
+        WHERE id IN (:ids)
+    """, nativeQuery = true)
+    int finalizarTodas(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+
+    @Modifying
+    @Query(value = "UPDATE chat_sessions SET archivado_en = :ahora WHERE id IN (:ids)", nativeQuery = true)
+    int marcarArchivadas(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Da última actividad a las sesiones creadas antes de que existiera la columna.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE chat_sessions SET ultima_actividad = COALESCE(fin_chat, inicio_chat)
+        WHERE archivado_en IS NULL AND ultima_actividad IS NULL
+    """, nativeQuery = true)
+    int completarUltimaActividad();
+}
@@ -0,0 +1,97 @@
+package co.edu.uniquindio.repository.common;
+
+import co.edu.uniquindio.model.common.CorreoSaliente;
+import co.edu.uniquindio.model.common.enums.EstadoCorreo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio de la bandeja de salida de correos ({@link CorreoSaliente}).
+ * <p>
+ * Los cambios de estado se hacen con sentencias {@code UPDATE} por lote, sin cargar las entidades. El resultado
+ * de un envío solo se registra si el correo sigue en el reclamo que lo envió ({@code ENVIANDO} con el mismo
+ * {@code reclamado_en}): un envío que termina después de liberarse como abandonado no pisa el de otro ciclo.
+ */
+@Repository
+public interface CorreoSalienteRepo extends JpaRepository<CorreoSaliente, Long> {
+
+    /**
+     * Consulta para {@link BloqueoFilasRepo#bloquear}: correos listos para enviarse (parámetro: la hora actual),
+     * los más atrasados primero, saltando los que otra instancia ya tenga bloqueados. Debe ejecutarse dentro
+     * de la transacción que los marca como {@code ENVIANDO}.
+     */
+    String LISTOS_PARA_ENVIO = """
+        SELECT id FROM outbox_correos
+        WHERE estado = 'PENDIENTE' AND proximo_intento <= ?
+        ORDER BY proximo_intento
+        FOR UPDATE SKIP LOCKED
+    """;
+
+
+    @Modifying
+    @Query(value = "UPDATE outbox_correos SET estado = 'ENVIANDO', reclamado_en = :ahora WHERE id IN (:ids)",
+            nativeQuery = true)
+    int marcarEnviando(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE outbox_correos
+        SET estado = 'ENVIADO', fecha_envio = :ahora, reclamado_en = NULL, ultimo_error = NULL
+        WHERE id IN (:ids) AND estado = 'ENVIANDO' AND reclamado_en = :reclamadoEn
+    """, nativeQuery = true)
+    int marcarEnviados(@Param("ids") Collection<Long> ids, @Param("reclamadoEn") LocalDateTime reclamadoEn,
+                       @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Registra un intento fallido: el correo vuelve a {@code PENDIENTE} con un nuevo
+     * {@code proximo_intento}, o queda {@code FALLIDO} si agotó los reintentos.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE outbox_correos
+        SET estado = :estado, intentos = :intentos, proximo_intento = :proximo,
+            ultimo_error = :error, reclamado_en = NULL
+        WHERE id = :id AND estado = 'ENVIANDO' AND reclamado_en = :reclamadoEn
+    """, nativeQuery = true)
+    int registrarFallo(@Param("id") Long id, @Param("reclamadoEn") LocalDateTime reclamadoEn,
+                       @Param("estado") String estado, @Param("intentos") int intentos,
+                       @Param("proximo") LocalDateTime proximo, @Param("error") String error);
+
+
+    /**
+     * Devuelve a {@code PENDIENTE} los correos que quedaron en {@code ENVIANDO} por una caída del proceso,
+     * contando el envío abandonado como un intento. Los que así agotan los reintentos quedan {@code FALLIDO}:
+     * un correo que tumba el proceso no se reintenta indefinidamente.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE outbox_correos
+        SET estado = CASE WHEN intentos + 1 >= :maxIntentos THEN 'FALLIDO' ELSE 'PENDIENTE' END,
+            intentos = intentos + 1, reclamado_en = NULL,
+            ultimo_error = 'Envío abandonado: el proceso se detuvo con el envío en curso'
+        WHERE estado = 'ENVIANDO' AND reclamado_en < :limite
+    """, nativeQuery = true)
+    int liberarAbandonados(@Param("limite") LocalDateTime limite, @Param("maxIntentos") int maxIntentos);
+
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM outbox_correos WHERE estado = 'ENVIADO' AND fecha_envio < :limite", nativeQuery = true)
+    int eliminarEnviadosAntesDe(@Param("limite") LocalDateTime limite);
+
+
+    long countByEstado(EstadoCorreo estado);
+}
@@ -0,0 +1,93 @@
+package co.edu.uniquindio.repository.common;
+
+import co.edu.uniquindio.model.common.ImagenAlmacenada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de las imágenes subidas ({@link ImagenAlmacenada}), indexadas por la huella de su contenido.
+ * <p>
+ * Los contadores de referencias se actualizan con sentencias {@code UPDATE} sobre la fila, dentro de la
+ * transacción del servicio que usa la imagen: si esa transacción se revierte, la referencia tampoco cuenta.
+ */
+@Repository
+public interface ImagenAlmacenadaRepo extends JpaRepository<ImagenAlmacenada, Long> {
+
+    Optional<ImagenAlmacenada> findByHuella(String huella);
+
+
+    /**
+     * Suma una referencia a una imagen ya subida.
+     *
+     * @return 1 si la imagen existe, 0 si no.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE imagenes_almacenadas SET referencias = referencias + 1, fecha_sin_referencias = NULL
+        WHERE id = :id
+    """, nativeQuery = true)
+    int referenciar(@Param("id") Long id);
+
+
+    /**
+     * Registra una imagen recién subida con una referencia. Si otra solicitud registró la misma huella
+     * entre la consulta y la subida, solo suma la referencia a la fila existente.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        MERGE INTO imagenes_almacenadas i
+        USING (SELECT :huella AS huella FROM dual) n ON (i.huella = n.huella)
+        WHEN MATCHED THEN UPDATE SET i.referencias = i.referencias + 1, i.fecha_sin_referencias = NULL
+        WHEN NOT MATCHED THEN INSERT (id, huella, url, id_imagen, referencias, fecha_creacion)
+            VALUES (imagenes_almacenadas_seq.NEXTVAL, :huella, :url, :idImagen, 1, :ahora)
+    """, nativeQuery = true)
+    int registrar(@Param("huella") String huella, @Param("url") String url,
+                  @Param("idImagen") String idImagen, @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Resta una referencia a la imagen con la URL dada y anota cuándo se quedó sin ninguna.
+     *
+     * @return 1 si la imagen está registrada, 0 si es anterior a la deduplicación.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE imagenes_almacenadas
+        SET referencias = GREATEST(referencias - 1, 0),
+            fecha_sin_referencias = CASE WHEN referencias <= 1 THEN :ahora ELSE NULL END
+        WHERE url = :url
+    """, nativeQuery = true)
+    int liberar(@Param("url") String url, @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Imágenes sin referencias desde antes de {@code limite}, candidatas a eliminarse del almacén.
+     */
+    @Query(value = """
+        SELECT * FROM imagenes_almacenadas
+        WHERE referencias = 0 AND fecha_sin_referencias < :limite AND ROWNUM <= :maximo
+    """, nativeQuery = true)
+    List<ImagenAlmacenada> buscarSinReferenciasAntesDe(@Param("limite") LocalDateTime limite, @Param("maximo") int maximo);
+
+
+    /**
+     * Borra la fila de una imagen, siempre que nadie la haya vuelto a referenciar.
+     *
+     * @return 1 si se borró, 0 si volvió a usarse.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM imagenes_almacenadas WHERE id = :id AND referencias = 0", nativeQuery = true)
+    int borrarSinReferencias(@Param("id") Long id);
+}
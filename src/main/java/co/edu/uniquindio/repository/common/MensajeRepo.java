@@ -1,18 +1,108 @@
 package co.edu.uniquindio.repository.common;
 
-import co.edu.uniquindio.dto.MensajeDTO;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
 import co.edu.uniquindio.model.common.Mensaje;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Repositorio de mensajes de chat.
+ * <p>
+ * El historial se pagina por cursor sobre el índice {@code (chat_session_id, fecha_envio, id)}: cada página es
+ * un recorrido de rango del índice que se detiene al llenar la página, sin contar ni saltar filas, así que
+ * cuesta lo mismo en cualquier punto de la conversación. El índice no cubre la proyección ({@code remitente}
+ * y {@code contenido} se leen de la tabla): cada página lee además {@code tamaño + 1} filas de la tabla.
+ * </p>
+ */
 @Repository
 public interface MensajeRepo extends JpaRepository<Mensaje, Long> {
 
-    // Obtener mensajes por sesión
-    List<Mensaje> findByChatSession_IdOrderByFechaEnvioAsc(Long chatSessionId);
 
+    /**
+     * Fecha de envío de un mensaje de la sesión, para usarlo como cursor.
+     */
+    @Query("SELECT m.fechaEnvio FROM Mensaje m WHERE m.id = :id AND m.chatSession.id = :idChatSession")
+    Optional<LocalDateTime> buscarFechaEnvio(@Param("id") Long id, @Param("idChatSession") Long idChatSession);
+
+
+    /**
+     * Últimos mensajes de la sesión, del más reciente al más antiguo.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto(
+            m.id, m.chatSession.id, m.remitente, m.contenido, m.fechaEnvio)
+        FROM Mensaje m
+        WHERE m.chatSession.id = :idChatSession
+        ORDER BY m.fechaEnvio DESC, m.id DESC
+    """)
+    List<MensajeChatResumenDto> listarUltimos(@Param("idChatSession") Long idChatSession, Pageable pageable);
+
+
+    /**
+     * Mensajes anteriores al cursor {@code (fecha, id)}, del más reciente al más antiguo.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto(
+            m.id, m.chatSession.id, m.remitente, m.contenido, m.fechaEnvio)
+        FROM Mensaje m
+        WHERE m.chatSession.id = :idChatSession
+          AND m.fechaEnvio <= :fecha
+          AND (m.fechaEnvio < :fecha OR m.id < :id)
+        ORDER BY m.fechaEnvio DESC, m.id DESC
+    """)
+    List<MensajeChatResumenDto> listarAnteriores(@Param("idChatSession") Long idChatSession,
+                                                 @Param("fecha") LocalDateTime fecha,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
 
-}
 
+    /**
+     * Mensajes posteriores al cursor {@code (fecha, id)}, del más antiguo al más reciente.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto(
+            m.id, m.chatSession.id, m.remitente, m.contenido, m.fechaEnvio)
+        FROM Mensaje m
+        WHERE m.chatSession.id = :idChatSession
+          AND m.fechaEnvio >= :fecha
+          AND (m.fechaEnvio > :fecha OR m.id > :id)
+        ORDER BY m.fechaEnvio ASC, m.id ASC
+    """)
+    List<MensajeChatResumenDto> listarPosteriores(@Param("idChatSession") Long idChatSession,
+                                                  @Param("fecha") LocalDateTime fecha,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+
+    /**
+     * Mensajes de las sesiones indicadas, agrupados por sesión y en orden de envío, para archivarlos.
+     * Se leen por bloques del cursor sin cargarlos todos en memoria; requiere una transacción abierta.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto(
+            m.id, m.chatSession.id, m.remitente, m.contenido, m.fechaEnvio)
+        FROM Mensaje m
+        WHERE m.chatSession.id IN :ids
+        ORDER BY m.chatSession.id, m.fechaEnvio, m.id
+    """)
+    Stream<MensajeChatResumenDto> listarPorSesiones(@Param("ids") Collection<Long> ids);
+
+
+    @Modifying
+    @Query("DELETE FROM Mensaje m WHERE m.chatSession.id IN :ids")
+    int eliminarPorSesiones(@Param("ids") Collection<Long> ids);
+}
@@ -3,8 +3,13 @@ package co.edu.uniquindio.repository.objects;
 import co.edu.uniquindio.model.objects.Bodega;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repositorio de acceso a datos para la entidad {@link Bodega}.
  * <p>
@@ -24,5 +29,49 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface BodegaRepo extends JpaRepository<Bodega, Long>, JpaSpecificationExecutor<Bodega> {
 
-    // Métodos personalizados pueden ser agregados aquí si es necesario
+    /**
+     * Obtiene el contador de área ocupada de todas las bodegas sin cargar sus relaciones.
+     * @return filas con {@code [id, areaOcupada]}.
+     */
+    @Query("SELECT b.id, b.areaOcupada FROM Bodega b")
+    List<Object[]> listarAreaOcupada();
+
+
+    /**
+     * Sobrescribe el contador de área ocupada de una bodega.
+     * @param id ID de la bodega.
+     * @param area nueva área ocupada en metros cuadrados.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE bodegas SET area_ocupada = :area WHERE id = :id", nativeQuery = true)
+    int actualizarAreaOcupada(@Param("id") Long id, @Param("area") Double area);
+
+
+    /**
+     * Reserva área de la bodega de forma atómica: verifica la capacidad y suma al contador
+     * en una sola sentencia, por lo que dos reservas concurrentes nunca superan el área total.
+     * @param id ID de la bodega.
+     * @param area metros cuadrados a reservar.
+     * @return 1 si la reserva se aplicó, 0 si no hay área suficiente o la bodega no existe.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+        UPDATE bodegas
+        SET area_ocupada = area_ocupada + :area
+        WHERE id = :id
+          AND area_total - area_ocupada >= :area
+    """, nativeQuery = true)
+    int reservarArea(@Param("id") Long id, @Param("area") Double area);
+
+
+    /**
+     * Libera área reservada de la bodega sin dejar el contador por debajo de cero.
+     * @param id ID de la bodega.
+     * @param area metros cuadrados a liberar.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE bodegas SET area_ocupada = GREATEST(area_ocupada - :area, 0) WHERE id = :id", nativeQuery = true)
+    int liberarArea(@Param("id") Long id, @Param("area") Double area);
 }
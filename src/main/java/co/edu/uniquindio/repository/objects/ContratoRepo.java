@@ -1,14 +1,24 @@
 package co.edu.uniquindio.repository.objects;
 
+import co.edu.uniquindio.dto.objects.contrato.ContactoContratoDto;
+import co.edu.uniquindio.dto.objects.factura.ContratoFacturableDto;
 import co.edu.uniquindio.model.objects.Contrato;
 import co.edu.uniquindio.model.objects.Espacio;
 import co.edu.uniquindio.model.objects.enums.EstadoContrato;
 import co.edu.uniquindio.model.users.AgenteVentas;
 import co.edu.uniquindio.model.users.Cliente;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,6 +48,106 @@ public interface ContratoRepo extends JpaRepository<Contrato, Long> , JpaSpecifi
     Optional<Contrato> findByEspacioAndCliente(Espacio espacio, Cliente cliente);
 
 
-}
+    /**
+     * Busca un contrato y bloquea su fila hasta el final de la transacción ({@code SELECT ... FOR UPDATE}).
+     * Si otra transacción lo tiene bloqueado, espera a que termine y devuelve el estado ya confirmado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Contrato c WHERE c.id = :id")
+    Optional<Contrato> bloquearPorId(@Param("id") Long id);
+
+
+    /**
+     * Consulta para {@code BloqueoFilasRepo#bloquear}: contratos pendientes de verificación que empezaron
+     * antes de la fecha límite (parámetro) sin la firma del cliente, saltando los que otra transacción tenga
+     * bloqueados (por ejemplo, una firma en curso). Debe ejecutarse dentro de la transacción que los cancela.
+     */
+    String PENDIENTES_SIN_FIRMA = """
+        SELECT id FROM contratos
+        WHERE estado = 'PENDIENTE_VERIFICACION' AND fecha_inicio < ? AND firma_cliente IS NULL
+        ORDER BY fecha_inicio, id
+        FOR UPDATE SKIP LOCKED
+    """;
+
+
+    /**
+     * Cancela los contratos indicados con una sola sentencia.
+     *
+     * @return número de contratos cancelados.
+     */
+    @Modifying
+    @Query(value = "UPDATE contratos SET estado = 'CANCELADO' WHERE id IN (:ids)", nativeQuery = true)
+    int cancelarTodos(@Param("ids") Collection<Long> ids);
+
 
+    /**
+     * Consulta para {@code BloqueoFilasRepo#bloquear}: contratos activos cuya fecha de fin es anterior a hoy
+     * (parámetro), saltando los que otra transacción tenga bloqueados. Debe ejecutarse dentro de la
+     * transacción que los finaliza.
+     */
+    String ACTIVOS_VENCIDOS = """
+        SELECT id FROM contratos
+        WHERE estado = 'ACTIVO' AND fecha_fin < ?
+        ORDER BY fecha_fin, id
+        FOR UPDATE SKIP LOCKED
+    """;
+
+
+    /**
+     * Finaliza los contratos indicados con una sola sentencia.
+     *
+     * @return número de contratos finalizados.
+     */
+    @Modifying
+    @Query(value = "UPDATE contratos SET estado = 'FINALIZADO' WHERE id IN (:ids)", nativeQuery = true)
+    int finalizarTodos(@Param("ids") Collection<Long> ids);
 
+
+    /**
+     * Consulta para {@code BloqueoFilasRepo#bloquear}: contratos activos que terminan entre las dos fechas
+     * (parámetros, inclusive) y que aún no tienen recordatorio de renovación, saltando los que otra
+     * transacción tenga bloqueados. Debe ejecutarse dentro de la transacción que encola los recordatorios.
+     */
+    String ACTIVOS_SIN_RECORDATORIO = """
+        SELECT id FROM contratos
+        WHERE estado = 'ACTIVO' AND fecha_fin BETWEEN ? AND ? AND fecha_recordatorio IS NULL
+        ORDER BY fecha_fin, id
+        FOR UPDATE SKIP LOCKED
+    """;
+
+
+    /**
+     * Anota que ya se encoló el recordatorio de renovación de los contratos indicados.
+     *
+     * @return número de contratos marcados.
+     */
+    @Modifying
+    @Query(value = "UPDATE contratos SET fecha_recordatorio = :ahora WHERE id IN (:ids)", nativeQuery = true)
+    int marcarRecordados(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Datos de contacto del cliente y del agente de cada contrato, sin cargar las entidades.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.objects.contrato.ContactoContratoDto(
+            c.id, cl.user.email, cl.nombre, a.user.email, a.nombre, c.fechaFin)
+        FROM Contrato c JOIN c.cliente cl JOIN c.agenteVentas a
+        WHERE c.id IN :ids
+    """)
+    List<ContactoContratoDto> listarContactos(@Param("ids") Collection<Long> ids);
+
+
+    /**
+     * Contratos en el estado indicado de los clientes dados, agrupados por cliente, sin cargar las entidades.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.objects.factura.ContratoFacturableDto(c.id, c.cliente.id, c.valor)
+        FROM Contrato c
+        WHERE c.estadoContrato = :estado AND c.cliente.id IN :idsClientes
+        ORDER BY c.cliente.id, c.id
+    """)
+    List<ContratoFacturableDto> listarFacturables(@Param("estado") EstadoContrato estado,
+                                                  @Param("idsClientes") Collection<Long> idsClientes);
+
+}
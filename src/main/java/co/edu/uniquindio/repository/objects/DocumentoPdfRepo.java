@@ -0,0 +1,87 @@
+package co.edu.uniquindio.repository.objects;
+
+import co.edu.uniquindio.model.objects.DocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.TipoDocumentoPdf;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de los documentos PDF de contratos ({@link DocumentoPdf}).
+ * <p>
+ * Los cambios de estado del trabajo de generación se hacen con sentencias {@code UPDATE} condicionadas,
+ * de modo que dos hilos nunca reclamen el mismo documento y un renderizado viejo no pise uno nuevo.
+ */
+@Repository
+public interface DocumentoPdfRepo extends JpaRepository<DocumentoPdf, Long> {
+
+    Optional<DocumentoPdf> findByIdContratoAndTipo(Long idContrato, TipoDocumentoPdf tipo);
+
+
+    /**
+     * Reclama un documento pendiente para generarlo.
+     *
+     * @return 1 si este hilo lo reclamó, 0 si ya no estaba pendiente.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE documentos_pdf SET estado = 'GENERANDO', reclamado_en = :ahora
+        WHERE id = :id AND estado = 'PENDIENTE'
+    """, nativeQuery = true)
+    int reclamar(@Param("id") Long id, @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Registra el PDF generado, siempre que no se haya pedido una versión más nueva mientras se renderizaba.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE documentos_pdf
+        SET estado = 'LISTO', huella = :huella, tamano = :tamano, fecha_generacion = :ahora,
+            reclamado_en = NULL, ultimo_error = NULL
+        WHERE id = :id AND version = :version
+    """, nativeQuery = true)
+    int marcarListo(@Param("id") Long id, @Param("version") long version, @Param("huella") String huella,
+                    @Param("tamano") long tamano, @Param("ahora") LocalDateTime ahora);
+
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE documentos_pdf SET estado = 'FALLIDO', reclamado_en = NULL, ultimo_error = :error
+        WHERE id = :id AND version = :version
+    """, nativeQuery = true)
+    int marcarFallido(@Param("id") Long id, @Param("version") long version, @Param("error") String error);
+
+
+    /**
+     * Devuelve a {@code PENDIENTE} los documentos que quedaron en {@code GENERANDO} por una caída del proceso.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE documentos_pdf SET estado = 'PENDIENTE', reclamado_en = NULL
+        WHERE estado = 'GENERANDO' AND reclamado_en < :limite
+    """, nativeQuery = true)
+    int liberarAbandonados(@Param("limite") LocalDateTime limite);
+
+
+    /**
+     * IDs de los documentos pendientes solicitados antes de {@code limite}, por si su tarea se perdió
+     * (reinicio del proceso o cola del pool llena).
+     */
+    @Query(value = """
+        SELECT id FROM documentos_pdf
+        WHERE estado = 'PENDIENTE' AND fecha_solicitud < :limite AND ROWNUM <= :maximo
+    """, nativeQuery = true)
+    List<Long> buscarPendientesAntesDe(@Param("limite") LocalDateTime limite, @Param("maximo") int maximo);
+}
@@ -4,8 +4,12 @@ import co.edu.uniquindio.model.objects.Espacio;
 import co.edu.uniquindio.model.objects.enums.EstadoEspacio;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,4 +23,83 @@ import java.util.List;
 @Repository
 public interface EspacioRepo extends JpaRepository<Espacio, Long> , JpaSpecificationExecutor<Espacio> {
 
+
+    /**
+     * Obtiene el contador de área ocupada de todos los espacios sin cargar sus relaciones.
+     * @return filas con {@code [id, areaOcupada]}.
+     */
+    @Query("SELECT e.id, e.areaOcupada FROM Espacio e")
+    List<Object[]> listarAreaOcupada();
+
+
+    /**
+     * Suma el área total de los espacios agrupada por bodega.
+     * <p>
+     * Se usa para reconciliar el contador {@code area_ocupada} de las bodegas.
+     * @return filas con {@code [bodega_id, suma_area_m2]}.
+     */
+    @Query(value = "SELECT e.bodega_id, SUM(e.area_total) FROM espacios e GROUP BY e.bodega_id", nativeQuery = true)
+    List<Object[]> sumarAreaTotalPorBodega();
+
+
+    /**
+     * Sobrescribe el contador de área ocupada de un espacio.
+     * @param id ID del espacio.
+     * @param area nueva área ocupada en metros cuadrados.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE espacios SET area_ocupada = :area WHERE id = :id", nativeQuery = true)
+    int actualizarAreaOcupada(@Param("id") Long id, @Param("area") Double area);
+
+
+    /**
+     * Reserva área del espacio para un producto de forma atómica: verifica la capacidad,
+     * suma al contador y actualiza el estado (lleno o disponible) en una sola sentencia.
+     * @param id ID del espacio.
+     * @param area metros cuadrados a reservar.
+     * @return 1 si la reserva se aplicó, 0 si no hay área suficiente o el espacio no existe.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+        UPDATE espacios
+        SET area_ocupada = area_ocupada + :area,
+            estado = CASE WHEN area_ocupada + :area >= area_disponible
+                          THEN 'CONTRATADO_LLENO' ELSE 'CONTRATADO_DISPONIBLE' END
+        WHERE id = :id
+          AND area_disponible - area_ocupada >= :area
+    """, nativeQuery = true)
+    int reservarArea(@Param("id") Long id, @Param("area") Double area);
+
+
+    /**
+     * Libera área del espacio sin dejar el contador por debajo de cero.
+     * Si el espacio estaba lleno vuelve a quedar disponible.
+     * @param id ID del espacio.
+     * @param area metros cuadrados a liberar.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+        UPDATE espacios
+        SET area_ocupada = GREATEST(area_ocupada - :area, 0),
+            estado = CASE WHEN estado = 'CONTRATADO_LLENO' AND area_ocupada - :area < area_disponible
+                          THEN 'CONTRATADO_DISPONIBLE' ELSE estado END
+        WHERE id = :id
+    """, nativeQuery = true)
+    int liberarArea(@Param("id") Long id, @Param("area") Double area);
+
+
+    /**
+     * Deja libres, con una sola sentencia, los espacios de los contratos indicados.
+     * @param idsContratos IDs de los contratos cuyos espacios se liberan.
+     * @return número de espacios liberados.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+        UPDATE espacios SET estado = 'LIBRE'
+        WHERE id IN (SELECT espacio_id FROM contratos WHERE id IN (:ids))
+    """, nativeQuery = true)
+    int liberarDeContratos(@Param("ids") Collection<Long> idsContratos);
+
 }
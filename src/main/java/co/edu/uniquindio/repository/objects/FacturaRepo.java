@@ -1,8 +1,17 @@
 package co.edu.uniquindio.repository.objects;
 
+import co.edu.uniquindio.dto.objects.factura.AvisoFacturaVencidaDto;
 import co.edu.uniquindio.model.objects.Factura;
+import co.edu.uniquindio.model.objects.enums.EstadoFactura;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Interfaz de repositorio para gestionar entidades {@link Factura} en el sistema Store-It.
@@ -15,4 +24,59 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
  * con la base de datos, a la vez que abstrae los detalles de implementación.
  */
 public interface FacturaRepo extends JpaRepository<Factura, Long>, JpaSpecificationExecutor<Factura> {
+
+
+    /**
+     * IDs de los clientes con contratos activos que todavía no tienen factura del periodo, en orden y a partir
+     * de {@code desdeCliente} (exclusivo), para repartirlos en particiones.
+     */
+    @Query(value = """
+        SELECT cliente_id FROM (
+            SELECT DISTINCT c.cliente_id FROM contratos c
+            WHERE c.estado = 'ACTIVO' AND c.cliente_id > :desdeCliente
+              AND NOT EXISTS (SELECT 1 FROM facturas f WHERE f.id_cliente = c.cliente_id AND f.periodo = :periodo)
+            ORDER BY c.cliente_id
+        ) WHERE ROWNUM <= :lote
+    """, nativeQuery = true)
+    List<Long> buscarClientesPorFacturar(@Param("periodo") String periodo, @Param("desdeCliente") Long desdeCliente,
+                                         @Param("lote") int lote);
+
+
+    boolean existsByCliente_IdAndPeriodo(Long idCliente, String periodo);
+
+
+    /**
+     * Facturas en {@code estado} cuya fecha de pago es anterior a {@code hoy} y que no han recibido aviso
+     * después de {@code limiteReaviso}, en orden de ID y a partir de {@code desdeId} (exclusivo).
+     * El filtro se resuelve con el índice {@code (estado_factura, fecha_pago)}.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.objects.factura.AvisoFacturaVencidaDto(
+            f.id, f.periodo, c.nombre, c.user.email, f.valorTotal, f.fechaPago)
+        FROM Factura f JOIN f.cliente c
+        WHERE f.estadoFactura = :estado AND f.fechaPago < :hoy
+          AND (f.fechaUltimoAviso IS NULL OR f.fechaUltimoAviso <= :limiteReaviso)
+          AND f.id > :desdeId
+        ORDER BY f.id
+    """)
+    List<AvisoFacturaVencidaDto> listarVencidasPorAvisar(@Param("estado") EstadoFactura estado,
+                                                         @Param("hoy") LocalDate hoy,
+                                                         @Param("limiteReaviso") LocalDate limiteReaviso,
+                                                         @Param("desdeId") Long desdeId,
+                                                         Pageable pagina);
+
+
+    /**
+     * Registra el aviso de una factura solo si sigue pendiente y nadie la avisó después de {@code limiteReaviso}.
+     *
+     * @return 1 si esta llamada registró el aviso; 0 si se pagó o ya la avisó otra instancia.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Factura f SET f.fechaUltimoAviso = :hoy
+        WHERE f.id = :id AND f.estadoFactura = co.edu.uniquindio.model.objects.enums.EstadoFactura.PENDIENTE
+          AND (f.fechaUltimoAviso IS NULL OR f.fechaUltimoAviso <= :limiteReaviso)
+    """)
+    int marcarAvisada(@Param("id") Long id, @Param("hoy") LocalDate hoy,
+                      @Param("limiteReaviso") LocalDate limiteReaviso);
 }
@@ -0,0 +1,65 @@
+package co.edu.uniquindio.repository.objects;
+
+import co.edu.uniquindio.model.objects.NotificacionContrato;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio de las notificaciones pendientes de contratos ({@link NotificacionContrato}).
+ */
+@Repository
+public interface NotificacionContratoRepo extends JpaRepository<NotificacionContrato, Long> {
+
+    /**
+     * Consulta para {@code BloqueoFilasRepo#bloquear}: notificaciones listas para procesarse (parámetro:
+     * la hora actual), las más antiguas primero, saltando las que otro hilo o instancia ya tenga bloqueadas.
+     * El bloqueo se mantiene mientras se genera el PDF y se encolan los correos.
+     */
+    String LISTAS = """
+        SELECT id FROM notificaciones_contrato
+        WHERE estado = 'PENDIENTE' AND proximo_intento <= ?
+        ORDER BY proximo_intento
+        FOR UPDATE SKIP LOCKED
+    """;
+
+
+    @Modifying
+    @Query(value = "UPDATE notificaciones_contrato SET estado = 'ENCOLADA', ultimo_error = NULL WHERE id = :id",
+            nativeQuery = true)
+    int marcarEncolada(@Param("id") Long id);
+
+
+    /**
+     * Registra un intento fallido: la notificación se reprograma con espera exponencial
+     * ({@code base · 2^intentos}, hasta una hora) o queda {@code FALLIDA} si agotó los reintentos.
+     * Solo afecta a notificaciones aún pendientes, por si otra instancia la procesó mientras tanto.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE notificaciones_contrato
+        SET intentos = intentos + 1,
+            estado = CASE WHEN intentos + 1 >= :maximo THEN 'FALLIDA' ELSE 'PENDIENTE' END,
+            proximo_intento = :ahora + NUMTODSINTERVAL(LEAST(:esperaBaseMs * POWER(2, intentos), 3600000) / 1000, 'SECOND'),
+            ultimo_error = :error
+        WHERE id = :id AND estado = 'PENDIENTE'
+    """, nativeQuery = true)
+    int registrarFallo(@Param("id") Long id, @Param("maximo") int maximo, @Param("esperaBaseMs") long esperaBaseMs,
+                       @Param("ahora") LocalDateTime ahora, @Param("error") String error);
+
+
+    /**
+     * Elimina las notificaciones ya encoladas creadas antes de {@code limite}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM notificaciones_contrato WHERE estado = 'ENCOLADA' AND fecha_creacion < :limite",
+            nativeQuery = true)
+    int eliminarEncoladasAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -3,6 +3,11 @@ package co.edu.uniquindio.repository.objects;
 import co.edu.uniquindio.model.objects.Producto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 
 /**
@@ -18,4 +23,72 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 public interface ProductoRepo extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto> {
 
 
+    /**
+     * Suma el área ocupada por los productos en bodega agrupada por espacio.
+     * <p>
+     * Se usa para reconciliar el contador {@code area_ocupada} de los espacios.
+     * @return filas con {@code [espacio_id, suma_area_m2]}.
+     */
+    @Query(value = """
+        SELECT p.espacio_id, SUM(p.area_ocupada)
+        FROM producto p
+        WHERE p.estado_producto = 'EN_BODEGA'
+        GROUP BY p.espacio_id
+    """, nativeQuery = true)
+    List<Object[]> sumarAreaOcupadaPorEspacio();
+
+
+    /**
+     * Bloquea todos los productos en bodega de un espacio y devuelve su ID y área,
+     * sin cargar las entidades.
+     * @param idEspacio ID del espacio.
+     * @return filas con {@code [id, area_ocupada_m2]}.
+     */
+    @Query(value = """
+        SELECT p.id, p.area_ocupada
+        FROM producto p
+        WHERE p.espacio_id = :idEspacio
+          AND p.estado_producto = 'EN_BODEGA'
+        FOR UPDATE
+    """, nativeQuery = true)
+    List<Object[]> bloquearProductosEnBodega(@Param("idEspacio") Long idEspacio);
+
+
+    /**
+     * Bloquea los productos indicados que estén en bodega en el espacio y devuelve su ID y área.
+     * @param idEspacio ID del espacio.
+     * @param ids IDs de los productos (máximo 1000 por llamada).
+     * @return filas con {@code [id, area_ocupada_m2]}.
+     */
+    @Query(value = """
+        SELECT p.id, p.area_ocupada
+        FROM producto p
+        WHERE p.espacio_id = :idEspacio
+          AND p.estado_producto = 'EN_BODEGA'
+          AND p.id IN (:ids)
+        FOR UPDATE
+    """, nativeQuery = true)
+    List<Object[]> bloquearProductosEnBodega(@Param("idEspacio") Long idEspacio, @Param("ids") List<Long> ids);
+
+
+    /**
+     * Marca como retirados los productos indicados.
+     * @param ids IDs de los productos (máximo 1000 por llamada).
+     * @return número de productos actualizados.
+     */
+    @Modifying
+    @Query(value = "UPDATE producto SET estado_producto = 'RETIRADO' WHERE id IN (:ids)", nativeQuery = true)
+    int marcarRetirados(@Param("ids") List<Long> ids);
+
+
+    /**
+     * Cambia de espacio los productos indicados.
+     * @param ids IDs de los productos (máximo 1000 por llamada).
+     * @param idEspacioDestino ID del nuevo espacio.
+     * @return número de productos actualizados.
+     */
+    @Modifying
+    @Query(value = "UPDATE producto SET espacio_id = :idEspacioDestino WHERE id IN (:ids)", nativeQuery = true)
+    int cambiarEspacio(@Param("ids") List<Long> ids, @Param("idEspacioDestino") Long idEspacioDestino);
+
 }
@@ -0,0 +1,54 @@
+package co.edu.uniquindio.repository.objects;
+
+import co.edu.uniquindio.model.objects.ResumenDeudaCliente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio de {@link ResumenDeudaCliente}.
+ * <p>
+ * Las dos sentencias de actualización recorren solo las facturas pendientes vencidas, apoyadas en el índice
+ * {@code (estado_factura, fecha_pago)} de facturas.
+ */
+public interface ResumenDeudaClienteRepo extends JpaRepository<ResumenDeudaCliente, Long> {
+
+
+    /**
+     * Inserta o actualiza el resumen de cada cliente con facturas pendientes cuya fecha de pago es anterior
+     * a {@code hoy}.
+     *
+     * @return filas insertadas o actualizadas (clientes con deuda).
+     */
+    @Modifying
+    @Query(value = """
+        MERGE INTO resumen_deuda_clientes r
+        USING (
+            SELECT f.id_cliente, COUNT(*) AS facturas, SUM(f.valor) AS total, MIN(f.fecha_pago) AS antigua
+            FROM facturas f
+            WHERE f.estado_factura = 'PENDIENTE' AND f.fecha_pago < :hoy
+            GROUP BY f.id_cliente
+        ) v ON (r.id_cliente = v.id_cliente)
+        WHEN MATCHED THEN UPDATE SET r.facturas_vencidas = v.facturas, r.total_vencido = v.total,
+                                     r.vencida_mas_antigua = v.antigua, r.actualizado = :ahora
+        WHEN NOT MATCHED THEN INSERT (id_cliente, facturas_vencidas, total_vencido, vencida_mas_antigua, actualizado)
+                              VALUES (v.id_cliente, v.facturas, v.total, v.antigua, :ahora)
+    """, nativeQuery = true)
+    int recalcular(@Param("hoy") LocalDate hoy, @Param("ahora") LocalDateTime ahora);
+
+
+    /**
+     * Elimina el resumen de los clientes que ya no tienen facturas pendientes vencidas.
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM resumen_deuda_clientes r
+        WHERE NOT EXISTS (SELECT 1 FROM facturas f
+                          WHERE f.id_cliente = r.id_cliente AND f.estado_factura = 'PENDIENTE' AND f.fecha_pago < :hoy)
+    """, nativeQuery = true)
+    int eliminarSinDeuda(@Param("hoy") LocalDate hoy);
+}
@@ -1,5 +1,6 @@
 package co.edu.uniquindio.repository.users;
 
+import co.edu.uniquindio.dto.users.agenteVentas.CargaAgenteDto;
 import co.edu.uniquindio.model.users.AgenteVentas;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -72,27 +73,20 @@ public interface AgenteVentasRepo extends JpaRepository<AgenteVentas, Long> , Jp
     @Query("SELECT a FROM AgenteVentas a JOIN a.contratos c GROUP BY a.id ORDER BY COUNT(c) DESC")
     List<AgenteVentas> findAllOrderedByContratos();
 
+
+    List<AgenteVentas> findBySedeId(Long sedeId);
+
+
     /**
-     * Recupera una lista de agentes de ventas que no están actualmente asociados a sesiones
-     * de chat activas en el sistema.
-     * <p>
-     * La consulta selecciona todos los agentes de ventas desde la entidad {@link AgenteVentas}
-     * que no tienen ninguna asociación con una sesión de chat activa (estado = 'ACTIVA')
-     * en la entidad correspondiente.
-     * <p>
-     * @return Una {@link List} de entidades {@link AgenteVentas} que no están vinculadas a sesiones
-     * de chat activas.
+     * Agentes con cuenta activa, cada uno con su sede y el número de sesiones de chat activas que atiende,
+     * sin cargar las entidades.
      */
     @Query("""
-        SELECT a FROM AgenteVentas a
-        WHERE NOT EXISTS (
-            SELECT 1 FROM ChatSession s
-            WHERE s.agenteVentas = a
-              AND s.estado = 'ACTIVO'
-        )
+        SELECT new co.edu.uniquindio.dto.users.agenteVentas.CargaAgenteDto(a.id, a.sede.id, COUNT(s.id))
+        FROM AgenteVentas a
+        LEFT JOIN ChatSession s ON s.agenteVentas = a AND s.estado = co.edu.uniquindio.model.common.enums.EstadoChat.ACTIVO
+        WHERE a.user.estadoCuenta = co.edu.uniquindio.model.users.base.enums.EstadoCuenta.ACTIVO
+        GROUP BY a.id, a.sede.id
     """)
-    List<AgenteVentas> findAgentesDisponibles();
-
-
-    List<AgenteVentas> findBySedeId(Long sedeId);
+    List<CargaAgenteDto> listarCargaChats();
 }
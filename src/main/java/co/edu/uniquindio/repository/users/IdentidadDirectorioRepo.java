@@ -0,0 +1,30 @@
+package co.edu.uniquindio.repository.users;
+
+import co.edu.uniquindio.dto.users.common.IdentidadDto;
+import co.edu.uniquindio.model.users.common.IdentidadDirectorio;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repositorio de lectura del directorio unificado de identidades ({@link IdentidadDirectorio}).
+ * <p>
+ * Las escrituras se hacen con JDBC desde el servicio del directorio, porque ocurren
+ * durante el flush de las entidades de persona.
+ */
+public interface IdentidadDirectorioRepo extends JpaRepository<IdentidadDirectorio, Long> {
+
+    /**
+     * Busca todas las cuentas asociadas a un email (personal o empresarial) con una sola consulta indexada.
+     * @param email email a buscar.
+     * @return identidades encontradas, proyectadas directamente a DTO.
+     */
+    @Query("""
+        SELECT new co.edu.uniquindio.dto.users.common.IdentidadDto(i.email, i.tipoEmail, i.rol, i.personaId, i.estadoCuenta)
+        FROM IdentidadDirectorio i
+        WHERE i.email = :email
+    """)
+    List<IdentidadDto> buscarPorEmail(@Param("email") String email);
+}
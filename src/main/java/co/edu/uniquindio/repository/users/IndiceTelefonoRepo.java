@@ -0,0 +1,22 @@
+package co.edu.uniquindio.repository.users;
+
+import co.edu.uniquindio.model.users.common.IndiceTelefono;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+/**
+ * Repositorio de lectura del índice de teléfonos registrados ({@link IndiceTelefono}).
+ * <p>
+ * Las escrituras se hacen con JDBC desde el servicio del índice, porque ocurren
+ * durante el flush de las entidades de persona.
+ */
+public interface IndiceTelefonoRepo extends JpaRepository<IndiceTelefono, Long> {
+
+    /**
+     * Busca el dueño de un teléfono por su forma E.164, usando la restricción de unicidad como índice.
+     * @param telefono teléfono en formato E.164.
+     * @return la entrada del índice, si el teléfono está registrado.
+     */
+    Optional<IndiceTelefono> findByTelefono(String telefono);
+}
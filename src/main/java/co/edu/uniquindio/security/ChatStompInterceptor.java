@@ -0,0 +1,105 @@
+package co.edu.uniquindio.security;
+
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Autentica y autoriza las tramas STOMP del chat.
+ * <p>
+ * En {@code CONNECT} valida el token del encabezado nativo {@code Authorization} con el mismo
+ * {@link JWTFilter} de las solicitudes HTTP y lo asocia a la conexión. En {@code SUBSCRIBE} y {@code SEND}
+ * solo admite los destinos de sesiones de chat en las que la persona participa; la verificación se hace una
+ * vez por sesión y nodo, las siguientes se resuelven en memoria.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatStompInterceptor implements ChannelInterceptor {
+
+    private static final Pattern SUSCRIPCION = Pattern.compile(Pattern.quote(ChatTiempoRealServicio.DESTINO) + "(\\d+)");
+    private static final Pattern ENVIO = Pattern.compile("/app/chat/(\\d+)/[a-z]+");
+
+    private final JWTFilter jwtFilter;
+    private final ChatTiempoRealServicio chatTiempoRealServicio;
+
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) return message;
+
+        switch (accessor.getCommand()) {
+            case CONNECT -> {
+                String encabezado = accessor.getFirstNativeHeader("Authorization");
+                if (encabezado == null || !encabezado.startsWith("Bearer ")) {
+                    throw new MessageDeliveryException("Unauthorized");
+                }
+                try {
+                    accessor.setUser(jwtFilter.autenticar(encabezado.substring(7)));
+                } catch (RuntimeException e) {
+                    throw new MessageDeliveryException("Unauthorized");
+                }
+            }
+            case SUBSCRIBE -> {
+                Long idChatSession = idChatSession(SUSCRIPCION, accessor.getDestination());
+                String idPersona = persona(accessor);
+                autorizar(() -> chatTiempoRealServicio.suscribirStomp(accessor.getSessionId(),
+                        accessor.getSubscriptionId(), idChatSession, idPersona));
+            }
+            case SEND -> {
+                Long idChatSession = idChatSession(ENVIO, accessor.getDestination());
+                String idPersona = persona(accessor);
+                autorizar(() -> chatTiempoRealServicio.autorizar(idChatSession, idPersona));
+            }
+            case UNSUBSCRIBE -> chatTiempoRealServicio.canceladoStomp(accessor.getSessionId(),
+                    accessor.getSubscriptionId());
+            default -> {
+            }
+        }
+        return message;
+    }
+
+
+    private Long idChatSession(Pattern patron, String destino) {
+        Matcher partes = destino == null ? null : patron.matcher(destino);
+        if (partes == null || !partes.matches()) throw new MessageDeliveryException("Destino no permitido");
+        return Long.valueOf(partes.group(1));
+    }
+
+
+    private String persona(StompHeaderAccessor accessor) {
+        if (!(accessor.getUser() instanceof Authentication autenticacion)) {
+            throw new MessageDeliveryException("Unauthorized");
+        }
+        return autenticacion.getName();
+    }
+
+
+    private void autorizar(Autorizacion autorizacion) {
+        try {
+            autorizacion.ejecutar();
+        } catch (ElementoNoEncontradoException | RuntimeException e) {
+            throw new MessageDeliveryException(e.getMessage());
+        }
+    }
+
+
+    @FunctionalInterface
+    private interface Autorizacion {
+        RemitenteChat ejecutar() throws ElementoNoEncontradoException;
+    }
+}
@@ -2,12 +2,14 @@ package co.edu.uniquindio.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
@@ -32,12 +34,14 @@ import java.util.List;
  * <p><strong>Encabezado esperado:</strong> Authorization: Bearer [token]
  *
  * @see JWTUtils Utilidad encargada de validar y decodificar el JWT.
+ * @see TokensVerificadosCache Caché de tokens ya verificados hasta su expiración.
  */
 @Component
 @RequiredArgsConstructor
 public class JWTFilter extends OncePerRequestFilter {
 
     private final JWTUtils jwtUtil;
+    private final TokensVerificadosCache tokensVerificados;
 
     /**
      * Método principal que intercepta cada solicitud HTTP entrante.
@@ -61,35 +65,10 @@ public class JWTFilter extends OncePerRequestFilter {
             return;}
 
         try {
-            // Se valida el token JWT y se obtiene su contenido (payload)
-            Jws<Claims> payload = jwtUtil.parseJwt(token);
-            String username = payload.getPayload().getSubject(); // Nombre Usuario
-            String role = payload.getPayload().get("rol", String.class); // Rol del usuario
-
-            // Se normaliza el rol al formato estándar de Spring Security (ROLE_XXX)
-            if (!role.startsWith("ROLE_")) {
-                role = "ROLE_" + role.substring(4); // Convierte ROL_XX en ROLE_XX
-            }
-
             // Verifica si ya hay una autenticación activa en el contexto
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-                // Crea un objeto de usuario con nombre y rol, sin necesidad de contraseña
-                UserDetails userDetails = new User(
-                        username,
-                        "", // No se requiere contraseña aquí
-                        List.of(new SimpleGrantedAuthority(role)) // Autoridades según el rol
-                );
-
-                // Se genera un token de autenticación que Spring Security reconocerá
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
                 // Se guarda la autenticación en el contexto de seguridad
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                SecurityContextHolder.getContext().setAuthentication(autenticar(token));
             }
 
         } catch (Exception e) {
@@ -102,6 +81,46 @@ public class JWTFilter extends OncePerRequestFilter {
     }
 
 
+    /**
+     * Valida un token JWT y construye la autenticación con el usuario y el rol que contiene.
+     * <p>
+     * También la usa el canal STOMP del chat, que recibe el token en la trama {@code CONNECT}.
+     *
+     * @param token token JWT sin el prefijo "Bearer".
+     * @return la autenticación que Spring Security reconoce.
+     * @throws JwtException si el token expiró, está mal formado o su firma no es válida.
+     */
+    public Authentication autenticar(String token) throws JwtException {
+        // Si el mismo token ya se verificó y no ha expirado, se evita repetir la verificación de la firma
+        TokensVerificadosCache.TokenVerificado verificado = tokensVerificados.obtener(token);
+        if (verificado == null) {
+            // Se valida el token JWT y se obtiene su contenido (payload)
+            Jws<Claims> payload = jwtUtil.parseJwt(token);
+            verificado = new TokensVerificadosCache.TokenVerificado(
+                    payload.getPayload().getSubject(), // Nombre Usuario
+                    payload.getPayload().get("rol", String.class), // Rol del usuario
+                    payload.getPayload().getExpiration().getTime());
+            tokensVerificados.guardar(token, verificado);
+        }
+        String role = verificado.rol();
+
+        // Se normaliza el rol al formato estándar de Spring Security (ROLE_XXX)
+        if (!role.startsWith("ROLE_")) {
+            role = "ROLE_" + role.substring(4); // Convierte ROL_XX en ROLE_XX
+        }
+
+        // Crea un objeto de usuario con nombre y rol, sin necesidad de contraseña
+        UserDetails userDetails = new User(
+                verificado.usuario(),
+                "", // No se requiere contraseña aquí
+                List.of(new SimpleGrantedAuthority(role)) // Autoridades según el rol
+        );
+
+        // Se genera un token de autenticación que Spring Security reconocerá
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+
     /**
      * Extrae el token JWT del encabezado "Authorization" de la solicitud.
      *
@@ -28,6 +28,12 @@ public class JWTUtils {
     // Clave secreta usada para firmar los tokens (mínimo 256 bits para HS256)
     private static final String SECRET = "store-it-secret-key-para-firmar-tokens-jwt-de-forma-segura";
 
+    // Clave HMAC y parser construidos una sola vez: ambos son inmutables y seguros entre hilos
+    private final SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parser()
+            .verifyWith(key) // Verifica la firma
+            .build();
+
     /**
      * Genera un token JWT con los datos proporcionados.
      * Este token es utilizado para autenticar y autorizar al usuario en el sistema.
@@ -63,10 +69,6 @@ public class JWTUtils {
      * @throws JwtException si el token es inválido, expirado o mal formado
      */
     public Jws<Claims> parseJwt(String jwtString) throws JwtException {
-        JwtParser parser = Jwts.parser()
-                .verifyWith(getKey()) // Verifica la firma
-                .build();
-
         return parser.parseSignedClaims(jwtString); // ✅ Devuelve los claims seguros (firmados)
     }
 
@@ -76,7 +78,7 @@ public class JWTUtils {
      * @return Clave secreta como SecretKey
      */
     private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return key;
     }
 
 }
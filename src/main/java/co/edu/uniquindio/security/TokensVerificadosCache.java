@@ -0,0 +1,115 @@
+package co.edu.uniquindio.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada de tokens JWT ya verificados.
+ * <p>
+ * Cuando un cliente repite el mismo token en varias solicitudes, el {@link JWTFilter} toma de aquí
+ * el usuario y el rol en lugar de volver a verificar la firma HMAC y decodificar los claims.
+ * Las entradas se indexan por el resumen SHA-256 del token (el token en sí no se guarda en memoria)
+ * y dejan de ser válidas en el instante {@code exp} del token.
+ * </p>
+ *
+ * <p>
+ * Al llenarse se descartan primero las entradas vencidas y, si no basta, se vacía por completo;
+ * además una tarea programada purga las vencidas cada minuto.
+ * </p>
+ */
+@Component
+public class TokensVerificadosCache {
+
+    /**
+     * Datos de un token verificado que el filtro necesita para autenticar la solicitud.
+     *
+     * @param usuario    subject del token (ID del usuario).
+     * @param rol        rol incluido en los claims.
+     * @param expiracion instante de expiración del token, en milisegundos desde la época.
+     */
+    public record TokenVerificado(String usuario, String rol, long expiracion) {}
+
+    // Un MessageDigest por hilo: no son seguros entre hilos y crearlos en cada solicitud tiene costo
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<String, TokenVerificado> cache = new ConcurrentHashMap<>();
+
+    @Value("${store-it.jwt.cache.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${store-it.jwt.cache.maximo:10000}")
+    private int maximo;
+
+
+    /**
+     * Busca un token ya verificado que todavía no haya expirado.
+     *
+     * @param token token JWT tal como llegó en el encabezado.
+     * @return los datos del token, o {@code null} si no está en caché o ya expiró.
+     */
+    public TokenVerificado obtener(String token) {
+        if (!habilitado) return null;
+
+        String resumen = resumen(token);
+        TokenVerificado verificado = cache.get(resumen);
+        if (verificado == null) return null;
+
+        if (verificado.expiracion() <= System.currentTimeMillis()) {
+            cache.remove(resumen, verificado);
+            return null;
+        }
+        return verificado;
+    }
+
+
+    /**
+     * Guarda un token recién verificado hasta su expiración.
+     *
+     * @param token      token JWT verificado.
+     * @param verificado datos extraídos del token.
+     */
+    public void guardar(String token, TokenVerificado verificado) {
+        if (!habilitado || verificado.expiracion() <= System.currentTimeMillis()) return;
+
+        if (cache.size() >= maximo) {
+            purgarVencidos();
+            // Cota simple de memoria: si todos siguen vigentes se vacía y se vuelve a llenar con el uso
+            if (cache.size() >= maximo) cache.clear();
+        }
+        cache.put(resumen(token), verificado);
+    }
+
+
+    /**
+     * Quita de la caché los tokens que ya expiraron.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgarVencidos() {
+        long ahora = System.currentTimeMillis();
+        cache.values().removeIf(verificado -> verificado.expiracion() <= ahora);
+    }
+
+
+    /**
+     * Calcula el resumen SHA-256 del token en Base64.
+     */
+    private String resumen(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,45 @@
+package co.edu.uniquindio.service.common;
+
+/**
+ * Asignación de agentes de ventas a las sesiones de chat nuevas.
+ * <p>
+ * Cada chat se asigna al agente con menos chats activos (opcionalmente de una sede) que no haya llegado al
+ * límite de chats simultáneos por agente.
+ * </p>
+ */
+public interface AsignacionAgentesServicio {
+
+    /**
+     * Reserva un cupo de chat en el agente menos ocupado. Quien lo reserva debe llamar a {@link #confirmar}
+     * cuando el chat quede guardado o a {@link #cancelar} si no se pudo guardar.
+     *
+     * @param idSede sede del agente, o {@code null} para cualquier sede.
+     * @return ID del agente, o {@code null} si no hay agentes con cupo.
+     */
+    Long asignar(Long idSede);
+
+
+    /**
+     * Indica que el chat de una reserva ya está guardado; el cupo sigue ocupado hasta {@link #liberar}.
+     */
+    void confirmar(Long idAgente);
+
+
+    /**
+     * Devuelve el cupo de una reserva cuyo chat no se pudo crear.
+     */
+    void cancelar(Long idAgente);
+
+
+    /**
+     * Devuelve el cupo de un chat que terminó.
+     */
+    void liberar(Long idAgente);
+
+
+    /**
+     * Quita un agente de la asignación, por ejemplo al eliminar su cuenta.
+     */
+    void retirar(Long idAgente);
+
+}
@@ -2,17 +2,45 @@ package co.edu.uniquindio.service.common;
 
 import co.edu.uniquindio.dto.common.chat.ChatSessionDto;
 import co.edu.uniquindio.dto.common.chat.EnviarMensajeDto;
-import co.edu.uniquindio.dto.common.chat.MensajeChatDto;
+import co.edu.uniquindio.dto.common.chat.HistorialChatDto;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
 import co.edu.uniquindio.model.common.enums.RemitenteChat;
 
 public interface ChatSessionServicio {
 
 
-    ChatSessionDto iniciarChat(Long idCliente) throws ElementoNoEncontradoException;
+    /**
+     * Inicia una sesión de chat con el agente menos ocupado.
+     *
+     * @param idCliente ID del cliente.
+     * @param idSede    sede de la que debe ser el agente, o {@code null} para cualquier sede.
+     */
+    ChatSessionDto iniciarChat(Long idCliente, Long idSede) throws ElementoNoEncontradoException;
 
-    MensajeChatDto enviarMensaje(EnviarMensajeDto mensaje) throws ElementoNoEncontradoException;
+    /**
+     * Acepta un mensaje en una sesión activa. Se confirma en cuanto queda en el diario local; la base de
+     * datos lo recibe poco después en un lote.
+     *
+     * @return el mensaje con su ID y fecha de envío.
+     */
+    MensajeChatResumenDto enviarMensaje(EnviarMensajeDto mensaje) throws ElementoNoEncontradoException;
 
     void finalizarChat(Long idChatSession, RemitenteChat remitente) throws ElementoNoEncontradoException;
 
+
+    /**
+     * Página del historial de una sesión, activa o finalizada, paginada por cursor.
+     * Sin cursores devuelve los mensajes más recientes.
+     *
+     * @param idChatSession ID de la sesión de chat.
+     * @param idPersona     ID de la persona autenticada; debe participar en la sesión.
+     * @param antes         ID de mensaje: devuelve los anteriores a él.
+     * @param despues       ID de mensaje: devuelve los posteriores a él.
+     * @param tamano        mensajes por página, o {@code null} para el tamaño por defecto.
+     * @throws ElementoNoEncontradoException si la sesión o el mensaje del cursor no existen.
+     */
+    HistorialChatDto obtenerHistorial(Long idChatSession, String idPersona, Long antes, Long despues, Integer tamano)
+            throws ElementoNoEncontradoException;
+
 }
@@ -0,0 +1,90 @@
+package co.edu.uniquindio.service.common;
+
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Entrega en tiempo real de los eventos de las sesiones de chat.
+ * <p>
+ * Los participantes se suscriben por STOMP sobre WebSocket al destino {@value #DESTINO}{@code <idChatSession>}
+ * o, si no pueden abrir un WebSocket, por Server-Sent Events. Los mensajes, la presencia y el indicador de
+ * escritura se reparten en memoria a los suscriptores de la sesión, sin consultar la base de datos por cada
+ * entrega.
+ * </p>
+ */
+public interface ChatTiempoRealServicio {
+
+    /**
+     * Prefijo del destino STOMP de cada sesión de chat.
+     */
+    String DESTINO = "/topic/chat/";
+
+
+    /**
+     * Verifica que la persona participe en la sesión activa y devuelve su papel en ella.
+     *
+     * @param idChatSession ID de la sesión de chat.
+     * @param idPersona     ID de la persona autenticada.
+     * @return {@link RemitenteChat#CLIENTE} o {@link RemitenteChat#AGENTE}.
+     * @throws ElementoNoEncontradoException si la sesión no existe.
+     * @throws co.edu.uniquindio.exception.ElementoNoActivadoException si la sesión ya terminó o la persona no participa.
+     */
+    RemitenteChat autorizar(Long idChatSession, String idPersona) throws ElementoNoEncontradoException;
+
+
+    /**
+     * Abre una suscripción Server-Sent Events a la sesión, como alternativa a STOMP.
+     *
+     * @param idChatSession ID de la sesión de chat.
+     * @param idPersona     ID de la persona autenticada.
+     * @return el emisor que mantiene abierta la respuesta.
+     * @throws ElementoNoEncontradoException si la sesión no existe.
+     */
+    SseEmitter suscribir(Long idChatSession, String idPersona) throws ElementoNoEncontradoException;
+
+
+    /**
+     * Reparte un mensaje ya guardado a los suscriptores de su sesión.
+     */
+    void publicarMensaje(MensajeChatResumenDto mensaje);
+
+
+    /**
+     * Avisa a los suscriptores que un participante está escribiendo.
+     */
+    void publicarEscribiendo(Long idChatSession, RemitenteChat remitente);
+
+
+    /**
+     * Avisa que la sesión terminó y cierra todas sus suscripciones.
+     */
+    void cerrarChat(Long idChatSession, RemitenteChat remitente);
+
+
+    /**
+     * Autoriza y registra una suscripción STOMP a la sesión, y publica la presencia del participante.
+     *
+     * @param idSesionStomp ID de la conexión STOMP.
+     * @param idSuscripcion ID de la suscripción dentro de la conexión.
+     * @param idChatSession ID de la sesión de chat.
+     * @param idPersona     ID de la persona autenticada.
+     * @return el papel de la persona en la sesión.
+     * @throws ElementoNoEncontradoException si la sesión no existe.
+     * @throws co.edu.uniquindio.exception.ElementoNoActivadoException si la sesión ya terminó o la persona no participa.
+     */
+    RemitenteChat suscribirStomp(String idSesionStomp, String idSuscripcion, Long idChatSession, String idPersona)
+            throws ElementoNoEncontradoException;
+
+
+    /**
+     * Da de baja una suscripción STOMP, o todas las de la conexión si {@code idSuscripcion} es {@code null},
+     * y publica la desconexión de los participantes.
+     *
+     * @param idSesionStomp ID de la conexión STOMP.
+     * @param idSuscripcion ID de la suscripción, o {@code null} al cerrarse la conexión.
+     */
+    void canceladoStomp(String idSesionStomp, String idSuscripcion);
+
+}
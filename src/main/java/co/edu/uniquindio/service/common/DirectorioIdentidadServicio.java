@@ -0,0 +1,60 @@
+package co.edu.uniquindio.service.common;
+
+import co.edu.uniquindio.dto.users.common.IdentidadDto;
+import co.edu.uniquindio.model.users.base.Persona;
+import co.edu.uniquindio.model.users.enums.TipoEmail;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio del directorio unificado de identidades.
+ * <p>
+ * Resuelve cualquier email personal o empresarial a {@code (rol, personaId, estadoCuenta)} con una sola
+ * búsqueda indexada (y opcionalmente desde una caché en memoria), en lugar de consultar por separado
+ * las tablas de clientes, agentes de ventas, personal de bodega y recursos humanos.
+ * </p>
+ */
+public interface DirectorioIdentidadServicio {
+
+    /**
+     * Busca todas las cuentas asociadas a un email, ordenadas por prioridad de rol
+     * y, dentro del mismo rol, primero el email personal.
+     *
+     * @param email email personal o empresarial.
+     * @return identidades encontradas; vacía si el email no está registrado.
+     */
+    List<IdentidadDto> buscar(String email);
+
+
+    /**
+     * Busca la cuenta de mayor prioridad que tenga registrado el email con el tipo indicado.
+     *
+     * @param email     email a buscar.
+     * @param tipoEmail tipo de email (personal o empresarial).
+     * @return la identidad encontrada, si existe.
+     */
+    Optional<IdentidadDto> buscar(String email, TipoEmail tipoEmail);
+
+
+    /**
+     * Registra o actualiza en el directorio los emails y el estado de cuenta de una persona.
+     *
+     * @param persona persona guardada.
+     */
+    void sincronizar(Persona persona);
+
+
+    /**
+     * Elimina del directorio las entradas de una persona.
+     *
+     * @param persona persona eliminada.
+     */
+    void eliminar(Persona persona);
+
+
+    /**
+     * Reconstruye el directorio completo a partir de las tablas de usuarios.
+     */
+    void reconstruir();
+}
@@ -0,0 +1,66 @@
+package co.edu.uniquindio.service.common;
+
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Escritura diferida de los mensajes de chat.
+ * <p>
+ * Un mensaje se confirma en cuanto recibe su ID y queda en el diario local; la base de datos lo recibe
+ * después, junto con otros, en una inserción por lotes.
+ * </p>
+ */
+public interface EscrituraMensajesServicio {
+
+
+    /**
+     * Acepta un mensaje de una sesión activa y lo deja en el diario local.
+     *
+     * @return el mensaje con su ID y fecha de envío definitivos.
+     * @throws ElementoNoEncontradoException si la sesión no existe.
+     * @throws co.edu.uniquindio.exception.ElementoNoValido si falta el remitente o el contenido no cabe.
+     * @throws co.edu.uniquindio.exception.ElementoNoActivadoException si la sesión ya terminó.
+     * @throws co.edu.uniquindio.exception.CargaFallidaException si no se pudo escribir en el diario o hay
+     *                                                          demasiados mensajes sin guardar.
+     */
+    MensajeChatResumenDto agregar(Long idChatSession, RemitenteChat remitente, String contenido)
+            throws ElementoNoEncontradoException;
+
+
+    /**
+     * Deja en el diario el mensaje de cierre de una sesión que ya se finalizó en la base de datos y la marca
+     * como terminada en memoria. Solo lo llama quien finalizó la sesión, así que no revisa su estado ni el
+     * límite de mensajes sin guardar.
+     *
+     * @return el mensaje con su ID y fecha de envío definitivos.
+     * @throws co.edu.uniquindio.exception.CargaFallidaException si no se pudo escribir en el diario.
+     */
+    MensajeChatResumenDto agregarCierre(Long idChatSession, RemitenteChat remitente, String contenido);
+
+
+    /**
+     * Marca la sesión como terminada en memoria: deja de aceptar mensajes en este nodo.
+     */
+    void cerrarSesion(Long idChatSession);
+
+
+    /**
+     * Fecha de envío de un mensaje aceptado en este nodo que todavía no está en la base de datos, para usar
+     * su ID como cursor del historial antes de que se guarde.
+     *
+     * @return la fecha, o vacío si el mensaje ya se guardó, no existe o es de otra sesión.
+     */
+    Optional<LocalDateTime> buscarFechaEnvio(Long idMensaje, Long idChatSession);
+
+
+    /**
+     * Guarda de inmediato los mensajes pendientes.
+     *
+     * @return {@code true} si no quedó nada pendiente.
+     */
+    boolean vaciar();
+}
@@ -0,0 +1,47 @@
+package co.edu.uniquindio.service.common;
+
+import co.edu.uniquindio.model.users.base.Persona;
+import co.edu.uniquindio.model.users.common.IndiceTelefono;
+
+import java.util.Optional;
+
+/**
+ * Servicio del índice de teléfonos registrados.
+ * <p>
+ * Resuelve si un teléfono ya pertenece a alguna persona con una sola búsqueda indexada por su forma E.164.
+ * Delante del índice hay un filtro de Bloom en memoria que responde sin consultar la base de datos
+ * el caso más común: que el teléfono todavía no esté registrado.
+ * </p>
+ */
+public interface IndiceTelefonoServicio {
+
+    /**
+     * Busca la persona a la que pertenece un teléfono.
+     *
+     * @param telefono teléfono formateado internacionalmente (se normaliza a E.164).
+     * @return la entrada del índice, o vacío si el teléfono no está registrado.
+     */
+    Optional<IndiceTelefono> buscar(String telefono);
+
+
+    /**
+     * Registra en el índice los teléfonos actuales de una persona y quita los que ya no tiene.
+     *
+     * @param persona persona guardada.
+     */
+    void sincronizar(Persona persona);
+
+
+    /**
+     * Elimina del índice los teléfonos de una persona.
+     *
+     * @param persona persona eliminada.
+     */
+    void eliminar(Persona persona);
+
+
+    /**
+     * Reconstruye el índice completo a partir de las tablas de usuarios, junto con el filtro de Bloom.
+     */
+    void reconstruir();
+}
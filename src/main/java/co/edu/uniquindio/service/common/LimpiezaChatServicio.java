@@ -0,0 +1,32 @@
+package co.edu.uniquindio.service.common;
+
+import co.edu.uniquindio.dto.common.chat.ResumenArchivoChatDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Servicio que cierra las sesiones de chat abandonadas y saca de la base de datos los mensajes antiguos.
+ * <p>
+ * Una sesión {@code ACTIVO} sin mensajes durante {@code store-it.chat.limpieza.inactividad} pasa a
+ * {@code FINALIZADO} y su agente recupera el cupo. Los mensajes de las sesiones finalizadas sin actividad
+ * durante {@code store-it.chat.limpieza.retencion} se mueven a archivos comprimidos.
+ * </p>
+ */
+public interface LimpiezaChatServicio {
+
+    /**
+     * Finaliza las sesiones activas sin actividad desde {@code ahora - inactividad}.
+     *
+     * @return número de sesiones finalizadas.
+     */
+    int cerrarInactivas(LocalDateTime ahora);
+
+
+    /**
+     * Archiva y elimina los mensajes de las sesiones finalizadas sin actividad desde {@code ahora - retencion}.
+     * Se puede interrumpir: cada lote se archiva y se elimina en su propia transacción. Un lote cuyos mensajes
+     * eliminados no coinciden con los archivados se revierte y se reintenta en la siguiente ejecución.
+     */
+    ResumenArchivoChatDto archivarMensajes(LocalDateTime ahora);
+
+}
@@ -0,0 +1,121 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.dto.users.agenteVentas.CargaAgenteDto;
+import co.edu.uniquindio.repository.users.AgenteVentasRepo;
+import co.edu.uniquindio.service.common.AsignacionAgentesServicio;
+import co.edu.uniquindio.utils.RegistroCargaAgentes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementación de {@link AsignacionAgentesServicio} sobre un {@link RegistroCargaAgentes} en memoria.
+ * <p>
+ * Al arrancar, el registro se reconstruye con una sola consulta agrupada (agentes activos, su sede y sus
+ * chats activos). Después la carga se mantiene en memoria con cada chat iniciado y finalizado, y una tarea
+ * programada sincroniza las altas, bajas y traslados de sede de los agentes y vuelve a tomar su carga de la
+ * base de datos, corrigiendo cualquier desvío (por ejemplo, chats cerrados en otro nodo). Asignar no consulta
+ * la base de datos. La sincronización deja para la siguiente pasada a los agentes con un chat reservado que
+ * aún no se guardó, o cuya carga cambió mientras se contaban sus chats.
+ * </p>
+ */
+@Service
+public class AsignacionAgentesServicioImpl implements AsignacionAgentesServicio {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsignacionAgentesServicioImpl.class);
+
+    private final AgenteVentasRepo agenteVentasRepo;
+    private final RegistroCargaAgentes registro;
+    private final Counter sinAgentes;
+
+
+    public AsignacionAgentesServicioImpl(AgenteVentasRepo agenteVentasRepo,
+                                         @Value("${store-it.chat.asignacion.max-chats-agente:1}") int maximoPorAgente,
+                                         MeterRegistry registry) {
+        this.agenteVentasRepo = agenteVentasRepo;
+        this.registro = new RegistroCargaAgentes(maximoPorAgente);
+        this.sinAgentes = Counter.builder("storeit.chat.asignacion.sin-agentes")
+                .description("Chats rechazados porque todos los agentes estaban en su límite")
+                .register(registry);
+        Gauge.builder("storeit.chat.asignacion.agentes", registro, r -> r.agentes().size())
+                .description("Agentes de ventas registrados para recibir chats")
+                .register(registry);
+    }
+
+
+    /**
+     * Reconstruye el registro con los chats activos guardados en la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<CargaAgenteDto> cargas = agenteVentasRepo.listarCargaChats();
+        for (CargaAgenteDto carga : cargas) {
+            registro.registrar(carga.idAgente(), carga.idSede(), carga.activas().intValue());
+        }
+        logger.info("Registro de asignación de chats reconstruido con {} agentes", cargas.size());
+    }
+
+
+    /**
+     * Incorpora los agentes nuevos o trasladados, ajusta la carga de todos a sus chats activos y retira los
+     * que ya no están activos.
+     */
+    @Scheduled(fixedDelayString = "${store-it.chat.asignacion.sincronizacion-ms:60000}",
+            initialDelayString = "${store-it.chat.asignacion.sincronizacion-ms:60000}")
+    public void sincronizar() {
+        // Antes de contar: lo que cambie en memoria desde aquí puede no estar en el conteo
+        long marca = registro.marca();
+        Set<Long> vigentes = new HashSet<>();
+        for (CargaAgenteDto carga : agenteVentasRepo.listarCargaChats()) {
+            registro.registrar(carga.idAgente(), carga.idSede(), carga.activas().intValue());
+            registro.ajustar(carga.idAgente(), carga.activas().intValue(), marca);
+            vigentes.add(carga.idAgente());
+        }
+        for (Long idAgente : Set.copyOf(registro.agentes())) {
+            if (!vigentes.contains(idAgente)) registro.retirar(idAgente);
+        }
+    }
+
+
+    @Override
+    public Long asignar(Long idSede) {
+        Long idAgente = registro.asignar(idSede);
+        if (idAgente == null) sinAgentes.increment();
+        return idAgente;
+    }
+
+
+    @Override
+    public void confirmar(Long idAgente) {
+        registro.confirmar(idAgente);
+    }
+
+
+    @Override
+    public void cancelar(Long idAgente) {
+        registro.cancelar(idAgente);
+    }
+
+
+    @Override
+    public void liberar(Long idAgente) {
+        registro.liberar(idAgente);
+    }
+
+
+    @Override
+    public void retirar(Long idAgente) {
+        registro.retirar(idAgente);
+    }
+}
@@ -6,6 +6,7 @@ import co.edu.uniquindio.security.JWTUtils;
 import co.edu.uniquindio.constants.MensajeError;
 import co.edu.uniquindio.dto.TokenDto;
 import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.dto.users.common.IdentidadDto;
 import co.edu.uniquindio.exception.*;
 import co.edu.uniquindio.model.users.AgenteVentas;
 import co.edu.uniquindio.model.users.Cliente;
@@ -18,6 +19,7 @@ import co.edu.uniquindio.repository.users.ClienteRepo;
 import co.edu.uniquindio.repository.users.PersonalBodegaRepo;
 import co.edu.uniquindio.repository.users.RecursosHumanosRepo;
 import co.edu.uniquindio.service.common.AuthServicio;
+import co.edu.uniquindio.service.common.DirectorioIdentidadServicio;
 import co.edu.uniquindio.service.users.ClienteServicio;
 import co.edu.uniquindio.service.utils.EmailServicio;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
@@ -38,7 +40,6 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Function;
 
 /**
  * Servicio de autenticación centralizado para los distintos tipos de usuarios
@@ -78,6 +79,7 @@ public class AuthServicioImpl implements AuthServicio {
     private final PasswordEncoder passwordEncoder;
     private final EmailServicio emailServicio;
     private final ClienteServicio clienteServicio;
+    private final DirectorioIdentidadServicio directorioIdentidadServicio;
     private static final Logger logger = LoggerFactory.getLogger(AuthServicio.class);
 
 
@@ -96,76 +98,19 @@ public class AuthServicioImpl implements AuthServicio {
     public TokenDto login(@NotNull LoginDto dto) throws ElementoNoEncontradoException, ElementoIncorrectoException {
 
         try {
-            String token;
-
-            // Buscar al usuario en la tabla Cliente usando el email
-            Optional<Cliente> clienteOpt = buscarPorEmail(
-                    clienteRepo::findByUser_Email,
-                    null,
-                    dto.email());
-
-            if (clienteOpt.isPresent()) {
-
-                // Autenticar el cliente: validar estado de cuenta y contraseña
-                Cliente cliente = autenticarUsuario(clienteOpt, dto.password())
-                        .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
-
-                // Generar y retornar el token JWT con los datos del cliente
-                token = jwtUtils.generateToken(cliente.getId().toString(), generarTokenLogin(cliente));
-                return new TokenDto(token);
-            }
-
-            // Buscar al usuario en Agente de Ventas usando dos métodos: por user.email o por email empresarial
-            Optional<AgenteVentas> agenteOpt = buscarPorEmail(
-                    agenteRepo::findByUser_Email,
-                    agenteRepo::findByDatosLaborales_EmailEmpresarial,
-                    dto.email());
-
-            if (agenteOpt.isPresent()) {
-
-                // Autenticar al agente
-                AgenteVentas agenteVentas = autenticarUsuario(agenteOpt, dto.password())
-                        .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
-
-                // Generar y retornar token JWT
-                token = jwtUtils.generateToken(String.valueOf(agenteVentas.getId()), generarTokenLogin(agenteVentas));
-                return new TokenDto(token);
-            }
-
-            // Buscar en Personal de Bodega usando email personal o email empresarial
-            Optional<PersonalBodega> personalOpt = buscarPorEmail(
-                    personalRepo::findByUser_Email,
-                    personalRepo::findByDatosLaborales_EmailEmpresarial,
-                    dto.email());
-
-            // Autenticar al personal de bodega
-            if (personalOpt.isPresent()) {
-                PersonalBodega personalBodega = autenticarUsuario(personalOpt, dto.password())
-                        .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
-
-                // Generar y retornar token JWT
-                token = jwtUtils.generateToken(String.valueOf(personalBodega.getId()), generarTokenLogin(personalBodega));
-                return new TokenDto(token);
-            }
-
-            // Buscar en Recursos Humanos usando email personal o empresarial
-            Optional<RecursosHumanos> recursosOpt = buscarPorEmail(
-                    recursosHumanosRepo::findByUser_Email,
-                    recursosHumanosRepo::findByDatosLaborales_EmailEmpresarial,
-                    dto.email());
-
-            // Autenticar al RRHH
-            if (recursosOpt.isPresent()) {
-                RecursosHumanos recursosHumanos = autenticarUsuario(recursosOpt, dto.password())
-                        .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
-
-                // Generar y retornar token JWT
-                token = jwtUtils.generateToken(String.valueOf(recursosHumanos.getId()), generarTokenLogin(recursosHumanos));
-                return new TokenDto(token);
-            }
-
-            // Si no se encontró ninguna cuenta o las credenciales no son válidas
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, MensajeError.CREDENCIALES_INVALIDAS);
+            // Resolvemos el email (personal o empresarial) con una sola búsqueda en el directorio de identidades.
+            // Si pertenece a varias cuentas se usa la de mayor prioridad (cliente, agente, personal, RRHH).
+            IdentidadDto identidad = directorioIdentidadServicio.buscar(dto.email()).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, MensajeError.CREDENCIALES_INVALIDAS));
+
+            // Cargamos la persona por su ID y validamos estado de cuenta y contraseña
+            Persona persona = autenticarUsuario(cargarPersona(identidad), dto.password())
+                    .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
+
+            // Generar y retornar el token JWT con los datos de la persona
+            String token = jwtUtils.generateToken(persona.getId().toString(), generarTokenLogin(persona));
+            return new TokenDto(token);
 
         } catch (SolicitarReactivacionException  e) {
             // Si capturamos esta excepción, mandamos un 403 FORBIDDEN y el mensaje
@@ -179,41 +124,12 @@ public class AuthServicioImpl implements AuthServicio {
         // Validar y decodificar el token JWT de Google usando la biblioteca Google API
         GoogleIdToken.Payload payload = verificarTokenGoogle(credential);
 
-        // Extraer el email del token
-        String email = payload.getEmail();
-
-        String token;
-
-        // Buscar entre las distintas entidades
-        Optional<Cliente> clienteOpt = buscarPorEmail(clienteRepo::findByUser_Email, null, email);
-        if (clienteOpt.isPresent()) {
-            Cliente cliente = clienteOpt.get();
-            token = jwtUtils.generateToken(cliente.getId().toString(), generarTokenLogin(cliente));
-            return new TokenDto(token);
-        }
-
-        Optional<AgenteVentas> agenteOpt = buscarPorEmail(agenteRepo::findByUser_Email, agenteRepo::findByDatosLaborales_EmailEmpresarial, email);
-        if (agenteOpt.isPresent()) {
-            AgenteVentas agente = agenteOpt.get();
-            token = jwtUtils.generateToken(agente.getId().toString(), generarTokenLogin(agente));
-            return new TokenDto(token);
-        }
-
-        Optional<PersonalBodega> personalOpt = buscarPorEmail(personalRepo::findByUser_Email, personalRepo::findByDatosLaborales_EmailEmpresarial, email);
-        if (personalOpt.isPresent()) {
-            PersonalBodega personal = personalOpt.get();
-            token = jwtUtils.generateToken(personal.getId().toString(), generarTokenLogin(personal));
-            return new TokenDto(token);
-        }
-
-        Optional<RecursosHumanos> recursosOpt = buscarPorEmail(recursosHumanosRepo::findByUser_Email, recursosHumanosRepo::findByDatosLaborales_EmailEmpresarial, email);
-        if (recursosOpt.isPresent()) {
-            RecursosHumanos rh = recursosOpt.get();
-            token = jwtUtils.generateToken(rh.getId().toString(), generarTokenLogin(rh));
-            return new TokenDto(token);
-        }
+        // Extraer el email del token y buscar la persona en el directorio de identidades
+        Persona persona = buscarPersonaPorEmail(payload.getEmail())
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
 
-        throw new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO);
+        String token = jwtUtils.generateToken(persona.getId().toString(), generarTokenLogin(persona));
+        return new TokenDto(token);
     }
 
 
@@ -281,27 +197,6 @@ public class AuthServicioImpl implements AuthServicio {
     }
 
 
-    /**
-     * Busca una entidad por email usando dos funciones de búsqueda (principal y alternativa).
-     * @param buscadorPrincipal Función principal para buscar por email
-     * @param buscadorAlternativo Función alternativa si la búsqueda principal no encuentra resultados
-     * @param email Email con el cual buscar la entidad
-     * @return Optional con la entidad encontrada o vacío si ninguna función retorna resultados
-     */
-    private <T> Optional<T> buscarPorEmail(Function<String, Optional<T>> buscadorPrincipal,
-                                           Function<String, Optional<T>> buscadorAlternativo,
-                                           String email) {
-
-        // Intentar buscar con la función principal
-        Optional<T> entidad = buscadorPrincipal.apply(email);
-
-        // Si encuentra resultado o no hay función alternativa, retornar
-        return entidad.isPresent() || buscadorAlternativo == null
-                ? entidad
-                : buscadorAlternativo.apply(email); // Si no encontró, usar alternativa
-    }
-
-
     /**
      * Genera un mapa con los datos necesarios para el token JWT de un usuario autenticado.
      * El mapa incluye el email, nombre y el rol del usuario según su clase específica.
@@ -390,19 +285,29 @@ public class AuthServicioImpl implements AuthServicio {
 
 
     /**
-     * Busca un usuario (cliente, agente o personal) por su email.
+     * Busca un usuario (cliente, agente, personal o RRHH) por su email personal o empresarial.
      * @param email Email a buscar
      * @return Optional de Persona
      */
     private Optional<Persona> buscarPersonaPorEmail(String email) {
-        return clienteRepo.findByUser_Email(email)
-                .map(cliente -> (Persona) cliente)
-                .or(() -> agenteRepo.findByUser_Email(email).map(agente -> (Persona) agente))
-                .or(() -> agenteRepo.findByDatosLaborales_EmailEmpresarial(email).map(agente -> (Persona) agente))
-                .or(() -> personalRepo.findByDatosLaborales_EmailEmpresarial(email).map(personal -> (Persona) personal))
-                .or(() -> personalRepo.findByUser_Email(email).map(personal -> (Persona) personal))
-                .or(() -> recursosHumanosRepo.findByUser_Email(email).map(recursosHumanos -> (Persona) recursosHumanos))
-                .or(() -> recursosHumanosRepo.findByDatosLaborales_EmailEmpresarial(email).map(recursosHumanos -> (Persona) recursosHumanos));
+        return directorioIdentidadServicio.buscar(email).stream()
+                .findFirst()
+                .flatMap(this::cargarPersona);
+    }
+
+
+    /**
+     * Carga la persona de una identidad del directorio por su ID, desde el repositorio de su rol.
+     * @param identidad Identidad encontrada en el directorio
+     * @return Optional de Persona
+     */
+    private Optional<Persona> cargarPersona(IdentidadDto identidad) {
+        return switch (identidad.rol()) {
+            case CLIENTE -> clienteRepo.findById(identidad.personaId()).map(Persona.class::cast);
+            case AGENTE_VENTAS -> agenteRepo.findById(identidad.personaId()).map(Persona.class::cast);
+            case PERSONAL_BODEGA -> personalRepo.findById(identidad.personaId()).map(Persona.class::cast);
+            case RECURSOS_HUMANOS -> recursosHumanosRepo.findById(identidad.personaId()).map(Persona.class::cast);
+        };
     }
 
 
@@ -4,28 +4,36 @@ package co.edu.uniquindio.service.common.impl;
 import co.edu.uniquindio.constants.MensajeError;
 import co.edu.uniquindio.dto.common.chat.ChatSessionDto;
 import co.edu.uniquindio.dto.common.chat.EnviarMensajeDto;
-import co.edu.uniquindio.dto.common.chat.MensajeChatDto;
+import co.edu.uniquindio.dto.common.chat.HistorialChatDto;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ParticipantesChatDto;
 import co.edu.uniquindio.exception.ElementoNoActivadoException;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.exception.ElementoNoValido;
 import co.edu.uniquindio.mapper.common.ChatSessionMapper;
-import co.edu.uniquindio.mapper.common.MensajeMapper;
 import co.edu.uniquindio.model.common.ChatSession;
-import co.edu.uniquindio.model.common.Mensaje;
 import co.edu.uniquindio.model.common.enums.EstadoChat;
 import co.edu.uniquindio.model.common.enums.RemitenteChat;
-import co.edu.uniquindio.model.users.AgenteVentas;
 import co.edu.uniquindio.model.users.Cliente;
 import co.edu.uniquindio.repository.common.ChatSessionRepo;
 import co.edu.uniquindio.repository.common.MensajeRepo;
 import co.edu.uniquindio.repository.users.AgenteVentasRepo;
 import co.edu.uniquindio.repository.users.ClienteRepo;
+import co.edu.uniquindio.service.common.AsignacionAgentesServicio;
 import co.edu.uniquindio.service.common.ChatSessionServicio;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import co.edu.uniquindio.service.common.EscrituraMensajesServicio;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -33,83 +41,151 @@ public class ChatSessionServicioImpl implements ChatSessionServicio {
 
 
     private final ChatSessionMapper chatSessionMapper;
-    private final MensajeMapper mensajeMapper;
     private final ChatSessionRepo chatSessionRepo;
     private final MensajeRepo mensajeRepo;
     private final ClienteRepo clienteRepo;
     private final AgenteVentasRepo agenteVentasRepo;
+    private final ChatTiempoRealServicio chatTiempoRealServicio;
+    private final AsignacionAgentesServicio asignacionAgentesServicio;
+    private final EscrituraMensajesServicio escrituraMensajesServicio;
 
+    // Mensajes por página del historial si no se indica
+    @Value("${store-it.chat.historial.tamano-pagina:50}")
+    private int tamanoPagina;
+
+    // Límite del tamaño de página pedido
+    @Value("${store-it.chat.historial.tamano-maximo:200}")
+    private int tamanoMaximo;
 
 
     @Override
-    public ChatSessionDto iniciarChat(Long idCliente) throws ElementoNoEncontradoException {
+    public ChatSessionDto iniciarChat(Long idCliente, Long idSede) throws ElementoNoEncontradoException {
         Cliente cliente = clienteRepo.findById(idCliente)
                 .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
 
-        List<AgenteVentas> agentesDisponibles = agenteVentasRepo.findAgentesDisponibles();
-
-
-        if (agentesDisponibles.isEmpty()) {
+        // Agente con menos chats activos que aún tenga cupo, sin consultar la base de datos
+        Long idAgente = asignacionAgentesServicio.asignar(idSede);
+        if (idAgente == null) {
             throw new ElementoNoEncontradoException(MensajeError.AGENTE_NO_DISPONIBLE);}
 
-        // Seleccionar un agente aleatoriamente
-        AgenteVentas agenteAsignado = agentesDisponibles.get(new Random().nextInt(agentesDisponibles.size()));
-
         ChatSession chatSession = new ChatSession();
-        chatSession.setCliente(cliente);
-        chatSession.setAgenteVentas(agenteAsignado);
-        chatSession.setEstado(EstadoChat.ACTIVO);
-        chatSession.setInicioChat(LocalDateTime.now());
-
-        chatSessionRepo.save(chatSession);
+        try {
+            chatSession.setCliente(cliente);
+            chatSession.setAgenteVentas(agenteVentasRepo.getReferenceById(idAgente));
+            chatSession.setEstado(EstadoChat.ACTIVO);
+            chatSession.setInicioChat(LocalDateTime.now());
+            chatSession.setUltimaActividad(chatSession.getInicioChat());
+
+            chatSessionRepo.save(chatSession);
+        } catch (RuntimeException e) {
+            // El chat no se creó: se devuelve el cupo reservado
+            asignacionAgentesServicio.cancelar(idAgente);
+            throw e;
+        }
 
+        // Guardado: desde aquí el conteo de la base de datos ya incluye el chat
+        asignacionAgentesServicio.confirmar(idAgente);
         return chatSessionMapper.toDTO(chatSession);
     }
 
     @Override
-    public MensajeChatDto enviarMensaje(EnviarMensajeDto mensajeDto) throws ElementoNoEncontradoException {
+    public MensajeChatResumenDto enviarMensaje(EnviarMensajeDto mensajeDto) throws ElementoNoEncontradoException {
+
+        // Se confirma desde el diario local; la fila se inserta después, en lote
+        MensajeChatResumenDto mensaje = escrituraMensajesServicio.agregar(
+                mensajeDto.idChatSession(), mensajeDto.remitente(), mensajeDto.contenido());
 
-        ChatSession chatSession = chatSessionRepo.findById(mensajeDto.idChatSession()).
-                orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.CHAT_NO_ENCONTRADO));
+        // Se entrega de inmediato a los participantes conectados (STOMP o SSE)
+        chatTiempoRealServicio.publicarMensaje(mensaje);
+
+        return mensaje;
+    }
+
+
+    @Override
+    public void finalizarChat(Long idChatSession, RemitenteChat remitente) throws ElementoNoEncontradoException {
+        ParticipantesChatDto participantes = chatSessionRepo.buscarParticipantes(idChatSession)
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.CHAT_NO_ENCONTRADO));
 
-        if (!chatSession.getEstado().equals(EstadoChat.ACTIVO)) {
-            throw new ElementoNoActivadoException("La sesión de chat ya no está activa");
+        if (participantes.estado() != EstadoChat.ACTIVO) {
+            return; // Ya estaba cerrada
         }
 
-        Mensaje mensaje = new Mensaje();
-        mensaje.setChatSession(chatSession);
-        mensaje.setContenido(mensajeDto.contenido());
-        mensaje.setRemitente(mensajeDto.remitente());
-        mensaje.setFechaEnvio(LocalDateTime.now());
+        // Solo quien cambia la fila libera el cupo y escribe el mensaje de cierre: dos cierres simultáneos
+        // no descuentan el cupo dos veces ni dejan dos mensajes
+        if (chatSessionRepo.finalizarActiva(idChatSession, LocalDateTime.now()) != 1) {
+            return;
+        }
+        asignacionAgentesServicio.liberar(participantes.idAgente());
 
-        mensajeRepo.save(mensaje);
+        MensajeChatResumenDto mensajeCierre = escrituraMensajesServicio.agregarCierre(idChatSession, remitente,
+                remitente == RemitenteChat.AGENTE ?
+                        "El agente finalizó la conversación." : "El cliente finalizó la conversación.");
 
-        return mensajeMapper.toMensajeDTO(mensaje);
+        chatTiempoRealServicio.publicarMensaje(mensajeCierre);
+        chatTiempoRealServicio.cerrarChat(idChatSession, remitente);
     }
 
 
     @Override
-    public void finalizarChat(Long idChatSession, RemitenteChat remitente) throws ElementoNoEncontradoException {
-        ChatSession chatSession = chatSessionRepo.findById(idChatSession)
+    public HistorialChatDto obtenerHistorial(Long idChatSession, String idPersona, Long antes, Long despues,
+                                             Integer tamano) throws ElementoNoEncontradoException {
+        if (antes != null && despues != null) throw new ElementoNoValido(MensajeError.HISTORIAL_CURSOR_DOBLE);
+
+        ParticipantesChatDto participantes = chatSessionRepo.buscarParticipantes(idChatSession)
                 .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.CHAT_NO_ENCONTRADO));
+        if (!idPersona.equals(String.valueOf(participantes.idCliente()))
+                && !idPersona.equals(String.valueOf(participantes.idAgente()))) {
+            throw new ElementoNoActivadoException(MensajeError.CHAT_SIN_ACCESO);
+        }
 
-        if (!chatSession.getEstado().equals(EstadoChat.ACTIVO)) {
-            return; // Ya estaba cerrada
+        int limite = tamano == null ? tamanoPagina : Math.max(1, Math.min(tamano, tamanoMaximo));
+        // Se pide un mensaje de más para saber si hay otra página sin contar las filas
+        Pageable pagina = PageRequest.of(0, limite + 1);
+
+        if (despues != null) {
+            LocalDateTime fecha = fechaCursor(despues, idChatSession);
+            List<MensajeChatResumenDto> mensajes = new ArrayList<>(
+                    mensajeRepo.listarPosteriores(idChatSession, fecha, despues, pagina));
+            boolean hayPosteriores = recortar(mensajes, limite);
+            return new HistorialChatDto(mensajes, true, hayPosteriores);
+        }
+
+        List<MensajeChatResumenDto> mensajes;
+        if (antes != null) {
+            LocalDateTime fecha = fechaCursor(antes, idChatSession);
+            mensajes = new ArrayList<>(mensajeRepo.listarAnteriores(idChatSession, fecha, antes, pagina));
+        } else {
+            mensajes = new ArrayList<>(mensajeRepo.listarUltimos(idChatSession, pagina));
         }
+        // Estas consultas recorren el índice hacia atrás; la página se entrega en orden de envío
+        boolean hayAnteriores = recortar(mensajes, limite);
+        Collections.reverse(mensajes);
+        return new HistorialChatDto(mensajes, hayAnteriores, antes != null);
+    }
+
 
-        chatSession.setEstado(EstadoChat.FINALIZADO);
-        chatSession.setFinChat(LocalDateTime.now());
-        chatSessionRepo.save(chatSession);
+    /**
+     * Fecha del mensaje usado como cursor. Un mensaje recién enviado puede no estar aún en la base de datos:
+     * se busca primero entre los pendientes, que solo lo sueltan después de guardarlo.
+     */
+    private LocalDateTime fechaCursor(Long idMensaje, Long idChatSession) throws ElementoNoEncontradoException {
+        Optional<LocalDateTime> pendiente = escrituraMensajesServicio.buscarFechaEnvio(idMensaje, idChatSession);
+        if (pendiente.isPresent()) return pendiente.get();
+        return mensajeRepo.buscarFechaEnvio(idMensaje, idChatSession)
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.MENSAJE_CHAT_NO_ENCONTRADO));
+    }
 
-        // Opcional: guardar un mensaje del cierre
-        Mensaje mensajeCierre = new Mensaje();
-        mensajeCierre.setChatSession(chatSession);
-        mensajeCierre.setContenido(remitente == RemitenteChat.AGENTE ?
-                "El agente finalizó la conversación." : "El cliente finalizó la conversación.");
-        mensajeCierre.setFechaEnvio(LocalDateTime.now());
-        mensajeCierre.setRemitente(remitente);
 
-        mensajeRepo.save(mensajeCierre);
+    /**
+     * Deja la lista en {@code limite} mensajes.
+     *
+     * @return si sobraba el mensaje extra, es decir, si hay otra página en esa dirección.
+     */
+    private boolean recortar(List<MensajeChatResumenDto> mensajes, int limite) {
+        if (mensajes.size() <= limite) return false;
+        mensajes.subList(limite, mensajes.size()).clear();
+        return true;
     }
 
 }
@@ -0,0 +1,389 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.config.AsyncConfig;
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.common.chat.EventoChatDto;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ParticipantesChatDto;
+import co.edu.uniquindio.exception.ElementoNoActivadoException;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.common.enums.EstadoChat;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.model.common.enums.TipoEventoChat;
+import co.edu.uniquindio.repository.common.ChatSessionRepo;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Implementación de {@link ChatTiempoRealServicio}.
+ * <p>
+ * Cada sesión de chat con suscriptores en este nodo tiene un canal en memoria con sus participantes, leídos
+ * de la base de datos una sola vez (al primer suscriptor), sus emisores SSE y el número de suscripciones STOMP.
+ * Publicar un evento no consulta la base de datos: se envía al broker STOMP en memoria y se encola para los
+ * emisores SSE del canal, que se escriben en el executor {@link AsyncConfig#CHAT_EXECUTOR} en el orden de
+ * publicación, sin retener al hilo que envió el mensaje. Las sesiones sin suscriptores en este nodo no tienen
+ * canal y publicar en ellas no cuesta nada.
+ * </p>
+ *
+ * <p>
+ * Las suscripciones se agregan al canal con {@code canales.compute}, igual que el barrido que elimina los
+ * canales inactivos: una suscripción nunca queda en un canal que ya salió del mapa. Si el barrido lo eliminó
+ * entre la lectura de los participantes y el alta, el alta lo vuelve a registrar; si lo eliminó el cierre
+ * del chat, la suscripción se rechaza.
+ * </p>
+ *
+ * <p>
+ * Una tarea programada envía cada {@code store-it.chat.tiempo-real.latido-ms} un comentario SSE de latido
+ * (STOMP usa sus propios latidos), descarta los emisores cuya conexión se cerró y, si un canal no tiene
+ * actividad durante {@code inactividad-ms}, cierra sus suscripciones SSE y lo elimina.
+ * </p>
+ */
+@Service
+public class ChatTiempoRealServicioImpl implements ChatTiempoRealServicio {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatTiempoRealServicioImpl.class);
+
+    private final ChatSessionRepo chatSessionRepo;
+    private final SimpMessagingTemplate mensajeria;
+    private final ThreadPoolTaskExecutor chatExecutor;
+
+    // Canales de las sesiones con suscriptores en este nodo
+    private final Map<Long, CanalChat> canales = new ConcurrentHashMap<>();
+
+    // Suscripciones STOMP por conexión: ID de suscripción -> sesión de chat y participante
+    private final Map<String, Map<String, SuscripcionStomp>> suscripcionesStomp = new ConcurrentHashMap<>();
+
+    // Tiempo sin actividad tras el cual se cierran las suscripciones SSE de una sesión
+    @Value("${store-it.chat.tiempo-real.inactividad-ms:1800000}")
+    private long inactividadMs;
+
+    // Intervalo mínimo entre dos avisos de escritura del mismo participante
+    @Value("${store-it.chat.tiempo-real.escribiendo-ms:2000}")
+    private long escribiendoMs;
+
+
+    public ChatTiempoRealServicioImpl(ChatSessionRepo chatSessionRepo, SimpMessagingTemplate mensajeria,
+                                      @Qualifier(AsyncConfig.CHAT_EXECUTOR) ThreadPoolTaskExecutor chatExecutor,
+                                      MeterRegistry registry) {
+        this.chatSessionRepo = chatSessionRepo;
+        this.mensajeria = mensajeria;
+        this.chatExecutor = chatExecutor;
+
+        Gauge.builder("storeit.chat.canales", canales, Map::size)
+                .description("Sesiones de chat con suscriptores en tiempo real en este nodo")
+                .register(registry);
+        Gauge.builder("storeit.chat.suscripciones", canales,
+                        c -> c.values().stream().mapToInt(canal -> canal.sse.size()).sum())
+                .tag("canal", "sse")
+                .description("Suscripciones Server-Sent Events abiertas")
+                .register(registry);
+        Gauge.builder("storeit.chat.suscripciones", suscripcionesStomp,
+                        s -> s.values().stream().mapToInt(Map::size).sum())
+                .tag("canal", "stomp")
+                .description("Suscripciones STOMP abiertas")
+                .register(registry);
+    }
+
+
+    @Override
+    public RemitenteChat autorizar(Long idChatSession, String idPersona) throws ElementoNoEncontradoException {
+        return participante(canal(idChatSession), idPersona);
+    }
+
+
+    @Override
+    public SseEmitter suscribir(Long idChatSession, String idPersona) throws ElementoNoEncontradoException {
+        CanalChat leido = canal(idChatSession);
+        RemitenteChat remitente = participante(leido, idPersona);
+
+        // Sin tiempo límite del servidor: el cierre por inactividad lo hace el barrido programado
+        SseEmitter emisor = new SseEmitter(0L);
+        SuscripcionSse suscripcion = new SuscripcionSse(emisor, remitente);
+        CanalChat canal = adjuntar(idChatSession, leido, c -> c.sse.add(suscripcion));
+
+        Runnable baja = () -> {
+            if (canal.sse.remove(suscripcion)) publicar(idChatSession, TipoEventoChat.DESCONECTADO, remitente, null);
+        };
+        emisor.onCompletion(baja);
+        emisor.onTimeout(baja);
+        emisor.onError(error -> baja.run());
+
+        publicar(idChatSession, TipoEventoChat.CONECTADO, remitente, null);
+        return emisor;
+    }
+
+
+    @Override
+    public void publicarMensaje(MensajeChatResumenDto mensaje) {
+        publicar(mensaje.idChatSession(), TipoEventoChat.MENSAJE, mensaje.remitente(), mensaje);
+    }
+
+
+    @Override
+    public void publicarEscribiendo(Long idChatSession, RemitenteChat remitente) {
+        CanalChat canal = canales.get(idChatSession);
+        if (canal == null) return;
+
+        // Los clientes avisan en cada tecla: se reenvía como mucho un aviso por intervalo y participante
+        long ahora = System.currentTimeMillis();
+        long anterior = canal.escribiendo.get(remitente.ordinal());
+        if (ahora - anterior < escribiendoMs || !canal.escribiendo.compareAndSet(remitente.ordinal(), anterior, ahora)) {
+            return;
+        }
+        publicar(idChatSession, TipoEventoChat.ESCRIBIENDO, remitente, null);
+    }
+
+
+    @Override
+    public void cerrarChat(Long idChatSession, RemitenteChat remitente) {
+        CanalChat canal = canales.get(idChatSession);
+        if (canal == null) return;
+
+        publicar(idChatSession, TipoEventoChat.FINALIZADO, remitente, null);
+        canales.computeIfPresent(idChatSession, (id, actual) -> {
+            actual.cerrado = true;
+            return null;
+        });
+        // Los emisores se cierran después del FINALIZADO, en la misma cola de entrega
+        entregar(canal, () -> canal.sse.forEach(suscripcion -> suscripcion.emisor().complete()));
+    }
+
+
+    @Override
+    public RemitenteChat suscribirStomp(String idSesionStomp, String idSuscripcion, Long idChatSession,
+                                        String idPersona) throws ElementoNoEncontradoException {
+        CanalChat leido = canal(idChatSession);
+        RemitenteChat remitente = participante(leido, idPersona);
+
+        adjuntar(idChatSession, leido, c -> c.stomp.incrementAndGet());
+        suscripcionesStomp.computeIfAbsent(idSesionStomp, id -> new ConcurrentHashMap<>())
+                .put(idSuscripcion, new SuscripcionStomp(idChatSession, remitente));
+        publicar(idChatSession, TipoEventoChat.CONECTADO, remitente, null);
+        return remitente;
+    }
+
+
+    @Override
+    public void canceladoStomp(String idSesionStomp, String idSuscripcion) {
+        Map<String, SuscripcionStomp> suscripciones = idSuscripcion == null
+                ? suscripcionesStomp.remove(idSesionStomp)
+                : suscripcionesStomp.get(idSesionStomp);
+        if (suscripciones == null) return;
+
+        if (idSuscripcion == null) {
+            suscripciones.values().forEach(this::darDeBaja);
+        } else {
+            SuscripcionStomp suscripcion = suscripciones.remove(idSuscripcion);
+            if (suscripcion != null) darDeBaja(suscripcion);
+        }
+    }
+
+
+    /**
+     * Al cerrarse una conexión WebSocket se dan de baja todas sus suscripciones.
+     */
+    @EventListener
+    public void conexionCerrada(SessionDisconnectEvent evento) {
+        canceladoStomp(evento.getSessionId(), null);
+    }
+
+
+    /**
+     * Envía el latido a las suscripciones SSE, descarta las conexiones cerradas y cierra los canales inactivos.
+     */
+    @Scheduled(fixedDelayString = "${store-it.chat.tiempo-real.latido-ms:25000}")
+    public void mantenerConexiones() {
+        long limite = System.currentTimeMillis() - inactividadMs;
+        canales.forEach((idChatSession, canal) -> {
+            if (canal.ultimaActividad < limite) {
+                // La inactividad se vuelve a comprobar dentro del compute: un alta concurrente la renueva
+                List<SuscripcionSse> inactivas = new ArrayList<>();
+                canales.computeIfPresent(idChatSession, (id, actual) -> {
+                    if (actual.ultimaActividad >= limite) return actual;
+                    inactivas.addAll(actual.sse);
+                    return actual.stomp.get() > 0 ? actual : null;
+                });
+                inactivas.forEach(suscripcion -> suscripcion.emisor().complete());
+                return;
+            }
+            for (SuscripcionSse suscripcion : canal.sse) {
+                try {
+                    suscripcion.emisor().send(SseEmitter.event().comment("latido"));
+                } catch (IOException | IllegalStateException e) {
+                    canal.sse.remove(suscripcion);
+                    suscripcion.emisor().completeWithError(e);
+                }
+            }
+        });
+    }
+
+
+    /**
+     * Canal de la sesión; la primera vez lo crea con los participantes leídos de la base de datos.
+     * Para agregarle una suscripción se usa {@link #adjuntar}.
+     */
+    private CanalChat canal(Long idChatSession) throws ElementoNoEncontradoException {
+        CanalChat canal = canales.get(idChatSession);
+        if (canal != null) return canal;
+
+        ParticipantesChatDto participantes = chatSessionRepo.buscarParticipantes(idChatSession)
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.CHAT_NO_ENCONTRADO));
+        if (participantes.estado() != EstadoChat.ACTIVO) {
+            throw new ElementoNoActivadoException(MensajeError.CHAT_NO_ACTIVO);
+        }
+        return canales.computeIfAbsent(idChatSession,
+                id -> new CanalChat(participantes.idCliente(), participantes.idAgente()));
+    }
+
+
+    /**
+     * Agrega una suscripción al canal de la sesión de forma atómica con el barrido y el cierre del chat.
+     *
+     * @param leido Canal devuelto por {@link #canal}; se vuelve a registrar si el barrido lo eliminó.
+     * @param alta  Registro de la suscripción en el canal.
+     * @return el canal en el que quedó la suscripción.
+     */
+    private CanalChat adjuntar(Long idChatSession, CanalChat leido, Consumer<CanalChat> alta) {
+        return canales.compute(idChatSession, (id, actual) -> {
+            CanalChat canal = actual != null ? actual : leido;
+            if (canal.cerrado) throw new ElementoNoActivadoException(MensajeError.CHAT_NO_ACTIVO);
+            alta.accept(canal);
+            canal.ultimaActividad = System.currentTimeMillis();
+            return canal;
+        });
+    }
+
+
+    private RemitenteChat participante(CanalChat canal, String idPersona) {
+        if (canal.idCliente != null && canal.idCliente.toString().equals(idPersona)) return RemitenteChat.CLIENTE;
+        if (canal.idAgente.toString().equals(idPersona)) return RemitenteChat.AGENTE;
+        throw new ElementoNoActivadoException(MensajeError.CHAT_SIN_ACCESO);
+    }
+
+
+    private void darDeBaja(SuscripcionStomp suscripcion) {
+        CanalChat canal = canales.computeIfPresent(suscripcion.idChatSession(), (id, actual) -> {
+            actual.stomp.decrementAndGet();
+            return actual;
+        });
+        if (canal == null) return;
+
+        publicar(suscripcion.idChatSession(), TipoEventoChat.DESCONECTADO, suscripcion.remitente(), null);
+    }
+
+
+    /**
+     * Envía un evento al destino STOMP de la sesión y lo encola para sus emisores SSE.
+     */
+    private void publicar(Long idChatSession, TipoEventoChat tipo, RemitenteChat remitente,
+                          MensajeChatResumenDto mensaje) {
+        CanalChat canal = canales.get(idChatSession);
+        if (canal == null) return;
+        canal.ultimaActividad = System.currentTimeMillis();
+
+        EventoChatDto evento = new EventoChatDto(tipo, idChatSession, remitente, mensaje, LocalDateTime.now());
+        if (canal.stomp.get() > 0) {
+            mensajeria.convertAndSend(DESTINO + idChatSession, evento);
+        }
+        if (!canal.sse.isEmpty()) {
+            entregar(canal, () -> enviarSse(idChatSession, canal, evento));
+        }
+    }
+
+
+    /**
+     * Encola una entrega del canal. Un solo hilo vacía la cola de cada canal a la vez, así los suscriptores
+     * reciben los eventos en el orden en que se publicaron.
+     */
+    private void entregar(CanalChat canal, Runnable entrega) {
+        canal.entregas.add(entrega);
+        vaciar(canal);
+    }
+
+
+    private void vaciar(CanalChat canal) {
+        if (!canal.entregando.compareAndSet(false, true)) return;
+
+        chatExecutor.execute(() -> {
+            try {
+                Runnable entrega;
+                while ((entrega = canal.entregas.poll()) != null) entrega.run();
+            } finally {
+                canal.entregando.set(false);
+            }
+            // Una entrega encolada entre el último poll y la liberación no espera al siguiente evento
+            if (!canal.entregas.isEmpty()) vaciar(canal);
+        });
+    }
+
+
+    private void enviarSse(Long idChatSession, CanalChat canal, EventoChatDto evento) {
+        for (SuscripcionSse suscripcion : canal.sse) {
+            try {
+                suscripcion.emisor().send(SseEmitter.event().name(evento.tipo().name()).data(evento));
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se fue: se descarta sin afectar a los demás suscriptores
+                logger.debug("Suscripción SSE cerrada en el chat {}", idChatSession);
+                canal.sse.remove(suscripcion);
+                suscripcion.emisor().completeWithError(e);
+            }
+        }
+    }
+
+
+    /**
+     * Estado en memoria de una sesión de chat con suscriptores en este nodo.
+     */
+    private static final class CanalChat {
+
+        private final Long idCliente;
+        private final Long idAgente;
+        private final Set<SuscripcionSse> sse = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger stomp = new AtomicInteger();
+        // Entregas SSE pendientes, en orden de publicación, y si hay un hilo vaciándolas
+        private final Queue<Runnable> entregas = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean entregando = new AtomicBoolean();
+        // Último aviso de escritura reenviado, por RemitenteChat
+        private final AtomicLongArray escribiendo = new AtomicLongArray(RemitenteChat.values().length);
+        private volatile long ultimaActividad = System.currentTimeMillis();
+        // El chat terminó: el canal no admite más suscripciones
+        private volatile boolean cerrado;
+
+        private CanalChat(Long idCliente, Long idAgente) {
+            this.idCliente = idCliente;
+            this.idAgente = idAgente;
+        }
+    }
+
+
+    private record SuscripcionSse(SseEmitter emisor, RemitenteChat remitente) {}
+
+
+    private record SuscripcionStomp(Long idChatSession, RemitenteChat remitente) {}
+}
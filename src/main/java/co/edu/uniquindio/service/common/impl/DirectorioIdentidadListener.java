@@ -0,0 +1,108 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.model.users.base.Persona;
+import co.edu.uniquindio.model.users.base.User;
+import co.edu.uniquindio.model.users.common.DatosLaborales;
+import co.edu.uniquindio.service.common.DirectorioIdentidadServicio;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Listener de Hibernate que mantiene el directorio de identidades al día
+ * cuando se crea, modifica o elimina cualquier tipo de {@link Persona}.
+ * <p>
+ * Se registra en el {@code EntityManagerFactory} al crearse el bean, en lugar de declararse con
+ * {@code @EntityListeners} en la entidad, para que el modelo no dependa de la capa de servicios.
+ * Se ejecuta durante el flush, justo después de la sentencia de la persona y en su misma transacción.
+ * Una actualización solo sincroniza el directorio si cambió algo de lo que guarda (los emails o el estado de
+ * la cuenta), así que el resto de las escrituras de una persona no le suman consultas.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class DirectorioIdentidadListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final DirectorioIdentidadServicio directorioIdentidadServicio;
+    private final EntityManagerFactory entityManagerFactory;
+
+
+    @PostConstruct
+    public void registrar() {
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_INSERT, this);
+        registro.appendListeners(EventType.POST_UPDATE, this);
+        registro.appendListeners(EventType.POST_DELETE, this);
+    }
+
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Persona persona) directorioIdentidadServicio.sincronizar(persona);
+    }
+
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Persona persona && cambiaIdentidad(event)) {
+            directorioIdentidadServicio.sincronizar(persona);
+        }
+    }
+
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Persona persona) directorioIdentidadServicio.eliminar(persona);
+    }
+
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+
+    /**
+     * Indica si la actualización modificó un email o el estado de la cuenta. Sin el estado anterior (una
+     * actualización sin carga previa) no hay con qué comparar y se considera que sí.
+     */
+    private boolean cambiaIdentidad(PostUpdateEvent event) {
+        Object[] anterior = event.getOldState();
+        int[] sucias = event.getDirtyProperties();
+        if (anterior == null || sucias == null) return true;
+
+        String[] propiedades = event.getPersister().getPropertyNames();
+        for (int i : sucias) {
+            if (cambia(propiedades[i], anterior[i], event.getState()[i])) return true;
+        }
+        return false;
+    }
+
+
+    private static boolean cambia(String propiedad, Object antes, Object despues) {
+        return switch (propiedad) {
+            case "user" -> antes instanceof User a && despues instanceof User d
+                    ? !Objects.equals(a.getEmail(), d.getEmail()) || a.getEstadoCuenta() != d.getEstadoCuenta()
+                    : antes != despues;
+            case "datosLaborales" -> antes instanceof DatosLaborales a && despues instanceof DatosLaborales d
+                    ? !Objects.equals(a.getEmailEmpresarial(), d.getEmailEmpresarial())
+                    : antes != despues;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,310 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.dto.users.common.IdentidadDto;
+import co.edu.uniquindio.model.users.AgenteVentas;
+import co.edu.uniquindio.model.users.PersonalBodega;
+import co.edu.uniquindio.model.users.RecursosHumanos;
+import co.edu.uniquindio.model.users.base.Persona;
+import co.edu.uniquindio.model.users.common.DatosLaborales;
+import co.edu.uniquindio.model.users.enums.RolPersona;
+import co.edu.uniquindio.model.users.enums.TipoEmail;
+import co.edu.uniquindio.repository.users.IdentidadDirectorioRepo;
+import co.edu.uniquindio.service.common.DirectorioIdentidadServicio;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación de {@link DirectorioIdentidadServicio}.
+ * <p>
+ * Las lecturas pasan por una caché en memoria de lectura directa (read-through):
+ * <ul>
+ *     <li>Cada escritura invalida sus emails al escribir y de nuevo al terminar la transacción, y avanza un
+ *     contador de generación. Una lectura solo guarda su resultado si la generación no cambió mientras
+ *     consultaba, así que una consulta que vio el valor anterior a la transacción no lo deja en caché.</li>
+ *     <li>Las entradas vencen a los {@code store-it.directorio.cache.ttl}. Las invalidaciones son locales, así
+ *     que es el tiempo máximo que otro nodo puede seguir viendo una cuenta modificada.</li>
+ *     <li>Los emails no registrados no se guardan: un registro hecho en otro nodo se ve de inmediato en las
+ *     validaciones de unicidad.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Las escrituras usan JDBC sobre la conexión de la transacción en curso, porque se invocan desde
+ * los listeners de Hibernate durante el flush, donde no se puede usar el {@code EntityManager}.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class DirectorioIdentidadServicioImpl implements DirectorioIdentidadServicio {
+
+    private final IdentidadDirectorioRepo identidadDirectorioRepo;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(DirectorioIdentidadServicioImpl.class);
+
+    // Prioridad de resolución: primero el rol y, dentro del rol, el email personal
+    private static final Comparator<IdentidadDto> PRIORIDAD = Comparator
+            .comparing(IdentidadDto::rol)
+            .thenComparing(IdentidadDto::tipoEmail);
+
+    // Tabla en la que se guarda cada rol
+    private static final Map<RolPersona, String> TABLAS = Map.of(
+            RolPersona.CLIENTE, "clientes",
+            RolPersona.AGENTE_VENTAS, "agente_ventas",
+            RolPersona.PERSONAL_BODEGA, "personal_bodega",
+            RolPersona.RECURSOS_HUMANOS, "recursos_humanos");
+
+    private final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+
+    // Avanza con cada invalidación
+    private final AtomicLong generacion = new AtomicLong();
+
+    @Value("${store-it.directorio.cache.habilitado:true}")
+    private boolean cacheHabilitado;
+
+    @Value("${store-it.directorio.cache.maximo:10000}")
+    private int cacheMaximo;
+
+    @Value("${store-it.directorio.cache.ttl:PT1M}")
+    private Duration cacheTtl;
+
+
+    @Override
+    public List<IdentidadDto> buscar(String email) {
+        if (email == null) return List.of();
+
+        if (!cacheHabilitado) return consultar(email);
+
+        Entrada entrada = cache.get(email);
+        if (entrada != null && System.nanoTime() - entrada.vence() < 0) return entrada.identidades();
+
+        long leida = generacion.get();
+        List<IdentidadDto> identidades = consultar(email);
+        if (identidades.isEmpty()) return identidades;
+
+        // Cota simple de memoria: al llenarse se vacía y se vuelve a poblar con las búsquedas
+        if (cache.size() >= cacheMaximo) cache.clear();
+        Entrada nueva = new Entrada(identidades, System.nanoTime() + cacheTtl.toNanos());
+        // La comprobación y la escritura van en el mismo compute, que se serializa con el remove de invalidar()
+        cache.compute(email, (clave, actual) -> generacion.get() == leida ? nueva : actual);
+        return identidades;
+    }
+
+
+    @Override
+    public Optional<IdentidadDto> buscar(String email, TipoEmail tipoEmail) {
+        return buscar(email).stream()
+                .filter(identidad -> identidad.tipoEmail() == tipoEmail)
+                .findFirst();
+    }
+
+
+    @Override
+    public void sincronizar(Persona persona) {
+        RolPersona rol = RolPersona.de(persona);
+        if (rol == null || persona.getId() == null || persona.getUser() == null) return;
+
+        // Emails actuales de la persona
+        Map<String, TipoEmail> emails = new HashMap<>();
+        if (persona.getUser().getEmail() != null) {
+            emails.put(persona.getUser().getEmail(), TipoEmail.PERSONAL);
+        }
+        String emailEmpresarial = emailEmpresarialDe(persona);
+        if (emailEmpresarial != null) {
+            emails.putIfAbsent(emailEmpresarial, TipoEmail.EMPRESARIAL);
+        }
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("rol", rol.name())
+                .addValue("personaId", persona.getId())
+                .addValue("estado", persona.getUser().getEstadoCuenta().name());
+
+        // Invalidamos los emails anteriores (por si cambiaron) y los actuales
+        Set<String> afectados = new HashSet<>(emails.keySet());
+        afectados.addAll(jdbcTemplate.queryForList(
+                "SELECT email FROM directorio_identidades WHERE rol = :rol AND persona_id = :personaId",
+                parametros, String.class));
+
+        // Quitamos las entradas de emails que la persona ya no tiene
+        if (emails.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM directorio_identidades WHERE rol = :rol AND persona_id = :personaId", parametros);
+        } else {
+            jdbcTemplate.update("""
+                DELETE FROM directorio_identidades
+                WHERE rol = :rol AND persona_id = :personaId AND email NOT IN (:emails)
+            """, new MapSqlParameterSource(parametros.getValues()).addValue("emails", emails.keySet()));
+        }
+
+        for (Map.Entry<String, TipoEmail> email : emails.entrySet()) {
+            jdbcTemplate.update("""
+                MERGE INTO directorio_identidades d
+                USING (SELECT :email AS email, :tipo AS tipo_email, :rol AS rol FROM dual) s
+                ON (d.email = s.email AND d.tipo_email = s.tipo_email AND d.rol = s.rol)
+                WHEN MATCHED THEN
+                    UPDATE SET d.persona_id = :personaId, d.estado_cuenta = :estado
+                WHEN NOT MATCHED THEN
+                    INSERT (id, email, tipo_email, rol, persona_id, estado_cuenta)
+                    VALUES (directorio_identidades_seq.NEXTVAL, :email, :tipo, :rol, :personaId, :estado)
+            """, new MapSqlParameterSource(parametros.getValues())
+                    .addValue("email", email.getKey())
+                    .addValue("tipo", email.getValue().name()));
+        }
+
+        invalidar(afectados);
+    }
+
+
+    @Override
+    public void eliminar(Persona persona) {
+        RolPersona rol = RolPersona.de(persona);
+        if (rol == null || persona.getId() == null) return;
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("rol", rol.name())
+                .addValue("personaId", persona.getId());
+
+        List<String> emails = jdbcTemplate.queryForList(
+                "SELECT email FROM directorio_identidades WHERE rol = :rol AND persona_id = :personaId",
+                parametros, String.class);
+        jdbcTemplate.update("DELETE FROM directorio_identidades WHERE rol = :rol AND persona_id = :personaId", parametros);
+
+        invalidar(new HashSet<>(emails));
+    }
+
+
+    /**
+     * Reconstrucción inicial al arrancar, para incluir las cuentas creadas antes de existir el directorio
+     * o modificadas por fuera de JPA. Si falla, se revierte y se conserva el directorio anterior: el arranque
+     * no se detiene.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruccionInicial() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> reconstruir());
+        } catch (DataAccessException e) {
+            logger.error("No se pudo reconstruir el directorio de identidades; se conserva el anterior", e);
+        }
+    }
+
+
+    @Override
+    @Transactional
+    public void reconstruir() {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM directorio_identidades");
+
+        int total = 0;
+        for (Map.Entry<RolPersona, String> tabla : TABLAS.entrySet()) {
+            total += insertarEmails(tabla.getKey(), tabla.getValue(), "email", TipoEmail.PERSONAL);
+            if (tabla.getKey() != RolPersona.CLIENTE) {
+                total += insertarEmails(tabla.getKey(), tabla.getValue(), "email_empresarial", TipoEmail.EMPRESARIAL);
+            }
+        }
+
+        generacion.incrementAndGet();
+        cache.clear();
+        logger.info("Directorio de identidades reconstruido con {} entradas", total);
+    }
+
+
+    /**
+     * Copia al directorio los emails de una columna de la tabla de un rol. Si el mismo email está repetido en
+     * la tabla (datos anteriores a las validaciones de unicidad), se conserva la persona de menor ID y se
+     * registra una advertencia en lugar de violar la restricción única.
+     *
+     * @return entradas insertadas.
+     */
+    private int insertarEmails(RolPersona rol, String tabla, String columna, TipoEmail tipo) {
+        Integer repetidos = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT COUNT(%1$s) - COUNT(DISTINCT %1$s) FROM %2$s".formatted(columna, tabla), Integer.class);
+        if (repetidos != null && repetidos > 0) {
+            logger.warn("{} emails repetidos en {}.{}; el directorio conserva la persona de menor ID",
+                    repetidos, tabla, columna);
+        }
+
+        return jdbcTemplate.getJdbcTemplate().update("""
+            INSERT INTO directorio_identidades (id, email, tipo_email, rol, persona_id, estado_cuenta)
+            SELECT directorio_identidades_seq.NEXTVAL, email, '%s', '%s', id, estado_cuenta
+            FROM (
+                SELECT %s AS email, id, estado_cuenta,
+                       ROW_NUMBER() OVER (PARTITION BY %s ORDER BY id) AS orden
+                FROM %s
+                WHERE %s IS NOT NULL
+            )
+            WHERE orden = 1
+        """.formatted(tipo.name(), rol.name(), columna, columna, tabla, columna));
+    }
+
+
+    /**
+     * Consulta el directorio en la base de datos y ordena el resultado por prioridad.
+     */
+    private List<IdentidadDto> consultar(String email) {
+        return identidadDirectorioRepo.buscarPorEmail(email).stream()
+                .sorted(PRIORIDAD)
+                .toList();
+    }
+
+
+    /**
+     * Quita de la caché los emails indicados ahora y de nuevo al confirmar la transacción.
+     */
+    private void invalidar(Set<String> emails) {
+        quitar(emails);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    quitar(emails);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Avanza la generación antes de quitar las entradas: una lectura en curso ya no podrá guardar lo que leyó.
+     */
+    private void quitar(Set<String> emails) {
+        generacion.incrementAndGet();
+        emails.forEach(cache::remove);
+    }
+
+
+    private String emailEmpresarialDe(Persona persona) {
+        DatosLaborales datosLaborales = null;
+        if (persona instanceof AgenteVentas agente) datosLaborales = agente.getDatosLaborales();
+        else if (persona instanceof PersonalBodega personal) datosLaborales = personal.getDatosLaborales();
+        else if (persona instanceof RecursosHumanos rh) datosLaborales = rh.getDatosLaborales();
+        return datosLaborales != null ? datosLaborales.getEmailEmpresarial() : null;
+    }
+
+
+    /**
+     * Identidades de un email y el instante ({@link System#nanoTime()}) en que dejan de ser válidas.
+     */
+    private record Entrada(List<IdentidadDto> identidades, long vence) {}
+}
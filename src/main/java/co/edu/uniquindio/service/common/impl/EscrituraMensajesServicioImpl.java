@@ -0,0 +1,490 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ParticipantesChatDto;
+import co.edu.uniquindio.exception.CargaFallidaException;
+import co.edu.uniquindio.exception.ElementoNoActivadoException;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.exception.ElementoNoValido;
+import co.edu.uniquindio.model.common.enums.EstadoChat;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.repository.common.ChatSessionRepo;
+import co.edu.uniquindio.service.common.EscrituraMensajesServicio;
+import co.edu.uniquindio.utils.DiarioMensajes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Implementación de {@link EscrituraMensajesServicio}.
+ *
+ * <p>
+ * Aceptar un mensaje no consulta la base de datos salvo para revalidar la sesión:
+ * <ul>
+ *     <li>El estado de cada sesión se guarda en memoria y se vuelve a leer, con una proyección, cada
+ *     {@code store-it.chat.escritura.revalidacion-ms}. Cerrar la sesión en este nodo lo marca al instante, y
+ *     cada lote guardado vuelve a leer el estado de sus sesiones: una sesión cerrada en otro nodo deja de
+ *     aceptar mensajes aquí un lote después, sin esperar la revalidación.</li>
+ *     <li>La fecha de envío y el ID se asignan con el candado de la sesión, así que dentro de una sesión ambos
+ *     crecen en el orden de llegada. Los IDs salen de bloques de la secuencia {@code mensajes_chat_seq}.</li>
+ *     <li>El mensaje se escribe en el {@link DiarioMensajes} y se confirma cuando está en disco.</li>
+ * </ul>
+ * Un hilo escritor cierra un lote del diario cada {@code intervalo-ms}, o antes si se acumulan {@code lote}
+ * mensajes, y lo inserta con un solo lote JDBC en una transacción. Si falla, el lote se reintenta con
+ * {@code MERGE}, que omite los mensajes ya guardados. Al arrancar se reinsertan de la misma forma los
+ * segmentos que dejó una caída. Tras {@code max-intentos} fallos el lote se guarda fila por fila, y las filas
+ * que la base de datos rechaza (una restricción violada) se apartan con {@link DiarioMensajes#apartar(List)}:
+ * un mensaje imposible de guardar no detiene a los que vienen detrás.
+ * </p>
+ *
+ * <p>
+ * El historial lee la base de datos, así que un mensaje aparece en él hasta un intervalo después de
+ * confirmarse; en tiempo real se entrega de inmediato. Mientras tanto su ID sirve como cursor del historial:
+ * {@link #buscarFechaEnvio(Long, Long)} la resuelve desde los mensajes sin guardar.
+ * </p>
+ */
+@Service
+public class EscrituraMensajesServicioImpl implements EscrituraMensajesServicio {
+
+    // Debe coincidir con el allocationSize de la secuencia en la entidad Mensaje
+    private static final int INCREMENTO_SECUENCIA = 50;
+
+    // Longitud de la columna contenido de mensajes_chat
+    private static final int MAXIMO_CONTENIDO = 1000;
+
+    private static final String INSERTAR = """
+            INSERT INTO mensajes_chat (id, chat_session_id, remitente, contenido, fecha_envio)
+            VALUES (:id, :idChatSession, :remitente, :contenido, :fechaEnvio)
+        """;
+
+    private static final String INSERTAR_SI_FALTA = """
+            MERGE INTO mensajes_chat m
+            USING (SELECT :id AS id FROM dual) n ON (m.id = n.id)
+            WHEN NOT MATCHED THEN
+                INSERT (id, chat_session_id, remitente, contenido, fecha_envio)
+                VALUES (:id, :idChatSession, :remitente, :contenido, :fechaEnvio)
+        """;
+
+    private static final String SESIONES_CERRADAS = """
+            SELECT id FROM chat_sessions WHERE id IN (:ids) AND estado <> 'ACTIVO'
+        """;
+
+    // Solo avanza: un lote reintentado no retrocede la actividad de la sesión
+    private static final String REGISTRAR_ACTIVIDAD = """
+            UPDATE chat_sessions SET ultima_actividad = :fecha
+            WHERE id = :id AND (ultima_actividad IS NULL OR ultima_actividad < :fecha)
+        """;
+
+    private final ChatSessionRepo chatSessionRepo;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter mensajesGuardados;
+    private final Counter mensajesRechazados;
+    private final Timer tiempoLote;
+    private static final Logger logger = LoggerFactory.getLogger(EscrituraMensajesServicioImpl.class);
+
+    private final Map<Long, SesionChat> sesiones = new ConcurrentHashMap<>();
+
+    // Mensajes confirmados que aún no están en la base de datos, por ID
+    private final Map<Long, MensajeChatResumenDto> sinGuardar = new ConcurrentHashMap<>();
+
+    // Lotes cuya inserción falló, en orden; solo los toca vaciar()
+    private final Deque<LoteFallido> reintentos = new ArrayDeque<>();
+    private final AtomicInteger mensajesEnReintento = new AtomicInteger();
+
+    // Bloque de IDs reservado de la secuencia
+    private final Object candadoIds = new Object();
+    private long siguienteId = 1;
+    private long ultimoId = 0;
+
+    private DiarioMensajes diario;
+    private volatile Thread escritor;
+    private volatile boolean detenido;
+
+    // Directorio de los segmentos del diario
+    @Value("${store-it.chat.escritura.directorio:diario-chat}")
+    private String directorio;
+
+    // Espera máxima antes de guardar los mensajes pendientes
+    @Value("${store-it.chat.escritura.intervalo-ms:10}")
+    private long intervaloMs;
+
+    // Mensajes pendientes que disparan un guardado sin esperar el intervalo
+    @Value("${store-it.chat.escritura.lote:500}")
+    private int lote;
+
+    // Espera tras un guardado fallido
+    @Value("${store-it.chat.escritura.reintento-ms:1000}")
+    private long reintentoMs;
+
+    // Intentos de un lote antes de guardarlo fila por fila
+    @Value("${store-it.chat.escritura.max-intentos:5}")
+    private int maximoIntentos;
+
+    // Mensajes sin guardar a partir de los cuales se rechazan los nuevos
+    @Value("${store-it.chat.escritura.maximo-pendientes:50000}")
+    private int maximoPendientes;
+
+    // Vigencia del estado de una sesión en memoria
+    @Value("${store-it.chat.escritura.revalidacion-ms:30000}")
+    private long revalidacionMs;
+
+
+    public EscrituraMensajesServicioImpl(ChatSessionRepo chatSessionRepo, NamedParameterJdbcTemplate jdbcTemplate,
+                                         TransactionTemplate transactionTemplate, MeterRegistry registry) {
+        this.chatSessionRepo = chatSessionRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mensajesGuardados = Counter.builder("storeit.chat.escritura.mensajes")
+                .description("Mensajes de chat guardados en la base de datos por el escritor en lotes")
+                .register(registry);
+        this.mensajesRechazados = Counter.builder("storeit.chat.escritura.rechazados")
+                .description("Mensajes de chat que la base de datos rechazó y se apartaron del diario")
+                .register(registry);
+        this.tiempoLote = Timer.builder("storeit.chat.escritura.lote")
+                .description("Duración de la inserción de un lote de mensajes de chat")
+                .register(registry);
+        Gauge.builder("storeit.chat.escritura.pendientes", this, EscrituraMensajesServicioImpl::pendientes)
+                .description("Mensajes de chat confirmados que aún no están en la base de datos")
+                .register(registry);
+    }
+
+
+    @PostConstruct
+    public void inicializar() throws IOException {
+        Path ruta = Paths.get(directorio).toAbsolutePath().normalize();
+        diario = new DiarioMensajes(ruta);
+        logger.info("Diario de mensajes de chat en {} ({} segmentos por recuperar)", ruta, diario.recuperados().size());
+    }
+
+
+    /**
+     * Reinserta lo que dejó una caída y arranca el hilo escritor.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        synchronized (this) {
+            for (DiarioMensajes.Lote recuperado : diario.recuperados()) {
+                reintentos.addLast(new LoteFallido(recuperado));
+                mensajesEnReintento.addAndGet(recuperado.mensajes().size());
+                recuperado.mensajes().forEach(mensaje -> sinGuardar.put(mensaje.id(), mensaje));
+            }
+        }
+        if (mensajesEnReintento.get() > 0) {
+            logger.info("Recuperando {} mensajes de chat del diario local", mensajesEnReintento.get());
+        }
+
+        escritor = Thread.ofPlatform().name("chat-escritor").daemon(true).start(this::escribirContinuamente);
+    }
+
+
+    @PreDestroy
+    public void detener() throws IOException, InterruptedException {
+        detenido = true;
+        Thread hilo = escritor;
+        if (hilo != null) {
+            LockSupport.unpark(hilo);
+            hilo.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!vaciar()) {
+            logger.warn("Quedan {} mensajes de chat sin guardar; se recuperarán del diario al arrancar", pendientes());
+        }
+        diario.close();
+    }
+
+
+    @Override
+    public MensajeChatResumenDto agregar(Long idChatSession, RemitenteChat remitente, String contenido)
+            throws ElementoNoEncontradoException {
+        // Una fila inválida haría fallar todo su lote: se rechaza antes de confirmarla
+        if (remitente == null || contenido == null || contenido.isBlank() || contenido.length() > MAXIMO_CONTENIDO) {
+            throw new ElementoNoValido(MensajeError.MENSAJE_CHAT_INVALIDO);
+        }
+        SesionChat sesion = sesion(idChatSession);
+        if (!sesion.activa) throw new ElementoNoActivadoException(MensajeError.CHAT_NO_ACTIVO);
+        if (pendientes() >= maximoPendientes) throw new CargaFallidaException(MensajeError.CHAT_ESCRITURA_SATURADA);
+
+        return escribir(idChatSession, sesion, remitente, contenido);
+    }
+
+
+    @Override
+    public MensajeChatResumenDto agregarCierre(Long idChatSession, RemitenteChat remitente, String contenido) {
+        SesionChat sesion = sesiones.computeIfAbsent(idChatSession, id -> new SesionChat());
+        sesion.activa = false;
+        sesion.validada = System.currentTimeMillis();
+        return escribir(idChatSession, sesion, remitente, contenido);
+    }
+
+
+    /**
+     * Asigna ID y fecha de envío al mensaje y lo deja en el diario.
+     */
+    private MensajeChatResumenDto escribir(Long idChatSession, SesionChat sesion, RemitenteChat remitente,
+                                           String contenido) {
+        MensajeChatResumenDto mensaje;
+        synchronized (sesion) {
+            // Precisión de la columna (microsegundos) y nunca anterior al último mensaje de la sesión
+            LocalDateTime fechaEnvio = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            if (sesion.ultimaFecha != null && fechaEnvio.isBefore(sesion.ultimaFecha)) {
+                fechaEnvio = sesion.ultimaFecha;
+            }
+            sesion.ultimaFecha = fechaEnvio;
+            mensaje = new MensajeChatResumenDto(siguienteId(), idChatSession, remitente, contenido, fechaEnvio);
+        }
+
+        // Antes del diario: el escritor puede guardarlo y quitarlo en cuanto está en un lote
+        sinGuardar.put(mensaje.id(), mensaje);
+        try {
+            diario.agregar(mensaje);
+        } catch (IOException e) {
+            sinGuardar.remove(mensaje.id());
+            throw new CargaFallidaException(MensajeError.CHAT_DIARIO_FALLIDO, e);
+        }
+
+        Thread hilo = escritor;
+        if (hilo != null && diario.pendientes() >= lote) LockSupport.unpark(hilo);
+        return mensaje;
+    }
+
+
+    @Override
+    public void cerrarSesion(Long idChatSession) {
+        SesionChat sesion = sesiones.get(idChatSession);
+        if (sesion != null) sesion.activa = false;
+    }
+
+
+    @Override
+    public Optional<LocalDateTime> buscarFechaEnvio(Long idMensaje, Long idChatSession) {
+        MensajeChatResumenDto mensaje = sinGuardar.get(idMensaje);
+        return mensaje == null || !mensaje.idChatSession().equals(idChatSession)
+                ? Optional.empty()
+                : Optional.of(mensaje.fechaEnvio());
+    }
+
+
+    @Override
+    public synchronized boolean vaciar() {
+        try {
+            while (!reintentos.isEmpty()) {
+                LoteFallido fallido = reintentos.peekFirst();
+                if (fallido.intentos >= maximoIntentos) {
+                    guardarFilaPorFila(fallido.lote);
+                } else {
+                    fallido.intentos++;
+                    guardar(fallido.lote, INSERTAR_SI_FALTA);
+                }
+                reintentos.pollFirst();
+                mensajesEnReintento.addAndGet(-fallido.lote.mensajes().size());
+            }
+
+            DiarioMensajes.Lote nuevo = diario.cerrarLote();
+            if (nuevo == null) return true;
+            try {
+                guardar(nuevo, INSERTAR);
+            } catch (RuntimeException e) {
+                // No se sabe si la transacción llegó a confirmarse: el reintento usa MERGE
+                reintentos.addLast(new LoteFallido(nuevo));
+                mensajesEnReintento.addAndGet(nuevo.mensajes().size());
+                throw e;
+            }
+            return diario.pendientes() == 0;
+        } catch (RuntimeException | IOException e) {
+            logger.warn("No se pudieron guardar los mensajes de chat pendientes ({}); se reintentará",
+                    e.getMessage());
+            return false;
+        }
+    }
+
+
+    private void escribirContinuamente() {
+        long intervaloNs = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        long ultimaLimpieza = System.currentTimeMillis();
+
+        while (!detenido) {
+            if (diario.pendientes() < lote) LockSupport.parkNanos(intervaloNs);
+            if (!vaciar()) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(reintentoMs));
+
+            long ahora = System.currentTimeMillis();
+            if (ahora - ultimaLimpieza > revalidacionMs) {
+                // El estado vencido se volvería a leer de todos modos
+                sesiones.values().removeIf(sesion -> ahora - sesion.validada > revalidacionMs);
+                ultimaLimpieza = ahora;
+            }
+        }
+    }
+
+
+    /**
+     * Inserta un lote y actualiza la última actividad de sus sesiones en una sola transacción; luego
+     * descarta su segmento del diario.
+     */
+    private void guardar(DiarioMensajes.Lote lote, String sentencia) throws IOException {
+        insertar(lote.mensajes(), sentencia);
+        confirmar(lote);
+    }
+
+
+    /**
+     * Guarda un lote que falló {@code max-intentos} veces insertando cada mensaje en su propia transacción.
+     * Los que violan una restricción se apartan del diario; cualquier otro error deja el lote para reintentarlo.
+     */
+    private void guardarFilaPorFila(DiarioMensajes.Lote lote) throws IOException {
+        List<MensajeChatResumenDto> rechazados = new ArrayList<>();
+        for (MensajeChatResumenDto mensaje : lote.mensajes()) {
+            try {
+                insertar(List.of(mensaje), INSERTAR_SI_FALTA);
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Mensaje de chat {} de la sesión {} rechazado por la base de datos: {}",
+                        mensaje.id(), mensaje.idChatSession(), e.getMostSpecificCause().getMessage());
+                rechazados.add(mensaje);
+            }
+        }
+        if (!rechazados.isEmpty()) {
+            logger.error("{} mensajes de chat apartados en {}", rechazados.size(), diario.apartar(rechazados));
+            mensajesRechazados.increment(rechazados.size());
+        }
+        confirmar(lote);
+    }
+
+
+    private void confirmar(DiarioMensajes.Lote lote) throws IOException {
+        diario.confirmar(lote);
+        lote.mensajes().forEach(mensaje -> sinGuardar.remove(mensaje.id()));
+    }
+
+
+    /**
+     * Inserta los mensajes y actualiza la última actividad de sus sesiones en una sola transacción. Al
+     * terminar, marca como cerradas en memoria las sesiones del lote que ya no están activas.
+     */
+    private void insertar(List<MensajeChatResumenDto> mensajes, String sentencia) {
+        SqlParameterSource[] filas = mensajes.stream()
+                .map(mensaje -> new MapSqlParameterSource()
+                        .addValue("id", mensaje.id())
+                        .addValue("idChatSession", mensaje.idChatSession())
+                        .addValue("remitente", mensaje.remitente().ordinal())
+                        .addValue("contenido", mensaje.contenido())
+                        .addValue("fechaEnvio", mensaje.fechaEnvio()))
+                .toArray(SqlParameterSource[]::new);
+
+        // Última actividad de cada sesión del lote, para la limpieza de sesiones inactivas
+        Map<Long, LocalDateTime> actividad = new HashMap<>();
+        for (MensajeChatResumenDto mensaje : mensajes) {
+            actividad.merge(mensaje.idChatSession(), mensaje.fechaEnvio(),
+                    (anterior, nueva) -> nueva.isAfter(anterior) ? nueva : anterior);
+        }
+        SqlParameterSource[] sesionesLote = actividad.entrySet().stream()
+                .map(entrada -> new MapSqlParameterSource()
+                        .addValue("id", entrada.getKey())
+                        .addValue("fecha", entrada.getValue()))
+                .toArray(SqlParameterSource[]::new);
+
+        List<Long> cerradas = tiempoLote.record(() -> transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(sentencia, filas);
+            jdbcTemplate.batchUpdate(REGISTRAR_ACTIVIDAD, sesionesLote);
+            return jdbcTemplate.queryForList(SESIONES_CERRADAS,
+                    new MapSqlParameterSource("ids", actividad.keySet()), Long.class);
+        }));
+        mensajesGuardados.increment(filas.length);
+        if (cerradas != null) cerradas.forEach(this::cerrarSesion);
+    }
+
+
+    private SesionChat sesion(Long idChatSession) throws ElementoNoEncontradoException {
+        SesionChat sesion = sesiones.computeIfAbsent(idChatSession, id -> new SesionChat());
+        long ahora = System.currentTimeMillis();
+        if (ahora - sesion.validada <= revalidacionMs) return sesion;
+
+        ParticipantesChatDto participantes = chatSessionRepo.buscarParticipantes(idChatSession).orElse(null);
+        if (participantes == null) {
+            sesiones.remove(idChatSession);
+            throw new ElementoNoEncontradoException(MensajeError.CHAT_NO_ENCONTRADO);
+        }
+        sesion.activa = participantes.estado() == EstadoChat.ACTIVO;
+        sesion.validada = ahora;
+        return sesion;
+    }
+
+
+    /**
+     * Siguiente ID del bloque reservado; al agotarlo reserva otro de la secuencia.
+     * Igual que el optimizador pooled-lo que usa Hibernate, el valor de la secuencia es el inicio del bloque.
+     */
+    private long siguienteId() {
+        synchronized (candadoIds) {
+            if (siguienteId > ultimoId) {
+                Long bajo = jdbcTemplate.getJdbcTemplate()
+                        .queryForObject("SELECT mensajes_chat_seq.NEXTVAL FROM dual", Long.class);
+                siguienteId = bajo;
+                ultimoId = bajo + INCREMENTO_SECUENCIA - 1;
+            }
+            return siguienteId++;
+        }
+    }
+
+
+    private int pendientes() {
+        return diario == null ? 0 : diario.pendientes() + mensajesEnReintento.get();
+    }
+
+
+    /**
+     * Lote cuya inserción falló y los intentos hechos, contando el primero.
+     */
+    private static final class LoteFallido {
+
+        private final DiarioMensajes.Lote lote;
+        private int intentos = 1;
+
+        private LoteFallido(DiarioMensajes.Lote lote) {
+            this.lote = lote;
+        }
+    }
+
+
+    /**
+     * Estado en memoria de una sesión de chat.
+     */
+    private static final class SesionChat {
+
+        private volatile boolean activa;
+        // Cero obliga a leer el estado en el primer uso
+        private volatile long validada;
+        // Protegida por el candado de la sesión
+        private LocalDateTime ultimaFecha;
+    }
+}
@@ -0,0 +1,70 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.model.users.base.Persona;
+import co.edu.uniquindio.service.common.IndiceTelefonoServicio;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener de Hibernate que mantiene el índice de teléfonos al día
+ * cuando se crea, modifica o elimina cualquier tipo de {@link Persona}.
+ * <p>
+ * Se registra igual que {@link DirectorioIdentidadListener}, para que la entidad no dependa de la capa
+ * de servicios. Se ejecuta durante el flush y en la misma transacción, así que una violación de la
+ * unicidad del índice aborta el guardado de la persona.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class IndiceTelefonoListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final IndiceTelefonoServicio indiceTelefonoServicio;
+    private final EntityManagerFactory entityManagerFactory;
+
+
+    @PostConstruct
+    public void registrar() {
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_INSERT, this);
+        registro.appendListeners(EventType.POST_UPDATE, this);
+        registro.appendListeners(EventType.POST_DELETE, this);
+    }
+
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Persona persona) indiceTelefonoServicio.sincronizar(persona);
+    }
+
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Persona persona) indiceTelefonoServicio.sincronizar(persona);
+    }
+
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Persona persona) indiceTelefonoServicio.eliminar(persona);
+    }
+
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,298 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.model.users.base.Persona;
+import co.edu.uniquindio.model.users.common.IndiceTelefono;
+import co.edu.uniquindio.model.users.enums.RolPersona;
+import co.edu.uniquindio.repository.users.IndiceTelefonoRepo;
+import co.edu.uniquindio.service.common.IndiceTelefonoServicio;
+import co.edu.uniquindio.service.utils.PhoneServicio;
+import co.edu.uniquindio.utils.FiltroBloom;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación de {@link IndiceTelefonoServicio}.
+ * <p>
+ * El filtro de Bloom se llena al reconstruir el índice y recibe cada teléfono nuevo al sincronizar.
+ * Como los bits no se pueden quitar, los teléfonos liberados (por edición o eliminación) solo provocan
+ * una consulta de más hasta la recarga diaria del filtro. La restricción de unicidad de la tabla sigue
+ * siendo la garantía final si dos registros concurrentes usan el mismo teléfono.
+ * </p>
+ *
+ * <p>
+ * Un filtro nuevo se construye a partir de una consulta, que no ve los teléfonos insertados después ni los
+ * de transacciones aún sin confirmar. Por eso cada teléfono nuevo se agrega al filtro al insertarlo y otra vez
+ * al confirmarse, y los que se agregan mientras se construye un filtro se registran aparte y se le aplican
+ * antes y después de publicarlo.
+ * </p>
+ *
+ * <p>
+ * Las escrituras usan JDBC sobre la conexión de la transacción en curso, porque se invocan desde
+ * los listeners de Hibernate durante el flush, donde no se puede usar el {@code EntityManager}.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class IndiceTelefonoServicioImpl implements IndiceTelefonoServicio {
+
+    private final IndiceTelefonoRepo indiceTelefonoRepo;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PhoneServicio phoneServicio;
+    private static final Logger logger = LoggerFactory.getLogger(IndiceTelefonoServicioImpl.class);
+
+    // Filas insertadas por cada lote JDBC durante la reconstrucción
+    private static final int TAMANO_LOTE = 500;
+
+    // Tabla en la que se guarda cada rol
+    private static final Map<RolPersona, String> TABLAS = Map.of(
+            RolPersona.CLIENTE, "clientes",
+            RolPersona.AGENTE_VENTAS, "agente_ventas",
+            RolPersona.PERSONAL_BODEGA, "personal_bodega",
+            RolPersona.RECURSOS_HUMANOS, "recursos_humanos");
+
+    private static final String INSERTAR = """
+            INSERT INTO indice_telefonos (id, telefono, rol, persona_id)
+            VALUES (indice_telefonos_seq.NEXTVAL, :telefono, :rol, :personaId)
+        """;
+
+    @Value("${store-it.telefonos.bloom.esperados:100000}")
+    private long elementosEsperados;
+
+    @Value("${store-it.telefonos.bloom.probabilidad-falsos:0.01}")
+    private double probabilidadFalsos;
+
+    // Null hasta la primera reconstrucción: mientras tanto todas las búsquedas consultan la base de datos
+    private volatile FiltroBloom filtro;
+
+    // Teléfonos agregados mientras se construye un filtro nuevo; null fuera de una recarga
+    private volatile Set<String> agregadosEnRecarga;
+
+
+    @Override
+    public Optional<IndiceTelefono> buscar(String telefono) {
+        String normalizado = phoneServicio.normalizarTelefono(telefono);
+        if (normalizado == null) return Optional.empty();
+
+        // El filtro responde "no registrado" sin ir a la base de datos
+        FiltroBloom actual = filtro;
+        if (actual != null && !actual.puedeContener(normalizado)) {
+            return Optional.empty();
+        }
+
+        return indiceTelefonoRepo.findByTelefono(normalizado);
+    }
+
+
+    @Override
+    public void sincronizar(Persona persona) {
+        RolPersona rol = RolPersona.de(persona);
+        if (rol == null || persona.getId() == null) return;
+
+        // Teléfonos actuales de la persona en formato E.164
+        Set<String> telefonos = new LinkedHashSet<>();
+        agregarNormalizado(telefonos, persona.getTelefono());
+        agregarNormalizado(telefonos, persona.getTelefonoSecundario());
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("rol", rol.name())
+                .addValue("personaId", persona.getId());
+
+        List<String> registrados = jdbcTemplate.queryForList(
+                "SELECT telefono FROM indice_telefonos WHERE rol = :rol AND persona_id = :personaId",
+                parametros, String.class);
+
+        // Sin cambios en los teléfonos: no hay nada que escribir
+        if (telefonos.equals(new LinkedHashSet<>(registrados))) return;
+
+        // Quitamos los teléfonos que la persona ya no tiene
+        if (telefonos.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM indice_telefonos WHERE rol = :rol AND persona_id = :personaId", parametros);
+        } else {
+            jdbcTemplate.update("""
+                DELETE FROM indice_telefonos
+                WHERE rol = :rol AND persona_id = :personaId AND telefono NOT IN (:telefonos)
+            """, new MapSqlParameterSource(parametros.getValues()).addValue("telefonos", telefonos));
+        }
+
+        // Insertamos los nuevos; si otro ya lo tiene, la restricción de unicidad aborta la transacción
+        for (String telefono : telefonos) {
+            if (registrados.contains(telefono)) continue;
+
+            jdbcTemplate.update(INSERTAR, new MapSqlParameterSource(parametros.getValues())
+                    .addValue("telefono", telefono));
+
+            agregarAlFiltro(telefono);
+            // Un filtro construido antes de confirmar esta transacción no lo vio en la base de datos
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        agregarAlFiltro(telefono);
+                    }
+                });
+            }
+        }
+    }
+
+
+    @Override
+    public void eliminar(Persona persona) {
+        RolPersona rol = RolPersona.de(persona);
+        if (rol == null || persona.getId() == null) return;
+
+        jdbcTemplate.update("DELETE FROM indice_telefonos WHERE rol = :rol AND persona_id = :personaId",
+                new MapSqlParameterSource()
+                        .addValue("rol", rol.name())
+                        .addValue("personaId", persona.getId()));
+    }
+
+
+    /**
+     * Reconstrucción inicial al arrancar, para incluir las cuentas creadas antes de existir el índice
+     * o modificadas por fuera de JPA.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconstruccionInicial() {
+        reconstruir();
+    }
+
+
+    /**
+     * Recarga diaria del filtro de Bloom, para descartar los bits de teléfonos que ya se liberaron.
+     */
+    @Scheduled(cron = "0 30 3 * * *") // Todos los días a las 3:30 a.m.
+    @Transactional(readOnly = true)
+    public void recargarFiltro() {
+        Set<String> agregados = iniciarRecarga();
+        List<String> telefonos = jdbcTemplate.getJdbcTemplate()
+                .queryForList("SELECT telefono FROM indice_telefonos", String.class);
+        publicar(construirFiltro(telefonos), agregados);
+        logger.info("Filtro de teléfonos recargado con {} entradas", telefonos.size());
+    }
+
+
+    @Override
+    @Transactional
+    public void reconstruir() {
+        Set<String> agregados = iniciarRecarga();
+
+        // La normalización E.164 la hace libphonenumber, por eso las filas se leen y se normalizan en Java
+        Map<String, SqlParameterSource> entradas = new LinkedHashMap<>();
+        int repetidos = 0;
+
+        for (Map.Entry<RolPersona, String> tabla : TABLAS.entrySet()) {
+            List<Map<String, Object>> filas = jdbcTemplate.getJdbcTemplate().queryForList(
+                    "SELECT id, telefono, telefono_secundario FROM %s".formatted(tabla.getValue()));
+
+            for (Map<String, Object> fila : filas) {
+                Long personaId = ((Number) fila.get("id")).longValue();
+                for (Object valor : new Object[]{fila.get("telefono"), fila.get("telefono_secundario")}) {
+                    String telefono = valor != null ? phoneServicio.normalizarTelefono(valor.toString()) : null;
+                    if (telefono == null) continue;
+
+                    SqlParameterSource entrada = new MapSqlParameterSource()
+                            .addValue("telefono", telefono)
+                            .addValue("rol", tabla.getKey().name())
+                            .addValue("personaId", personaId);
+
+                    // Datos anteriores al índice pueden tener teléfonos repetidos: se conserva el primero
+                    SqlParameterSource previa = entradas.putIfAbsent(telefono, entrada);
+                    if (previa != null && !previa.getValue("personaId").equals(personaId)) {
+                        repetidos++;
+                        logger.warn("Teléfono {} registrado en más de una cuenta; se indexa solo la primera", telefono);
+                    }
+                }
+            }
+        }
+
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM indice_telefonos");
+
+        List<SqlParameterSource> lote = new ArrayList<>(TAMANO_LOTE);
+        for (SqlParameterSource entrada : entradas.values()) {
+            lote.add(entrada);
+            if (lote.size() == TAMANO_LOTE) {
+                jdbcTemplate.batchUpdate(INSERTAR, lote.toArray(SqlParameterSource[]::new));
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERTAR, lote.toArray(SqlParameterSource[]::new));
+        }
+
+        publicar(construirFiltro(entradas.keySet()), agregados);
+        logger.info("Índice de teléfonos reconstruido con {} entradas ({} repetidos omitidos)", entradas.size(), repetidos);
+    }
+
+
+    /**
+     * Agrega un teléfono al filtro publicado y, durante una recarga, lo registra para el filtro nuevo.
+     * El registro va primero: si se publica un filtro después, este hilo ya lee el nuevo.
+     */
+    private void agregarAlFiltro(String telefono) {
+        Set<String> agregados = agregadosEnRecarga;
+        if (agregados != null) agregados.add(telefono);
+
+        FiltroBloom actual = filtro;
+        if (actual != null) actual.agregar(telefono);
+    }
+
+
+    private Set<String> iniciarRecarga() {
+        Set<String> agregados = ConcurrentHashMap.newKeySet();
+        agregadosEnRecarga = agregados;
+        return agregados;
+    }
+
+
+    /**
+     * Publica el filtro nuevo con los teléfonos agregados mientras se construía. La segunda pasada recoge los
+     * que llegaron al filtro anterior justo antes de publicarlo.
+     */
+    private void publicar(FiltroBloom nuevo, Set<String> agregados) {
+        agregados.forEach(nuevo::agregar);
+        filtro = nuevo;
+        agregados.forEach(nuevo::agregar);
+        if (agregadosEnRecarga == agregados) agregadosEnRecarga = null;
+    }
+
+
+    /**
+     * Crea un filtro de Bloom con los teléfonos indicados, con espacio para el doble de ellos.
+     */
+    private FiltroBloom construirFiltro(Iterable<String> telefonos) {
+        long total = 0;
+        for (String ignored : telefonos) total++;
+
+        FiltroBloom nuevo = new FiltroBloom(Math.max(elementosEsperados, total * 2), probabilidadFalsos);
+        telefonos.forEach(nuevo::agregar);
+        return nuevo;
+    }
+
+
+    private void agregarNormalizado(Set<String> telefonos, String telefono) {
+        String normalizado = phoneServicio.normalizarTelefono(telefono);
+        if (normalizado != null) telefonos.add(normalizado);
+    }
+}
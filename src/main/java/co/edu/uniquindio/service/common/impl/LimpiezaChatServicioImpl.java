@@ -0,0 +1,281 @@
+package co.edu.uniquindio.service.common.impl;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ResumenArchivoChatDto;
+import co.edu.uniquindio.exception.CargaFallidaException;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.common.ChatSessionRepo;
+import co.edu.uniquindio.repository.common.MensajeRepo;
+import co.edu.uniquindio.service.common.AsignacionAgentesServicio;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import co.edu.uniquindio.service.common.EscrituraMensajesServicio;
+import co.edu.uniquindio.service.common.LimpiezaChatServicio;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementación de {@link LimpiezaChatServicio}.
+ * <p>
+ * Ambas fases trabajan por lotes de {@code store-it.chat.limpieza.lote} sesiones, cada uno en su propia
+ * transacción, apoyadas en el índice {@code (estado, archivado_en, ultima_actividad)} de chat_sessions, y
+ * siguen hasta encontrar un lote vacío: un lote corto solo significa que otra instancia tenía filas bloqueadas.
+ * La última actividad la actualiza el escritor de mensajes con cada lote que inserta.
+ * <ul>
+ *     <li><b>Cierre</b>: bloquea las sesiones activas inactivas ({@code FOR UPDATE SKIP LOCKED}) y las finaliza
+ *     con un solo {@code UPDATE}. Tras confirmar, devuelve el cupo de sus agentes, deja de aceptar mensajes
+ *     para ellas y avisa a los participantes conectados.</li>
+ *     <li><b>Archivado</b>: por cada lote de sesiones finalizadas antiguas, escribe sus mensajes en un archivo
+ *     {@code .jsonl.gz} (una línea JSON por mensaje), lo lleva a disco y solo entonces elimina las filas y marca
+ *     las sesiones como archivadas. Si el borrado o el marcado fallan, se elimina el archivo y el lote se vuelve
+ *     a archivar en la siguiente ejecución; solo si falla el commit mismo queda un archivo que puede repetir
+ *     mensajes, pero nunca se pierden. Si se eliminan más o menos mensajes de los archivados, el lote se revierte
+ *     y se aparta hasta la siguiente ejecución, para que no impida archivar los demás.</li>
+ * </ul>
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class LimpiezaChatServicioImpl implements LimpiezaChatServicio {
+
+    private static final DateTimeFormatter FORMATO_ARCHIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ChatSessionRepo chatSessionRepo;
+    private final BloqueoFilasRepo bloqueoFilasRepo;
+    private final MensajeRepo mensajeRepo;
+    private final AsignacionAgentesServicio asignacionAgentesServicio;
+    private final EscrituraMensajesServicio escrituraMensajesServicio;
+    private final ChatTiempoRealServicio chatTiempoRealServicio;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private static final Logger logger = LoggerFactory.getLogger(LimpiezaChatServicioImpl.class);
+
+    // Tiempo sin mensajes tras el cual se finaliza una sesión activa
+    @Value("${store-it.chat.limpieza.inactividad:PT30M}")
+    private Duration inactividad;
+
+    // Tiempo que se conservan en línea los mensajes de una sesión finalizada
+    @Value("${store-it.chat.limpieza.retencion:P180D}")
+    private Duration retencion;
+
+    // Sesiones por transacción (menos de 1000, límite de Oracle para IN)
+    @Value("${store-it.chat.limpieza.lote:50}")
+    private int lote;
+
+    // Directorio de los archivos de mensajes
+    @Value("${store-it.chat.limpieza.directorio:archivo-chat}")
+    private String directorio;
+
+
+    /**
+     * Tarea programada que finaliza las sesiones abandonadas.
+     */
+    @Scheduled(cron = "${store-it.chat.limpieza.cron:0 */5 * * * *}")
+    public void cierreProgramado() {
+        cerrarInactivas(LocalDateTime.now());
+    }
+
+
+    /**
+     * Tarea programada que archiva los mensajes antiguos.
+     */
+    @Scheduled(cron = "${store-it.chat.limpieza.archivo-cron:0 45 2 * * *}")
+    public void archivoProgramado() {
+        archivarMensajes(LocalDateTime.now());
+    }
+
+
+    /**
+     * Al arrancar, las sesiones anteriores a la columna {@code ultima_actividad} toman su fecha de fin o de inicio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarActividad() {
+        Integer completadas = transactionTemplate.execute(status -> chatSessionRepo.completarUltimaActividad());
+        if (completadas != null && completadas > 0) {
+            logger.info("Última actividad completada en {} sesiones de chat", completadas);
+        }
+    }
+
+
+    @Override
+    public int cerrarInactivas(LocalDateTime ahora) {
+        LocalDateTime limite = ahora.minus(inactividad);
+        int total = 0;
+        Cierre cierre;
+        do {
+            cierre = transactionTemplate.execute(status -> {
+                List<Long> ids = bloqueoFilasRepo.bloquear(ChatSessionRepo.INACTIVAS, lote, limite);
+                if (ids.isEmpty()) return new Cierre(ids, List.of());
+
+                List<Long> agentes = chatSessionRepo.listarAgentes(ids);
+                chatSessionRepo.finalizarTodas(ids, ahora);
+                return new Cierre(ids, agentes);
+            });
+
+            // Solo después del commit: si la transacción falla, las sesiones siguen activas
+            for (Long idChatSession : cierre.sesiones()) {
+                escrituraMensajesServicio.cerrarSesion(idChatSession);
+                chatTiempoRealServicio.cerrarChat(idChatSession, null);
+            }
+            cierre.agentes().forEach(asignacionAgentesServicio::liberar);
+            total += cierre.sesiones().size();
+        } while (!cierre.sesiones().isEmpty());
+
+        if (total > 0) logger.info("Limpieza de chat: {} sesiones finalizadas por inactividad", total);
+        return total;
+    }
+
+
+    @Override
+    public ResumenArchivoChatDto archivarMensajes(LocalDateTime ahora) {
+        LocalDateTime limite = ahora.minus(retencion);
+        Set<Long> apartadas = new HashSet<>();
+        int sesiones = 0, mensajes = 0, archivos = 0;
+        LoteArchivado archivado;
+        do {
+            archivado = transactionTemplate.execute(status -> archivarLote(limite, ahora, apartadas, status));
+            if (archivado.apartado()) {
+                apartadas.addAll(archivado.sesiones());
+            } else {
+                sesiones += archivado.sesiones().size();
+                mensajes += archivado.mensajes();
+                archivos += archivado.archivos();
+            }
+        } while (!archivado.sesiones().isEmpty());
+
+        if (sesiones > 0) {
+            logger.info("Limpieza de chat: {} mensajes de {} sesiones archivados en {} archivos",
+                    mensajes, sesiones, archivos);
+        }
+        return new ResumenArchivoChatDto(sesiones, mensajes, archivos);
+    }
+
+
+    /**
+     * Archiva un lote de sesiones, sin contar las apartadas en esta ejecución. Debe ejecutarse dentro de la
+     * transacción que recibe.
+     */
+    private LoteArchivado archivarLote(LocalDateTime limite, LocalDateTime ahora, Set<Long> apartadas,
+                                      TransactionStatus status) {
+        // Se piden de más para que las sesiones apartadas no ocupen el lote
+        List<Long> ids = bloqueoFilasRepo.bloquear(ChatSessionRepo.POR_ARCHIVAR, lote + apartadas.size(), limite)
+                .stream()
+                .filter(id -> !apartadas.contains(id))
+                .limit(lote)
+                .toList();
+        if (ids.isEmpty()) return new LoteArchivado(ids, 0, 0, false);
+
+        ArchivoChat archivo;
+        try (Stream<MensajeChatResumenDto> mensajes = mensajeRepo.listarPorSesiones(ids)) {
+            archivo = escribirArchivo(mensajes.iterator(), ahora, ids.get(0));
+        }
+
+        try {
+            int eliminados = mensajeRepo.eliminarPorSesiones(ids);
+            if (eliminados != archivo.mensajes()) {
+                // Un mensaje insertado entre la lectura y el borrado se eliminaría sin quedar en el archivo
+                logger.warn("Mensajes archivados ({}) y eliminados ({}) no coinciden en las sesiones {}; "
+                        + "se apartan hasta la siguiente ejecución", archivo.mensajes(), eliminados, ids);
+                status.setRollbackOnly();
+                borrarArchivo(archivo);
+                return new LoteArchivado(ids, 0, 0, true);
+            }
+            chatSessionRepo.marcarArchivadas(ids, ahora);
+        } catch (RuntimeException e) {
+            // La transacción se revierte: los mensajes siguen en la base de datos
+            borrarArchivo(archivo);
+            throw e;
+        }
+        return new LoteArchivado(ids, archivo.mensajes(), archivo.ruta() != null ? 1 : 0, false);
+    }
+
+
+    /**
+     * Escribe los mensajes en {@code directorio/aaaa/MM/chats-<fecha>-<sesión>.jsonl.gz}, en un temporal del
+     * mismo directorio que se lleva a disco y se mueve de forma atómica.
+     *
+     * @return archivo y mensajes escritos; sin mensajes no se crea archivo y la ruta es {@code null}.
+     */
+    private ArchivoChat escribirArchivo(Iterator<MensajeChatResumenDto> mensajes, LocalDateTime ahora,
+                                        Long primeraSesion) {
+        if (!mensajes.hasNext()) return new ArchivoChat(null, 0);
+
+        Path carpeta = Paths.get(directorio).toAbsolutePath().normalize()
+                .resolve(String.valueOf(ahora.getYear()))
+                .resolve(String.format("%02d", ahora.getMonthValue()));
+        Path destino = carpeta.resolve("chats-" + ahora.format(FORMATO_ARCHIVO) + "-" + primeraSesion + ".jsonl.gz");
+
+        try {
+            Files.createDirectories(carpeta);
+            Path temporal = Files.createTempFile(carpeta, "chats-", ".tmp");
+            try {
+                int escritos = 0;
+                try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                    // No se cierra el GZIP antes del force: cerraría también el canal
+                    GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(canal), 64 * 1024);
+                    while (mensajes.hasNext()) {
+                        gzip.write(objectMapper.writeValueAsBytes(mensajes.next()));
+                        gzip.write('\n');
+                        escritos++;
+                    }
+                    gzip.finish();
+                    canal.force(true);
+                }
+                Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                return new ArchivoChat(destino, escritos);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        } catch (IOException e) {
+            throw new CargaFallidaException(MensajeError.ERROR_ARCHIVAR_CHAT, e);
+        }
+    }
+
+
+    /**
+     * Elimina el archivo de un lote que no se llegó a borrar de la base de datos.
+     */
+    private void borrarArchivo(ArchivoChat archivo) {
+        if (archivo.ruta() == null) return;
+        try {
+            Files.deleteIfExists(archivo.ruta());
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar el archivo de chat {}; sus mensajes siguen en la base de datos",
+                    archivo.ruta(), e);
+        }
+    }
+
+
+    private record Cierre(List<Long> sesiones, List<Long> agentes) {}
+
+    private record ArchivoChat(Path ruta, int mensajes) {}
+
+    private record LoteArchivado(List<Long> sesiones, int mensajes, int archivos, boolean apartado) {}
+}
@@ -0,0 +1,40 @@
+package co.edu.uniquindio.service.objects;
+
+import co.edu.uniquindio.dto.objects.factura.ResumenCobranzaDto;
+import co.edu.uniquindio.dto.objects.factura.ResumenDeudaClienteDto;
+
+import java.time.LocalDate;
+
+/**
+ * Servicio de cobranza de las facturas pendientes cuya fecha de pago ya pasó.
+ * <p>
+ * Mantiene el resumen de deuda vencida por cliente y envía a cada cliente el aviso de cobro en PDF de sus
+ * facturas vencidas, repitiéndolo cada cierto número de días mientras sigan pendientes.
+ * </p>
+ */
+public interface CobranzaServicio {
+
+    /**
+     * Recalcula el resumen de deuda por cliente y encola los avisos de cobro que correspondan a la fecha.
+     * Se puede volver a ejecutar el mismo día: una factura ya avisada no se avisa de nuevo hasta que pase el
+     * plazo de reenvío.
+     *
+     * @param hoy fecha de la ejecución; las facturas con fecha de pago anterior están vencidas.
+     * @return clientes con deuda y avisos encolados.
+     */
+    ResumenCobranzaDto procesarCobranza(LocalDate hoy);
+
+
+    /**
+     * Deuda vencida de un cliente según el último cálculo, sin agregar sus facturas.
+     * <p>
+     * El resumen solo se recalcula en {@link #procesarCobranza(LocalDate)}: una factura pagada o anulada sigue
+     * contando hasta la siguiente ejecución diaria. El campo {@code actualizado} indica la fecha del cálculo.
+     * </p>
+     *
+     * @param idCliente ID del cliente.
+     * @return el resumen; con cero facturas si el cliente no tiene deuda vencida.
+     */
+    ResumenDeudaClienteDto obtenerResumenDeuda(Long idCliente);
+
+}
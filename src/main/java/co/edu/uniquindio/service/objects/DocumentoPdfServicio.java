@@ -0,0 +1,52 @@
+package co.edu.uniquindio.service.objects;
+
+import co.edu.uniquindio.dto.objects.contrato.DocumentoPdfDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.objects.enums.TipoDocumentoPdf;
+
+import java.nio.file.Path;
+
+/**
+ * Interfaz de servicio que gestiona los documentos PDF generados de los contratos.
+ *
+ * <p>
+ * Los PDF se generan en segundo plano cada vez que cambia un contrato y se guardan en el almacén
+ * local de archivos, de modo que clientes y agentes pueden descargarlos las veces que quieran
+ * sin que el servidor vuelva a renderizarlos.
+ */
+public interface DocumentoPdfServicio {
+
+    /**
+     * Solicita (o vuelve a solicitar) la generación del documento de un contrato.
+     * La generación ocurre en segundo plano; este método no espera a que termine.
+     *
+     * @param idContrato ID del contrato.
+     * @param tipo       tipo de documento.
+     */
+    void solicitar(Long idContrato, TipoDocumentoPdf tipo);
+
+
+    /**
+     * Consulta el estado del documento de un contrato. Si nunca se generó o su última generación falló,
+     * la solicita de nuevo.
+     *
+     * @param idContrato    ID del contrato.
+     * @param tipo          tipo de documento.
+     * @param idSolicitante ID del cliente o agente de ventas autenticado; debe ser parte del contrato.
+     * @return el estado del documento.
+     * @throws ElementoNoEncontradoException si el contrato no existe o el solicitante no es parte de él.
+     */
+    DocumentoPdfDto consultar(Long idContrato, TipoDocumentoPdf tipo, Long idSolicitante)
+            throws ElementoNoEncontradoException;
+
+
+    /**
+     * Devuelve la ruta del archivo guardado de un documento listo.
+     *
+     * @param documento documento en estado {@code LISTO}.
+     * @return la ruta del PDF en el almacén.
+     * @throws ElementoNoEncontradoException si el archivo ya no está en el almacén (se solicita de nuevo).
+     */
+    Path archivo(DocumentoPdfDto documento) throws ElementoNoEncontradoException;
+
+}
@@ -0,0 +1,47 @@
+package co.edu.uniquindio.service.objects;
+
+import co.edu.uniquindio.dto.objects.factura.EjecucionFacturacionDto;
+import co.edu.uniquindio.dto.objects.factura.ResumenFacturacionDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+
+import java.time.LocalDate;
+
+/**
+ * Servicio de facturación mensual de los contratos activos.
+ * <p>
+ * Cada cliente recibe una {@link co.edu.uniquindio.model.objects.Factura} por mes con un
+ * {@link co.edu.uniquindio.model.objects.DetalleFactura} por cada contrato activo, y el valor total con IVA.
+ * </p>
+ */
+public interface FacturacionServicio {
+
+    /**
+     * Factura el mes de la fecha indicada. Es idempotente por cliente y periodo: volver a ejecutarla solo
+     * factura a los clientes que todavía no tienen factura de ese mes.
+     *
+     * @param fechaEmision fecha de emisión de las facturas; su mes es el periodo facturado.
+     * @return cantidades facturadas y rendimiento de la ejecución.
+     */
+    ResumenFacturacionDto facturarPeriodo(LocalDate fechaEmision);
+
+
+    /**
+     * Inicia en segundo plano la facturación del mes de la fecha indicada y devuelve de inmediato.
+     * Si ya hay una ejecución en curso de ese mes, devuelve esa en lugar de iniciar otra.
+     *
+     * @param fechaEmision fecha de emisión de las facturas; su mes es el periodo facturado.
+     * @return la ejecución, en estado {@code EN_CURSO}.
+     */
+    EjecucionFacturacionDto iniciarFacturacion(LocalDate fechaEmision);
+
+
+    /**
+     * Consulta el estado de una ejecución iniciada con {@link #iniciarFacturacion(LocalDate)}.
+     *
+     * @param id identificador de la ejecución.
+     * @return la ejecución con su resumen, si ya terminó.
+     * @throws ElementoNoEncontradoException si no existe o ya expiró.
+     */
+    EjecucionFacturacionDto consultarEjecucion(String id) throws ElementoNoEncontradoException;
+
+}
@@ -22,7 +22,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -71,11 +73,8 @@ public class BodegasServicioImpl implements BodegaServicio {
         // Mapear el DTO a la entidad
         Bodega bodega = bodegaMapper.toEntity(crearBodegaDto);
 
-        // Subir imágenes a Cloudinary y guardar las URLs
-        List<String> urls = crearBodegaDto.fotos().stream()
-                .map(cloudinaryServicio::uploadImage)
-                .collect(Collectors.toList());
-        bodega.setFotos(urls);
+        // Subir imágenes a Cloudinary en paralelo y guardar las URLs
+        bodega.setFotos(new ArrayList<>(cloudinaryServicio.uploadImages(crearBodegaDto.fotos())));
 
         // Guardar la entidad en la base de datos
         bodegaRepo.save(bodega);
@@ -88,13 +87,15 @@ public class BodegasServicioImpl implements BodegaServicio {
      * <p>
      * Solo se actualizan los campos no nulos definidos en él {@link EditarBodegaDto}, respetando los valores actuales
      * en caso de que el campo no se desee modificar. En caso de incluir nuevas imágenes, se subirán a Cloudinary y
-     * reemplazarán la lista anterior de URLs.
+     * reemplazarán la lista anterior de URLs; las fotos que se vuelvan a enviar iguales no se suben de nuevo
+     * y las anteriores solo pierden una referencia.
      * </p>
      *
      * @param editarBodegaDto Objeto {@link EditarBodegaDto} que contiene los datos a actualizar. Debe incluir un ID válido.
      * @throws ElementoNoEncontradoException si no existe una bodega con el ID proporcionado.
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void editarBodega(EditarBodegaDto editarBodegaDto) throws ElementoNoEncontradoException {
 
         Bodega bodega = obtenerBodega(editarBodegaDto.id());
@@ -103,10 +104,10 @@ public class BodegasServicioImpl implements BodegaServicio {
 
         // Si hay nuevas fotos, subirlas a Cloudinary
         if (editarBodegaDto.fotos() != null && !editarBodegaDto.fotos().isEmpty()) {
-            List<String> nuevasFotos = editarBodegaDto.fotos().stream()
-                    .map(cloudinaryServicio::uploadImage)
-                    .collect(Collectors.toList());
+            List<String> fotosAnteriores = bodega.getFotos() == null ? List.of() : new ArrayList<>(bodega.getFotos());
+            List<String> nuevasFotos = new ArrayList<>(cloudinaryServicio.uploadImages(editarBodegaDto.fotos()));
             bodega.setFotos(nuevasFotos); // Reemplaza las anteriores
+            fotosAnteriores.forEach(cloudinaryServicio::eliminarImagen);
         }
         // Guardar cambios
         bodegaRepo.save(bodega);
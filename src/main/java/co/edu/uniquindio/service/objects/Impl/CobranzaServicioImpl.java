@@ -0,0 +1,193 @@
+package co.edu.uniquindio.service.objects.Impl;
+
+import co.edu.uniquindio.config.AsyncConfig;
+import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.dto.objects.factura.AvisoFacturaVencidaDto;
+import co.edu.uniquindio.dto.objects.factura.ResumenCobranzaDto;
+import co.edu.uniquindio.dto.objects.factura.ResumenDeudaClienteDto;
+import co.edu.uniquindio.model.objects.enums.EstadoFactura;
+import co.edu.uniquindio.repository.objects.FacturaRepo;
+import co.edu.uniquindio.repository.objects.ResumenDeudaClienteRepo;
+import co.edu.uniquindio.service.objects.CobranzaServicio;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import co.edu.uniquindio.service.utils.PdfService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implementación de {@link CobranzaServicio}.
+ * <p>
+ * Flujo de una ejecución:
+ * <ul>
+ *     <li>Recalcula {@code resumen_deuda_clientes} con un {@code MERGE} agrupado sobre las facturas vencidas y
+ *     elimina a los clientes que ya no deben, en una transacción.</li>
+ *     <li>Recorre en orden de ID y por lotes de {@code store-it.cobranza.lote} las facturas vencidas por avisar,
+ *     leídas con una proyección a través del índice {@code (estado_factura, fecha_pago)}.</li>
+ *     <li>Los PDF de cada lote se generan en paralelo en el pool {@link AsyncConfig#FACTURACION_EXECUTOR}, fuera
+ *     de cualquier transacción, con la plantilla ya compilada por Thymeleaf.</li>
+ *     <li>En una transacción corta por lote, cada factura se marca como avisada con un {@code UPDATE}
+ *     condicional y solo si lo consigue se encola su correo, así que dos instancias nunca avisan la misma
+ *     factura el mismo día. Un PDF que falla deja la factura sin marcar y se reintenta en la siguiente ejecución.</li>
+ * </ul>
+ * </p>
+ */
+@Service
+public class CobranzaServicioImpl implements CobranzaServicio {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final FacturaRepo facturaRepo;
+    private final ResumenDeudaClienteRepo resumenDeudaClienteRepo;
+    private final PdfService pdfService;
+    private final EmailServicio emailServicio;
+    private final ThreadPoolTaskExecutor cobranzaExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter avisosEncolados;
+    private static final Logger logger = LoggerFactory.getLogger(CobranzaServicioImpl.class);
+
+    // Facturas avisadas por transacción (y PDF generados en paralelo por lote)
+    @Value("${store-it.cobranza.lote:50}")
+    private int lote;
+
+    // Días que deben pasar antes de repetir el aviso de una factura que sigue pendiente
+    @Value("${store-it.cobranza.reenvio-dias:7}")
+    private int reenvioDias;
+
+
+    public CobranzaServicioImpl(FacturaRepo facturaRepo, ResumenDeudaClienteRepo resumenDeudaClienteRepo,
+                                PdfService pdfService, EmailServicio emailServicio,
+                                @Qualifier(AsyncConfig.FACTURACION_EXECUTOR) ThreadPoolTaskExecutor cobranzaExecutor,
+                                PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.facturaRepo = facturaRepo;
+        this.resumenDeudaClienteRepo = resumenDeudaClienteRepo;
+        this.pdfService = pdfService;
+        this.emailServicio = emailServicio;
+        this.cobranzaExecutor = cobranzaExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.avisosEncolados = Counter.builder("storeit.cobranza.avisos")
+                .description("Avisos de cobro de facturas vencidas encolados")
+                .register(registry);
+    }
+
+
+    /**
+     * Tarea programada que procesa la cobranza del día.
+     */
+    @Scheduled(cron = "${store-it.cobranza.cron:0 0 7 * * *}")
+    public void cobranzaProgramada() {
+        procesarCobranza(LocalDate.now());
+    }
+
+
+    @Override
+    public ResumenCobranzaDto procesarCobranza(LocalDate hoy) {
+        Integer clientesConDeuda = transactionTemplate.execute(status -> {
+            resumenDeudaClienteRepo.eliminarSinDeuda(hoy);
+            return resumenDeudaClienteRepo.recalcular(hoy, LocalDateTime.now());
+        });
+
+        LocalDate limiteReaviso = hoy.minusDays(reenvioDias);
+        int avisos = 0, fallidos = 0;
+        Long desdeId = 0L;
+        List<AvisoFacturaVencidaDto> facturas;
+        do {
+            facturas = facturaRepo.listarVencidasPorAvisar(EstadoFactura.PENDIENTE, hoy, limiteReaviso, desdeId,
+                    PageRequest.of(0, lote));
+            if (facturas.isEmpty()) break;
+
+            Map<AvisoFacturaVencidaDto, byte[]> pdfs = generarPdfs(facturas);
+            fallidos += facturas.size() - pdfs.size();
+            Integer encolados = transactionTemplate.execute(status -> encolarAvisos(pdfs, hoy, limiteReaviso));
+            if (encolados != null) {
+                avisos += encolados;
+                avisosEncolados.increment(encolados);
+            }
+            desdeId = facturas.get(facturas.size() - 1).idFactura();
+        } while (facturas.size() == lote);
+
+        ResumenCobranzaDto resumen = new ResumenCobranzaDto(clientesConDeuda == null ? 0 : clientesConDeuda,
+                avisos, fallidos);
+        logger.info("Cobranza {}: {} clientes con deuda vencida, {} avisos encolados, {} fallidos",
+                hoy, resumen.clientesConDeuda(), resumen.avisos(), resumen.fallidos());
+        return resumen;
+    }
+
+
+    @Override
+    public ResumenDeudaClienteDto obtenerResumenDeuda(Long idCliente) {
+        return resumenDeudaClienteRepo.findById(idCliente)
+                .map(r -> new ResumenDeudaClienteDto(r.getIdCliente(), r.getFacturasVencidas(), r.getTotalVencido(),
+                        r.getVencidaMasAntigua(), r.getActualizado()))
+                .orElseGet(() -> new ResumenDeudaClienteDto(idCliente, 0, BigDecimal.ZERO, null, null));
+    }
+
+
+    /**
+     * Genera en paralelo los PDF del lote.
+     *
+     * @return los PDF generados, en el orden del lote; sin las facturas cuyo PDF falló.
+     */
+    private Map<AvisoFacturaVencidaDto, byte[]> generarPdfs(List<AvisoFacturaVencidaDto> facturas) {
+        List<CompletableFuture<byte[]>> trabajos = new ArrayList<>(facturas.size());
+        for (AvisoFacturaVencidaDto factura : facturas) {
+            trabajos.add(CompletableFuture.supplyAsync(
+                    () -> pdfService.generarAvisoFacturaVencidaPdf(factura), cobranzaExecutor));
+        }
+
+        Map<AvisoFacturaVencidaDto, byte[]> pdfs = new LinkedHashMap<>();
+        for (int i = 0; i < facturas.size(); i++) {
+            try {
+                pdfs.put(facturas.get(i), trabajos.get(i).join());
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo generar el aviso de la factura {}", facturas.get(i).idFactura(), e);
+            }
+        }
+        return pdfs;
+    }
+
+
+    /**
+     * Marca y encola los avisos del lote en la transacción actual.
+     *
+     * @return avisos encolados; no incluye las facturas pagadas o avisadas por otra instancia entretanto.
+     */
+    private int encolarAvisos(Map<AvisoFacturaVencidaDto, byte[]> pdfs, LocalDate hoy, LocalDate limiteReaviso) {
+        int encolados = 0;
+        for (Map.Entry<AvisoFacturaVencidaDto, byte[]> aviso : pdfs.entrySet()) {
+            AvisoFacturaVencidaDto factura = aviso.getKey();
+            if (facturaRepo.marcarAvisada(factura.idFactura(), hoy, limiteReaviso) == 0) continue;
+
+            emailServicio.enviarCorreoConPdf(new EmailDto(
+                    factura.emailCliente(),
+                    "Store-It - Factura vencida N.º " + factura.idFactura(),
+                    String.format("Hola %s,\n\nTu factura N.º %d del periodo %s por $%s venció el %s y sigue pendiente " +
+                                    "de pago.\n\nAdjuntamos el aviso de cobro con el detalle. Si ya realizaste el pago, " +
+                                    "puedes ignorar este mensaje.\n\nSaludos cordiales,\nEquipo Store-It",
+                            factura.nombreCliente(), factura.idFactura(), factura.periodo(),
+                            factura.valorTotal().toPlainString(), factura.fechaPago().format(FORMATO_FECHA))),
+                    aviso.getValue());
+            encolados++;
+        }
+        return encolados;
+    }
+}
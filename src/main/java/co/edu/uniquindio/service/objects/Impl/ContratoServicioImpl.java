@@ -2,9 +2,14 @@ package co.edu.uniquindio.service.objects.Impl;
 
 import co.edu.uniquindio.constants.MensajeError;
 import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.dto.objects.contrato.ContactoContratoDto;
 import co.edu.uniquindio.dto.objects.contrato.ContratoDto;
 import co.edu.uniquindio.dto.objects.contrato.CrearContratoDto;
 import co.edu.uniquindio.dto.objects.contrato.EditarContratoDto;
+import co.edu.uniquindio.event.contrato.ContratoCancelado;
+import co.edu.uniquindio.event.contrato.ContratoCreado;
+import co.edu.uniquindio.event.contrato.ContratoFirmado;
+import co.edu.uniquindio.event.contrato.ContratoModificado;
 import co.edu.uniquindio.exception.ElementoAunEnUsoException;
 import co.edu.uniquindio.exception.ElementoIncorrectoException;
 import co.edu.uniquindio.exception.ElementoNoActivadoException;
@@ -18,22 +23,26 @@ import co.edu.uniquindio.model.objects.enums.EstadoEspacio;
 import co.edu.uniquindio.model.users.AgenteVentas;
 import co.edu.uniquindio.model.users.Cliente;
 import co.edu.uniquindio.model.users.base.enums.EstadoCuenta;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
 import co.edu.uniquindio.repository.objects.ContratoRepo;
 import co.edu.uniquindio.repository.objects.EspacioRepo;
 import co.edu.uniquindio.repository.users.AgenteVentasRepo;
 import co.edu.uniquindio.repository.users.ClienteRepo;
 import co.edu.uniquindio.service.objects.ContratoServicio;
 import co.edu.uniquindio.service.utils.EmailServicio;
-import co.edu.uniquindio.service.utils.PdfService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -48,15 +57,15 @@ import java.util.stream.Collectors;
  * <p>
  * Esta clase se encarga de la lógica relacionada con la gestión de contratos,
  * incluyendo su creación, firma por parte del cliente y del agente de ventas,
- * y el envío de correos electrónicos con el contrato en formato PDF adjunto.
+ * y la publicación de los eventos que disparan sus notificaciones.
  * </p>
  *
  * <p>
  * Funcionalidades principales:
  * <ul>
  *     <li>Validación de clientes, agentes de ventas y espacios antes de crear un contrato.</li>
- *     <li>Generación de contrato en PDF utilizando {@link PdfService}.</li>
- *     <li>Notificación vía correo electrónico a través de {@link EmailServicio}.</li>
+ *     <li>Publicación de eventos de contrato ({@code ContratoCreado}, {@code ContratoFirmado}, ...) que
+ *     {@link NotificacionContratoListener} atiende después del commit, generando el PDF y los correos.</li>
  *     <li>Control del estado del contrato según las firmas de los involucrados.</li>
  * </ul>
  * </p>
@@ -81,10 +90,16 @@ public class ContratoServicioImpl implements ContratoServicio {
     private final ClienteRepo clienteRepo;
     private final AgenteVentasRepo agenteVentasRepo;
     private final EspacioRepo espacioRepo;
-    private final PdfService pdfService;
+    private final ApplicationEventPublisher eventPublisher;
     private final EmailServicio emailServicio;
+    private final TransactionTemplate transactionTemplate;
+    private final BloqueoFilasRepo bloqueoFilasRepo;
     private static final Logger logger = LoggerFactory.getLogger(ContratoServicioImpl.class);
 
+    // Contratos que cancela cada transacción del barrido de pendientes
+    @Value("${store-it.contratos.barrido.lote:500}")
+    private int loteBarrido;
+
 
     /**
      * Crea un nuevo contrato en el sistema a partir del DTO recibido.
@@ -102,6 +117,7 @@ public class ContratoServicioImpl implements ContratoServicio {
      * @throws ElementoNoActivadoException si el cliente o el agente de ventas no están activos.
      */
     @Override
+    @Transactional
     public void crearContrato(CrearContratoDto contratoDto)
             throws ElementoNoEncontradoException{
 
@@ -139,51 +155,16 @@ public class ContratoServicioImpl implements ContratoServicio {
         contrato.setEspacio(espacio);
         contrato.setAgenteVentas(agenteVentas);
 
-        // Guardamos todos los cambios.
+        // Persistimos el contrato; cliente, agente y espacio están administrados dentro de la transacción,
+        // así que sus cambios se escriben en un único flush al confirmar, sin guardados adicionales.
         contratoRepo.save(contrato);
 
-        cliente.getContratos().add(contrato);
-        clienteRepo.save(cliente);
-
-        agenteVentas.getContratos().add(contrato);
-        agenteVentasRepo.save(agenteVentas);
-
         espacio.setEstadoEspacio(EstadoEspacio.CONTRATADO_DISPONIBLE); // o el valor correcto del enum
         espacio.setContrato(contrato);
-        espacioRepo.save(espacio); // Guardar el nuevo estado
-
-
-        // Creamos el mensaje de correo para el agente de ventas con notificación del contrato adjunto
-        EmailDto emailAgente = new EmailDto(
-                agenteVentas.getUser().getEmail(),
-                "Bienvenido a Store-It - Contrato Adjunto",
-                String.format(
-                        "Hola %s,\n\n" +
-                                "Nos complace darte la bienvenida al equipo de Store-It como Agente de Ventas.\n\n" +
-                                "Adjunto encontrarás el contrato correspondiente a tu incorporación. Por favor, revísalo cuidadosamente y no dudes en contactarnos si tienes alguna pregunta o necesitas más información.\n\n" +
-                                "Estamos seguros de que harás un excelente trabajo. ¡Muchos éxitos!\n\n" +
-                                "Saludos cordiales,\n" +
-                                "Equipo Store-It",
-                        agenteVentas.getNombre()));
-
-        // Creamos el mensaje de correo para el cliente con notificación del contrato.
-        EmailDto emailCliente = new EmailDto(
-                contrato.getCliente().getUser().getEmail(),
-                "Store-It - Firma de Contrato de Servicio Requerida",
-                String.format(
-                        "Hola %s,\n\n" +
-                                "Gracias por confiar en Store-It para el almacenamiento de tus productos.\n\n" +
-                                "Adjunto a este correo encontrarás tu contrato de servicio. Por favor, revísalo y asegúrate de que toda la información esté correcta.\n\n" +
-                                "Recuerda que debes **firmar digitalmente el contrato dentro de las próximas 24 horas** para que podamos activar tu servicio. Si tienes alguna duda o requerimiento, no dudes en contactarnos.\n\n" +
-                                "Esperamos brindarte un excelente servicio.\n\n" +
-                                "Saludos cordiales,\n" +
-                                "Equipo Store-It",
-                        contrato.getCliente().getNombre()));
-
-        // Generamos el PDF del contrato y enviamos el correo
-        byte[] pdfContent = pdfService.generarContratoPdf(contrato);
-        emailServicio.enviarCorreoConPdf(emailAgente, pdfContent);
-        emailServicio.enviarCorreoConPdf(emailCliente, pdfContent);
+
+
+        // El PDF y los correos se generan en segundo plano una vez confirmada la transacción
+        eventPublisher.publishEvent(new ContratoCreado(contrato.getId()));
 
         logger.info("Contrato creado exitosamente para cliente: {}", cliente.getNombre());
     }
@@ -192,65 +173,67 @@ public class ContratoServicioImpl implements ContratoServicio {
     /**
      * Tarea programada que se ejecuta cada hora para verificar los contratos pendientes.
      *
-     * Revisa todos los contratos en estado "PENDIENTE_VERIFICACION" y si ha pasado al menos
-     * un día desde la fecha de inicio y el cliente no ha firmado, el contrato se cancela automáticamente.
-     * Al cancelar el contrato:
-     * - Se libera el espacio asociado.
-     * - Se notifica al cliente mediante correo electrónico.
-     * - Se notifica al agente de ventas mediante correo electrónico.
+     * Cancela los contratos en estado "PENDIENTE_VERIFICACION" cuya fecha de inicio pasó hace al menos
+     * un día sin la firma del cliente. El filtro se resuelve en la base de datos y se procesan lotes de
+     * {@code store-it.contratos.barrido.lote} contratos, cada uno en su propia transacción:
+     * - Se bloquean los IDs del lote (saltando los que se estén firmando en ese momento).
+     * - Se cancelan los contratos y se liberan sus espacios con una sentencia {@code UPDATE} por tabla.
+     * - Se encolan en la bandeja de salida los correos al cliente y al agente de ventas.
+     * La memoria usada no depende de cuántos contratos haya pendientes.
      */
     @Scheduled(cron = "0 0 * * * *") // Ejecutar cada hora (al minuto 0 de cada hora)
     public void verificarContratosPendientes() {
         // Obtener la fecha límite: un día antes de la fecha actual
         LocalDate limite = LocalDate.now().minusDays(1); // Ya pasó al menos 1 día
 
-        // Obtener todos los contratos con estado "PENDIENTE_VERIFICACION"
-        List<Contrato> contratosPendientes = contratoRepo.findByEstadoContrato(EstadoContrato.PENDIENTE_VERIFICACION);
-
-        // Recorrer todos los contratos pendientes
-        for (Contrato contrato : contratosPendientes) {
-
-            // Verificar si la fecha de inicio es anterior a la fecha límite
-            // y el cliente aún no ha firmado
-            if (contrato.getFechaInicio().isBefore(limite)
-                    && contrato.getFirmaCliente() == null) {
-
-                // Cambiar el estado del contrato a "CANCELADO"
-                contrato.setEstadoContrato(EstadoContrato.CANCELADO);
-                contratoRepo.save(contrato); // Guardar los cambios
-
-                // Liberar el espacio asociado al contrato
-                Espacio espacio = contrato.getEspacio();
-                espacio.setEstadoEspacio(EstadoEspacio.LIBRE); // Marcar como libre
-                espacio.setContrato(null); // Eliminar referencia al contrato
-                espacioRepo.save(espacio); // Guardar los cambios del espacio
-
-                // Notificar al cliente mediante correo
-                Cliente cliente = contrato.getCliente();
-                EmailDto correoCliente = new EmailDto(
-                        cliente.getUser().getEmail(), // Correo del cliente
-                        "Cancelación de Contrato - Store-It", // Asunto
-                        String.format("Hola %s,\n\nTu contrato fue cancelado automáticamente por no ser confirmado en las últimas 24 horas.\n\n" +
-                                        "Puedes iniciar un nuevo proceso en cualquier momento.\n\nAtentamente,\nEquipo Store-It",
-                                cliente.getNombre()) // Cuerpo del mensaje
-                );
-                emailServicio.enviarCorreo(correoCliente); // Enviar el correo al cliente
-
-                // Notificar al agente de ventas mediante correo
-                AgenteVentas agente = contrato.getAgenteVentas();
-                EmailDto correoAgente = new EmailDto(
-                        agente.getUser().getEmail(), // Correo del agente
-                        "Cancelación de Contrato Asignado - Store-It", // Asunto
-                        String.format("Hola %s,\n\nEl contrato con el cliente %s ha sido cancelado por falta de confirmación en 24 horas.\n\n" +
-                                        "Te recomendamos contactar al cliente si deseas reactivar el proceso.\n\nEquipo Store-It",
-                                agente.getNombre(), cliente.getNombre()) // Cuerpo del mensaje
-                );
-                emailServicio.enviarCorreo(correoAgente); // Enviar el correo al agente
-
-                // Registrar en los logs la cancelación del contrato
-                logger.info("Contrato ID {} cancelado por falta de firma del cliente.", contrato.getId());
-            }
+        // Hasta un lote vacío: un lote corto no significa que no queden (pudo saltar filas bloqueadas)
+        int total = 0;
+        int cancelados;
+        do {
+            cancelados = transactionTemplate.execute(status -> cancelarLotePendiente(limite));
+            total += cancelados;
+        } while (cancelados > 0);
+
+        if (total > 0) {
+            logger.info("{} contratos cancelados por falta de firma del cliente.", total);
+        }
+    }
+
+
+    /**
+     * Cancela un lote de contratos pendientes sin firma y encola sus notificaciones.
+     *
+     * @return número de contratos cancelados en el lote.
+     */
+    private int cancelarLotePendiente(LocalDate limite) {
+        List<Long> ids = bloqueoFilasRepo.bloquear(ContratoRepo.PENDIENTES_SIN_FIRMA, loteBarrido, limite);
+        if (ids.isEmpty()) return 0;
+
+        // Cancelar los contratos y liberar sus espacios
+        contratoRepo.cancelarTodos(ids);
+        espacioRepo.liberarDeContratos(ids);
+
+        // Notificar al cliente y al agente de ventas mediante correo (bandeja de salida, misma transacción)
+        for (ContactoContratoDto contacto : contratoRepo.listarContactos(ids)) {
+            emailServicio.enviarCorreo(new EmailDto(
+                    contacto.emailCliente(), // Correo del cliente
+                    "Cancelación de Contrato - Store-It", // Asunto
+                    String.format("Hola %s,\n\nTu contrato fue cancelado automáticamente por no ser confirmado en las últimas 24 horas.\n\n" +
+                                    "Puedes iniciar un nuevo proceso en cualquier momento.\n\nAtentamente,\nEquipo Store-It",
+                            contacto.nombreCliente()) // Cuerpo del mensaje
+            ));
+
+            emailServicio.enviarCorreo(new EmailDto(
+                    contacto.emailAgente(), // Correo del agente
+                    "Cancelación de Contrato Asignado - Store-It", // Asunto
+                    String.format("Hola %s,\n\nEl contrato con el cliente %s ha sido cancelado por falta de confirmación en 24 horas.\n\n" +
+                                    "Te recomendamos contactar al cliente si deseas reactivar el proceso.\n\nEquipo Store-It",
+                            contacto.nombreAgente(), contacto.nombreCliente()) // Cuerpo del mensaje
+            ));
         }
+
+        logger.debug("Contratos {} cancelados por falta de firma del cliente.", ids);
+        return ids.size();
     }
 
 
@@ -267,9 +250,12 @@ public class ContratoServicioImpl implements ContratoServicio {
      * @throws RuntimeException Si ocurre un error al procesar el archivo de firma.
      */
     @Override
+    @Transactional
     public void firmarContratoPorCliente(Long idContrato, MultipartFile firmaImagen) throws ElementoNoEncontradoException {
 
-        Contrato contrato = contratoRepo.findById(idContrato)
+        // Con la fila bloqueada, el barrido de pendientes la salta; si el barrido la tomó primero,
+        // se espera a que termine y se lee el contrato ya cancelado
+        Contrato contrato = contratoRepo.bloquearPorId(idContrato)
                 .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.CONTRATO_NO_ENCONTRADO));
 
         try {
@@ -280,20 +266,10 @@ public class ContratoServicioImpl implements ContratoServicio {
 
             contrato.setFirmaCliente(firmaImagen.getBytes());
             contrato.setEstadoContrato(EstadoContrato.VERIFICADO_POR_CLIENTE); // Marcamos como verificado
-            byte[] pdfContent = pdfService.generarContratoPdf(contrato);
-
-            EmailDto emailDto = new EmailDto(
-                    contrato.getAgenteVentas().getUser().getEmail(),
-                    "Store-It - Contrato firmado por el cliente",
-                    String.format("Hola %s,\n\nNos complace informarte que el cliente ha firmado el contrato correspondiente.\n\n" +
-                                    "Puedes encontrar el contrato firmado adjunto a este correo. Por favor, revisa que todo esté en orden y continúa con el proceso de asignación o seguimiento según corresponda.\n\n" +
-                                    "Gracias por tu compromiso y dedicación.\n\nSaludos cordiales,\nEquipo Store-It",
-                            contrato.getAgenteVentas().getNombre()));
-
-            emailServicio.enviarCorreoConPdf(emailDto, pdfContent);
 
             // Salvamos en la base de datos.
             contratoRepo.save(contrato);
+            eventPublisher.publishEvent(new ContratoFirmado(contrato.getId(), ContratoFirmado.Firmante.CLIENTE));
 
             logger.info("Se firma el contrato {} Por el cliente {}", contrato.getId(), contrato.getCliente().getNombre());
 
@@ -318,6 +294,7 @@ public class ContratoServicioImpl implements ContratoServicio {
      * @throws RuntimeException Si ocurre un error al procesar la firma del agente.
      */
     @Override
+    @Transactional
     public void firmarContratoPorAgente(Long idContrato, MultipartFile firmaImagen) throws ElementoNoEncontradoException {
         Contrato contrato = contratoRepo.findById(idContrato)
                 .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.CONTRATO_NO_ENCONTRADO));
@@ -331,38 +308,9 @@ public class ContratoServicioImpl implements ContratoServicio {
             contrato.setFirmaAgenteVentas(firmaImagen.getBytes());
             contrato.setEstadoContrato(EstadoContrato.ACTIVO);
 
-            EmailDto emailDto = new EmailDto(
-                    contrato.getCliente().getUser().getEmail(),
-                    "Store-It - Contrato Activado",
-                    String.format("Hola %s,\n\nTe informamos que tu contrato con Store-It ha sido activado exitosamente y ya está en marcha.\n\n" +
-                                    "A partir de ahora puedes hacer uso del espacio asignado y contar con todos los beneficios de nuestro servicio.\n" +
-                                    "Si tienes alguna pregunta o necesitas asistencia, no dudes en comunicarte con nosotros.\n\n" +
-                                    "¡Gracias por confiar en Store-It!\n\nSaludos cordiales,\nEquipo Store-It",
-                            contrato.getCliente().getNombre()));
-
-            EmailDto emailAgente = new EmailDto(
-                    contrato.getAgenteVentas().getUser().getEmail(),
-                    "Store-It - Contrato Activado con Cliente",
-                    String.format(
-                            "Hola %s,\n\n" +
-                                    "Te informamos que el contrato con el cliente **%s** ha sido activado exitosamente.\n\n" +
-                                    "A partir de este momento, el cliente puede hacer uso del espacio asignado y acceder a todos los beneficios del servicio.\n" +
-                                    "Gracias por tu gestión y compromiso con Store-It.\n\n" +
-                                    "Si necesitas hacer seguimiento o brindar soporte adicional, recuerda que puedes acceder a la plataforma para ver los detalles.\n\n" +
-                                    "Saludos cordiales,\n" +
-                                    "Equipo Store-It",
-                            contrato.getAgenteVentas().getNombre(),
-                            contrato.getCliente().getNombre()
-                    )
-            );
-
-            byte[] pdfContent = pdfService.generarContratoPdf(contrato);
-            emailServicio.enviarCorreoConPdf(emailDto, pdfContent);
-            emailServicio.enviarCorreoConPdf(emailAgente, pdfContent);
-
-            contrato.getCliente().getContratos().add(contrato);
-
-            contratoRepo.save(contrato);
+            // El contrato ya está administrado y ya pertenece al cliente (lado propietario): la firma se
+            // escribe con un único UPDATE al confirmar, sin cargar la lista de contratos del cliente.
+            eventPublisher.publishEvent(new ContratoFirmado(contrato.getId(), ContratoFirmado.Firmante.AGENTE_VENTAS));
             logger.info("Contrato ID {} guardado exitosamente tras firma del agente.", idContrato);
 
         }catch (IOException e) {
@@ -384,6 +332,7 @@ public class ContratoServicioImpl implements ContratoServicio {
      * @throws ElementoAunEnUsoException Si el contrato ya ha sido verificado y no puede ser editado.
      */
     @Override
+    @Transactional
     public void editarContrato(EditarContratoDto contratoDto) throws ElementoNoEncontradoException {
 
         Contrato contrato = obtenerContrato(contratoDto.id());
@@ -398,16 +347,7 @@ public class ContratoServicioImpl implements ContratoServicio {
         contratoRepo.save(contrato);
 
 
-        EmailDto emailDto = new EmailDto(
-                contrato.getCliente().getUser().getEmail(),
-                "Store-It - Contrato Modificado",
-                String.format("Hola %s,\n\nTe informamos que tu contrato con Store-It ha sido modificado recientemente.\n\n" +
-                                "Por favor revisa los cambios realizados. Si tienes alguna duda o necesitas más información, no dudes en comunicarte con nuestro equipo de soporte.\n\n" +
-                                "Gracias por confiar en Store-It.\n\nSaludos cordiales,\nEquipo Store-It",
-                        contrato.getCliente().getNombre())
-        );
-        byte[] pdfContent = pdfService.generarContratoPdf(contrato);
-        emailServicio.enviarCorreoConPdf(emailDto, pdfContent);
+        eventPublisher.publishEvent(new ContratoModificado(contrato.getId()));
         logger.info("Contrato {} modificado y enviado al cliente {}", contrato.getId(), contrato.getCliente().getNombre());
     }
 
@@ -456,36 +396,22 @@ public class ContratoServicioImpl implements ContratoServicio {
      * @throws ElementoIncorrectoException si el contrato no se encuentra en estado ACTIVO y, por lo tanto, no puede ser cancelado
      */
     @Override
+    @Transactional
     public void cancelarContrato(Long id) throws ElementoNoEncontradoException, ElementoIncorrectoException {
         Contrato contrato = obtenerContrato(id);
 
-        if(contrato.getEstadoContrato().equals(EstadoContrato.PENDIENTE_VERIFICACION)){
-            contrato.setEstadoContrato(EstadoContrato.CANCELADO);
-            contratoRepo.save(contrato);
-        }
+        EstadoContrato estadoAnterior = contrato.getEstadoContrato();
 
-        if (contrato.getEstadoContrato().equals(EstadoContrato.ACTIVO)){
-
-            contrato.setEstadoContrato(EstadoContrato.CANCELADO);
-            contratoRepo.save(contrato);
-
-            byte[] pdfContent = pdfService.generarAvisoDeudaPdf(contrato);
-
-            EmailDto emailDto = new EmailDto(
-                    contrato.getCliente().getUser().getEmail(),
-                    "Store-It - Contrato Cancelado",
-                    String.format("Hola %s,\n\nLamentamos informarte que tu contrato con Store-It ha sido cancelado.\n\n" +
-                                    "Adjunto a este correo encontrarás una copia del contrato cancelado en formato PDF para tu referencia.\n\n" +
-                                    "Si tienes alguna pregunta o necesitas más información sobre esta decisión, no dudes en comunicarte con nuestro equipo de soporte.\n\n" +
-                                    "Agradecemos el tiempo que compartiste con nosotros.\n\nSaludos cordiales,\nEquipo Store-It",
-                            contrato.getCliente().getNombre()));
-
-            emailServicio.enviarCorreoConPdf(emailDto, pdfContent);
-            logger.info("El Contrato {} ha sido cancelado", contrato.getId());
-
-        }else {
+        if (estadoAnterior != EstadoContrato.PENDIENTE_VERIFICACION && estadoAnterior != EstadoContrato.ACTIVO) {
             throw new ElementoIncorrectoException(MensajeError.CONTRATO_NO_ACTIVO);
         }
+
+        contrato.setEstadoContrato(EstadoContrato.CANCELADO);
+        contratoRepo.save(contrato);
+
+        // El aviso de cancelación (solo para contratos activos) se envía después del commit
+        eventPublisher.publishEvent(new ContratoCancelado(contrato.getId(), estadoAnterior));
+        logger.info("El Contrato {} ha sido cancelado", contrato.getId());
     }
 
 
@@ -0,0 +1,264 @@
+package co.edu.uniquindio.service.objects.Impl;
+
+import co.edu.uniquindio.config.AsyncConfig;
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.objects.contrato.DocumentoPdfDto;
+import co.edu.uniquindio.event.contrato.ContratoCancelado;
+import co.edu.uniquindio.event.contrato.EventoContrato;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.objects.Contrato;
+import co.edu.uniquindio.model.objects.DocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.objects.enums.EstadoDocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.TipoDocumentoPdf;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.DocumentoPdfRepo;
+import co.edu.uniquindio.service.objects.DocumentoPdfServicio;
+import co.edu.uniquindio.service.utils.AlmacenArchivosServicio;
+import co.edu.uniquindio.service.utils.PdfService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación del servicio {@link DocumentoPdfServicio}.
+ *
+ * <p>
+ * Flujo de un documento:
+ * <ul>
+ *     <li>Un evento de contrato confirmado llama a {@link #solicitar}: la fila queda {@code PENDIENTE}
+ *     con una versión nueva y su generación se envía al pool {@link AsyncConfig#PDF_EXECUTOR}.</li>
+ *     <li>Un hilo del pool la reclama ({@code GENERANDO}), renderiza el PDF con {@link PdfService}
+ *     y guarda los bytes en el {@link AlmacenArchivosServicio}.</li>
+ *     <li>La fila pasa a {@code LISTO} con la huella del archivo, salvo que mientras tanto se haya
+ *     pedido una versión más nueva; en ese caso el renderizado viejo se descarta.</li>
+ * </ul>
+ * Si el pool está lleno o el proceso se reinicia, la tarea programada {@link #recuperarPendientes()}
+ * vuelve a enviar los documentos pendientes, así ninguna solicitud se pierde. Un documento
+ * {@code FALLIDO} solo se vuelve a pedir desde {@link #consultar} cuando pasó la espera de reintento
+ * desde su última solicitud, para no renderizar en cada consulta una plantilla que sigue fallando.
+ * </p>
+ */
+@Service
+public class DocumentoPdfServicioImpl implements DocumentoPdfServicio {
+
+    private final DocumentoPdfRepo documentoPdfRepo;
+    private final ContratoRepo contratoRepo;
+    private final PdfService pdfService;
+    private final AlmacenArchivosServicio almacenArchivosServicio;
+    private final ThreadPoolTaskExecutor pdfExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate lecturaTemplate;
+    private final Timer tiempoGeneracion;
+    private static final Logger logger = LoggerFactory.getLogger(DocumentoPdfServicioImpl.class);
+
+    @Value("${store-it.pdf.trabajos.reintento-fallido:PT5M}")
+    private Duration reintentoFallido;
+
+
+    public DocumentoPdfServicioImpl(DocumentoPdfRepo documentoPdfRepo, ContratoRepo contratoRepo,
+                                    PdfService pdfService, AlmacenArchivosServicio almacenArchivosServicio,
+                                    @Qualifier(AsyncConfig.PDF_EXECUTOR) ThreadPoolTaskExecutor pdfExecutor,
+                                    PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.documentoPdfRepo = documentoPdfRepo;
+        this.contratoRepo = contratoRepo;
+        this.pdfService = pdfService;
+        this.almacenArchivosServicio = almacenArchivosServicio;
+        this.pdfExecutor = pdfExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.tiempoGeneracion = Timer.builder("storeit.pdf.trabajos.generacion")
+                .description("Tiempo desde que un hilo reclama un documento hasta que queda guardado")
+                .register(registry);
+    }
+
+
+    /**
+     * Vuelve a generar los documentos afectados por un cambio de contrato ya confirmado.
+     */
+    @Async(AsyncConfig.EVENTOS_EXECUTOR)
+    @TransactionalEventListener
+    public void alCambiarContrato(EventoContrato evento) {
+        if (evento instanceof ContratoCancelado cancelado) {
+            // Solo los contratos activos cancelados tienen aviso de deuda
+            if (cancelado.estadoAnterior() == EstadoContrato.ACTIVO) {
+                solicitar(evento.idContrato(), TipoDocumentoPdf.AVISO_DEUDA);
+            }
+            return;
+        }
+        solicitar(evento.idContrato(), TipoDocumentoPdf.CONTRATO);
+    }
+
+
+    @Override
+    public void solicitar(Long idContrato, TipoDocumentoPdf tipo) {
+        Long idDocumento;
+        try {
+            idDocumento = nuevaVersion(idContrato, tipo);
+        } catch (DataIntegrityViolationException e) {
+            // Otra solicitud insertó la fila a la vez (uk_documento_contrato_tipo): se vuelve a leer y se actualiza
+            logger.debug("Documento {} del contrato {} creado por una solicitud concurrente", tipo, idContrato);
+            idDocumento = nuevaVersion(idContrato, tipo);
+        }
+        enviar(idDocumento);
+    }
+
+
+    /**
+     * Deja el documento {@code PENDIENTE} con una versión nueva, creando su fila si no existe.
+     *
+     * @return ID del documento.
+     */
+    private Long nuevaVersion(Long idContrato, TipoDocumentoPdf tipo) {
+        return transactionTemplate.execute(status -> {
+            DocumentoPdf documento = documentoPdfRepo.findByIdContratoAndTipo(idContrato, tipo)
+                    .orElseGet(() -> {
+                        DocumentoPdf nuevo = new DocumentoPdf();
+                        nuevo.setIdContrato(idContrato);
+                        nuevo.setTipo(tipo);
+                        return nuevo;
+                    });
+            documento.setEstado(EstadoDocumentoPdf.PENDIENTE);
+            documento.setVersion(documento.getVersion() + 1);
+            documento.setFechaSolicitud(LocalDateTime.now());
+            documento.setReclamadoEn(null);
+            documento.setUltimoError(null);
+            return documentoPdfRepo.save(documento).getId();
+        });
+    }
+
+
+    @Override
+    public DocumentoPdfDto consultar(Long idContrato, TipoDocumentoPdf tipo, Long idSolicitante)
+            throws ElementoNoEncontradoException {
+
+        Contrato contrato = contratoRepo.findById(idContrato)
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.CONTRATO_NO_ENCONTRADO));
+
+        // Solo el cliente y el agente del contrato pueden ver sus documentos
+        if (!contrato.getCliente().getId().equals(idSolicitante)
+                && !contrato.getAgenteVentas().getId().equals(idSolicitante)) {
+            throw new ElementoNoEncontradoException(MensajeError.CONTRATO_NO_ENCONTRADO);
+        }
+
+        // El aviso de deuda solo existe para contratos cancelados
+        if (tipo == TipoDocumentoPdf.AVISO_DEUDA && contrato.getEstadoContrato() != EstadoContrato.CANCELADO) {
+            throw new ElementoNoEncontradoException(MensajeError.DOCUMENTO_NO_EXISTE);
+        }
+
+        DocumentoPdf documento = documentoPdfRepo.findByIdContratoAndTipo(idContrato, tipo).orElse(null);
+        if (documento == null || documento.getEstado() == EstadoDocumentoPdf.FALLIDO && puedeReintentar(documento)) {
+            solicitar(idContrato, tipo);
+            return new DocumentoPdfDto(idContrato, tipo, EstadoDocumentoPdf.PENDIENTE, null, null, null);
+        }
+        return new DocumentoPdfDto(idContrato, tipo, documento.getEstado(), documento.getHuella(),
+                documento.getTamano(), documento.getFechaGeneracion());
+    }
+
+
+    /**
+     * Indica si un documento fallido ya esperó lo suficiente desde su última solicitud para volver a generarse.
+     */
+    private boolean puedeReintentar(DocumentoPdf documento) {
+        return documento.getFechaSolicitud() == null
+                || documento.getFechaSolicitud().plus(reintentoFallido).isBefore(LocalDateTime.now());
+    }
+
+
+    @Override
+    public Path archivo(DocumentoPdfDto documento) throws ElementoNoEncontradoException {
+        if (documento.huella() == null || !almacenArchivosServicio.existe(documento.huella())) {
+            // El archivo se borró del almacén: se genera de nuevo
+            solicitar(documento.idContrato(), documento.tipo());
+            throw new ElementoNoEncontradoException(MensajeError.DOCUMENTO_NO_DISPONIBLE);
+        }
+        return almacenArchivosServicio.ruta(documento.huella());
+    }
+
+
+    /**
+     * Reenvía al pool los documentos pendientes cuya tarea se perdió y libera los que quedaron
+     * reclamados por un hilo que no terminó (por ejemplo, por un reinicio).
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void recuperarPendientes() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int liberados = documentoPdfRepo.liberarAbandonados(ahora.minusMinutes(10));
+        if (liberados > 0) {
+            logger.warn("Se devolvieron {} documentos PDF abandonados a la cola", liberados);
+        }
+
+        List<Long> pendientes = documentoPdfRepo.buscarPendientesAntesDe(ahora.minusMinutes(1),
+                pdfExecutor.getThreadPoolExecutor().getQueue().remainingCapacity());
+        pendientes.forEach(this::enviar);
+    }
+
+
+    /**
+     * Envía la generación de un documento al pool. Si la cola está llena, el documento sigue
+     * {@code PENDIENTE} y lo retoma {@link #recuperarPendientes()}.
+     */
+    private void enviar(Long idDocumento) {
+        try {
+            pdfExecutor.execute(() -> generar(idDocumento));
+        } catch (TaskRejectedException e) {
+            logger.debug("Cola de PDF llena, el documento {} se generará en la siguiente recuperación", idDocumento);
+        }
+    }
+
+
+    /**
+     * Genera y guarda un documento reclamado por el hilo actual.
+     */
+    private void generar(Long idDocumento) {
+        if (documentoPdfRepo.reclamar(idDocumento, LocalDateTime.now()) == 0) return; // Otro hilo lo tomó
+
+        DocumentoPdf documento = documentoPdfRepo.findById(idDocumento).orElse(null);
+        if (documento == null) return;
+
+        Timer.Sample muestra = Timer.start();
+        try {
+            // El contrato se lee y se renderiza dentro de una transacción de solo lectura (asociaciones perezosas)
+            byte[] pdf = lecturaTemplate.execute(status -> contratoRepo.findById(documento.getIdContrato())
+                    .map(contrato -> documento.getTipo() == TipoDocumentoPdf.AVISO_DEUDA
+                            ? pdfService.generarAvisoDeudaPdf(contrato)
+                            : pdfService.generarContratoPdf(contrato))
+                    .orElse(null));
+
+            if (pdf == null) {
+                documentoPdfRepo.marcarFallido(idDocumento, documento.getVersion(), MensajeError.CONTRATO_NO_ENCONTRADO);
+                return;
+            }
+
+            String huella = almacenArchivosServicio.guardar(pdf);
+            if (documentoPdfRepo.marcarListo(idDocumento, documento.getVersion(), huella, pdf.length, LocalDateTime.now()) == 0) {
+                logger.debug("Documento {} versión {} reemplazado por una solicitud más nueva", idDocumento, documento.getVersion());
+            }
+        } catch (Exception e) {
+            String error = String.valueOf(e.getMessage());
+            documentoPdfRepo.marcarFallido(idDocumento, documento.getVersion(),
+                    error.length() > 1000 ? error.substring(0, 1000) : error);
+            logger.error("Error generando el documento {} del contrato {}", documento.getTipo(), documento.getIdContrato(), e);
+        } finally {
+            muestra.stop(tiempoGeneracion);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tech.units.indriya.quantity.Quantities;
 
 import javax.measure.Quantity;
@@ -54,6 +55,7 @@ public class EspacioServicioImpl implements EspacioServicio {
      *                                     los límites permitidos por la bodega.
      */
     @Override
+    @Transactional
     public void registrarEspacio(CrearEspacioDto crearEspacioDto) throws ElementoNoEncontradoException, ElementoIncorrectoException {
 
         // Buscar la bodega por ID, si no se encuentra lanza una excepción
@@ -64,8 +66,12 @@ public class EspacioServicioImpl implements EspacioServicio {
         if (bodega.getAltura() < crearEspacioDto.altura()){
             throw new ElementoIncorrectoException(MensajeError.ALTURA_EXCEDE);}
 
-        // Validar que el área solicitada no supere el área disponible de la bodega
-        if (bodega.areaDisponible() < crearEspacioDto.areaTotal()){
+        // Un área no positiva haría que la reserva liberara área de la bodega en lugar de descontarla
+        if (crearEspacioDto.areaTotal() == null || crearEspacioDto.areaTotal() <= 0){
+            throw new ElementoIncorrectoException(MensajeError.AREA_NO_VALIDA);}
+
+        // Reservar el área en la bodega: la validación y el descuento ocurren en un solo UPDATE condicional
+        if (bodegaRepo.reservarArea(bodega.getId(), crearEspacioDto.areaTotal()) == 0){
             throw new ElementoIncorrectoException(MensajeError.ESPACIO_EXCEDE);}
 
         // Convertir el DTO en entidad usando el mapper configurado previamente
@@ -74,34 +80,63 @@ public class EspacioServicioImpl implements EspacioServicio {
         // Asegurar que la bodega se setee correctamente (aunque ya se mapea, se refuerza aquí)
         espacio.setBodega(bodega);
 
-        // Guardar el nuevo espacio en la base de datos
+        // Guardar el nuevo espacio en la misma transacción que la reserva
         espacioRepo.save(espacio);
     }
 
 
+    /**
+     * Edita el área y la altura de un espacio que no esté en uso, ajustando el contador
+     * de área ocupada de su bodega con la diferencia de área mediante actualizaciones condicionales.
+     *
+     * @param editarEspacioDto DTO con los nuevos datos del espacio.
+     * @throws ElementoNoEncontradoException si no se encuentra el espacio o su bodega.
+     * @throws ElementoIncorrectoException si la altura o el área superan los límites de la bodega.
+     * @throws ElementoAunEnUsoException si el espacio tiene contrato o productos.
+     */
     @Override
+    @Transactional
     public void editarEspacio(EditarEspacioDto editarEspacioDto) throws ElementoNoEncontradoException, ElementoIncorrectoException {
 
         // Buscar el espacio por ID, si no se encuentra lanza una excepción
         Espacio espacio = obtenerEspacio(editarEspacioDto.id());
 
-        // Buscar la bodega por ID, si no se encuentra lanza una excepción
-        Bodega bodega = bodegaRepo.findById(espacio.getBodega().getId())
-                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.BODEGA_NO_ENCONTRADA));
+        // Validar si el espacio no está asociado a un contrato ni tiene productos (contador, sin cargar la lista)
+        if (espacio.getContrato() != null || espacio.calcularAreaOcupada() > 0){
+            throw new ElementoAunEnUsoException(MensajeError.ESPACIO_EN_USO);
+        }
+
+        Bodega bodega = espacio.getBodega();
 
         // Validar que la altura del espacio no supere la de la bodega
-        if (bodega.getAltura() < editarEspacioDto.altura()){
+        if (editarEspacioDto.altura() != null && bodega.getAltura() < editarEspacioDto.altura()){
             throw new ElementoIncorrectoException(MensajeError.ALTURA_EXCEDE);}
 
-        // Validar que el área solicitada no supere el área disponible de la bodega
-        if ((bodega.areaDisponible() - espacio.getAreaTotal().getValue().doubleValue())
-                < editarEspacioDto.areaTotal()){
-            throw new ElementoIncorrectoException(MensajeError.ESPACIO_EXCEDE);}
+        double areaActual = espacio.getAreaTotal()
+                .to(tech.units.indriya.unit.Units.SQUARE_METRE)
+                .getValue()
+                .doubleValue();
 
-        // Validar si el espacio no está asociado a un contrato
-        if (espacio.getContrato() != null || !espacio.getProductos().isEmpty()){
-            throw new ElementoAunEnUsoException(MensajeError.ESPACIO_EN_USO);
+        if (editarEspacioDto.areaTotal() != null) {
+            if (editarEspacioDto.areaTotal() <= 0){
+                throw new ElementoIncorrectoException(MensajeError.AREA_NO_VALIDA);}
+
+            // Ajustar el contador de la bodega solo con la diferencia de área
+            double diferencia = editarEspacioDto.areaTotal() - areaActual;
+
+            if (diferencia > 0 && bodegaRepo.reservarArea(bodega.getId(), diferencia) == 0){
+                throw new ElementoIncorrectoException(MensajeError.ESPACIO_EXCEDE);}
+
+            if (diferencia < 0){
+                bodegaRepo.liberarArea(bodega.getId(), -diferencia);}
+
+            espacio.setAreaDisponible(Quantities.getQuantity(editarEspacioDto.areaTotal(),
+                    tech.units.indriya.unit.Units.SQUARE_METRE));
         }
+
+        espacioMapper.toEntity(editarEspacioDto, espacio);
+
+        espacioRepo.save(espacio);
     }
 
 
@@ -0,0 +1,268 @@
+package co.edu.uniquindio.service.objects.Impl;
+
+import co.edu.uniquindio.config.AsyncConfig;
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.objects.factura.ContratoFacturableDto;
+import co.edu.uniquindio.dto.objects.factura.EjecucionFacturacionDto;
+import co.edu.uniquindio.dto.objects.factura.ResumenFacturacionDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.objects.DetalleFactura;
+import co.edu.uniquindio.model.objects.Factura;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.objects.enums.EstadoFactura;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.FacturaRepo;
+import co.edu.uniquindio.repository.users.ClienteRepo;
+import co.edu.uniquindio.service.objects.FacturacionServicio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementación de {@link FacturacionServicio}.
+ *
+ * <p>
+ * Flujo de una ejecución:
+ * <ul>
+ *     <li>El hilo que la inicia recorre, en orden de ID y por páginas de {@code store-it.facturacion.particion},
+ *     los clientes con contratos activos sin factura del periodo. Cada página es una partición.</li>
+ *     <li>Cada partición se factura en el pool {@link AsyncConfig#FACTURACION_EXECUTOR}, en su propia
+ *     transacción: lee sus contratos con una proyección, arma una factura por cliente con un detalle por
+ *     contrato y las guarda juntas, de modo que Hibernate las inserta por lotes
+ *     ({@code hibernate.jdbc.batch_size} con secuencias de {@code allocationSize = 50}).</li>
+ *     <li>La restricción única {@code (id_cliente, periodo)} garantiza la idempotencia. Si una partición choca
+ *     con facturas creadas por otra ejecución, se reintenta cliente por cliente y se omiten los ya facturados.</li>
+ * </ul>
+ * La memoria usada depende del tamaño de partición y de la cola del pool, no del número de contratos.
+ * Las ejecuciones bajo demanda ({@link #iniciarFacturacion(LocalDate)}) corren en un hilo virtual y se
+ * consultan por su ID; el registro de ejecuciones es local a la instancia y se conserva un día.
+ * Cada ejecución reporta facturas, contratos y contratos por segundo en el log, en
+ * {@link ResumenFacturacionDto} y en las métricas {@code storeit.facturacion.*}.
+ * </p>
+ */
+@Service
+public class FacturacionServicioImpl implements FacturacionServicio {
+
+    private final FacturaRepo facturaRepo;
+    private final ContratoRepo contratoRepo;
+    private final ClienteRepo clienteRepo;
+    private final ThreadPoolTaskExecutor facturacionExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer tiempoEjecucion;
+    private final Counter contratosFacturados;
+    private static final Logger logger = LoggerFactory.getLogger(FacturacionServicioImpl.class);
+
+    // Porcentaje de IVA como fracción (0.19 = 19 %)
+    @Value("${store-it.facturacion.iva:0.19}")
+    private BigDecimal iva;
+
+    // Ejecuciones bajo demanda por ID; las terminadas se conservan un día para consultarlas
+    private final Map<String, EjecucionFacturacionDto> ejecuciones = new ConcurrentHashMap<>();
+
+    // Clientes por partición (menos de 1000, límite de Oracle para IN)
+    @Value("${store-it.facturacion.particion:200}")
+    private int particion;
+
+
+    public FacturacionServicioImpl(FacturaRepo facturaRepo, ContratoRepo contratoRepo, ClienteRepo clienteRepo,
+                                   @Qualifier(AsyncConfig.FACTURACION_EXECUTOR) ThreadPoolTaskExecutor facturacionExecutor,
+                                   PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.facturaRepo = facturaRepo;
+        this.contratoRepo = contratoRepo;
+        this.clienteRepo = clienteRepo;
+        this.facturacionExecutor = facturacionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tiempoEjecucion = Timer.builder("storeit.facturacion.ejecucion")
+                .description("Duración de una ejecución completa de la facturación mensual")
+                .register(registry);
+        this.contratosFacturados = Counter.builder("storeit.facturacion.contratos")
+                .description("Contratos facturados (detalles de factura creados)")
+                .register(registry);
+    }
+
+
+    /**
+     * Tarea programada que factura el mes en curso el primer día de cada mes.
+     */
+    @Scheduled(cron = "${store-it.facturacion.cron:0 0 1 1 * *}")
+    public void facturacionProgramada() {
+        facturarPeriodo(LocalDate.now());
+    }
+
+
+    @Override
+    public synchronized EjecucionFacturacionDto iniciarFacturacion(LocalDate fechaEmision) {
+        String periodo = YearMonth.from(fechaEmision).toString();
+        LocalDateTime ahora = LocalDateTime.now();
+        ejecuciones.values().removeIf(ejecucion -> ejecucion.estado() != EjecucionFacturacionDto.Estado.EN_CURSO
+                && ejecucion.inicio().isBefore(ahora.minusDays(1)));
+
+        // Una sola ejecución en curso por periodo en esta instancia (entre instancias, la restricción única)
+        for (EjecucionFacturacionDto ejecucion : ejecuciones.values()) {
+            if (ejecucion.periodo().equals(periodo) && ejecucion.estado() == EjecucionFacturacionDto.Estado.EN_CURSO) {
+                return ejecucion;
+            }
+        }
+
+        EjecucionFacturacionDto ejecucion = new EjecucionFacturacionDto(UUID.randomUUID().toString(), periodo,
+                EjecucionFacturacionDto.Estado.EN_CURSO, ahora, null, null);
+        ejecuciones.put(ejecucion.id(), ejecucion);
+
+        Thread.ofVirtual().name("facturacion-" + periodo).start(() -> {
+            try {
+                ResumenFacturacionDto resumen = facturarPeriodo(fechaEmision);
+                ejecuciones.put(ejecucion.id(), new EjecucionFacturacionDto(ejecucion.id(), periodo,
+                        EjecucionFacturacionDto.Estado.TERMINADA, ejecucion.inicio(), resumen, null));
+            } catch (RuntimeException e) {
+                logger.error("Falló la facturación {} iniciada bajo demanda", periodo, e);
+                ejecuciones.put(ejecucion.id(), new EjecucionFacturacionDto(ejecucion.id(), periodo,
+                        EjecucionFacturacionDto.Estado.FALLIDA, ejecucion.inicio(), null, e.getMessage()));
+            }
+        });
+        return ejecucion;
+    }
+
+
+    @Override
+    public EjecucionFacturacionDto consultarEjecucion(String id) throws ElementoNoEncontradoException {
+        EjecucionFacturacionDto ejecucion = ejecuciones.get(id);
+        if (ejecucion == null) {
+            throw new ElementoNoEncontradoException(MensajeError.EJECUCION_FACTURACION_NO_ENCONTRADA);
+        }
+        return ejecucion;
+    }
+
+
+    @Override
+    public ResumenFacturacionDto facturarPeriodo(LocalDate fechaEmision) {
+        String periodo = YearMonth.from(fechaEmision).toString();
+        long inicio = System.nanoTime();
+
+        List<CompletableFuture<int[]>> particiones = new ArrayList<>();
+        Long desdeCliente = 0L;
+        List<Long> clientes;
+        do {
+            clientes = facturaRepo.buscarClientesPorFacturar(periodo, desdeCliente, particion);
+            if (clientes.isEmpty()) break;
+
+            List<Long> idsClientes = clientes;
+            particiones.add(CompletableFuture.supplyAsync(
+                    () -> facturarParticion(idsClientes, periodo, fechaEmision), facturacionExecutor));
+            desdeCliente = clientes.get(clientes.size() - 1);
+        } while (clientes.size() == particion);
+
+        int facturas = 0, contratos = 0, omitidas = 0;
+        for (CompletableFuture<int[]> resultado : particiones) {
+            int[] cantidades = resultado.join();
+            facturas += cantidades[0];
+            contratos += cantidades[1];
+            omitidas += cantidades[2];
+        }
+
+        long duracionNs = System.nanoTime() - inicio;
+        tiempoEjecucion.record(duracionNs, TimeUnit.NANOSECONDS);
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(duracionNs);
+        double contratosPorSegundo = duracionNs == 0 ? 0 : contratos * 1e9 / duracionNs;
+
+        logger.info("Facturación {}: {} facturas, {} contratos, {} clientes ya facturados en {} ms ({} contratos/s)",
+                periodo, facturas, contratos, omitidas, duracionMs, Math.round(contratosPorSegundo));
+        return new ResumenFacturacionDto(periodo, facturas, contratos, omitidas, duracionMs, contratosPorSegundo);
+    }
+
+
+    /**
+     * Factura una partición de clientes en una sola transacción.
+     *
+     * @return {@code {facturas, contratos, omitidas}}.
+     */
+    private int[] facturarParticion(List<Long> idsClientes, String periodo, LocalDate fechaEmision) {
+        List<ContratoFacturableDto> contratos = contratoRepo.listarFacturables(EstadoContrato.ACTIVO, idsClientes);
+        Map<Long, List<ContratoFacturableDto>> porCliente = new LinkedHashMap<>();
+        for (ContratoFacturableDto contrato : contratos) {
+            porCliente.computeIfAbsent(contrato.idCliente(), id -> new ArrayList<>()).add(contrato);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> porCliente.forEach((idCliente, contratosCliente) ->
+                    facturaRepo.save(crearFactura(idCliente, contratosCliente, periodo, fechaEmision))));
+            contratosFacturados.increment(contratos.size());
+            return new int[]{porCliente.size(), contratos.size(), 0};
+        } catch (DataIntegrityViolationException e) {
+            // Otra ejecución facturó a alguno de estos clientes: se factura uno por uno
+            logger.debug("Partición con clientes ya facturados en {}, se procesa cliente por cliente", periodo);
+            return facturarPorCliente(porCliente, periodo, fechaEmision);
+        }
+    }
+
+
+    private int[] facturarPorCliente(Map<Long, List<ContratoFacturableDto>> porCliente, String periodo,
+                                     LocalDate fechaEmision) {
+        int facturas = 0, contratos = 0, omitidas = 0;
+        for (Map.Entry<Long, List<ContratoFacturableDto>> cliente : porCliente.entrySet()) {
+            try {
+                Boolean creada = transactionTemplate.execute(status -> {
+                    if (facturaRepo.existsByCliente_IdAndPeriodo(cliente.getKey(), periodo)) return false;
+                    facturaRepo.save(crearFactura(cliente.getKey(), cliente.getValue(), periodo, fechaEmision));
+                    return true;
+                });
+                if (Boolean.TRUE.equals(creada)) {
+                    facturas++;
+                    contratos += cliente.getValue().size();
+                    contratosFacturados.increment(cliente.getValue().size());
+                } else {
+                    omitidas++;
+                }
+            } catch (DataIntegrityViolationException e) {
+                omitidas++;
+            }
+        }
+        return new int[]{facturas, contratos, omitidas};
+    }
+
+
+    /**
+     * Arma la factura de un cliente con un detalle por contrato. Las relaciones se asignan con
+     * referencias, sin consultar los clientes ni los contratos.
+     */
+    private Factura crearFactura(Long idCliente, List<ContratoFacturableDto> contratos, String periodo,
+                                 LocalDate fechaEmision) {
+        Factura factura = new Factura();
+        factura.setCliente(clienteRepo.getReferenceById(idCliente));
+        factura.setPeriodo(periodo);
+        factura.setFechaEmision(fechaEmision); // Calcula también la fecha límite de pago
+        factura.setIva(iva);
+        factura.setEstadoFactura(EstadoFactura.PENDIENTE);
+
+        List<DetalleFactura> detalles = new ArrayList<>(contratos.size());
+        for (ContratoFacturableDto contrato : contratos) {
+            detalles.add(new DetalleFactura(null, factura, contratoRepo.getReferenceById(contrato.idContrato()),
+                    contrato.valor()));
+        }
+        factura.setDetallesFactura(detalles);
+        factura.setValorTotal(factura.calcularValorTotal());
+        return factura;
+    }
+}
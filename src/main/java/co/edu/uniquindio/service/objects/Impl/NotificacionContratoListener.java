@@ -0,0 +1,344 @@
+package co.edu.uniquindio.service.objects.Impl;
+
+import co.edu.uniquindio.config.AsyncConfig;
+import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.event.contrato.ContratoCancelado;
+import co.edu.uniquindio.event.contrato.ContratoCreado;
+import co.edu.uniquindio.event.contrato.ContratoFirmado;
+import co.edu.uniquindio.event.contrato.ContratoModificado;
+import co.edu.uniquindio.event.contrato.EventoContrato;
+import co.edu.uniquindio.model.objects.Contrato;
+import co.edu.uniquindio.model.objects.NotificacionContrato;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.objects.enums.EstadoNotificacionContrato;
+import co.edu.uniquindio.model.objects.enums.TipoNotificacionContrato;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.NotificacionContratoRepo;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import co.edu.uniquindio.service.utils.PdfService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Listener de los eventos de contrato que genera el PDF del contrato y lo notifica por correo.
+ * <p>
+ * El evento se guarda como una {@link NotificacionContrato} antes del commit, en la misma transacción
+ * que cambia el contrato: si el proceso cae después del commit, la notificación sigue en la base de datos.
+ * Después del commit, un hilo del executor {@link AsyncConfig#EVENTOS_EXECUTOR} procesa las pendientes
+ * para que la solicitud no espere el renderizado del PDF; una tarea programada retoma las que quedaron
+ * y las que fallaron.
+ * </p>
+ *
+ * <p>
+ * Cada notificación se procesa en su propia transacción, con la fila bloqueada ({@code SKIP LOCKED}):
+ * se genera el PDF, se registran los correos en la bandeja de salida y la fila pasa a {@code ENCOLADA}.
+ * Si algo falla, la transacción se revierte completa (ningún correo queda encolado a medias) y la
+ * notificación se reintenta con espera exponencial hasta agotar los intentos.
+ * </p>
+ *
+ * <p>
+ * Métricas publicadas por tipo de notificación: {@code storeit.eventos.contrato.retraso} (desde que se
+ * registró hasta que un hilo empieza a procesarla) y {@code storeit.eventos.contrato.procesamiento}.
+ * </p>
+ */
+@Component
+public class NotificacionContratoListener {
+
+    private final NotificacionContratoRepo notificacionContratoRepo;
+    private final BloqueoFilasRepo bloqueoFilasRepo;
+    private final ContratoRepo contratoRepo;
+    private final PdfService pdfService;
+    private final EmailServicio emailServicio;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry registry;
+    private static final Logger logger = LoggerFactory.getLogger(NotificacionContratoListener.class);
+
+    @Value("${store-it.contratos.notificaciones.lote:50}")
+    private int tamanoLote;
+
+    @Value("${store-it.contratos.notificaciones.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${store-it.contratos.notificaciones.espera-base-ms:30000}")
+    private long esperaBaseMs;
+
+
+    public NotificacionContratoListener(NotificacionContratoRepo notificacionContratoRepo,
+                                        BloqueoFilasRepo bloqueoFilasRepo, ContratoRepo contratoRepo,
+                                        PdfService pdfService, EmailServicio emailServicio,
+                                        PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.notificacionContratoRepo = notificacionContratoRepo;
+        this.bloqueoFilasRepo = bloqueoFilasRepo;
+        this.contratoRepo = contratoRepo;
+        this.pdfService = pdfService;
+        this.emailServicio = emailServicio;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.registry = registry;
+    }
+
+
+    /**
+     * Guarda la notificación del evento en la transacción que cambia el contrato.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void registrar(EventoContrato evento) {
+        TipoNotificacionContrato tipo = tipoDe(evento);
+        if (tipo == null) return;
+
+        NotificacionContrato notificacion = new NotificacionContrato();
+        notificacion.setIdContrato(evento.idContrato());
+        notificacion.setTipo(tipo);
+        notificacion.setEstado(EstadoNotificacionContrato.PENDIENTE);
+        notificacion.setProximoIntento(LocalDateTime.now());
+        notificacionContratoRepo.save(notificacion);
+    }
+
+
+    /**
+     * Procesa las notificaciones pendientes en cuanto se confirma el cambio del contrato.
+     */
+    @Async(AsyncConfig.EVENTOS_EXECUTOR)
+    @TransactionalEventListener
+    public void alConfirmar(EventoContrato evento) {
+        despachar();
+    }
+
+
+    /**
+     * Retoma las notificaciones que no se procesaron al confirmarse (caída del proceso, cola llena)
+     * y las que deben reintentarse.
+     */
+    @Scheduled(fixedDelayString = "${store-it.contratos.notificaciones.intervalo-ms:10000}")
+    public void despachar() {
+        for (int i = 0; i < tamanoLote; i++) {
+            if (!procesarSiguiente()) return;
+        }
+    }
+
+
+    /**
+     * Elimina las notificaciones encoladas hace más de 7 días; sus correos ya están en la bandeja de salida.
+     */
+    @Scheduled(cron = "0 10 4 * * *") // Todos los días a las 4:10 a.m.
+    public void purgarEncoladas() {
+        int eliminadas = notificacionContratoRepo.eliminarEncoladasAntesDe(LocalDateTime.now().minusDays(7));
+        logger.info("Se eliminaron {} notificaciones de contratos ya encoladas", eliminadas);
+    }
+
+
+    /**
+     * Reclama y procesa una notificación lista en su propia transacción.
+     *
+     * @return {@code false} si no quedaba ninguna lista.
+     */
+    boolean procesarSiguiente() {
+        AtomicReference<NotificacionContrato> reclamada = new AtomicReference<>();
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                List<Long> ids = bloqueoFilasRepo.bloquear(NotificacionContratoRepo.LISTAS, 1, LocalDateTime.now());
+                if (ids.isEmpty()) return false;
+
+                NotificacionContrato notificacion = notificacionContratoRepo.findById(ids.get(0)).orElseThrow();
+                reclamada.set(notificacion);
+                procesar(notificacion);
+                notificacionContratoRepo.marcarEncolada(notificacion.getId());
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            NotificacionContrato notificacion = reclamada.get();
+            if (notificacion == null) throw e; // Falló el reclamo: no hay nada que reprogramar
+
+            // La transacción se revirtió con los correos que alcanzaron a encolarse
+            String error = String.valueOf(e.getMessage());
+            notificacionContratoRepo.registrarFallo(notificacion.getId(), maxIntentos, esperaBaseMs,
+                    LocalDateTime.now(), error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (notificacion.getIntentos() + 1 >= maxIntentos) {
+                logger.error("{}: la notificación del contrato {} falló tras {} intentos",
+                        notificacion.getTipo(), notificacion.getIdContrato(), maxIntentos, e);
+            } else {
+                logger.warn("{}: error notificando el contrato {}, se reintentará: {}",
+                        notificacion.getTipo(), notificacion.getIdContrato(), error);
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Genera el PDF y registra los correos de una notificación, dentro de la transacción que la reclamó.
+     */
+    private void procesar(NotificacionContrato notificacion) {
+        String tipo = notificacion.getTipo().name();
+        Timer.builder("storeit.eventos.contrato.retraso")
+                .description("Tiempo desde que se registra la notificación hasta que empieza su procesamiento")
+                .tag("evento", tipo)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(Duration.between(notificacion.getFechaCreacion(), LocalDateTime.now()));
+
+        Timer.Sample muestra = Timer.start(registry);
+        try {
+            Optional<Contrato> contrato = contratoRepo.findById(notificacion.getIdContrato());
+            if (contrato.isEmpty()) {
+                logger.warn("{}: el contrato {} ya no existe", tipo, notificacion.getIdContrato());
+                return;
+            }
+
+            switch (notificacion.getTipo()) {
+                case CREADO -> notificarCreacion(contrato.get());
+                case FIRMADO_CLIENTE -> notificarFirmaCliente(contrato.get());
+                case FIRMADO_AGENTE -> notificarActivacion(contrato.get());
+                case MODIFICADO -> notificarModificacion(contrato.get());
+                case CANCELADO -> notificarCancelacion(contrato.get());
+            }
+            logger.info("{}: notificaciones del contrato {} registradas", tipo, notificacion.getIdContrato());
+        } finally {
+            muestra.stop(Timer.builder("storeit.eventos.contrato.procesamiento")
+                    .description("Tiempo de generación del PDF y registro de las notificaciones")
+                    .tag("evento", tipo)
+                    .register(registry));
+        }
+    }
+
+
+    /**
+     * Tipo de notificación de un evento, o {@code null} si el evento no se notifica por correo.
+     */
+    private TipoNotificacionContrato tipoDe(EventoContrato evento) {
+        if (evento instanceof ContratoCreado) return TipoNotificacionContrato.CREADO;
+        if (evento instanceof ContratoModificado) return TipoNotificacionContrato.MODIFICADO;
+        if (evento instanceof ContratoFirmado firmado) {
+            return firmado.firmante() == ContratoFirmado.Firmante.CLIENTE
+                    ? TipoNotificacionContrato.FIRMADO_CLIENTE
+                    : TipoNotificacionContrato.FIRMADO_AGENTE;
+        }
+        // Solo los contratos activos reciben el aviso de cancelación con el PDF
+        if (evento instanceof ContratoCancelado cancelado && cancelado.estadoAnterior() == EstadoContrato.ACTIVO) {
+            return TipoNotificacionContrato.CANCELADO;
+        }
+        return null;
+    }
+
+
+    private void notificarCreacion(Contrato contrato) {
+        // Correo para el agente de ventas con el contrato adjunto
+        EmailDto emailAgente = new EmailDto(
+                contrato.getAgenteVentas().getUser().getEmail(),
+                "Bienvenido a Store-It - Contrato Adjunto",
+                String.format(
+                        "Hola %s,\n\n" +
+                                "Nos complace darte la bienvenida al equipo de Store-It como Agente de Ventas.\n\n" +
+                                "Adjunto encontrarás el contrato correspondiente a tu incorporación. Por favor, revísalo cuidadosamente y no dudes en contactarnos si tienes alguna pregunta o necesitas más información.\n\n" +
+                                "Estamos seguros de que harás un excelente trabajo. ¡Muchos éxitos!\n\n" +
+                                "Saludos cordiales,\n" +
+                                "Equipo Store-It",
+                        contrato.getAgenteVentas().getNombre()));
+
+        // Correo para el cliente con la solicitud de firma
+        EmailDto emailCliente = new EmailDto(
+                contrato.getCliente().getUser().getEmail(),
+                "Store-It - Firma de Contrato de Servicio Requerida",
+                String.format(
+                        "Hola %s,\n\n" +
+                                "Gracias por confiar en Store-It para el almacenamiento de tus productos.\n\n" +
+                                "Adjunto a este correo encontrarás tu contrato de servicio. Por favor, revísalo y asegúrate de que toda la información esté correcta.\n\n" +
+                                "Recuerda que debes **firmar digitalmente el contrato dentro de las próximas 24 horas** para que podamos activar tu servicio. Si tienes alguna duda o requerimiento, no dudes en contactarnos.\n\n" +
+                                "Esperamos brindarte un excelente servicio.\n\n" +
+                                "Saludos cordiales,\n" +
+                                "Equipo Store-It",
+                        contrato.getCliente().getNombre()));
+
+        byte[] pdfContent = pdfService.generarContratoPdf(contrato);
+        emailServicio.enviarCorreoConPdf(emailAgente, pdfContent);
+        emailServicio.enviarCorreoConPdf(emailCliente, pdfContent);
+    }
+
+
+    private void notificarFirmaCliente(Contrato contrato) {
+        byte[] pdfContent = pdfService.generarContratoPdf(contrato);
+
+        EmailDto emailDto = new EmailDto(
+                contrato.getAgenteVentas().getUser().getEmail(),
+                "Store-It - Contrato firmado por el cliente",
+                String.format("Hola %s,\n\nNos complace informarte que el cliente ha firmado el contrato correspondiente.\n\n" +
+                                "Puedes encontrar el contrato firmado adjunto a este correo. Por favor, revisa que todo esté en orden y continúa con el proceso de asignación o seguimiento según corresponda.\n\n" +
+                                "Gracias por tu compromiso y dedicación.\n\nSaludos cordiales,\nEquipo Store-It",
+                        contrato.getAgenteVentas().getNombre()));
+        emailServicio.enviarCorreoConPdf(emailDto, pdfContent);
+    }
+
+
+    private void notificarActivacion(Contrato contrato) {
+        byte[] pdfContent = pdfService.generarContratoPdf(contrato);
+
+        EmailDto emailDto = new EmailDto(
+                contrato.getCliente().getUser().getEmail(),
+                "Store-It - Contrato Activado",
+                String.format("Hola %s,\n\nTe informamos que tu contrato con Store-It ha sido activado exitosamente y ya está en marcha.\n\n" +
+                                "A partir de ahora puedes hacer uso del espacio asignado y contar con todos los beneficios de nuestro servicio.\n" +
+                                "Si tienes alguna pregunta o necesitas asistencia, no dudes en comunicarte con nosotros.\n\n" +
+                                "¡Gracias por confiar en Store-It!\n\nSaludos cordiales,\nEquipo Store-It",
+                        contrato.getCliente().getNombre()));
+
+        EmailDto emailAgente = new EmailDto(
+                contrato.getAgenteVentas().getUser().getEmail(),
+                "Store-It - Contrato Activado con Cliente",
+                String.format(
+                        "Hola %s,\n\n" +
+                                "Te informamos que el contrato con el cliente **%s** ha sido activado exitosamente.\n\n" +
+                                "A partir de este momento, el cliente puede hacer uso del espacio asignado y acceder a todos los beneficios del servicio.\n" +
+                                "Gracias por tu gestión y compromiso con Store-It.\n\n" +
+                                "Si necesitas hacer seguimiento o brindar soporte adicional, recuerda que puedes acceder a la plataforma para ver los detalles.\n\n" +
+                                "Saludos cordiales,\n" +
+                                "Equipo Store-It",
+                        contrato.getAgenteVentas().getNombre(),
+                        contrato.getCliente().getNombre()));
+
+        emailServicio.enviarCorreoConPdf(emailDto, pdfContent);
+        emailServicio.enviarCorreoConPdf(emailAgente, pdfContent);
+    }
+
+
+    private void notificarModificacion(Contrato contrato) {
+        EmailDto emailDto = new EmailDto(
+                contrato.getCliente().getUser().getEmail(),
+                "Store-It - Contrato Modificado",
+                String.format("Hola %s,\n\nTe informamos que tu contrato con Store-It ha sido modificado recientemente.\n\n" +
+                                "Por favor revisa los cambios realizados. Si tienes alguna duda o necesitas más información, no dudes en comunicarte con nuestro equipo de soporte.\n\n" +
+                                "Gracias por confiar en Store-It.\n\nSaludos cordiales,\nEquipo Store-It",
+                        contrato.getCliente().getNombre()));
+
+        emailServicio.enviarCorreoConPdf(emailDto, pdfService.generarContratoPdf(contrato));
+    }
+
+
+    private void notificarCancelacion(Contrato contrato) {
+        EmailDto emailDto = new EmailDto(
+                contrato.getCliente().getUser().getEmail(),
+                "Store-It - Contrato Cancelado",
+                String.format("Hola %s,\n\nLamentamos informarte que tu contrato con Store-It ha sido cancelado.\n\n" +
+                                "Adjunto a este correo encontrarás una copia del contrato cancelado en formato PDF para tu referencia.\n\n" +
+                                "Si tienes alguna pregunta o necesitas más información sobre esta decisión, no dudes en comunicarte con nuestro equipo de soporte.\n\n" +
+                                "Agradecemos el tiempo que compartiste con nosotros.\n\nSaludos cordiales,\nEquipo Store-It",
+                        contrato.getCliente().getNombre()));
+
+        emailServicio.enviarCorreoConPdf(emailDto, pdfService.generarAvisoDeudaPdf(contrato));
+    }
+}
@@ -0,0 +1,119 @@
+package co.edu.uniquindio.service.objects.Impl;
+
+import co.edu.uniquindio.dto.objects.ocupacion.DesviacionOcupacionDto;
+import co.edu.uniquindio.repository.objects.BodegaRepo;
+import co.edu.uniquindio.repository.objects.EspacioRepo;
+import co.edu.uniquindio.repository.objects.ProductoRepo;
+import co.edu.uniquindio.service.objects.OcupacionServicio;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de {@link OcupacionServicio}.
+ * <p>
+ * Compara los contadores {@code area_ocupada} con sumas agregadas calculadas por la base de datos,
+ * sin cargar colecciones de productos ni de espacios, y corrige las filas que no coincidan.
+ * Se ejecuta al arrancar la aplicación (para inicializar filas existentes) y todos los días a las 3:00 a.m.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class OcupacionServicioImpl implements OcupacionServicio {
+
+    private final BodegaRepo bodegaRepo;
+    private final EspacioRepo espacioRepo;
+    private final ProductoRepo productoRepo;
+    private static final Logger logger = LoggerFactory.getLogger(OcupacionServicioImpl.class);
+
+    // Diferencia mínima (m²) para considerar que un contador está desviado
+    private static final double TOLERANCIA = 1e-6;
+
+
+    /**
+     * Tarea programada que reconcilia los contadores de ocupación.
+     */
+    @Scheduled(cron = "0 0 3 * * *") // Todos los días a las 3:00 a.m.
+    @Transactional
+    public void reconciliacionProgramada() {
+        reconciliarOcupacion();
+    }
+
+
+    /**
+     * Reconciliación inicial al arrancar, para que las filas creadas antes de existir
+     * los contadores queden con su valor real.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconciliacionInicial() {
+        reconciliarOcupacion();
+    }
+
+
+    @Override
+    @Transactional
+    public List<DesviacionOcupacionDto> reconciliarOcupacion() {
+
+        List<DesviacionOcupacionDto> desviaciones = new ArrayList<>();
+
+        // Espacios: el área ocupada es la suma de sus productos en bodega
+        Map<Long, Double> areaPorEspacio = agruparSumas(productoRepo.sumarAreaOcupadaPorEspacio());
+        for (Object[] fila : espacioRepo.listarAreaOcupada()) {
+            Long id = ((Number) fila[0]).longValue();
+            double registrada = fila[1] == null ? 0.0 : ((Number) fila[1]).doubleValue();
+            double calculada = areaPorEspacio.getOrDefault(id, 0.0);
+
+            if (Math.abs(registrada - calculada) > TOLERANCIA) {
+                espacioRepo.actualizarAreaOcupada(id, calculada);
+                desviaciones.add(new DesviacionOcupacionDto("ESPACIO", id, registrada, calculada));
+            }
+        }
+
+        // Bodegas: el área ocupada es la suma del área total de sus espacios
+        Map<Long, Double> areaPorBodega = agruparSumas(espacioRepo.sumarAreaTotalPorBodega());
+        for (Object[] fila : bodegaRepo.listarAreaOcupada()) {
+            Long id = ((Number) fila[0]).longValue();
+            double registrada = fila[1] == null ? 0.0 : ((Number) fila[1]).doubleValue();
+            double calculada = areaPorBodega.getOrDefault(id, 0.0);
+
+            if (Math.abs(registrada - calculada) > TOLERANCIA) {
+                bodegaRepo.actualizarAreaOcupada(id, calculada);
+                desviaciones.add(new DesviacionOcupacionDto("BODEGA", id, registrada, calculada));
+            }
+        }
+
+        // Reportamos cada desviación encontrada
+        desviaciones.forEach(d -> logger.warn("Desviación de ocupación en {} {}: registrada {} m², calculada {} m²",
+                d.entidad(), d.id(), d.areaRegistrada(), d.areaCalculada()));
+        logger.info("Reconciliación de ocupación finalizada con {} desviaciones corregidas", desviaciones.size());
+
+        return desviaciones;
+    }
+
+
+    /**
+     * Convierte filas {@code [id, suma]} devueltas por una consulta agregada en un mapa.
+     *
+     * @param filas filas de la consulta.
+     * @return mapa de ID a suma en metros cuadrados.
+     */
+    private Map<Long, Double> agruparSumas(List<Object[]> filas) {
+        Map<Long, Double> sumas = new HashMap<>();
+        for (Object[] fila : filas) {
+            if (fila[0] == null || fila[1] == null) continue;
+            sumas.put(((Number) fila[0]).longValue(), ((Number) fila[1]).doubleValue());
+        }
+        return sumas;
+    }
+}
@@ -4,9 +4,18 @@ import co.edu.uniquindio.constants.MensajeError;
 import co.edu.uniquindio.dto.common.email.EmailDto;
 import co.edu.uniquindio.dto.objects.espacio.EspacioDto;
 import co.edu.uniquindio.dto.objects.producto.CrearProductoDto;
+import co.edu.uniquindio.dto.objects.producto.LineaCargaProductoDto;
 import co.edu.uniquindio.dto.objects.producto.ProductoDto;
+import co.edu.uniquindio.dto.objects.producto.ProductoLoteDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoCargaProductosDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoLineaProductoDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoMovimientoLoteDto;
+import co.edu.uniquindio.dto.objects.producto.RetiroLoteDto;
 import co.edu.uniquindio.dto.objects.producto.RetiroProductoDto;
+import co.edu.uniquindio.dto.objects.producto.TrasladoLoteDto;
+import co.edu.uniquindio.exception.ElementoIncorrectoException;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.exception.ElementoNoValido;
 import co.edu.uniquindio.mapper.objects.EspacioMapper;
 import co.edu.uniquindio.mapper.objects.ProductoMapper;
 import co.edu.uniquindio.model.objects.Contrato;
@@ -20,18 +29,25 @@ import co.edu.uniquindio.model.users.Cliente;
 import co.edu.uniquindio.model.users.PersonalBodega;
 import co.edu.uniquindio.repository.objects.ContratoRepo;
 import co.edu.uniquindio.repository.objects.EspacioRepo;
-import co.edu.uniquindio.repository.objects.MovimientoRepo;
 import co.edu.uniquindio.repository.objects.ProductoRepo;
 import co.edu.uniquindio.repository.users.ClienteRepo;
 import co.edu.uniquindio.repository.users.PersonalBodegaRepo;
 import co.edu.uniquindio.service.objects.ProductoServicio;
 import co.edu.uniquindio.service.utils.EmailServicio;
+import co.edu.uniquindio.utils.QuantityAreaConverter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,14 +58,23 @@ public class ProductoServicioImpl implements ProductoServicio {
     private final ClienteRepo clienteRepo;
     private final EspacioRepo espacioRepo;
     private final PersonalBodegaRepo personalBodegaRepo;
-    private final MovimientoRepo movimientoRepo;
     private final ContratoRepo contratoRepo;
     private final ProductoMapper productoMapper;
     private final EmailServicio emailServicio;
     private final EspacioMapper espacioMapper;
+    private final EntityManager entityManager;
+    private static final Logger logger = LoggerFactory.getLogger(ProductoServicioImpl.class);
+
+    // Debe coincidir con hibernate.jdbc.batch_size
+    private static final int TAMANO_LOTE = 50;
+
+    // Límite de elementos de Oracle en una lista IN
+    private static final int MAXIMO_IN = 1000;
 
     @Override
-    public void crearProducto(CrearProductoDto crearProductoDTO) throws ElementoNoEncontradoException {
+    @Transactional
+    public void crearProducto(CrearProductoDto crearProductoDTO)
+            throws ElementoNoEncontradoException, ElementoIncorrectoException {
 
         Cliente cliente = clienteRepo.findByUser_Email(crearProductoDTO.emailCliente())
                 .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
@@ -68,7 +93,11 @@ public class ProductoServicioImpl implements ProductoServicio {
 
         Producto producto = productoMapper.toEntity(crearProductoDTO);
 
-        espacio.agregarProducto(producto);
+        // Reservar el área en el espacio: la validación y el descuento ocurren en un solo UPDATE condicional
+        if (espacioRepo.reservarArea(espacio.getId(), QuantityAreaConverter.toDouble(producto.getAreaOcupada())) == 0) {
+            throw new ElementoIncorrectoException(MensajeError.ESPACIO_EXCEDE);
+        }
+        producto.setEspacio(espacio);
 
         Movimiento movimiento = new Movimiento();
         movimiento.setProducto(producto);
@@ -79,15 +108,11 @@ public class ProductoServicioImpl implements ProductoServicio {
         movimiento.setDetalle("Ingreso de producto al espacio");
 
         producto.getHistorialMovimientos().add(movimiento);
-        cliente.getProductos().add(producto);
-        personalBodega.getMovimientosProducto().add(movimiento);
         producto.setCliente(cliente);
 
+        // Una sola persistencia: el movimiento se guarda en cascada con el producto. Cliente y personal
+        // no se guardan ni se cargan sus colecciones, porque la relación la mantienen producto y movimiento.
         productoRepo.save(producto);
-        movimientoRepo.save(movimiento);
-        espacioRepo.save(espacio);
-        personalBodegaRepo.save(personalBodega);
-        clienteRepo.save(cliente);
 
 
         // Definimos el asunto del correo
@@ -118,6 +143,135 @@ public class ProductoServicioImpl implements ProductoServicio {
     }
 
 
+    /**
+     * Registra en un solo paso todos los productos de una carga masiva en un espacio.
+     * <p>
+     * El espacio, su contrato (y por tanto el cliente) y el personal responsable se resuelven una sola vez.
+     * Las líneas inválidas se rechazan individualmente; el área de las válidas se reserva con una única
+     * actualización condicional, de modo que la carga completa cabe en el espacio o se rechaza.
+     * Productos y movimientos de ingreso se insertan en lotes JDBC dentro de la misma transacción
+     * y al final se envía un solo correo de resumen al cliente.
+     * </p>
+     *
+     * @param idEspacio        espacio en el que se almacenan los productos.
+     * @param idPersonalBodega personal de bodega responsable del ingreso.
+     * @param lineas           líneas leídas de la carga.
+     * @return reporte con el resultado de cada línea.
+     * @throws ElementoNoEncontradoException si el espacio, su contrato o el personal no existen.
+     * @throws ElementoIncorrectoException   si el área total de la carga excede el espacio disponible.
+     * @throws ElementoNoValido              si alguna línea es nula o no trae ni producto ni error.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ResultadoCargaProductosDto registrarProductosLote(Long idEspacio, Long idPersonalBodega,
+                                                             List<LineaCargaProductoDto> lineas)
+            throws ElementoNoEncontradoException, ElementoIncorrectoException {
+
+        // Una línea nula no se puede reportar por número: se rechaza la carga antes de tocar la base de datos
+        for (LineaCargaProductoDto linea : lineas) {
+            if (linea == null || (linea.producto() == null && linea.error() == null)) {
+                throw new ElementoNoValido(MensajeError.LINEA_CARGA_NULA);
+            }
+        }
+
+        Espacio espacio = espacioRepo.findById(idEspacio)
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.ESPACIO_NO_ENCONTRADO));
+
+        // El cliente de la carga es el titular del contrato del espacio
+        Contrato contrato = espacio.getContrato();
+        if (contrato == null) {
+            throw new ElementoNoEncontradoException(MensajeError.CONTRATO_NO_ENCONTRADO);
+        }
+        Cliente cliente = contrato.getCliente();
+        String emailCliente = cliente.getUser().getEmail();
+
+        PersonalBodega personalBodega = personalBodegaRepo.findById(idPersonalBodega)
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
+
+        // Validamos cada línea y acumulamos el área de las válidas
+        ResultadoLineaProductoDto[] resultados = new ResultadoLineaProductoDto[lineas.size()];
+        double areaTotal = 0;
+        for (int i = 0; i < lineas.size(); i++) {
+            LineaCargaProductoDto linea = lineas.get(i);
+            String error = linea.error() != null ? linea.error() : validarProductoLote(linea.producto());
+            if (error != null) {
+                resultados[i] = new ResultadoLineaProductoDto(linea.numero(), false, null, error);
+            } else {
+                areaTotal += linea.producto().areaOcupada();
+            }
+        }
+
+        // Reservamos el área de toda la carga con un solo UPDATE condicional
+        if (areaTotal > 0 && espacioRepo.reservarArea(espacio.getId(), areaTotal) == 0) {
+            throw new ElementoIncorrectoException(MensajeError.ESPACIO_EXCEDE);
+        }
+
+        LocalDateTime fecha = LocalDateTime.now();
+        int registrados = 0;
+        for (int i = 0; i < lineas.size(); i++) {
+            if (resultados[i] != null) continue;
+
+            ProductoLoteDto dto = lineas.get(i).producto();
+            Producto producto = productoMapper.toEntity(new CrearProductoDto(dto.nombre(), dto.descripcion(),
+                    dto.areaOcupada(), dto.altura(), dto.tipoProducto(), idEspacio, emailCliente,
+                    idPersonalBodega));
+            producto.setEspacio(espacio);
+            producto.setCliente(cliente);
+
+            Movimiento movimiento = new Movimiento();
+            movimiento.setProducto(producto);
+            movimiento.setTipoMovimiento(TipoMovimiento.INGRESO);
+            movimiento.setFechaMovimiento(fecha);
+            movimiento.setEspacio(espacio);
+            movimiento.setPersonalResponsable(personalBodega);
+            movimiento.setDetalle("Ingreso de producto al espacio (carga masiva)");
+            producto.getHistorialMovimientos().add(movimiento);
+
+            // El ID sale del bloque reservado de la secuencia, sin ir a la base de datos
+            entityManager.persist(producto);
+            resultados[i] = new ResultadoLineaProductoDto(lineas.get(i).numero(), true, producto.getId(), null);
+
+            // Enviamos cada lote y liberamos el contexto para no acumular entidades en memoria
+            if (++registrados % TAMANO_LOTE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        logger.info("Carga masiva en espacio {}: {} productos registrados, {} líneas rechazadas",
+                idEspacio, registrados, lineas.size() - registrados);
+
+        if (registrados > 0) {
+            enviarEmail(emailCliente, "Resumen de registro de productos - Store-It", String.format(
+                    "Hola %s,\n\n" +
+                            "Se registraron %d productos en tu espacio de Store-It.\n\n" +
+                            "• Área total ocupada por estos productos: %.2f m²\n\n" +
+                            "Puedes consultar el detalle de cada producto desde tu cuenta.\n\n" +
+                            "Gracias por confiar en nosotros.\n\n" +
+                            "Saludos cordiales,\n" +
+                            "El equipo de Store-It",
+                    cliente.getNombre(), registrados, areaTotal));
+        }
+
+        return new ResultadoCargaProductosDto(idEspacio, registrados, lineas.size() - registrados, areaTotal,
+                List.of(resultados));
+    }
+
+
+    /**
+     * Valida los campos obligatorios de una línea de carga masiva.
+     *
+     * @return el motivo del rechazo, o {@code null} si la línea es válida.
+     */
+    private String validarProductoLote(ProductoLoteDto producto) {
+        if (producto.nombre() == null || producto.nombre().isBlank()) return "El nombre es obligatorio";
+        if (producto.tipoProducto() == null) return "El tipo de producto es obligatorio";
+        if (producto.areaOcupada() == null || producto.areaOcupada() <= 0) return "El área ocupada debe ser mayor a cero";
+        if (producto.altura() == null || producto.altura() <= 0) return "La altura debe ser mayor a cero";
+        return null;
+    }
+
+
     private void enviarEmail(String emailDestinatario, String asunto, String cuerpo){
         // Se crea un DTO de email con su estructura para enviarse al receptor
         EmailDto emailDto = new EmailDto(emailDestinatario, asunto, cuerpo);
@@ -154,6 +308,7 @@ public class ProductoServicioImpl implements ProductoServicio {
 
 
     @Override
+    @Transactional
     public void retirarProducto(RetiroProductoDto retirarProductoDTO) throws ElementoNoEncontradoException {
 
         Cliente cliente = clienteRepo.findByUser_Email(retirarProductoDTO.emailCliente())
@@ -167,6 +322,11 @@ public class ProductoServicioImpl implements ProductoServicio {
         PersonalBodega personalBodega = personalBodegaRepo.findById(retirarProductoDTO.idPersonal())
                 .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO));
 
+        // Un producto ya retirado no vuelve a liberar área
+        if (producto.getEstadoProducto() != EstadoProducto.EN_BODEGA) {
+            throw new ElementoNoEncontradoException(MensajeError.PRODUCTO_NO_ENCONTRADO);
+        }
+
         producto.setEstadoProducto(EstadoProducto.RETIRADO);
 
         Movimiento movimiento = new Movimiento();
@@ -178,18 +338,11 @@ public class ProductoServicioImpl implements ProductoServicio {
         movimiento.setDetalle("Retiro del producto");
 
         producto.getHistorialMovimientos().add(movimiento);
-        cliente.getProductos().add(producto);
-        producto.setCliente(cliente);
-        personalBodega.getMovimientosProducto().add(movimiento);
-        Espacio espacio = producto.getEspacio();
-        espacio.getProductos().remove(producto);
-
-        movimientoRepo.save(movimiento);
-        productoRepo.save(producto);
-        espacioRepo.save(espacio);
-        personalBodegaRepo.save(personalBodega);
-        clienteRepo.save(cliente);
 
+        // Liberamos el área del producto en el contador del espacio. El UPDATE vacía antes el contexto de
+        // persistencia: el cambio de estado y el movimiento (en cascada) se escriben ahí, y el producto queda
+        // separado, así que a partir de aquí solo se leen sus datos ya cargados.
+        espacioRepo.liberarArea(producto.getEspacio().getId(), QuantityAreaConverter.toDouble(producto.getAreaOcupada()));
 
         // Definimos el asunto del correo / Define email subject
         String asunto = "Confirmación de retiro de producto - Store-It";
@@ -217,6 +370,206 @@ public class ProductoServicioImpl implements ProductoServicio {
         enviarEmail(cliente.getUser().getEmail(), asunto, cuerpo);
     }
 
+    /**
+     * Retira varios productos de un espacio en una sola transacción.
+     * <p>
+     * Los productos se bloquean y se leen solo su ID y área (nunca se cargan las colecciones del cliente
+     * ni del espacio). Los movimientos de retiro se insertan en lotes JDBC y el cambio de estado se aplica con
+     * una sentencia por conjunto, en bloques de hasta 1000 IDs; el contador del espacio se libera con una sola
+     * actualización.
+     * </p>
+     *
+     * @param retiroLoteDto espacio, responsable y productos a retirar (todos si la lista es vacía).
+     * @return resumen del retiro.
+     * @throws ElementoNoEncontradoException si el espacio o el personal no existen.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ResultadoMovimientoLoteDto retirarProductosLote(RetiroLoteDto retiroLoteDto) throws ElementoNoEncontradoException {
+
+        Espacio espacio = espacioRepo.findById(retiroLoteDto.idEspacio())
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.ESPACIO_NO_ENCONTRADO));
+
+        if (!personalBodegaRepo.existsById(retiroLoteDto.idPersonal())) {
+            throw new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO);
+        }
+
+        List<Object[]> filas = bloquearProductos(espacio.getId(), retiroLoteDto.idsProductos());
+        List<Long> ids = filas.stream().map(f -> ((Number) f[0]).longValue()).toList();
+        double area = filas.stream().mapToDouble(f -> ((Number) f[1]).doubleValue()).sum();
+
+        LocalDateTime fecha = LocalDateTime.now();
+        for (List<Long> bloque : particionar(ids)) {
+            registrarMovimientos(bloque, espacio.getId(), TipoMovimiento.RETIRO, fecha,
+                    retiroLoteDto.idPersonal(), "Retiro del producto");
+            productoRepo.marcarRetirados(bloque);
+        }
+        if (area > 0) {
+            espacioRepo.liberarArea(espacio.getId(), area);
+        }
+
+        logger.info("Retiro masivo en espacio {}: {} productos, {} m² liberados", espacio.getId(), ids.size(), area);
+        notificarMovimientoLote(espacio, String.format(
+                "Se retiraron %d productos de tu espacio en Store-It, liberando %.2f m².", ids.size(), area), ids.size());
+
+        return new ResultadoMovimientoLoteDto(TipoMovimiento.RETIRO, espacio.getId(), null, ids.size(), area,
+                noEncontrados(retiroLoteDto.idsProductos(), ids));
+    }
+
+
+    /**
+     * Traslada varios productos entre dos espacios del mismo cliente en una sola transacción.
+     * <p>
+     * El área se reserva primero en el destino con una actualización condicional; si no cabe, no se escribe nada.
+     * Después se registran los movimientos {@link TipoMovimiento#TRASLADO}, se cambia el espacio de los productos
+     * con sentencias por conjunto y se libera el área en el origen.
+     * </p>
+     *
+     * @param trasladoLoteDto espacios de origen y destino, responsable y productos a trasladar (todos si es vacía).
+     * @return resumen del traslado.
+     * @throws ElementoNoEncontradoException si algún espacio o el personal no existen.
+     * @throws ElementoIncorrectoException   si el destino es el mismo espacio, es de otro cliente o no tiene área suficiente.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ResultadoMovimientoLoteDto trasladarProductosLote(TrasladoLoteDto trasladoLoteDto)
+            throws ElementoNoEncontradoException, ElementoIncorrectoException {
+
+        if (trasladoLoteDto.idEspacioOrigen().equals(trasladoLoteDto.idEspacioDestino())) {
+            throw new ElementoIncorrectoException(MensajeError.TRASLADO_MISMO_ESPACIO);
+        }
+
+        Espacio origen = espacioRepo.findById(trasladoLoteDto.idEspacioOrigen())
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.ESPACIO_NO_ENCONTRADO));
+        Espacio destino = espacioRepo.findById(trasladoLoteDto.idEspacioDestino())
+                .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.ESPACIO_NO_ENCONTRADO));
+
+        if (!personalBodegaRepo.existsById(trasladoLoteDto.idPersonal())) {
+            throw new ElementoNoEncontradoException(MensajeError.PERSONA_NO_ENCONTRADO);
+        }
+
+        // Ambos espacios deben estar contratados por el mismo cliente
+        if (origen.getContrato() == null || destino.getContrato() == null
+                || !origen.getContrato().getCliente().getId().equals(destino.getContrato().getCliente().getId())) {
+            throw new ElementoIncorrectoException(MensajeError.ESPACIO_OTRO_CLIENTE);
+        }
+
+        List<Object[]> filas = bloquearProductos(origen.getId(), trasladoLoteDto.idsProductos());
+        List<Long> ids = filas.stream().map(f -> ((Number) f[0]).longValue()).toList();
+        double area = filas.stream().mapToDouble(f -> ((Number) f[1]).doubleValue()).sum();
+
+        // Reservamos en el destino antes de escribir cualquier cambio
+        if (area > 0 && espacioRepo.reservarArea(destino.getId(), area) == 0) {
+            throw new ElementoIncorrectoException(MensajeError.ESPACIO_EXCEDE);
+        }
+
+        LocalDateTime fecha = LocalDateTime.now();
+        String detalle = "Traslado del producto al espacio " + destino.getId();
+        for (List<Long> bloque : particionar(ids)) {
+            registrarMovimientos(bloque, origen.getId(), TipoMovimiento.TRASLADO, fecha,
+                    trasladoLoteDto.idPersonal(), detalle);
+            productoRepo.cambiarEspacio(bloque, destino.getId());
+        }
+        if (area > 0) {
+            espacioRepo.liberarArea(origen.getId(), area);
+        }
+
+        logger.info("Traslado masivo del espacio {} al {}: {} productos, {} m²", origen.getId(), destino.getId(), ids.size(), area);
+        notificarMovimientoLote(origen, String.format(
+                "Se trasladaron %d productos (%.2f m²) de tu espacio %d al espacio %d en Store-It.",
+                ids.size(), area, origen.getId(), destino.getId()), ids.size());
+
+        return new ResultadoMovimientoLoteDto(TipoMovimiento.TRASLADO, origen.getId(), destino.getId(), ids.size(), area,
+                noEncontrados(trasladoLoteDto.idsProductos(), ids));
+    }
+
+
+    /**
+     * Registra un movimiento por producto, con el espacio de origen como espacio del movimiento.
+     * <p>
+     * Los movimientos se persisten como entidades para que sus IDs salgan del bloque pooled-lo de la secuencia
+     * (una llamada por cada 50) y se inserten en lotes JDBC; productos, espacio y responsable se referencian
+     * sin cargarlos. Al terminar se vacía el contexto, antes de las sentencias por conjunto sobre los productos.
+     * </p>
+     */
+    private void registrarMovimientos(List<Long> idsProductos, Long idEspacio, TipoMovimiento tipo,
+                                      LocalDateTime fecha, Long idPersonal, String detalle) {
+        Espacio espacio = entityManager.getReference(Espacio.class, idEspacio);
+        PersonalBodega responsable = entityManager.getReference(PersonalBodega.class, idPersonal);
+
+        int registrados = 0;
+        for (Long idProducto : idsProductos) {
+            Movimiento movimiento = new Movimiento();
+            movimiento.setProducto(entityManager.getReference(Producto.class, idProducto));
+            movimiento.setTipoMovimiento(tipo);
+            movimiento.setFechaMovimiento(fecha);
+            movimiento.setEspacio(espacio);
+            movimiento.setPersonalResponsable(responsable);
+            movimiento.setDetalle(detalle);
+            entityManager.persist(movimiento);
+
+            if (++registrados % TAMANO_LOTE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                espacio = entityManager.getReference(Espacio.class, idEspacio);
+                responsable = entityManager.getReference(PersonalBodega.class, idPersonal);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+
+    /**
+     * Bloquea los productos en bodega del espacio (todos, o solo los indicados) y devuelve {@code [id, area]}.
+     */
+    private List<Object[]> bloquearProductos(Long idEspacio, List<Long> idsProductos) {
+        if (idsProductos == null || idsProductos.isEmpty()) {
+            return productoRepo.bloquearProductosEnBodega(idEspacio);
+        }
+        List<Object[]> filas = new ArrayList<>();
+        for (List<Long> bloque : particionar(idsProductos.stream().distinct().toList())) {
+            filas.addAll(productoRepo.bloquearProductosEnBodega(idEspacio, bloque));
+        }
+        return filas;
+    }
+
+
+    /**
+     * Divide una lista de IDs en bloques que respetan el límite de 1000 elementos de Oracle en {@code IN}.
+     */
+    private List<List<Long>> particionar(List<Long> ids) {
+        List<List<Long>> bloques = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAXIMO_IN) {
+            bloques.add(ids.subList(i, Math.min(i + MAXIMO_IN, ids.size())));
+        }
+        return bloques;
+    }
+
+
+    private List<Long> noEncontrados(List<Long> solicitados, List<Long> encontrados) {
+        if (solicitados == null || solicitados.isEmpty()) return List.of();
+        Set<Long> movidos = new HashSet<>(encontrados);
+        return solicitados.stream().filter(id -> !movidos.contains(id)).distinct().toList();
+    }
+
+
+    /**
+     * Envía un solo correo de resumen al cliente titular del espacio.
+     */
+    private void notificarMovimientoLote(Espacio espacio, String detalle, int cantidad) {
+        if (cantidad == 0 || espacio.getContrato() == null) return;
+        Cliente cliente = espacio.getContrato().getCliente();
+        enviarEmail(cliente.getUser().getEmail(), "Movimiento de productos - Store-It", String.format(
+                "Hola %s,\n\n" +
+                        "%s\n\n" +
+                        "Si no reconoces esta operación o necesitas asistencia, por favor contáctanos de inmediato.\n\n" +
+                        "Saludos cordiales,\n" +
+                        "El equipo de Store-It",
+                cliente.getNombre(), detalle));
+    }
+
+
     @Override
     public List<ProductoDto> listarProductosCliente(String email) throws ElementoNoEncontradoException {
 
@@ -0,0 +1,164 @@
+package co.edu.uniquindio.service.objects.Impl;
+
+import co.edu.uniquindio.config.AsyncConfig;
+import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.dto.objects.contrato.ContactoContratoDto;
+import co.edu.uniquindio.dto.objects.contrato.ResumenVencimientoDto;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.EspacioRepo;
+import co.edu.uniquindio.service.objects.VencimientoContratoServicio;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Implementación de {@link VencimientoContratoServicio}.
+ * <p>
+ * Ambas fases trabajan por lotes de {@code store-it.contratos.vencimiento.lote} IDs, cada uno en su propia
+ * transacción, apoyadas en el índice {@code (estado, fecha_fin)} de contratos:
+ * <ul>
+ *     <li><b>Finalización</b>: bloquea los contratos activos vencidos ({@code FOR UPDATE SKIP LOCKED}), los
+ *     finaliza y libera sus espacios con una sentencia {@code UPDATE} por tabla. Los contratos finalizados
+ *     salen del filtro, así que un reinicio simplemente continúa con los que quedan.</li>
+ *     <li><b>Recordatorios</b>: bloquea los contratos activos que terminan entre hoy y {@code dias-aviso} días
+ *     después y que aún no tienen {@code fecha_recordatorio}, encola los correos y marca esa fecha en la misma
+ *     transacción. Cada contrato recibe un solo recordatorio, aunque se active cuando su día de aviso ya pasó,
+ *     y tras un reinicio (o un día sin ejecutarse) se continúa con los que faltan.</li>
+ * </ul>
+ * Se ejecuta todos los días y también al arrancar la aplicación (en segundo plano), para recuperar
+ * ejecuciones perdidas.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class VencimientoContratoServicioImpl implements VencimientoContratoServicio {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final ContratoRepo contratoRepo;
+    private final EspacioRepo espacioRepo;
+    private final EmailServicio emailServicio;
+    private final TransactionTemplate transactionTemplate;
+    private final BloqueoFilasRepo bloqueoFilasRepo;
+    private static final Logger logger = LoggerFactory.getLogger(VencimientoContratoServicioImpl.class);
+
+    // Contratos procesados por transacción
+    @Value("${store-it.contratos.vencimiento.lote:500}")
+    private int lote;
+
+    // Días de anticipación del recordatorio de renovación
+    @Value("${store-it.contratos.vencimiento.dias-aviso:15}")
+    private int diasAviso;
+
+
+    /**
+     * Tarea programada que procesa los vencimientos del día.
+     */
+    @Scheduled(cron = "${store-it.contratos.vencimiento.cron:0 15 0 * * *}")
+    public void vencimientoProgramado() {
+        procesarVencimientos(LocalDate.now());
+    }
+
+
+    /**
+     * Al arrancar se completa cualquier ejecución interrumpida o perdida mientras la aplicación estuvo detenida.
+     * Corre en el executor de eventos para no retrasar el arranque con un barrido largo.
+     */
+    @Async(AsyncConfig.EVENTOS_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void vencimientoInicial() {
+        procesarVencimientos(LocalDate.now());
+    }
+
+
+    @Override
+    public ResumenVencimientoDto procesarVencimientos(LocalDate hoy) {
+        ResumenVencimientoDto resumen = new ResumenVencimientoDto(finalizarVencidos(hoy), enviarRecordatorios(hoy));
+        if (resumen.finalizados() > 0 || resumen.recordatorios() > 0) {
+            logger.info("Vencimiento de contratos: {} finalizados, {} recordatorios de renovación",
+                    resumen.finalizados(), resumen.recordatorios());
+        }
+        return resumen;
+    }
+
+
+    /**
+     * Finaliza por lotes los contratos activos cuya fecha de fin ya pasó y libera sus espacios.
+     */
+    private int finalizarVencidos(LocalDate hoy) {
+        // Hasta un lote vacío: un lote corto no significa que no queden (pudo saltar filas bloqueadas)
+        int total = 0;
+        int finalizados;
+        do {
+            finalizados = transactionTemplate.execute(status -> {
+                List<Long> ids = bloqueoFilasRepo.bloquear(ContratoRepo.ACTIVOS_VENCIDOS, lote, hoy);
+                if (ids.isEmpty()) return 0;
+
+                contratoRepo.finalizarTodos(ids);
+                espacioRepo.liberarDeContratos(ids);
+                return ids.size();
+            });
+            total += finalizados;
+        } while (finalizados > 0);
+        return total;
+    }
+
+
+    /**
+     * Encola por lotes los recordatorios de renovación de los contratos que terminan entre hoy y
+     * {@code hoy + diasAviso} y aún no lo recibieron.
+     */
+    private int enviarRecordatorios(LocalDate hoy) {
+        LocalDate objetivo = hoy.plusDays(diasAviso);
+
+        int total = 0;
+        int enviados;
+        do {
+            enviados = transactionTemplate.execute(status -> {
+                List<Long> ids = bloqueoFilasRepo.bloquear(ContratoRepo.ACTIVOS_SIN_RECORDATORIO, lote, hoy, objetivo);
+                if (ids.isEmpty()) return 0;
+
+                for (ContactoContratoDto contacto : contratoRepo.listarContactos(ids)) {
+                    encolarRecordatorio(contacto, contacto.fechaFin().format(FORMATO_FECHA));
+                }
+                contratoRepo.marcarRecordados(ids, LocalDateTime.now());
+                return ids.size();
+            });
+            total += enviados;
+        } while (enviados > 0);
+        return total;
+    }
+
+
+    private void encolarRecordatorio(ContactoContratoDto contacto, String fechaFin) {
+        emailServicio.enviarCorreo(new EmailDto(
+                contacto.emailCliente(),
+                "Store-It - Tu contrato está por vencer",
+                String.format("Hola %s,\n\nTu contrato N.º %d con Store-It vence el %s.\n\n" +
+                                "Si deseas renovarlo y conservar tu espacio, comunícate con tu agente de ventas %s " +
+                                "antes de esa fecha. Al vencer, el espacio quedará disponible para otros clientes.\n\n" +
+                                "Gracias por confiar en Store-It.\n\nSaludos cordiales,\nEquipo Store-It",
+                        contacto.nombreCliente(), contacto.idContrato(), fechaFin, contacto.nombreAgente())));
+
+        emailServicio.enviarCorreo(new EmailDto(
+                contacto.emailAgente(),
+                "Store-It - Contrato próximo a vencer",
+                String.format("Hola %s,\n\nEl contrato N.º %d con el cliente %s vence el %s.\n\n" +
+                                "Te recomendamos contactar al cliente para ofrecerle la renovación.\n\nEquipo Store-It",
+                        contacto.nombreAgente(), contacto.idContrato(), contacto.nombreCliente(), fechaFin)));
+    }
+}
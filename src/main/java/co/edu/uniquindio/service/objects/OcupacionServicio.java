@@ -0,0 +1,25 @@
+package co.edu.uniquindio.service.objects;
+
+import co.edu.uniquindio.dto.objects.ocupacion.DesviacionOcupacionDto;
+
+import java.util.List;
+
+/**
+ * Servicio encargado de mantener consistentes los contadores de área ocupada
+ * de {@link co.edu.uniquindio.model.objects.Bodega} y {@link co.edu.uniquindio.model.objects.Espacio}.
+ * <p>
+ * Los contadores se actualizan en cada ingreso, retiro o cambio de espacio; este servicio
+ * los recalcula desde las filas de origen y corrige cualquier desviación.
+ * </p>
+ */
+public interface OcupacionServicio {
+
+    /**
+     * Recalcula el área ocupada de espacios (desde los productos en bodega) y de bodegas
+     * (desde el área total de sus espacios), corrigiendo los contadores que no coincidan.
+     *
+     * @return lista de desviaciones encontradas y corregidas.
+     */
+    List<DesviacionOcupacionDto> reconciliarOcupacion();
+
+}
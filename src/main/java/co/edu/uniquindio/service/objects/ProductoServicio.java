@@ -2,8 +2,14 @@ package co.edu.uniquindio.service.objects;
 
 import co.edu.uniquindio.dto.objects.espacio.EspacioDto;
 import co.edu.uniquindio.dto.objects.producto.CrearProductoDto;
+import co.edu.uniquindio.dto.objects.producto.LineaCargaProductoDto;
 import co.edu.uniquindio.dto.objects.producto.ProductoDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoCargaProductosDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoMovimientoLoteDto;
+import co.edu.uniquindio.dto.objects.producto.RetiroLoteDto;
+import co.edu.uniquindio.dto.objects.producto.TrasladoLoteDto;
 import co.edu.uniquindio.dto.objects.producto.RetiroProductoDto;
+import co.edu.uniquindio.exception.ElementoIncorrectoException;
 import co.edu.uniquindio.exception.ElementoNoEncontradoException;
 
 import java.util.List;
@@ -11,12 +17,20 @@ import java.util.List;
 public interface ProductoServicio {
 
 
-    void crearProducto(CrearProductoDto crearProductoDTO) throws ElementoNoEncontradoException;
+    void crearProducto(CrearProductoDto crearProductoDTO) throws ElementoNoEncontradoException, ElementoIncorrectoException;
+
+    ResultadoCargaProductosDto registrarProductosLote(Long idEspacio, Long idPersonalBodega, List<LineaCargaProductoDto> lineas)
+            throws ElementoNoEncontradoException, ElementoIncorrectoException;
 
     List<EspacioDto> listarEspaciosCliente(String email) throws ElementoNoEncontradoException;
 
     void retirarProducto(RetiroProductoDto retirarProductoDTO) throws ElementoNoEncontradoException;
 
+    ResultadoMovimientoLoteDto retirarProductosLote(RetiroLoteDto retiroLoteDto) throws ElementoNoEncontradoException;
+
+    ResultadoMovimientoLoteDto trasladarProductosLote(TrasladoLoteDto trasladoLoteDto)
+            throws ElementoNoEncontradoException, ElementoIncorrectoException;
+
 
     List<ProductoDto> listarProductosCliente(String email) throws ElementoNoEncontradoException;
 
@@ -0,0 +1,27 @@
+package co.edu.uniquindio.service.objects;
+
+import co.edu.uniquindio.dto.objects.contrato.ResumenVencimientoDto;
+
+import java.time.LocalDate;
+
+/**
+ * Servicio que finaliza los contratos vencidos y recuerda a las partes la renovación de los que están
+ * por vencer.
+ * <p>
+ * Un contrato {@code ACTIVO} cuya {@code fechaFin} ya pasó queda {@code FINALIZADO} y su espacio vuelve a
+ * estar {@code LIBRE}. A los contratos que vencen dentro de {@code store-it.contratos.vencimiento.dias-aviso}
+ * días se les encola un correo de renovación para el cliente y el agente de ventas.
+ * </p>
+ */
+public interface VencimientoContratoServicio {
+
+    /**
+     * Procesa los vencimientos a la fecha indicada. Se puede ejecutar varias veces el mismo día:
+     * los contratos ya finalizados y los recordatorios ya encolados no se repiten.
+     *
+     * @param hoy fecha de referencia.
+     * @return cantidad de contratos finalizados y de recordatorios encolados.
+     */
+    ResumenVencimientoDto procesarVencimientos(LocalDate hoy);
+
+}
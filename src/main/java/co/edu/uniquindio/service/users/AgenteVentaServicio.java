@@ -55,10 +55,11 @@ public interface AgenteVentaServicio {
      * @throws ElementoNoEncontradoException si el agente no existe.
      * @throws ElementoIncorrectoException   si los nuevos datos no son válidos.
      * @throws ElementoNulosException        si algún campo obligatorio está vacío o nulo.
+     * @throws ElementoRepetidoException Si alguno de los teléfonos ya pertenece a otra persona.
      */
     void editarAgenteVentas(EditarAgenteVentasDto agente)
             throws ElementoNoEncontradoException, ElementoIncorrectoException,
-            ElementoNulosException;
+            ElementoNulosException, ElementoRepetidoException;
 
 
 
@@ -50,10 +50,11 @@ public interface ClienteServicio {
      * @throws ElementoNoEncontradoException Si el cliente no existe.
      * @throws ElementoIncorrectoException Si los datos proporcionados no son válidos.
      * @throws ElementoNulosException Si hay campos requeridos que no fueron proporcionados.
+     * @throws ElementoRepetidoException Si alguno de los teléfonos ya pertenece a otra persona.
      */
     void editarCliente(EditarClienteDto cuenta)
             throws ElementoNoEncontradoException, ElementoIncorrectoException,
-            ElementoNulosException ;
+            ElementoNulosException, ElementoRepetidoException;
 
 
     /**
@@ -55,10 +55,11 @@ public interface PersonalBodegaServicio {
      * @throws ElementoNoEncontradoException si el personal no existe.
      * @throws ElementoIncorrectoException   si los nuevos datos no son válidos.
      * @throws ElementoNulosException        si algún campo obligatorio está vacío o nulo.
+     * @throws ElementoRepetidoException Si alguno de los teléfonos ya pertenece a otra persona.
      */
     void editarPersonal(EditarPersonalBodegaDto personalEditado)
             throws ElementoNoEncontradoException, ElementoIncorrectoException,
-            ElementoNulosException;
+            ElementoNulosException, ElementoRepetidoException;
 
 
     BodegaDto obtenerBodegaPersonal(Long id) throws ElementoNoEncontradoException;
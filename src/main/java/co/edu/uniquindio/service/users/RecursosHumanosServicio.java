@@ -74,8 +74,9 @@ public interface RecursosHumanosServicio {
      * @throws ElementoNoEncontradoException si el recurso humano no existe.
      * @throws ElementoIncorrectoException si los datos proporcionados son incorrectos.
      * @throws ElementoNulosException si algunos campos obligatorios están vacíos.
+     * @throws ElementoRepetidoException Si alguno de los teléfonos ya pertenece a otra persona.
      */
-    void editarRecursosHumanos(EditarRRHHDto recursosHumanos) throws ElementoNoEncontradoException, ElementoIncorrectoException, ElementoNulosException;
+    void editarRecursosHumanos(EditarRRHHDto recursosHumanos) throws ElementoNoEncontradoException, ElementoIncorrectoException, ElementoNulosException, ElementoRepetidoException;
 
 
     /**
@@ -23,6 +23,7 @@ import co.edu.uniquindio.model.users.base.enums.EstadoCuenta;
 import co.edu.uniquindio.repository.objects.ContratoRepo;
 import co.edu.uniquindio.repository.objects.SedeRepo;
 import co.edu.uniquindio.repository.users.AgenteVentasRepo;
+import co.edu.uniquindio.service.common.AsignacionAgentesServicio;
 import co.edu.uniquindio.service.users.AgenteVentaServicio;
 import co.edu.uniquindio.service.utils.CloudinaryServicio;
 import co.edu.uniquindio.service.utils.EmailServicio;
@@ -32,12 +33,14 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import java.time.LocalDate;
@@ -86,6 +89,7 @@ public class AgenteVentaServicioImpl implements AgenteVentaServicio {
     private final SedeMapper sedeMapper;
     private final ContratoRepo contratoRepo;
     private final ContratoMapper contratoMapper;
+    private final AsignacionAgentesServicio asignacionAgentesServicio;
     private static final Logger logger = LoggerFactory.getLogger(AgenteVentaServicioImpl.class);
 
 
@@ -94,10 +98,10 @@ public class AgenteVentaServicioImpl implements AgenteVentaServicio {
      * Este método realiza las siguientes acciones principales:
      * <ol>
      *   <li>Válida que el correo electrónico no haya sido registrado previamente.</li>
+     *   <li>Convierte el DTO recibido en una entidad agente de ventas.</li>
+     *   <li>Formatea los números telefónicos (principal y secundario) y válida que sean distintos y que no estén registrados.</li>
      *   <li>Sube la imagen de perfil del agente de ventas a Cloudinary.</li>
      *   <li>Encripta la contraseña proporcionada por el agente de ventas.</li>
-     *   <li>Convierte el DTO recibido en una entidad agente de ventas.</li>
-     *   <li>Valida y formatea los números telefónicos (principal y secundario).</li>
      *   <li>Asigna la imagen de perfil y la contraseña encriptada a la entidad.</li>
      *   <li>Guarda al agente de ventas en la base de datos.</li>
      *   <li>Envía un correo al email del agente de ventas.</li>
@@ -114,19 +118,11 @@ public class AgenteVentaServicioImpl implements AgenteVentaServicio {
             throws ElementoRepetidoException, ElementoIncorrectoException,
             ElementoNulosException, ElementoNoEncontradoException, ElementoNoValido {
 
-        // 1. Validamos que el email y Teléfono no esté registrado
+        // 1. Validamos que los emails no estén registrados
         validacionCuentaServicio.validarEmailNoRepetido(agente.user().email());
         validacionCuentaServicio.validarEmailEmpresarialNoRepetido(agente.datosLaborales().emailEmpresarial());
-        validacionCuentaServicio.validarTelefonoNoRepetido(agente.telefono());
-        validacionCuentaServicio.validarTelefonoNoRepetido(agente.telefonoSecundario());
-
-        // 2. Subimos imagen y encriptamos contraseña
-        String urlImagen = cloudinaryServicio.uploadImage(agente.imagenPerfil());
-        String passwordEncriptada = passwordEncoder.encode(agente.user().password());
-
-
 
-        // 3. Convertimos DTO a entidad
+        // 2. Convertimos DTO a entidad
         AgenteVentas agenteVentas = agenteVentasMapper.toEntity(agente);
 
 
@@ -135,18 +131,25 @@ public class AgenteVentaServicioImpl implements AgenteVentaServicio {
                 .orElseThrow(() -> new ElementoNulosException(MensajeError.SEDE_NO_ENCONTRADA));
         agenteVentas.setSede(sede);
 
-        // 4. Formateamos teléfonos
+        // 3. Formateamos y validamos teléfonos antes de subir la imagen, para no dejarla huérfana si se rechaza la cuenta
         agenteVentas.setTelefono(phoneServicio.obtenerTelefonoFormateado(agenteVentas.getTelefono(), agente.codigoTelefono()));
         if (agenteVentas.getTelefonoSecundario() != null && !agenteVentas.getTelefonoSecundario().isEmpty()) {
             agenteVentas.setTelefonoSecundario(phoneServicio.obtenerTelefonoFormateado(agenteVentas.getTelefonoSecundario(), agente.codigoTelefonoSecundario()));
         }
+        validacionCuentaServicio.validarTelefonosNoRepetidos(agenteVentas.getTelefono(), agenteVentas.getTelefonoSecundario());
 
-        // 5. Asignamos imagen y contraseña encriptada
+        // 4. Subimos imagen y encriptamos contraseña
+        String urlImagen = cloudinaryServicio.uploadImage(agente.imagenPerfil());
         agenteVentas.setImagenPerfil(urlImagen);
-        agenteVentas.getUser().setPassword(passwordEncriptada);
-
-        // 6. Guardamos en la base de datos
-        agenteVentasRepo.save(agenteVentas);
+        agenteVentas.getUser().setPassword(passwordEncoder.encode(agente.user().password()));
+
+        // 5. Guardamos en la base de datos; si otro registro concurrente tomó un email o un teléfono, se responde como repetido
+        try {
+            agenteVentasRepo.save(agenteVentas);
+        } catch (DataIntegrityViolationException e) {
+            cloudinaryServicio.eliminarImagen(urlImagen);
+            throw validacionCuentaServicio.traducirRepetido(e);
+        }
 
         String asunto =  "Bienvenido a Store-It";
         String cuerpo = String.format( // Cuerpo del correo de bienvenida
@@ -198,8 +201,10 @@ public class AgenteVentaServicioImpl implements AgenteVentaServicio {
      * @throws ElementoNulosException Si alguno de los campos necesarios para la actualización está nulo o vacío.
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void editarAgenteVentas(EditarAgenteVentasDto agente)
-            throws ElementoNoEncontradoException, ElementoIncorrectoException, ElementoNulosException {
+            throws ElementoNoEncontradoException, ElementoIncorrectoException, ElementoNulosException,
+            ElementoRepetidoException {
 
         AgenteVentas agenteVentas = obtenerAgentePorId(agente.id());
 
@@ -214,10 +219,15 @@ public class AgenteVentaServicioImpl implements AgenteVentaServicio {
         if (agente.telefonoSecundario() != null && !agente.telefonoSecundario().isEmpty()) {
             agenteVentas.setTelefonoSecundario(phoneServicio.obtenerTelefonoFormateado(agente.telefonoSecundario(), agente.codigoPaisSecundario()));}
 
+        // Valida los teléfonos resultantes: distintos entre sí y sin pertenecer a otra persona
+        validacionCuentaServicio.validarTelefonosNoRepetidos(agenteVentas.getTelefono(), agenteVentas.getTelefonoSecundario(), agenteVentas);
+
         // Si se proporcionó una nueva imagen, se sube y actualiza
         if (agente.imagenPerfil() != null && !agente.imagenPerfil().isEmpty()) {
-            cloudinaryServicio.eliminarImagen(agenteVentas.getImagenPerfil());
+            // Si es la misma imagen de antes no se vuelve a subir; la anterior solo pierde una referencia
+            String imagenAnterior = agenteVentas.getImagenPerfil();
             agenteVentas.setImagenPerfil(cloudinaryServicio.uploadImage(agente.imagenPerfil()));
+            cloudinaryServicio.eliminarImagen(imagenAnterior);
         }
 
         // Guarda los cambios actualizados en la base de datos
@@ -339,6 +349,9 @@ public class AgenteVentaServicioImpl implements AgenteVentaServicio {
         agenteVentas.getUser().setEstadoCuenta(EstadoCuenta.ELIMINADO);
         agenteVentasRepo.save(agenteVentas);
 
+        // Deja de recibir chats nuevos
+        asignacionAgentesServicio.retirar(agenteVentas.getId());
+
         logger.info("Cuenta del Agente de Ventas con ID {} eliminada exitosamente.", id);
     }
 
@@ -21,11 +21,13 @@ import co.edu.uniquindio.service.users.ClienteServicio;
 import co.edu.uniquindio.service.utils.PhoneServicio;
 import co.edu.uniquindio.service.utils.ValidacionCuentaServicio;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -81,11 +83,11 @@ public class ClienteServicioImpl implements ClienteServicio {
      * <p>
      * Este método realiza las siguientes acciones principales:
      * <ul>
-     *     <li>Válida que el correo electrónico y los teléfonos proporcionados no estén registrados previamente.</li>
-     *     <li>Sube la imagen de perfil proporcionada o asigna una imagen de perfil por defecto si no se especifica una.</li>
-     *     <li>Encripta la contraseña antes de almacenarla en la base de datos.</li>
+     *     <li>Válida que el correo electrónico no esté registrado previamente.</li>
      *     <li>Convierte el objeto {@link CrearClienteDto} a una entidad de tipo {@link Cliente}.</li>
-     *     <li>Formatea correctamente el número de teléfono principal y el secundario (si existe) de acuerdo al país de origen.</li>
+     *     <li>Formatea correctamente el número de teléfono principal y el secundario (si existe) de acuerdo al país de origen,
+     *     y válida que sean distintos y que no estén registrados.</li>
+     *     <li>Sube la imagen de perfil proporcionada o asigna una imagen de perfil por defecto si no se especifica una.</li>
      *     <li>Asigna la imagen de perfil y la contraseña encriptada al cliente.</li>
      *     <li>Guarda la información del cliente en la base de datos.</li>
      *     <li>Envía un correo electrónico de bienvenida al cliente registrado.</li>
@@ -103,38 +105,40 @@ public class ClienteServicioImpl implements ClienteServicio {
             throws ElementoRepetidoException, ElementoIncorrectoException,
             ElementoNulosException, ElementoNoEncontradoException {
 
-        // 1. Validamos que el email y Teléfono no esté registrado
+        // 1. Validamos que el email no esté registrado
         validacionCuentaServicio.validarEmailNoRepetido(cuenta.user().email());
-        validacionCuentaServicio.validarTelefonoNoRepetido(cuenta.telefono());
-        // El teléfono secundario puede estar nulo, pues en la lógica lo maneja
-        validacionCuentaServicio.validarTelefonoNoRepetido(cuenta.telefonoSecundario());
 
-        // 2. Subimos imagen de perfil o asignamos una por defecto
-        String urlImagen;
-        if (cuenta.imagenPerfil() != null && !cuenta.imagenPerfil().isEmpty()) {
-            urlImagen = cloudinaryServicio.uploadImage(cuenta.imagenPerfil());
-        } else {
-            urlImagen = IMAGEN_URL;}
-
-        // 3. Encriptamos contraseña
-        String passwordEncriptada = passwordEncoder.encode(cuenta.user().password());
-
-        // 4. Convertimos DTO a entidad
+        // 2. Convertimos DTO a entidad
         Cliente cliente = clienteMapper.toEntity(cuenta);
 
-        // 5. Formateamos teléfonos
+        // 3. Formateamos teléfonos
         cliente.setTelefono(phoneServicio.obtenerTelefonoFormateado(cliente.getTelefono(), cuenta.codigoPais()));
 
         // Formateamos el teléfono secundario si no esta nulo.
         if (cliente.getTelefonoSecundario() != null && !cliente.getTelefonoSecundario().isEmpty()) {
             cliente.setTelefonoSecundario(phoneServicio.obtenerTelefonoFormateado(cliente.getTelefonoSecundario(), cuenta.codigoPaisSecundario()));}
 
+        // Validamos los teléfonos antes de subir la imagen, para no dejarla huérfana si se rechaza la cuenta
+        validacionCuentaServicio.validarTelefonosNoRepetidos(cliente.getTelefono(), cliente.getTelefonoSecundario());
+
+        // 4. Subimos imagen de perfil o asignamos una por defecto
+        String urlImagen;
+        if (cuenta.imagenPerfil() != null && !cuenta.imagenPerfil().isEmpty()) {
+            urlImagen = cloudinaryServicio.uploadImage(cuenta.imagenPerfil());
+        } else {
+            urlImagen = IMAGEN_URL;}
+
         // 5. Asignamos imagen y contraseña encriptada
         cliente.setImagenPerfil(urlImagen);
-        cliente.getUser().setPassword(passwordEncriptada);
-
-        // 6. Guardamos en la base de datos
-        clienteRepo.save(cliente);
+        cliente.getUser().setPassword(passwordEncoder.encode(cuenta.user().password()));
+
+        // 6. Guardamos en la base de datos; si otro registro concurrente tomó el email o un teléfono, se responde como repetido
+        try {
+            clienteRepo.save(cliente);
+        } catch (DataIntegrityViolationException e) {
+            if (!urlImagen.equals(IMAGEN_URL)) cloudinaryServicio.eliminarImagen(urlImagen);
+            throw validacionCuentaServicio.traducirRepetido(e);
+        }
 
         // Definimos el asunto del correo
         String asunto = "Bienvenido a Store-It - Gestión de Bodegas";
@@ -222,9 +226,10 @@ public class ClienteServicioImpl implements ClienteServicio {
      * @throws ElementoNulosException Si alguno de los campos necesarios para la actualización está nulo o vacío.
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void editarCliente(EditarClienteDto cuenta)
             throws ElementoNoEncontradoException, ElementoIncorrectoException,
-            ElementoNulosException {
+            ElementoNulosException, ElementoRepetidoException {
 
         // Busca al cliente en la base de datos por su cédula
         Cliente cliente = obtenerClientePorId(cuenta.id());
@@ -240,15 +245,18 @@ public class ClienteServicioImpl implements ClienteServicio {
         if (cuenta.telefonoSecundario() != null && !cuenta.telefonoSecundario().isEmpty()) {
             cliente.setTelefonoSecundario(phoneServicio.obtenerTelefonoFormateado(cuenta.telefonoSecundario(), cliente.getUbicacion().getPais()));}
 
+        // Valida los teléfonos resultantes: distintos entre sí y sin pertenecer a otra persona
+        validacionCuentaServicio.validarTelefonosNoRepetidos(cliente.getTelefono(), cliente.getTelefonoSecundario(), cliente);
+
         // Sí se proporcionó una nueva imagen
         if (cuenta.imagenPerfil() != null && !cuenta.imagenPerfil().isEmpty()) {
-            // Verificar si la imagen actual no es la imagen por defecto
-            if (!cliente.getImagenPerfil().equals(IMAGEN_URL)) {
-                // Eliminar la imagen anterior del cliente
-                cloudinaryServicio.eliminarImagen(cliente.getImagenPerfil());
-            }
-            // Subir la nueva imagen de perfil y actualizarla
+            String imagenAnterior = cliente.getImagenPerfil();
+            // Subir la nueva imagen de perfil y actualizarla (si es la misma de antes, se reutiliza)
             cliente.setImagenPerfil(cloudinaryServicio.uploadImage(cuenta.imagenPerfil()));
+            // Liberar la imagen anterior, salvo que sea la imagen por defecto
+            if (!imagenAnterior.equals(IMAGEN_URL)) {
+                cloudinaryServicio.eliminarImagen(imagenAnterior);
+            }
         }
 
 
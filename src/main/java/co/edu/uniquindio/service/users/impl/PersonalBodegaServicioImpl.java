@@ -26,12 +26,14 @@ import co.edu.uniquindio.service.utils.ValidacionCuentaServicio;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -84,10 +86,10 @@ public class PersonalBodegaServicioImpl implements PersonalBodegaServicio {
      *
      * <p>Este método realiza las siguientes acciones:</p>
      * <ol>
-     *     <li>Válida que el correo electrónico personal, el correo empresarial y los teléfonos no estén registrados previamente.</li>
-     *     <li>Sube la imagen de perfil del usuario a Cloudinary y encripta su contraseña.</li>
+     *     <li>Válida que el correo electrónico personal y el correo empresarial no estén registrados previamente.</li>
      *     <li>Convierte el DTO recibido a una entidad {@link PersonalBodega} utilizando MapStruct.</li>
-     *     <li>Formatea los teléfonos con base en el país de la ubicación de la bodega.</li>
+     *     <li>Formatea los teléfonos y válida que sean distintos y que no estén registrados.</li>
+     *     <li>Sube la imagen de perfil del usuario a Cloudinary y encripta su contraseña.</li>
      *     <li>Asigna la imagen y la contraseña encriptada a la entidad.</li>
      *     <li>Guarda el nuevo personal de bodega en la base de datos.</li>
      *     <li>Envía un correo de bienvenida al nuevo personal.</li>
@@ -104,34 +106,35 @@ public class PersonalBodegaServicioImpl implements PersonalBodegaServicio {
             throws ElementoRepetidoException, ElementoIncorrectoException,
             ElementoNulosException, ElementoNoEncontradoException {
 
-        // 1. Validamos que el email y Teléfono no esté registrado
+        // 1. Validamos que los emails no estén registrados
         validacionCuentaServicio.validarEmailNoRepetido(personal.user().email());
         validacionCuentaServicio.validarEmailEmpresarialNoRepetido(personal.datosLaborales().emailEmpresarial());
-        validacionCuentaServicio.validarTelefonoNoRepetido(personal.telefono());
-        validacionCuentaServicio.validarTelefonoNoRepetido(personal.telefonoSecundario());
 
-        // 2. Subimos imagen y encriptamos contraseña
-        String urlImagen = cloudinaryServicio.uploadImage(personal.imagenPerfil());
-        String passwordEncriptada = passwordEncoder.encode(personal.user().password());
-
-        // 3. Convertimos DTO a entidad
+        // 2. Convertimos DTO a entidad
         PersonalBodega personalBodega = personalBodegaMapper.toEntity(personal);
 
         Bodega bodega = bodegaRepo.findById(personal.idBodega())
                 .orElseThrow(() -> new ElementoNoEncontradoException(MensajeError.BODEGA_NO_ENCONTRADA));
         personalBodega.setBodega(bodega);
 
-        // 4. Formateamos teléfonos
+        // 3. Formateamos y validamos teléfonos antes de subir la imagen, para no dejarla huérfana si se rechaza la cuenta
         personalBodega.setTelefono(phoneServicio.obtenerTelefonoFormateado(personalBodega.getTelefono(), personal.codigoTelefono()));
         if (personalBodega.getTelefonoSecundario() != null && !personalBodega.getTelefonoSecundario().isEmpty()) {
             personalBodega.setTelefonoSecundario(phoneServicio.obtenerTelefonoFormateado(personalBodega.getTelefonoSecundario(), personal.codigoTelefonoSecundario()));}
+        validacionCuentaServicio.validarTelefonosNoRepetidos(personalBodega.getTelefono(), personalBodega.getTelefonoSecundario());
 
-        // 5. Asignamos imagen y contraseña encriptada
+        // 4. Subimos imagen y encriptamos contraseña
+        String urlImagen = cloudinaryServicio.uploadImage(personal.imagenPerfil());
         personalBodega.setImagenPerfil(urlImagen);
-        personalBodega.getUser().setPassword(passwordEncriptada);
-
-        // 6. Guardamos en la base de datos
-        personalBodegaRepo.save(personalBodega);
+        personalBodega.getUser().setPassword(passwordEncoder.encode(personal.user().password()));
+
+        // 5. Guardamos en la base de datos; si otro registro concurrente tomó un email o un teléfono, se responde como repetido
+        try {
+            personalBodegaRepo.save(personalBodega);
+        } catch (DataIntegrityViolationException e) {
+            cloudinaryServicio.eliminarImagen(urlImagen);
+            throw validacionCuentaServicio.traducirRepetido(e);
+        }
 
         // Enviamos el correo de bienvenida al Personal de Bodega
         EmailDto emailDto = new EmailDto(
@@ -167,9 +170,10 @@ public class PersonalBodegaServicioImpl implements PersonalBodegaServicio {
      * @throws ElementoNulosException Si alguno de los campos necesarios para la actualización está nulo o vacío.
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void editarPersonal(EditarPersonalBodegaDto personalBodegaDto)
             throws ElementoNoEncontradoException, ElementoIncorrectoException,
-            ElementoNulosException {
+            ElementoNulosException, ElementoRepetidoException {
 
         // Se obtiene el personal de bodega mediante su ID
         PersonalBodega personalBodega = obtenerPersonalPorId(personalBodegaDto.id());
@@ -189,12 +193,16 @@ public class PersonalBodegaServicioImpl implements PersonalBodegaServicio {
                     personalBodegaDto.telefonoSecundario(),
                     personalBodega.getBodega().getUbicacion().getPais()));}
 
+        // Valida los teléfonos resultantes: distintos entre sí y sin pertenecer a otra persona
+        validacionCuentaServicio.validarTelefonosNoRepetidos(personalBodega.getTelefono(), personalBodega.getTelefonoSecundario(), personalBodega);
+
         // Si se proporcionó una nueva imagen, se sube y actualiza
         if (personalBodegaDto.imagenPerfil() != null && !personalBodegaDto.imagenPerfil().isEmpty()) {
-            // Elimina la imagen anterior del personal de bodega
-            cloudinaryServicio.eliminarImagen(personalBodega.getImagenPerfil());
-            // Sube la imagen nueva de perfil
-            personalBodega.setImagenPerfil(cloudinaryServicio.uploadImage(personalBodegaDto.imagenPerfil()));}
+            String imagenAnterior = personalBodega.getImagenPerfil();
+            // Sube la imagen nueva de perfil (si es la misma de antes, se reutiliza sin subirla)
+            personalBodega.setImagenPerfil(cloudinaryServicio.uploadImage(personalBodegaDto.imagenPerfil()));
+            // Libera la imagen anterior del personal de bodega
+            cloudinaryServicio.eliminarImagen(imagenAnterior);}
 
         // Guarda los cambios actualizados en la base de datos
         personalBodegaRepo.save(personalBodega);
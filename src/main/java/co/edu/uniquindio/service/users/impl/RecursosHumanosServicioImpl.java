@@ -37,12 +37,14 @@ import co.edu.uniquindio.service.utils.ValidacionCuentaServicio;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -106,10 +108,10 @@ public class RecursosHumanosServicioImpl implements RecursosHumanosServicio {
      * Este método realiza las siguientes acciones principales:
      * <ol>
      *   <li>Válida que el correo electrónico no haya sido registrado previamente.</li>
+     *   <li>Convierte el DTO recibido en una entidad Recursos Humanos.</li>
+     *   <li>Formatea los números telefónicos (principal y secundario) y válida que sean distintos y que no estén registrados.</li>
      *   <li>Sube la imagen de perfil del personal de Recursos Humanos a Cloudinary.</li>
      *   <li>Encripta la contraseña proporcionada por el usuario.</li>
-     *   <li>Convierte el DTO recibido en una entidad Recursos Humanos.</li>
-     *   <li>Valida y formatea los números telefónicos (principal y secundario).</li>
      *   <li>Asigna la imagen de perfil y la contraseña encriptada a la entidad.</li>
      *   <li>Guarda al miembro de Recursos Humanos en la base de datos.</li>
      *   <li>Envía un correo al email del personal registrado.</li>
@@ -124,35 +126,36 @@ public class RecursosHumanosServicioImpl implements RecursosHumanosServicio {
 
     @Override
     public void registrarRecursosHumanos(CrearRHDto recursosHumanosDto) throws ElementoRepetidoException, ElementoIncorrectoException, ElementoNulosException, ElementoNoEncontradoException {
-        // 1. Validamos que el email y Teléfono no esté registrado
+        // 1. Validamos que los emails no estén registrados
         validacionCuentaServicio.validarEmailNoRepetido(recursosHumanosDto.user().email());
         validacionCuentaServicio.validarEmailEmpresarialNoRepetido(recursosHumanosDto.datosLaborales().emailEmpresarial());
-        validacionCuentaServicio.validarTelefonoNoRepetido(recursosHumanosDto.telefono());
-        validacionCuentaServicio.validarTelefonoNoRepetido(recursosHumanosDto.telefonoSecundario());
 
-        // 2. Subimos imagen y encriptamos contraseña
-        String urlImagen = cloudinaryServicio.uploadImage(recursosHumanosDto.imagenPerfil());
-        String passwordEncriptada = passwordEncoder.encode(recursosHumanosDto.user().password());
-
-        // 3. Convertimos DTO a entidad
+        // 2. Convertimos DTO a entidad
         RecursosHumanos recursosHumanos = recursosHumanosMapper.toEntity(recursosHumanosDto);
 
-        // 4. Formateamos teléfonos
-        recursosHumanos.setTelefono(phoneServicio.obtenerTelefonoFormateado(recursosHumanos.getTelefono(), recursosHumanos.getSede().getUbicacion().getPais()));
-        if (recursosHumanos.getTelefonoSecundario() != null && !recursosHumanos.getTelefonoSecundario().isEmpty()) {
-            recursosHumanos.setTelefonoSecundario(phoneServicio.obtenerTelefonoFormateado(recursosHumanos.getTelefonoSecundario(), recursosHumanos.getSede().getUbicacion().getPais()));}
-
-        // 5. Asignamos imagen y contraseña encriptada
-        recursosHumanos.setImagenPerfil(urlImagen);
-        recursosHumanos.getUser().setPassword(passwordEncriptada);
-
         // Validamos si la sede existe
         Sede sede = sedeRepo.findById(recursosHumanos.getSede().getId())
                 .orElseThrow(()-> new ElementoNoEncontradoException(MensajeError.SEDE_NO_ENCONTRADA));
         recursosHumanos.setSede(sede);
 
-        // 6. Guardamos en la base de datos
-        sedeRepo.save(sede);
+        // 3. Formateamos y validamos teléfonos antes de subir la imagen, para no dejarla huérfana si se rechaza la cuenta
+        recursosHumanos.setTelefono(phoneServicio.obtenerTelefonoFormateado(recursosHumanos.getTelefono(), sede.getUbicacion().getPais()));
+        if (recursosHumanos.getTelefonoSecundario() != null && !recursosHumanos.getTelefonoSecundario().isEmpty()) {
+            recursosHumanos.setTelefonoSecundario(phoneServicio.obtenerTelefonoFormateado(recursosHumanos.getTelefonoSecundario(), sede.getUbicacion().getPais()));}
+        validacionCuentaServicio.validarTelefonosNoRepetidos(recursosHumanos.getTelefono(), recursosHumanos.getTelefonoSecundario());
+
+        // 4. Subimos imagen y encriptamos contraseña
+        String urlImagen = cloudinaryServicio.uploadImage(recursosHumanosDto.imagenPerfil());
+        recursosHumanos.setImagenPerfil(urlImagen);
+        recursosHumanos.getUser().setPassword(passwordEncoder.encode(recursosHumanosDto.user().password()));
+
+        // 5. Guardamos en la base de datos; si otro registro concurrente tomó un email o un teléfono, se responde como repetido
+        try {
+            sedeRepo.save(sede);
+        } catch (DataIntegrityViolationException e) {
+            cloudinaryServicio.eliminarImagen(urlImagen);
+            throw validacionCuentaServicio.traducirRepetido(e);
+        }
 
         // Enviamos el correo de bienvenida al personal de Recursos Humanos
         EmailDto emailDto = new EmailDto(
@@ -186,7 +189,8 @@ public class RecursosHumanosServicioImpl implements RecursosHumanosServicio {
      * @throws ElementoNulosException Si alguno de los campos necesarios está nulo o vacío.
      */
     @Override
-    public void editarRecursosHumanos(EditarRRHHDto recursosHumanosDto) throws ElementoNoEncontradoException, ElementoIncorrectoException, ElementoNulosException {
+    @Transactional(rollbackFor = Exception.class)
+    public void editarRecursosHumanos(EditarRRHHDto recursosHumanosDto) throws ElementoNoEncontradoException, ElementoIncorrectoException, ElementoNulosException, ElementoRepetidoException {
 
         RecursosHumanos recursosHumanos = obtenerRecursosHumanosPorId(recursosHumanosDto.idRRHH());
 
@@ -204,9 +208,14 @@ public class RecursosHumanosServicioImpl implements RecursosHumanosServicio {
                     recursosHumanosDto.telefonoSecundario(), recursosHumanosDto.codigoPaisSecundario()));
         }
 
+        // Valida los teléfonos resultantes: distintos entre sí y sin pertenecer a otra persona
+        validacionCuentaServicio.validarTelefonosNoRepetidos(recursosHumanos.getTelefono(), recursosHumanos.getTelefonoSecundario(), recursosHumanos);
+
         // Actualiza imagen de perfil si se proporciona una nueva
         if (recursosHumanosDto.imagenPerfil() != null && !recursosHumanosDto.imagenPerfil().isEmpty()) {
+            String imagenAnterior = recursosHumanos.getImagenPerfil();
             recursosHumanos.setImagenPerfil(cloudinaryServicio.uploadImage(recursosHumanosDto.imagenPerfil()));
+            cloudinaryServicio.eliminarImagen(imagenAnterior);
         }
 
         // Guarda los cambios en la base de datos
@@ -688,6 +697,7 @@ public class RecursosHumanosServicioImpl implements RecursosHumanosServicio {
      * al personal afectado.</p>
      */
     @Override
+    @Transactional
     public void trasladoBodegaPersonal(TrasladoPersonalBodegaDto trasladoPersonalBodegaDto) throws ElementoNoEncontradoException {
 
         // Obtenemos el personal de bodega por su ID o lanzamos excepción si no existe
@@ -708,19 +718,10 @@ public class RecursosHumanosServicioImpl implements RecursosHumanosServicio {
             return;
         }
 
-        // Eliminamos al personal de la bodega anterior (si tenía)
-        if (anteriorBodega != null) {
-            anteriorBodega.getPersonalBodega().remove(personalBodega);
-            bodegaRepo.save(anteriorBodega);
-        }
-
-        // Asignamos la nueva bodega
+        // Asignamos la nueva bodega. La relación la mantiene el personal (lado propietario), por lo que
+        // no hace falta cargar ni guardar las listas de personal de las bodegas: el cambio se escribe
+        // con un único UPDATE al confirmar la transacción.
         personalBodega.setBodega(nuevaBodega);
-        nuevaBodega.getPersonalBodega().add(personalBodega);
-
-        // Guardamos los cambios
-        bodegaRepo.save(nuevaBodega);
-        personalBodegaRepo.save(personalBodega);
 
         // Registrar la acción en los logs
         logger.info("Personal de bodega ID {} trasladado de bodega '{}' a bodega '{}'",
@@ -0,0 +1,42 @@
+package co.edu.uniquindio.service.utils;
+
+import java.nio.file.Path;
+
+/**
+ * Almacén local de archivos direccionado por contenido.
+ * <p>
+ * Cada archivo se guarda con su resumen SHA-256 como nombre ({@code huella}), así el mismo contenido
+ * se escribe una sola vez y un archivo guardado nunca cambia: la huella sirve directamente como ETag.
+ *
+ * @see co.edu.uniquindio.service.utils.impl.AlmacenArchivosServicioImpl
+ */
+public interface AlmacenArchivosServicio {
+
+    /**
+     * Guarda un contenido si todavía no existe.
+     *
+     * @param contenido bytes del archivo.
+     * @return la huella (SHA-256 en hexadecimal) con la que quedó guardado.
+     */
+    String guardar(byte[] contenido);
+
+
+    /**
+     * Devuelve la ruta del archivo con la huella indicada.
+     *
+     * @param huella resumen SHA-256 en hexadecimal.
+     * @return la ruta del archivo (puede no existir).
+     * @throws IllegalArgumentException si la huella no tiene el formato esperado.
+     */
+    Path ruta(String huella);
+
+
+    /**
+     * Indica si el archivo con la huella indicada está guardado.
+     *
+     * @param huella resumen SHA-256 en hexadecimal.
+     * @return {@code true} si el archivo existe.
+     */
+    boolean existe(String huella);
+
+}
@@ -2,6 +2,7 @@ package co.edu.uniquindio.service.utils;
 
 
 import org.springframework.web.multipart.MultipartFile;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -13,6 +14,13 @@ import java.util.Map;
  */
 public interface CloudinaryServicio {
 
+    /**
+     * Nombre del bean que guarda realmente las imágenes. El servicio principal ({@code @Primary})
+     * lo envuelve para deduplicarlas por contenido.
+     */
+    String ALMACEN = "almacenImagenes";
+
+
     /**
      * Sube una imagen a Cloudinary y retorna la URL segura de la imagen subida.
      * La imagen se almacena en un directorio específico en Cloudinary.
@@ -23,6 +31,16 @@ public interface CloudinaryServicio {
     String uploadImage(MultipartFile file);
 
 
+    /**
+     * Sube varias imágenes a Cloudinary en paralelo y retorna sus URLs en el mismo orden.
+     * La cantidad de subidas simultáneas por llamada está acotada por configuración.
+     *
+     * @param files Los archivos de imagen que se desean subir.
+     * @return Las URLs de las imágenes subidas, en el orden de {@code files}.
+     */
+    List<String> uploadImages(List<MultipartFile> files);
+
+
     /**
      * Elimina una imagen de Cloudinary utilizando su ID.
      * Este método elimina la imagen almacenada en la plataforma Cloudinary.
@@ -33,4 +51,13 @@ public interface CloudinaryServicio {
      */
     Map eliminarImagen(String idImagen);
 
+
+    /**
+     * Obtiene el ID con el que se puede eliminar una imagen a partir de su URL.
+     *
+     * @param url La URL devuelta al subir la imagen.
+     * @return El ID de la imagen, o la misma cadena si no tiene forma de URL.
+     */
+    String extraerIdImagen(String url);
+
 }
@@ -8,6 +8,8 @@ import co.edu.uniquindio.dto.common.email.MensajeContactoDTO;
  * <p>
  * Esta interfaz utiliza la librería <a href="https://www.simplejavamail.org/">Simple Java Mail</a>
  * para enviar correos a través de un servidor SMTP configurado.
+ * Los métodos solo registran el correo en la bandeja de salida; el envío ocurre después de confirmar
+ * la transacción que lo originó, por lotes y con reintentos.
  *
  * @author MrZ.Leviatan
  */
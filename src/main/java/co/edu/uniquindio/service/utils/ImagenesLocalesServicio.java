@@ -0,0 +1,43 @@
+package co.edu.uniquindio.service.utils;
+
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+
+import java.nio.file.Path;
+
+/**
+ * Almacén de imágenes en el sistema de archivos local, compatible con {@link CloudinaryServicio}.
+ * <p>
+ * Se activa con el perfil {@value #PERFIL} en lugar de Cloudinary (pruebas, trabajo sin conexión o
+ * instalaciones propias). Las imágenes se guardan por el SHA-256 de su contenido y se sirven desde
+ * {@code /api/store-it/imagenes/{nombre}}, con variantes reducidas para las miniaturas del mapa.
+ *
+ * @see co.edu.uniquindio.service.utils.impl.ImagenesLocalesServicioImpl
+ */
+public interface ImagenesLocalesServicio extends CloudinaryServicio {
+
+    /** Perfil de Spring que reemplaza Cloudinary por el almacén local. */
+    String PERFIL = "imagenes-locales";
+
+
+    /**
+     * Archivo listo para enviar.
+     *
+     * @param ruta          ruta del archivo en disco.
+     * @param etag          identificador del contenido (huella y variante).
+     * @param tipoContenido tipo MIME de la imagen.
+     */
+    record ImagenLocal(Path ruta, String etag, String tipoContenido) {}
+
+
+    /**
+     * Busca una imagen guardada, o una versión reducida de ella.
+     *
+     * @param nombre nombre de la imagen ({@code <huella>.<extensión>}), el último segmento de su URL.
+     * @param ancho  ancho deseado en píxeles; {@code null} para la imagen original. Se redondea al
+     *               siguiente ancho configurado y la variante se genera la primera vez que se pide.
+     * @return el archivo de la imagen o de su variante.
+     * @throws ElementoNoEncontradoException si la imagen no existe o el nombre no es válido.
+     */
+    ImagenLocal buscar(String nombre, Integer ancho) throws ElementoNoEncontradoException;
+
+}
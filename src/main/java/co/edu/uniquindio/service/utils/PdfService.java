@@ -1,5 +1,6 @@
 package co.edu.uniquindio.service.utils;
 
+import co.edu.uniquindio.dto.objects.factura.AvisoFacturaVencidaDto;
 import co.edu.uniquindio.model.objects.Contrato;
 
 /**
@@ -27,4 +28,14 @@ public interface PdfService {
      */
     byte[] generarAvisoDeudaPdf(Contrato contrato);
 
+
+
+    /**
+     * Genera un archivo PDF con el aviso de cobro de una factura vencida.
+     *
+     * @param factura datos de la factura vencida y de su cliente.
+     * @return un arreglo de bytes que representa el archivo PDF generado.
+     */
+    byte[] generarAvisoFacturaVencidaPdf(AvisoFacturaVencidaDto factura);
+
 }
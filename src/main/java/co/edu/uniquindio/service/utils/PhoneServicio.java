@@ -57,6 +57,15 @@ public interface PhoneServicio {
     String formatearTelefono(String telefono, String codigoPais)
             throws ElementoNoValido;
 
+    /**
+     * Normaliza un número de teléfono ya formateado internacionalmente al formato E.164 (ejemplo: +573001234567).
+     * Se usa como clave de comparación, porque un mismo número puede escribirse con distintos separadores.
+     *
+     * @param telefono El número de teléfono con prefijo internacional (como lo devuelve {@link #formatearTelefono}).
+     * @return El número en formato E.164, o {@code null} si el teléfono es nulo o vacío.
+     */
+    String normalizarTelefono(String telefono);
+
     /**
      * Obtiene el código del país a partir del nombre del país proporcionado.
      * Utiliza la clase {@code Locale} de Java para mapear el nombre del país al código de país correspondiente.
@@ -2,6 +2,8 @@ package co.edu.uniquindio.service.utils;
 
 import co.edu.uniquindio.exception.ElementoEliminadoException;
 import co.edu.uniquindio.exception.ElementoRepetidoException;
+import co.edu.uniquindio.model.users.base.Persona;
+import org.springframework.dao.DataIntegrityViolationException;
 
 /**
  * Servicio que contiene las validaciones relacionadas con datos únicos en las cuentas de usuario.
@@ -55,4 +57,59 @@ public interface ValidacionCuentaServicio {
     void validarTelefonoNoRepetido(String telefono)
             throws ElementoRepetidoException;
 
+
+    /**
+     * Verifica si el número de teléfono ya está registrado por una persona distinta a la indicada.
+     * <p>
+     * Se utiliza al editar una cuenta, para permitir que la persona conserve sus propios teléfonos.
+     * </p>
+     *
+     * @param telefono Teléfono formateado internacionalmente a verificar.
+     * @param persona  Persona dueña de la cuenta que se está editando.
+     * @throws ElementoRepetidoException si el teléfono pertenece a otra persona.
+     */
+    void validarTelefonoNoRepetido(String telefono, Persona persona)
+            throws ElementoRepetidoException;
+
+
+    /**
+     * Verifica los dos teléfonos de una cuenta nueva: que sean distintos entre sí y que ninguno esté registrado.
+     * <p>
+     * Se llama antes de subir la imagen de perfil o encriptar la contraseña, para no dejar trabajo
+     * (ni imágenes huérfanas en Cloudinary) cuando la cuenta se rechaza.
+     * </p>
+     *
+     * @param telefono           Teléfono principal ya formateado.
+     * @param telefonoSecundario Teléfono secundario ya formateado; puede ser nulo.
+     * @throws ElementoRepetidoException si los teléfonos son iguales o alguno ya está registrado.
+     */
+    void validarTelefonosNoRepetidos(String telefono, String telefonoSecundario)
+            throws ElementoRepetidoException;
+
+
+    /**
+     * Igual que {@link #validarTelefonosNoRepetidos(String, String)}, pero al editar una cuenta:
+     * los teléfonos que ya son de la persona no cuentan como repetidos.
+     *
+     * @param telefono           Teléfono principal ya formateado.
+     * @param telefonoSecundario Teléfono secundario ya formateado; puede ser nulo.
+     * @param persona            Persona dueña de la cuenta que se está editando.
+     * @throws ElementoRepetidoException si los teléfonos son iguales o alguno pertenece a otra persona.
+     */
+    void validarTelefonosNoRepetidos(String telefono, String telefonoSecundario, Persona persona)
+            throws ElementoRepetidoException;
+
+
+    /**
+     * Traduce la violación de unicidad de un registro concurrente (dos cuentas con el mismo email
+     * o teléfono que pasaron la validación a la vez) a la excepción de elemento repetido.
+     * <p>
+     * Si la violación no es de unicidad, se relanza tal cual.
+     * </p>
+     *
+     * @param e Excepción lanzada al guardar la cuenta.
+     * @return La excepción con el mensaje del dato repetido.
+     */
+    ElementoRepetidoException traducirRepetido(DataIntegrityViolationException e);
+
 }
@@ -0,0 +1,101 @@
+package co.edu.uniquindio.service.utils.impl;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.exception.CargaFallidaException;
+import co.edu.uniquindio.service.utils.AlmacenArchivosServicio;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Implementación de {@link AlmacenArchivosServicio} sobre el sistema de archivos local.
+ * <p>
+ * Los archivos se reparten en subdirectorios por los dos primeros caracteres de la huella
+ * ({@code ab/abcdef...}) para no acumular miles de entradas en un solo directorio.
+ * La escritura se hace en un archivo temporal del mismo directorio que luego se mueve de forma atómica,
+ * de modo que un lector nunca ve un archivo a medio escribir.
+ * </p>
+ */
+@Service
+public class AlmacenArchivosServicioImpl implements AlmacenArchivosServicio {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlmacenArchivosServicioImpl.class);
+    private static final Pattern HUELLA = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${store-it.almacen.directorio:almacen}")
+    private String directorio;
+
+    private Path raiz;
+
+
+    @PostConstruct
+    public void inicializar() throws IOException {
+        raiz = Paths.get(directorio).toAbsolutePath().normalize();
+        Files.createDirectories(raiz);
+        logger.info("Almacén de archivos en {}", raiz);
+    }
+
+
+    @Override
+    public String guardar(byte[] contenido) {
+        String huella = huella(contenido);
+        Path destino = ruta(huella);
+        if (Files.exists(destino)) return huella; // Mismo contenido, ya guardado
+
+        try {
+            Files.createDirectories(destino.getParent());
+            Path temporal = Files.createTempFile(destino.getParent(), huella, ".tmp");
+            try {
+                Files.write(temporal, contenido);
+                Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Otro hilo guardó el mismo contenido primero
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+            return huella;
+        } catch (IOException e) {
+            throw new CargaFallidaException(MensajeError.ERROR_GUARDAR_ARCHIVO, e);
+        }
+    }
+
+
+    @Override
+    public Path ruta(String huella) {
+        if (huella == null || !HUELLA.matcher(huella).matches()) {
+            throw new IllegalArgumentException("Huella de archivo inválida: " + huella);
+        }
+        return raiz.resolve(huella.substring(0, 2)).resolve(huella);
+    }
+
+
+    @Override
+    public boolean existe(String huella) {
+        return Files.isRegularFile(ruta(huella));
+    }
+
+
+    /**
+     * Calcula el resumen SHA-256 del contenido en hexadecimal.
+     */
+    private String huella(byte[] contenido) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,33 +3,51 @@ package co.edu.uniquindio.service.utils.impl;
 import co.edu.uniquindio.constants.MensajeError;
 import co.edu.uniquindio.exception.CargaFallidaException;
 import co.edu.uniquindio.service.utils.CloudinaryServicio;
+import co.edu.uniquindio.service.utils.ImagenesLocalesServicio;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  *
  * Implementación de la clase {@link CloudinaryServicio} para superponer el {@code Service} en la integración con Cloudinary para la carga y gestión de imágenes.
  * Esta clase utiliza la librería {@code Cloudinary} para subir imágenes a la nube y gestionar su eliminación.
  * La configuración de Cloudinary se inyecta desde el archivo {@code application.yml}.
+ * <p>
+ * Las imágenes se envían desde los bytes de la solicitud, sin copiarlas a archivos temporales.
+ * Cuando se suben varias a la vez, cada una usa un hilo virtual (la subida es casi toda espera de red)
+ * y un semáforo limita cuántas van en paralelo por llamada, así una bodega con diez fotos tarda
+ * aproximadamente lo que su subida más lenta.
+ * </p>
+ * Con el perfil {@value ImagenesLocalesServicio#PERFIL} se usa en su lugar el almacén local.
  *
  * @author MrZ.Leviatan
  */
-@Service
+@Service(CloudinaryServicio.ALMACEN)
+@Profile("!" + ImagenesLocalesServicio.PERFIL)
 public class CloudinaryServicioImpl implements CloudinaryServicio {
 
 
     private final Cloudinary cloudinary;
 
+    // Subidas simultáneas permitidas en una misma llamada a uploadImages
+    private final int concurrencia;
+
     /**
      * Constructor que configura la conexión con Cloudinary utilizando las credenciales proporcionadas
      * en el archivo application.yml.
@@ -37,43 +55,45 @@ public class CloudinaryServicioImpl implements CloudinaryServicio {
      * @param cloudName Nombre de la cuenta de Cloudinary.
      * @param apiKey Clave de API de Cloudinary.
      * @param apiSecret Secreto de la API de Cloudinary.
+     * @param uploadPrefix URL base de la API de subida; vacía para usar la de Cloudinary (se cambia en pruebas).
+     * @param concurrencia Subidas simultáneas por llamada a {@link #uploadImages(List)}.
      */
     public CloudinaryServicioImpl(
             @Value("${cloudinary.cloud_name}") String cloudName,
             @Value("${cloudinary.api_key}") String apiKey,
-            @Value("${cloudinary.api_secret}") String apiSecret
+            @Value("${cloudinary.api_secret}") String apiSecret,
+            @Value("${cloudinary.upload_prefix:}") String uploadPrefix,
+            @Value("${store-it.imagenes.concurrencia:10}") int concurrencia
     ) {
         Map<String, String> config = new HashMap<>();
         config.put("cloud_name", cloudName);
         config.put("api_key", apiKey);
         config.put("api_secret", apiSecret);
+        if (!uploadPrefix.isBlank()) {
+            config.put("upload_prefix", uploadPrefix);
+        }
 
         // Configura el cliente de Cloudinary con las credenciales proporcionadas
         this.cloudinary = new Cloudinary(config);
+        this.concurrencia = Math.max(1, concurrencia);
     }
 
     /**
      * Sube una imagen a Cloudinary y devuelve la URL segura de la imagen subida.
-     * La imagen se guarda en la carpeta "clientes" de Cloudinary.
+     * La imagen se guarda en la carpeta "usuarios" de Cloudinary.
      *
      * @param file El archivo de imagen que se desea subir.
      * @return La URL segura de la imagen subida.
-     * @throws CargaFallidaException Si ocurre un error al convertir o subir la imagen.
+     * @throws CargaFallidaException Si ocurre un error al leer o subir la imagen.
      */
     @Override
     public String uploadImage(MultipartFile file) {
         try {
-            // Convertimos el archivo MultipartFile a File
-            File archivo = convertir(file);
-
-            // Subimos el archivo a Cloudinary utilizando la versión correcta de la API
-            Map<String, Object> uploadResult = cloudinary.uploader().upload(archivo, ObjectUtils.asMap("folder", "usuarios"));
+            // Subimos los bytes de la solicitud directamente, sin pasar por un archivo temporal
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap("folder", "usuarios"));
 
             // Extraemos la URL de la respuesta
-            String url = (String) uploadResult.get("url");
-
-            // Devolvemos la URL
-            return url;
+            return (String) uploadResult.get("url");
         } catch (IOException e) {
             // En caso de error, lanzamos una excepción personalizada
             throw new CargaFallidaException(MensajeError.ERROR_SUBIR_IMAGEN, e);
@@ -81,18 +101,51 @@ public class CloudinaryServicioImpl implements CloudinaryServicio {
     }
 
 
-    private File convertir(MultipartFile imagen) throws IOException {
-        // Creamos un archivo temporal para almacenar el contenido del MultipartFile
-        File file = File.createTempFile(imagen.getOriginalFilename(), null);
-
-        // Escribimos los bytes del MultipartFile en el archivo temporal
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            fos.write(imagen.getBytes());
+    /**
+     * Sube varias imágenes en paralelo sobre hilos virtuales, con a lo sumo {@code concurrencia}
+     * subidas simultáneas. Si alguna falla, se espera a que terminen las demás y se lanza el primer error.
+     *
+     * @param files Los archivos de imagen que se desean subir.
+     * @return Las URLs de las imágenes subidas, en el orden de {@code files}.
+     * @throws CargaFallidaException Si alguna imagen no se pudo subir.
+     */
+    @Override
+    public List<String> uploadImages(List<MultipartFile> files) {
+        if (files.size() == 1) return List.of(uploadImage(files.get(0)));
+
+        Semaphore permisos = new Semaphore(concurrencia);
+        List<Future<String>> subidas = new ArrayList<>(files.size());
+
+        // Al cerrar el executor se espera a que terminen todas las subidas
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                subidas.add(executor.submit(() -> {
+                    permisos.acquire();
+                    try {
+                        return uploadImage(file);
+                    } finally {
+                        permisos.release();
+                    }
+                }));
+            }
         }
 
-        return file;
+        List<String> urls = new ArrayList<>(files.size());
+        for (Future<String> subida : subidas) {
+            try {
+                urls.add(subida.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CargaFallidaException error) throw error;
+                throw new CargaFallidaException(MensajeError.ERROR_SUBIR_IMAGEN, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CargaFallidaException(MensajeError.ERROR_SUBIR_IMAGEN, e);
+            }
+        }
+        return urls;
     }
 
+
     /**
      * Elimina una imagen de Cloudinary utilizando su ID.
      *
@@ -108,4 +161,23 @@ public class CloudinaryServicioImpl implements CloudinaryServicio {
             throw new CargaFallidaException(MensajeError.ERROR_ELIMINAR_IMAGEN, e);
         }}
 
+
+    /**
+     * Obtiene el {@code public_id} de Cloudinary a partir de la URL de entrega,
+     * por ejemplo {@code .../image/upload/v1745107200/usuarios/abc.png} → {@code usuarios/abc}.
+     *
+     * @param url La URL devuelta al subir la imagen.
+     * @return El {@code public_id}, o la misma cadena si no es una URL de Cloudinary.
+     */
+    @Override
+    public String extraerIdImagen(String url) {
+        int inicio = url.indexOf("/upload/");
+        if (inicio < 0) return url;
+
+        String ruta = url.substring(inicio + "/upload/".length());
+        ruta = ruta.replaceFirst("^v\\d+/", "");          // Versión de la imagen
+        int extension = ruta.lastIndexOf('.');
+        return extension > ruta.lastIndexOf('/') ? ruta.substring(0, extension) : ruta;
+    }
+
 }
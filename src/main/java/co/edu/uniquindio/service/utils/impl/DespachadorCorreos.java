@@ -0,0 +1,268 @@
+package co.edu.uniquindio.service.utils.impl;
+
+import co.edu.uniquindio.model.common.CorreoSaliente;
+import co.edu.uniquindio.model.common.enums.EstadoCorreo;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.common.CorreoSalienteRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.simplejavamail.api.email.Email;
+import org.simplejavamail.api.email.EmailPopulatingBuilder;
+import org.simplejavamail.api.mailer.Mailer;
+import org.simplejavamail.email.EmailBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Despachador de la bandeja de salida de correos ({@code outbox_correos}).
+ * <p>
+ * Cada ciclo reclama un lote de correos pendientes (bloqueándolos con {@code SKIP LOCKED} para que
+ * varias instancias no tomen los mismos), los envía en paralelo sobre el {@link Mailer} compartido,
+ * cuyo pool de hilos y de conexiones SMTP limita la concurrencia, y registra el resultado:
+ * </p>
+ * <ul>
+ *     <li>Los enviados se marcan con una sola sentencia por lote.</li>
+ *     <li>Los fallidos se reprograman con espera exponencial hasta agotar los reintentos.</li>
+ *     <li>Los que superan el tiempo de espera siguen en {@code ENVIANDO} y se resuelven cuando el envío
+ *     termina: reintentarlos antes podría entregar el correo dos veces.</li>
+ *     <li>Los que quedaron en {@code ENVIANDO} por una caída del proceso se liberan periódicamente, contando
+ *     el envío abandonado como un intento.</li>
+ * </ul>
+ * Cada resultado se registra con la hora del reclamo: si el correo ya se liberó y otro ciclo lo volvió a
+ * tomar, el resultado tardío no cambia nada.
+ *
+ * <p>
+ * Métricas publicadas: {@code storeit.correo.pendientes} (profundidad de la cola),
+ * {@code storeit.correo.envio} (latencia de envío SMTP) y los contadores
+ * {@code storeit.correo.enviados}, {@code storeit.correo.reintentos} y {@code storeit.correo.fallidos}.
+ * </p>
+ */
+@Service
+public class DespachadorCorreos {
+
+    private final CorreoSalienteRepo correoSalienteRepo;
+    private final BloqueoFilasRepo bloqueoFilasRepo;
+    private final Mailer mailer;
+    private final TransactionTemplate transactionTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(DespachadorCorreos.class);
+
+    // Espera máxima entre reintentos, sin importar el número de intento
+    private static final Duration ESPERA_MAXIMA = Duration.ofHours(1);
+
+    private final AtomicLong pendientes = new AtomicLong();
+    private final Timer latenciaEnvio;
+    private final Counter enviados;
+    private final Counter reintentos;
+    private final Counter fallidos;
+
+    @Value("${smtp.user}")
+    private String remitente;
+
+    @Value("${store-it.correo.lote:50}")
+    private int tamanoLote;
+
+    @Value("${store-it.correo.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${store-it.correo.espera-base-ms:30000}")
+    private long esperaBaseMs;
+
+    @Value("${store-it.correo.timeout-ms:30000}")
+    private long timeoutMs;
+
+
+    public DespachadorCorreos(CorreoSalienteRepo correoSalienteRepo, BloqueoFilasRepo bloqueoFilasRepo, Mailer mailer,
+                              PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.correoSalienteRepo = correoSalienteRepo;
+        this.bloqueoFilasRepo = bloqueoFilasRepo;
+        this.mailer = mailer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("storeit.correo.pendientes", pendientes, AtomicLong::get)
+                .description("Correos pendientes en la bandeja de salida")
+                .register(registry);
+        this.latenciaEnvio = Timer.builder("storeit.correo.envio")
+                .description("Tiempo de envío de un correo al servidor SMTP")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.enviados = Counter.builder("storeit.correo.enviados").register(registry);
+        this.reintentos = Counter.builder("storeit.correo.reintentos").register(registry);
+        this.fallidos = Counter.builder("storeit.correo.fallidos").register(registry);
+    }
+
+
+    /**
+     * Drena un lote de la bandeja de salida. El siguiente ciclo empieza cuando este termina,
+     * así nunca hay más de un lote en vuelo por instancia.
+     */
+    @Scheduled(fixedDelayString = "${store-it.correo.intervalo-ms:2000}")
+    public void despachar() {
+        // Precisión de la columna (microsegundos): es también la marca del reclamo al registrar el resultado
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        // 1. Reclamamos el lote en una transacción corta (bloqueo + cambio a ENVIANDO)
+        List<CorreoSaliente> lote = transactionTemplate.execute(status -> {
+            List<Long> ids = bloqueoFilasRepo.bloquear(CorreoSalienteRepo.LISTOS_PARA_ENVIO, tamanoLote, ahora);
+            if (ids.isEmpty()) return List.of();
+            correoSalienteRepo.marcarEnviando(ids, ahora);
+            return correoSalienteRepo.findAllById(ids);
+        });
+
+        pendientes.set(correoSalienteRepo.countByEstado(EstadoCorreo.PENDIENTE));
+        if (lote == null || lote.isEmpty()) return;
+
+        // 2. Enviamos en paralelo; el pool del mailer limita cuántos envíos corren a la vez
+        Map<CorreoSaliente, CompletableFuture<Void>> envios = new LinkedHashMap<>();
+        for (CorreoSaliente correo : lote) {
+            try {
+                long inicio = System.nanoTime();
+                envios.put(correo, mailer.sendMail(construir(correo), true)
+                        .whenComplete((r, e) -> latenciaEnvio.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS)));
+            } catch (Exception e) {
+                envios.put(correo, CompletableFuture.failedFuture(e));
+            }
+        }
+
+        // 3. Registramos los resultados
+        List<Long> exitosos = new ArrayList<>();
+        int enCurso = 0;
+        for (Map.Entry<CorreoSaliente, CompletableFuture<Void>> envio : envios.entrySet()) {
+            try {
+                envio.getValue().get(timeoutMs, TimeUnit.MILLISECONDS);
+                exitosos.add(envio.getKey().getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                registrarFallo(envio.getKey(), ahora, e);
+            } catch (ExecutionException e) {
+                registrarFallo(envio.getKey(), ahora, e.getCause());
+            } catch (TimeoutException e) {
+                // El envío sigue en curso y aún puede completarse: se resuelve cuando termine
+                resolverAlTerminar(envio.getKey(), ahora, envio.getValue());
+                enCurso++;
+            }
+        }
+
+        if (!exitosos.isEmpty()) {
+            enviados.increment(correoSalienteRepo.marcarEnviados(exitosos, ahora, LocalDateTime.now()));
+        }
+        logger.debug("Lote de correos despachado: {} enviados, {} con error, {} aún en curso",
+                exitosos.size(), lote.size() - exitosos.size() - enCurso, enCurso);
+    }
+
+
+    /**
+     * Devuelve a la cola los correos reclamados hace más de 10 minutos que nunca se resolvieron
+     * (el proceso cayó con el envío en curso). El plazo es muy superior al tiempo de espera del
+     * envío y al de la sesión SMTP, así que no alcanza a los envíos que siguen vivos.
+     */
+    @Scheduled(fixedDelay = 300_000)
+    public void liberarAbandonados() {
+        int liberados = correoSalienteRepo.liberarAbandonados(LocalDateTime.now().minusMinutes(10), maxIntentos);
+        if (liberados > 0) {
+            logger.warn("Se devolvieron {} correos abandonados a la bandeja de salida", liberados);
+        }
+    }
+
+
+    /**
+     * Elimina los correos enviados hace más de 7 días.
+     */
+    @Scheduled(cron = "0 0 4 * * *") // Todos los días a las 4:00 a.m.
+    public void purgarEnviados() {
+        int eliminados = correoSalienteRepo.eliminarEnviadosAntesDe(LocalDateTime.now().minusDays(7));
+        logger.info("Se eliminaron {} correos enviados de la bandeja de salida", eliminados);
+    }
+
+
+    /**
+     * Registra el resultado de un envío que superó el tiempo de espera cuando por fin termine.
+     * Mientras tanto el correo sigue en {@code ENVIANDO}, así ningún ciclo lo vuelve a tomar.
+     */
+    private void resolverAlTerminar(CorreoSaliente correo, LocalDateTime reclamadoEn, CompletableFuture<Void> envio) {
+        envio.whenComplete((r, e) -> {
+            if (e == null) {
+                if (correoSalienteRepo.marcarEnviados(List.of(correo.getId()), reclamadoEn, LocalDateTime.now()) > 0) {
+                    enviados.increment();
+                } else {
+                    logger.warn("El correo {} terminó de enviarse después de liberarse como abandonado", correo.getId());
+                }
+            } else {
+                registrarFallo(correo, reclamadoEn, e instanceof CompletionException ? e.getCause() : e);
+            }
+        });
+    }
+
+
+    /**
+     * Reprograma un correo con espera exponencial ({@code base · 2^(intento-1)}, hasta una hora)
+     * o lo marca como fallido si agotó los reintentos.
+     */
+    private void registrarFallo(CorreoSaliente correo, LocalDateTime reclamadoEn, Throwable causa) {
+        int intentos = correo.getIntentos() + 1;
+        String error = causa == null ? "Error desconocido" : String.valueOf(causa.getMessage());
+        if (error.length() > 1000) error = error.substring(0, 1000);
+
+        if (intentos >= maxIntentos) {
+            if (correoSalienteRepo.registrarFallo(correo.getId(), reclamadoEn, EstadoCorreo.FALLIDO.name(), intentos,
+                    correo.getProximoIntento(), error) == 0) {
+                return; // Ya liberado como abandonado: lo resuelve el ciclo que lo tenga ahora
+            }
+            fallidos.increment();
+            logger.error("El correo {} para {} falló tras {} intentos: {}",
+                    correo.getId(), correo.getDestinatario(), intentos, error);
+            return;
+        }
+
+        long espera = Math.min(esperaBaseMs << Math.min(intentos - 1, 20), ESPERA_MAXIMA.toMillis());
+        if (correoSalienteRepo.registrarFallo(correo.getId(), reclamadoEn, EstadoCorreo.PENDIENTE.name(), intentos,
+                LocalDateTime.now().plus(Duration.ofMillis(espera)), error) == 0) {
+            return;
+        }
+        reintentos.increment();
+        logger.warn("Error enviando el correo {} (intento {}), se reintenta en {} s: {}",
+                correo.getId(), intentos, espera / 1000, error);
+    }
+
+
+    /**
+     * Construye el correo de Simple Java Mail a partir de la fila de la bandeja de salida.
+     */
+    private Email construir(CorreoSaliente correo) {
+        EmailPopulatingBuilder builder = EmailBuilder.startingBlank()
+                .from(remitente) // siempre desde el correo autenticado
+                .to(correo.getDestinatario())
+                .withSubject(correo.getAsunto())
+                .withPlainText(correo.getCuerpo());
+
+        if (correo.getResponderA() != null) {
+            builder.withReplyTo(correo.getResponderA());
+        }
+        if (correo.getAdjunto() != null) {
+            builder.withAttachment(correo.getNombreAdjunto(),
+                    new ByteArrayDataSource(correo.getAdjunto(), "application/pdf"));
+        }
+        return builder.buildEmail();
+    }
+}
@@ -0,0 +1,179 @@
+package co.edu.uniquindio.service.utils.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caché de PDF ya generados, direccionada por contenido.
+ * <p>
+ * La clave combina la plantilla, el ID del contrato y el resumen SHA-256 del HTML procesado y de las firmas,
+ * que cubren todos los campos que afectan al documento (firmas, fechas, valores, nombres...). Si el contrato cambia,
+ * cambia su HTML y con él la clave, así que nunca se sirve un PDF desactualizado; si no cambia
+ * (por ejemplo, el mismo contrato enviado al cliente y al agente), se maqueta una sola vez.
+ * </p>
+ *
+ * <p>
+ * Las solicitudes simultáneas de la misma clave esperan al primer renderizado en lugar de repetirlo.
+ * La memoria se acota por bytes, descartando primero los documentos usados hace más tiempo.
+ * Los arreglos devueltos son compartidos y no deben modificarse.
+ * </p>
+ */
+@Component
+public class DocumentosPdfCache {
+
+    // Un MessageDigest por hilo: no son seguros entre hilos y crearlos en cada documento tiene costo
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // Orden de acceso: el primer elemento es el usado hace más tiempo
+    private final LinkedHashMap<String, byte[]> documentos = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<byte[]>> enCurso = new ConcurrentHashMap<>();
+    private long bytesEnCache;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    @Value("${store-it.pdf.cache.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${store-it.pdf.cache.maximo-bytes:67108864}")
+    private long maximoBytes;
+
+
+    public DocumentosPdfCache(MeterRegistry registry) {
+        this.aciertos = Counter.builder("storeit.pdf.cache").tag("resultado", "acierto").register(registry);
+        this.fallos = Counter.builder("storeit.pdf.cache").tag("resultado", "fallo").register(registry);
+        Gauge.builder("storeit.pdf.cache.bytes", this, cache -> cache.bytesEnCache())
+                .description("Bytes de PDF guardados en la caché")
+                .register(registry);
+    }
+
+
+    /**
+     * Construye la clave de un documento a partir de su contenido.
+     *
+     * @param plantilla  nombre de la plantilla Thymeleaf.
+     * @param idContrato ID del contrato del documento.
+     * @param html       HTML ya procesado que se va a convertir en PDF.
+     * @param imagenes   imágenes que el HTML referencia por nombre (las firmas), que también forman parte del documento.
+     * @return la clave {@code plantilla:idContrato:sha256(html, imagenes)}.
+     */
+    public String clave(String plantilla, Long idContrato, String html, Map<String, byte[]> imagenes) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(html.getBytes(StandardCharsets.UTF_8));
+        // Nombre y longitud delimitan cada imagen: dos documentos distintos no pueden producir la misma secuencia
+        new TreeMap<>(imagenes).forEach((nombre, bytes) -> {
+            digest.update(nombre.getBytes(StandardCharsets.UTF_8));
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            digest.update(bytes);
+        });
+        String resumen = Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        return plantilla + ":" + idContrato + ":" + resumen;
+    }
+
+
+    /**
+     * Devuelve el PDF guardado para la clave o lo genera, lo guarda y lo devuelve.
+     *
+     * @param clave     clave del documento, ver {@link #clave(String, Long, String, Map)}.
+     * @param generador función que renderiza el PDF si no está en caché.
+     * @return los bytes del PDF.
+     */
+    public byte[] obtener(String clave, Supplier<byte[]> generador) {
+        if (!habilitado) return generador.get();
+
+        byte[] pdf;
+        synchronized (documentos) {
+            pdf = documentos.get(clave);
+        }
+        if (pdf != null) {
+            aciertos.increment();
+            return pdf;
+        }
+
+        // Si otro hilo ya está generando el mismo documento, se espera su resultado
+        CompletableFuture<byte[]> nuevo = new CompletableFuture<>();
+        CompletableFuture<byte[]> existente = enCurso.putIfAbsent(clave, nuevo);
+        if (existente != null) {
+            aciertos.increment();
+            try {
+                return existente.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) throw causa;
+                throw e;
+            }
+        }
+
+        fallos.increment();
+        try {
+            pdf = generador.get();
+            guardar(clave, pdf);
+            nuevo.complete(pdf);
+            return pdf;
+        } catch (RuntimeException e) {
+            nuevo.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, nuevo);
+        }
+    }
+
+
+    /**
+     * Vacía la caché, por ejemplo después de cambiar una plantilla.
+     */
+    public void limpiar() {
+        synchronized (documentos) {
+            documentos.clear();
+            bytesEnCache = 0;
+        }
+    }
+
+
+    private long bytesEnCache() {
+        synchronized (documentos) {
+            return bytesEnCache;
+        }
+    }
+
+
+    private void guardar(String clave, byte[] pdf) {
+        // Un documento más grande que toda la caché no se guarda
+        if (pdf.length > maximoBytes) return;
+
+        synchronized (documentos) {
+            byte[] anterior = documentos.put(clave, pdf);
+            if (anterior != null) bytesEnCache -= anterior.length;
+            bytesEnCache += pdf.length;
+
+            Iterator<byte[]> antiguos = documentos.values().iterator();
+            while (bytesEnCache > maximoBytes && antiguos.hasNext()) {
+                bytesEnCache -= antiguos.next().length;
+                antiguos.remove();
+            }
+        }
+    }
+}
@@ -1,147 +1,93 @@
 package co.edu.uniquindio.service.utils.impl;
 
-import co.edu.uniquindio.constants.MensajeError;
 import co.edu.uniquindio.dto.common.email.EmailDto;
 import co.edu.uniquindio.dto.common.email.MensajeContactoDTO;
-import co.edu.uniquindio.exception.CargaFallidaException;
+import co.edu.uniquindio.model.common.CorreoSaliente;
+import co.edu.uniquindio.model.common.enums.EstadoCorreo;
+import co.edu.uniquindio.repository.common.CorreoSalienteRepo;
 import co.edu.uniquindio.service.utils.EmailServicio;
-import jakarta.activation.DataSource;
-import jakarta.mail.util.ByteArrayDataSource;
-import org.simplejavamail.api.email.Email;
-import org.simplejavamail.api.mailer.Mailer;
-import org.simplejavamail.api.mailer.config.TransportStrategy;
-import org.simplejavamail.email.EmailBuilder;
-import org.simplejavamail.mailer.MailerBuilder;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-
+import java.time.LocalDateTime;
 
 
 /**
  * Implementación del {@code Service} de envío de correos electrónicos utilizando la librería
  * <a href="https://www.simplejavamail.org/">Simple Java Mail</a>.
- * Permite enviar correos de forma asíncrona configurando el servidor SMTP mediante propiedades.
+ * <p>
+ * Los correos no se envían en el hilo de la solicitud: se registran en la bandeja de salida
+ * ({@link CorreoSaliente}) dentro de la transacción de quien los solicita, y el {@link DespachadorCorreos}
+ * los envía por lotes sobre una conexión SMTP compartida, con reintentos.
  *
  * @author MrZ. Leviatan
  */
 @Service
+@RequiredArgsConstructor
 public class EmailServicioImp implements EmailServicio {
 
-    @Value("${smtp.host}")
-    private String host;  // Dirección del servidor SMTP
-
-    @Value("${smtp.port}")
-    private String port; // Puerto del servidor SMTP
+    private final CorreoSalienteRepo correoSalienteRepo;
 
-    @Value("${smtp.user}")
-    private String user; // Correo electrónico del remitente (usado como autenticación)
+    // Dirección fija de Store-It que recibe los mensajes del formulario de contacto
+    private static final String EMAIL_CONTACTO = "storeit771@gmail.com";
 
-    @Value("${smtp.password}")
-    private String password;  // Contraseña del remitente
 
     /**
-     * Envía un correo electrónico de forma asíncrona utilizando los datos proporcionados en el DTO.
-     * Utiliza Simple Java Mail para construir y enviar el mensaje.
+     * Registra en la bandeja de salida un correo con los datos proporcionados en el DTO.
      *
      * @param emailDto Objeto que contiene la información del correo: destinatario, asunto y cuerpo.
-     * @throws CargaFallidaException Si ocurre un error al construir o enviar el correo electrónico.
      */
     @Override
-    @Async
     public void enviarCorreo(EmailDto emailDto) {
-        try {
-            // Construcción del correo electrónico
-            Email email = EmailBuilder.startingBlank()
-                    .from(user)
-                    .to(emailDto.destinatario())
-                    .withSubject(emailDto.asunto())
-                    .withPlainText(emailDto.cuerpo())
-                    .buildEmail();
-
-            // Creación del mailer con la configuración SMTP y envío del correo
-            try (Mailer mailer = MailerBuilder
-                    .withSMTPServer(host, Integer.parseInt(port), user, password)
-                    .withTransportStrategy(TransportStrategy.SMTP_TLS)
-                    .withDebugLogging(true)
-                    .buildMailer()) {
-                mailer.sendMail(email);}
-
-        } catch (Exception e) {
-            // Lanza excepción personalizada si algo falla al construir o enviar el correo
-            throw new CargaFallidaException(MensajeError.ERROR_ENVIO_CORREO + emailDto.destinatario(), e);
-        }}
+        encolar(emailDto.destinatario(), null, emailDto.asunto(), emailDto.cuerpo(), null, null);
+    }
 
 
     /**
-     * Envía un correo electrónico de forma asíncrona con el PDF adjunto.
+     * Registra en la bandeja de salida un correo con el PDF adjunto.
      *
      * @param emailDto Objeto que contiene la información del correo: destinatario, asunto y cuerpo.
      * @param pdfContent El contenido del PDF generado en bytes.
-     * @throws CargaFallidaException Si ocurre un error al construir o enviar el correo electrónico.
      */
     @Override
-    @Async
     public void enviarCorreoConPdf(EmailDto emailDto, byte[] pdfContent) {
-        try {
-            // Crear el DataSource a partir del byte array del PDF
-            DataSource dataSource = new ByteArrayDataSource(pdfContent, "application/pdf");
-
-            // Construcción del correo electrónico
-            Email email = EmailBuilder.startingBlank()
-                    .from(user)
-                    .to(emailDto.destinatario())
-                    .withSubject(emailDto.asunto())
-                    .withPlainText(emailDto.cuerpo())
-                    .withAttachment("Contrato_Servicio.pdf", dataSource) // Usamos DataSource
-                    .buildEmail();
-
-            // Creación del mailer con la configuración SMTP y envío del correo
-            try (Mailer mailer = MailerBuilder
-                    .withSMTPServer(host, Integer.parseInt(port), user, password)
-                    .withTransportStrategy(TransportStrategy.SMTP_TLS)
-                    .withDebugLogging(true)
-                    .buildMailer()) {
-                mailer.sendMail(email);}
-
-        } catch (Exception e) {
-            // Lanza excepción personalizada si algo falla al construir o enviar el correo
-            throw new CargaFallidaException(MensajeError.ERROR_ENVIO_CORREO + emailDto.destinatario(), e);
-        }}
+        encolar(emailDto.destinatario(), null, emailDto.asunto(), emailDto.cuerpo(),
+                "Contrato_Servicio.pdf", pdfContent);
+    }
 
 
     /**
-     * Envía un mensaje de contacto de un cliente a la dirección fija de Store-It.
-     * Aunque el remitente real es el correo SMTP autenticado, se incluye la información del cliente.
+     * Registra un mensaje de contacto de un cliente dirigido a la dirección fija de Store-It.
+     * Aunque el remitente real es el correo SMTP autenticado, se incluye la información del cliente
+     * y se responde directamente a su email.
      *
      * @param mensajeContactoDTO DTO con los datos del mensaje enviado desde el formulario.
      */
     @Override
     public void enviarMensajeContacto(MensajeContactoDTO mensajeContactoDTO) {
-        try {
-            String cuerpo = "📌 Nombre: " + mensajeContactoDTO.nombre() + "\n"
-                    + "📧 Email: " + mensajeContactoDTO.email() + "\n\n"
-                    + "📝 Mensaje:\n" + mensajeContactoDTO.mensaje();
+        String cuerpo = "📌 Nombre: " + mensajeContactoDTO.nombre() + "\n"
+                + "📧 Email: " + mensajeContactoDTO.email() + "\n\n"
+                + "📝 Mensaje:\n" + mensajeContactoDTO.mensaje();
 
-            Email email = EmailBuilder.startingBlank()
-                    .from(user)  // siempre desde el correo autenticado
-                    .to("storeit771@gmail.com") // o cualquier correo receptor fijo
-                    .withReplyTo(mensajeContactoDTO.email()) // permite responderle al cliente
-                    .withSubject("📩 Contacto: " + mensajeContactoDTO.asunto())
-                    .withPlainText(cuerpo)
-                    .buildEmail();
-
-            try (Mailer mailer = MailerBuilder
-                    .withSMTPServer(host, Integer.parseInt(port), user, password)
-                    .withTransportStrategy(TransportStrategy.SMTP_TLS)
-                    .withDebugLogging(true)
-                    .buildMailer()) {
-                mailer.sendMail(email);
-            }
-        } catch (Exception e) {
-            throw new CargaFallidaException("Error al enviar mensaje de contacto: " + mensajeContactoDTO.email(), e);
-        }
+        encolar(EMAIL_CONTACTO, mensajeContactoDTO.email(),
+                "📩 Contacto: " + mensajeContactoDTO.asunto(), cuerpo, null, null);
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Guarda el correo en la bandeja de salida, listo para el siguiente ciclo del despachador.
+     */
+    private void encolar(String destinatario, String responderA, String asunto, String cuerpo,
+                         String nombreAdjunto, byte[] adjunto) {
+        CorreoSaliente correo = new CorreoSaliente();
+        correo.setDestinatario(destinatario);
+        correo.setResponderA(responderA);
+        correo.setAsunto(asunto);
+        correo.setCuerpo(cuerpo);
+        correo.setNombreAdjunto(nombreAdjunto);
+        correo.setAdjunto(adjunto);
+        correo.setEstado(EstadoCorreo.PENDIENTE);
+        correo.setProximoIntento(LocalDateTime.now());
+        correoSalienteRepo.save(correo);
+    }
+}
@@ -0,0 +1,302 @@
+package co.edu.uniquindio.service.utils.impl;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.exception.CargaFallidaException;
+import co.edu.uniquindio.model.common.ImagenAlmacenada;
+import co.edu.uniquindio.repository.common.ImagenAlmacenadaRepo;
+import co.edu.uniquindio.service.utils.CloudinaryServicio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación principal de {@link CloudinaryServicio}: deduplica las imágenes por contenido antes
+ * de enviarlas al almacén real ({@link CloudinaryServicio#ALMACEN}).
+ * <p>
+ * Cada archivo se lee una vez de la solicitud y se resume con SHA-256. Si la huella ya está en la tabla
+ * {@link ImagenAlmacenada} se devuelve su URL y solo se suma una referencia, sin subir nada; si no, se
+ * sube y se registra. Así, volver a enviar la misma foto al editar un perfil o una bodega no gasta ancho
+ * de banda ni espera la subida.
+ * </p>
+ *
+ * <p>
+ * Las subidas no abren una transacción propia: la llamada al almacén no retiene una conexión y las
+ * referencias se cuentan en la transacción de quien llama, si la hay. Si dos solicitudes suben a la vez
+ * el mismo contenido, gana la fila que quedó registrada y la copia sobrante se borra del almacén.
+ * </p>
+ *
+ * <p>
+ * {@link #eliminarImagen(String)} ya no borra la imagen del almacén, solo libera una referencia (varias
+ * cuentas pueden compartir el mismo archivo). La tarea {@link #eliminarSinReferencias()} borra las
+ * imágenes que llevan más de {@code store-it.imagenes.retencion} sin usarse; ese margen permite que una
+ * edición libere y vuelva a tomar la misma imagen sin que se pierda.
+ * </p>
+ */
+@Primary
+@Service
+public class ImagenesDeduplicadasServicio implements CloudinaryServicio {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagenesDeduplicadasServicio.class);
+
+    // Imágenes sin referencias que se eliminan en cada ejecución de la tarea
+    private static final int LOTE_ELIMINACION = 100;
+
+    private final CloudinaryServicio almacen;
+    private final ImagenAlmacenadaRepo imagenAlmacenadaRepo;
+    private final Duration retencion;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+
+    public ImagenesDeduplicadasServicio(@Qualifier(CloudinaryServicio.ALMACEN) CloudinaryServicio almacen,
+                                        ImagenAlmacenadaRepo imagenAlmacenadaRepo,
+                                        @Value("${store-it.imagenes.retencion:P1D}") Duration retencion,
+                                        MeterRegistry registry) {
+        this.almacen = almacen;
+        this.imagenAlmacenadaRepo = imagenAlmacenadaRepo;
+        this.retencion = retencion;
+        this.aciertos = Counter.builder("storeit.imagenes.deduplicacion").tag("resultado", "acierto")
+                .description("Imágenes que ya estaban subidas y no se volvieron a enviar").register(registry);
+        this.fallos = Counter.builder("storeit.imagenes.deduplicacion").tag("resultado", "fallo")
+                .description("Imágenes nuevas enviadas al almacén").register(registry);
+    }
+
+
+    @Override
+    public String uploadImage(MultipartFile file) {
+        ImagenEnMemoria imagen = leer(file);
+
+        String url = reutilizar(imagen.huella);
+        if (url != null) return url;
+
+        return registrar(imagen.huella, almacen.uploadImage(imagen));
+    }
+
+
+    /**
+     * Sube en paralelo solo las imágenes cuyo contenido no está registrado; las repetidas dentro de la
+     * misma lista se suben una sola vez.
+     */
+    @Override
+    public List<String> uploadImages(List<MultipartFile> files) {
+        List<ImagenEnMemoria> imagenes = files.stream().map(this::leer).toList();
+        List<String> huellas = imagenes.stream().map(imagen -> imagen.huella).toList();
+        String[] urls = new String[files.size()];
+
+        // Archivos que hay que subir, uno por huella y en el orden en que aparecen
+        Map<String, MultipartFile> pendientes = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            String huella = huellas.get(i);
+            if (!pendientes.containsKey(huella)) {
+                urls[i] = reutilizar(huella);
+            }
+            if (urls[i] == null) pendientes.putIfAbsent(huella, imagenes.get(i));
+        }
+
+        if (!pendientes.isEmpty()) {
+            List<String> huellasPendientes = new ArrayList<>(pendientes.keySet());
+            List<String> subidas = almacen.uploadImages(new ArrayList<>(pendientes.values()));
+
+            Map<String, String> subidasPorHuella = new LinkedHashMap<>();
+            for (int i = 0; i < subidas.size(); i++) {
+                subidasPorHuella.put(huellasPendientes.get(i), subidas.get(i));
+            }
+            for (int i = 0; i < urls.length; i++) {
+                if (urls[i] != null) continue;
+                // Cada aparición es una referencia; después de la primera, la URL ya es la registrada
+                urls[i] = registrar(huellas.get(i), subidasPorHuella.get(huellas.get(i)));
+                subidasPorHuella.put(huellas.get(i), urls[i]);
+            }
+        }
+        return List.of(urls);
+    }
+
+
+    /**
+     * Libera una referencia a la imagen. Las imágenes subidas antes de la deduplicación no están
+     * registradas y se eliminan del almacén directamente, como antes.
+     *
+     * @param idImagen URL de la imagen (es lo que guardan las cuentas y bodegas).
+     */
+    @Override
+    @Transactional
+    public Map eliminarImagen(String idImagen) {
+        if (idImagen == null || idImagen.isBlank()) return Map.of();
+
+        if (imagenAlmacenadaRepo.liberar(idImagen, LocalDateTime.now()) > 0) {
+            return Map.of("result", "released");
+        }
+        return almacen.eliminarImagen(almacen.extraerIdImagen(idImagen));
+    }
+
+
+    @Override
+    public String extraerIdImagen(String url) {
+        return almacen.extraerIdImagen(url);
+    }
+
+
+    /**
+     * Elimina del almacén las imágenes que llevan más de la retención configurada sin referencias.
+     * La fila se borra primero, solo si nadie la volvió a referenciar; si luego falla el borrado remoto,
+     * el archivo queda huérfano en el almacén pero ninguna cuenta apunta a él.
+     */
+    @Scheduled(cron = "${store-it.imagenes.limpieza-cron:0 30 3 * * *}")
+    public void eliminarSinReferencias() {
+        List<ImagenAlmacenada> candidatas = imagenAlmacenadaRepo.buscarSinReferenciasAntesDe(
+                LocalDateTime.now().minus(retencion), LOTE_ELIMINACION);
+
+        int eliminadas = 0;
+        for (ImagenAlmacenada imagen : candidatas) {
+            if (imagenAlmacenadaRepo.borrarSinReferencias(imagen.getId()) == 0) continue; // Se volvió a usar
+            try {
+                almacen.eliminarImagen(imagen.getIdImagen());
+                eliminadas++;
+            } catch (CargaFallidaException e) {
+                logger.warn("No se pudo eliminar la imagen {} del almacén", imagen.getIdImagen(), e);
+            }
+        }
+        if (eliminadas > 0) {
+            logger.info("Se eliminaron {} imágenes sin referencias", eliminadas);
+        }
+    }
+
+
+    /**
+     * Suma una referencia a la imagen con esa huella, si ya está registrada.
+     *
+     * @return su URL, o {@code null} si hay que subirla.
+     */
+    private String reutilizar(String huella) {
+        ImagenAlmacenada imagen = imagenAlmacenadaRepo.findByHuella(huella).orElse(null);
+        // Si la limpieza la borró entre la consulta y la actualización, se sube de nuevo
+        if (imagen == null || imagenAlmacenadaRepo.referenciar(imagen.getId()) == 0) {
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return imagen.getUrl();
+    }
+
+
+    /**
+     * Registra una imagen recién subida con una referencia. Si otra solicitud registró la misma huella
+     * mientras tanto, la referencia se suma a esa fila y la copia subida aquí se borra del almacén.
+     *
+     * @return la URL registrada para la huella.
+     */
+    private String registrar(String huella, String url) {
+        try {
+            imagenAlmacenadaRepo.registrar(huella, url, almacen.extraerIdImagen(url), LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            // Las dos insertaron a la vez (uk_imagen_huella); la fila de la otra ya existe y el MERGE la encuentra
+            imagenAlmacenadaRepo.registrar(huella, url, almacen.extraerIdImagen(url), LocalDateTime.now());
+        }
+
+        String registrada = imagenAlmacenadaRepo.findByHuella(huella).map(ImagenAlmacenada::getUrl).orElse(url);
+        if (!registrada.equals(url)) {
+            try {
+                almacen.eliminarImagen(almacen.extraerIdImagen(url));
+            } catch (CargaFallidaException e) {
+                logger.warn("No se pudo eliminar la copia repetida {} del almacén", url, e);
+            }
+        }
+        return registrada;
+    }
+
+
+    /**
+     * Lee el archivo de la solicitud una sola vez y calcula su SHA-256 sobre esos bytes.
+     * El almacén recibe la copia en memoria, así que la subida no vuelve a leer la parte multipart.
+     */
+    private ImagenEnMemoria leer(MultipartFile file) {
+        try {
+            byte[] contenido = file.getBytes();
+            String huella = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+            return new ImagenEnMemoria(file, contenido, huella);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new CargaFallidaException(MensajeError.ERROR_SUBIR_IMAGEN, e);
+        }
+    }
+
+
+    /**
+     * Archivo de la solicitud ya leído, con su huella. Conserva el nombre y el tipo del original.
+     */
+    private static final class ImagenEnMemoria implements MultipartFile {
+
+        private final MultipartFile original;
+        private final byte[] contenido;
+        private final String huella;
+
+        private ImagenEnMemoria(MultipartFile original, byte[] contenido, String huella) {
+            this.original = original;
+            this.contenido = contenido;
+            this.huella = huella;
+        }
+
+        @Override
+        public String getName() {
+            return original.getName();
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return original.getOriginalFilename();
+        }
+
+        @Override
+        public String getContentType() {
+            return original.getContentType();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return contenido.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return contenido.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return contenido;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(contenido);
+        }
+
+        @Override
+        public void transferTo(File destino) throws IOException {
+            Files.write(destino.toPath(), contenido);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package co.edu.uniquindio.service.utils.impl;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.exception.CargaFallidaException;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.service.utils.CloudinaryServicio;
+import co.edu.uniquindio.service.utils.ImagenesLocalesServicio;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementación de {@link ImagenesLocalesServicio} que guarda las imágenes en un directorio local.
+ * <p>
+ * Cada imagen se nombra {@code <huella>.<extensión>}, con la huella SHA-256 calculada mientras se copia
+ * la solicitud a un archivo temporal, y se reparte en dos niveles de subdirectorios
+ * ({@code ab/cd/abcd....png}). El archivo temporal se mueve de forma atómica, así un lector nunca ve una
+ * imagen a medias. Como la URL incluye la huella, el contenido de una URL nunca cambia y se puede
+ * servir con caché de un año.
+ * </p>
+ *
+ * <p>
+ * Las variantes reducidas ({@code <huella>-<ancho>.<png|jpg>}) se generan la primera vez que se piden,
+ * solo para los anchos configurados, y quedan en disco junto a la original. Un semáforo limita cuántas
+ * se generan a la vez, para que la primera carga del mapa no acapare los procesadores.
+ * </p>
+ */
+@Service(CloudinaryServicio.ALMACEN)
+@Profile(ImagenesLocalesServicio.PERFIL)
+public class ImagenesLocalesServicioImpl implements ImagenesLocalesServicio {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagenesLocalesServicioImpl.class);
+
+    private static final Pattern NOMBRE = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif|webp)");
+
+    private static final Map<String, String> EXTENSIONES = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp");
+
+    private static final Map<String, String> TIPOS = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp");
+
+    @Value("${store-it.imagenes.local.directorio:imagenes}")
+    private String directorio;
+
+    // URL pública bajo la que se sirven las imágenes (termina en /api/store-it/imagenes)
+    @Value("${store-it.imagenes.local.url-base:http://localhost:8080/api/store-it/imagenes}")
+    private String urlBase;
+
+    // Anchos permitidos para las variantes, de menor a mayor
+    @Value("${store-it.imagenes.local.anchos:64,128,256,512}")
+    private List<Integer> anchos;
+
+    private final Semaphore redimensionando = new Semaphore(Runtime.getRuntime().availableProcessors());
+
+    private Path raiz;
+
+
+    @PostConstruct
+    public void inicializar() throws IOException {
+        raiz = Paths.get(directorio).toAbsolutePath().normalize();
+        Files.createDirectories(raiz);
+        anchos = anchos.stream().sorted().toList();
+        logger.info("Imágenes locales en {}, servidas desde {}", raiz, urlBase);
+    }
+
+
+    @Override
+    public String uploadImage(MultipartFile file) {
+        String extension = extension(file);
+        try {
+            Path temporal = Files.createTempFile(raiz, "subida", ".tmp");
+            try {
+                MessageDigest resumen = MessageDigest.getInstance("SHA-256");
+                try (InputStream entrada = new DigestInputStream(file.getInputStream(), resumen)) {
+                    Files.copy(entrada, temporal, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String nombre = HexFormat.of().formatHex(resumen.digest()) + "." + extension;
+
+                Path destino = ruta(nombre);
+                if (!Files.exists(destino)) {
+                    Files.createDirectories(destino.getParent());
+                    mover(temporal, destino);
+                }
+                return urlBase + "/" + nombre;
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new CargaFallidaException(MensajeError.ERROR_SUBIR_IMAGEN, e);
+        }
+    }
+
+
+    /**
+     * Guarda las imágenes una tras otra: en disco local no hay latencia de red que solapar.
+     */
+    @Override
+    public List<String> uploadImages(List<MultipartFile> files) {
+        List<String> urls = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            urls.add(uploadImage(file));
+        }
+        return urls;
+    }
+
+
+    /**
+     * Elimina la imagen y sus variantes reducidas.
+     *
+     * @param idImagen nombre de la imagen ({@code <huella>.<extensión>}).
+     */
+    @Override
+    public Map eliminarImagen(String idImagen) {
+        Matcher nombre = NOMBRE.matcher(idImagen);
+        if (!nombre.matches()) return Map.of("result", "not found");
+
+        try {
+            boolean eliminada = Files.deleteIfExists(ruta(idImagen));
+            for (Integer ancho : anchos) {
+                for (String formato : List.of("png", "jpg")) {
+                    Files.deleteIfExists(ruta(nombre.group(1) + "-" + ancho + "." + formato));
+                }
+            }
+            return Map.of("result", eliminada ? "ok" : "not found");
+        } catch (IOException e) {
+            throw new CargaFallidaException(MensajeError.ERROR_ELIMINAR_IMAGEN, e);
+        }
+    }
+
+
+    @Override
+    public String extraerIdImagen(String url) {
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+
+
+    @Override
+    public ImagenLocal buscar(String nombre, Integer ancho) throws ElementoNoEncontradoException {
+        Matcher partes = NOMBRE.matcher(nombre);
+        if (!partes.matches()) throw new ElementoNoEncontradoException(MensajeError.IMAGEN_NO_ENCONTRADA);
+
+        String huella = partes.group(1);
+        String extension = partes.group(2);
+        Path original = ruta(nombre);
+        if (!Files.isRegularFile(original)) throw new ElementoNoEncontradoException(MensajeError.IMAGEN_NO_ENCONTRADA);
+
+        ImagenLocal imagen = new ImagenLocal(original, huella, TIPOS.get(extension));
+        if (ancho == null || anchos.isEmpty()) return imagen;
+
+        // Se redondea al siguiente ancho configurado para no generar una variante por cada valor pedido
+        int anchoVariante = anchos.stream().filter(a -> a >= ancho).findFirst().orElse(anchos.get(anchos.size() - 1));
+        try {
+            ImagenLocal variante = variante(huella, original, anchoVariante);
+            return variante != null ? variante : imagen;
+        } catch (IOException e) {
+            logger.warn("No se pudo reducir la imagen {} a {} px", nombre, anchoVariante, e);
+            return imagen;
+        }
+    }
+
+
+    /**
+     * Devuelve la variante reducida, generándola si todavía no existe.
+     *
+     * @return la variante, o {@code null} si la original ya es más angosta o su formato no se puede leer.
+     */
+    private ImagenLocal variante(String huella, Path original, int ancho) throws IOException {
+        for (String formato : List.of("png", "jpg")) {
+            Path existente = ruta(huella + "-" + ancho + "." + formato);
+            if (Files.isRegularFile(existente)) {
+                return new ImagenLocal(existente, huella + "-" + ancho, TIPOS.get(formato));
+            }
+        }
+
+        redimensionando.acquireUninterruptibly();
+        try {
+            BufferedImage imagen = ImageIO.read(original.toFile());
+            if (imagen == null || imagen.getWidth() <= ancho) return null;
+
+            boolean transparente = imagen.getColorModel().hasAlpha();
+            int alto = Math.max(1, Math.round((float) imagen.getHeight() * ancho / imagen.getWidth()));
+            BufferedImage reducida = new BufferedImage(ancho, alto,
+                    transparente ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+
+            Graphics2D grafico = reducida.createGraphics();
+            try {
+                grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                grafico.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                grafico.drawImage(imagen, 0, 0, ancho, alto, null);
+            } finally {
+                grafico.dispose();
+            }
+
+            // PNG conserva la transparencia; el resto se guarda como JPG, más liviano para fotos
+            String formato = transparente ? "png" : "jpg";
+            Path destino = ruta(huella + "-" + ancho + "." + formato);
+            Path temporal = Files.createTempFile(destino.getParent(), huella, ".tmp");
+            try {
+                ImageIO.write(reducida, formato, temporal.toFile());
+                mover(temporal, destino);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+            return new ImagenLocal(destino, huella + "-" + ancho, TIPOS.get(formato));
+        } finally {
+            redimensionando.release();
+        }
+    }
+
+
+    /**
+     * Ruta de un archivo repartida por los cuatro primeros caracteres de la huella.
+     */
+    private Path ruta(String nombre) {
+        return raiz.resolve(nombre.substring(0, 2)).resolve(nombre.substring(2, 4)).resolve(nombre);
+    }
+
+
+    private void mover(Path temporal, Path destino) throws IOException {
+        try {
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Otro hilo guardó el mismo contenido primero
+        }
+    }
+
+
+    /**
+     * Extensión del archivo según su tipo de contenido o, si no lo trae, según su nombre.
+     */
+    private String extension(MultipartFile file) {
+        String tipo = file.getContentType() == null ? "" : file.getContentType().toLowerCase(Locale.ROOT);
+        String extension = EXTENSIONES.get(tipo);
+        if (extension == null && file.getOriginalFilename() != null) {
+            String nombre = file.getOriginalFilename().toLowerCase(Locale.ROOT);
+            String sufijo = nombre.substring(nombre.lastIndexOf('.') + 1);
+            extension = sufijo.equals("jpeg") ? "jpg" : TIPOS.containsKey(sufijo) ? sufijo : null;
+        }
+        if (extension == null) {
+            throw new CargaFallidaException(MensajeError.FORMATO_IMAGEN_NO_SOPORTADO, null);
+        }
+        return extension;
+    }
+}
@@ -1,23 +1,25 @@
 package co.edu.uniquindio.service.utils.impl;
 
-import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.objects.factura.AvisoFacturaVencidaDto;
 import co.edu.uniquindio.exception.CargaFallidaException;
 import co.edu.uniquindio.model.objects.Contrato;
 import co.edu.uniquindio.service.utils.PdfService;
 import lombok.RequiredArgsConstructor;
-import org.apache.tomcat.util.http.fileupload.ByteArrayOutputStream;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
-import org.xhtmlrenderer.pdf.ITextRenderer;
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Implementación del servicio {@link PdfService} que genera archivos PDF a partir de plantillas HTML usando Thymeleaf.
+ * <p>
+ * El HTML se convierte en PDF con el pool de {@link RenderizadorPdf} y el resultado se guarda en
+ * {@link DocumentosPdfCache}, de modo que el mismo contrato enviado a varios destinatarios se maqueta una vez.
+ * </p>
  *
  * @author MrZ.Leviatan
  */
@@ -28,6 +30,12 @@ public class PdfServiceImpl implements PdfService {
     // Motor de plantillas Thymeleaf utilizado para renderizar el HTML
     private final TemplateEngine templateEngine;
 
+    // Pool de renderizadores de Flying Saucer
+    private final RenderizadorPdf renderizadorPdf;
+
+    // PDF ya generados, indexados por el contenido de su HTML
+    private final DocumentosPdfCache documentosPdfCache;
+
     // Porcentaje de penalización (19%)
     private final BigDecimal penalizacion = new BigDecimal("0.19");
 
@@ -60,36 +68,15 @@ public class PdfServiceImpl implements PdfService {
                                 contrato.getFechaInicio().plusMonths(1).lengthOfMonth()))); // Día de pago mensual
         context.setVariable("penalizacion", contrato.getValor().multiply(penalizacion)); // Monto penalización
 
-        if (contrato.getFirmaCliente() != null) {
-            // ITextRender no puede renderizar images binarias pero si Base64
-            String firmaBase64 = Base64.getEncoder().encodeToString(contrato.getFirmaCliente());
-            // Se crea una URL de imagen embebida en formato Base64
-            context.setVariable("firmaCliente", "data:image/png;base64," + firmaBase64);
-        } else {
-            context.setVariable("firmaCliente", null);
-        }
-
-        if (contrato.getFirmaAgenteVentas() != null) {
-            String firmaBase64 = Base64.getEncoder().encodeToString(contrato.getFirmaAgenteVentas());
-            context.setVariable("firmaAgente", "data:image/png;base64," + firmaBase64);
-        }else{
-            context.setVariable("firmaAgente", null);
-        }
-
-        // Procesar el HTML con los datos inyectados
-        String html = templateEngine.process("contrato", context);
-
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            // Crear el renderizado y generar el PDF desde el HTML
-            ITextRenderer renderer = new ITextRenderer();
-            renderer.setDocumentFromString(html); // Cargar el HTML renderizado
-            renderer.layout();                    // Aplicar estilos y disposición
-            renderer.createPDF(outputStream);     // Generar PDF
-            return outputStream.toByteArray();    // Devolver los bytes del PDF
-        } catch (IOException | com.lowagie.text.DocumentException e) {
-            // Manejo de errores al generar el PDF
-            throw new CargaFallidaException(MensajeError.ERROR_CONSTRUIR_PDF, e);
-        }}
+        // Las firmas se entregan en bytes al renderizador; el HTML solo las referencia por nombre
+        Map<String, byte[]> firmas = new HashMap<>();
+        if (contrato.getFirmaCliente() != null) firmas.put("cliente", contrato.getFirmaCliente());
+        if (contrato.getFirmaAgenteVentas() != null) firmas.put("agente", contrato.getFirmaAgenteVentas());
+        context.setVariable("firmaCliente", firmas.containsKey("cliente") ? RenderizadorPdf.PREFIJO_IMAGEN + "cliente" : null);
+        context.setVariable("firmaAgente", firmas.containsKey("agente") ? RenderizadorPdf.PREFIJO_IMAGEN + "agente" : null);
+
+        return generar("contrato", contrato.getId(), context, firmas);
+    }
 
 
     /**
@@ -110,27 +97,60 @@ public class PdfServiceImpl implements PdfService {
 
         // Crear el contexto para Thymeleaf y establecer las variables necesarias
         Context context = new Context();
-        context.setVariable("contratoCancelado", contrato);  // Objeto contrato completo
+        context.setVariable("idContrato", contrato.getId());
+        context.setVariable("nombreCliente", contrato.getCliente().getNombre());
+        context.setVariable("emailCliente", contrato.getCliente().getUser().getEmail());
         context.setVariable("fechaActual", LocalDate.now());
         context.setVariable("montoTotal",contrato.getValor().multiply(penalizacion));
         context.setVariable("fechaPago",LocalDate.now().plusMonths(2)
                 .withDayOfMonth(LocalDate.now()
                         .plusMonths(2).lengthOfMonth())); // // Fecha de pago: 2 meses después de hoy, último día del mes
 
-        // Procesar el HTML con los datos inyectados
-        String html = templateEngine.process("aviso-deuda", context);
-
-        // Crear el PDF a partir del HTML generado
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            // Crear el renderizado y generar el PDF desde el HTML
-            ITextRenderer renderer = new ITextRenderer();  // Inicializar el renderizado
-            renderer.setDocumentFromString(html);          // Cargar el HTML renderizado
-            renderer.layout();                             // Aplicar estilos y disposición
-            renderer.createPDF(outputStream);              // Generar PDF
-            return outputStream.toByteArray();             // Devolver los bytes del PDF
-        } catch (IOException | com.lowagie.text.DocumentException e) {
-            // Manejo de errores al generar el PDF
-            throw new CargaFallidaException(MensajeError.ERROR_CONSTRUIR_PDF, e);
-        }}
+        return generar("aviso-deuda", contrato.getId(), context, Map.of());
+    }
 
+
+    /**
+     * Genera el aviso de cobro de una factura vencida con la misma plantilla <b>"aviso-deuda"</b>.
+     * <p>
+     * Solo recibe la proyección de la factura, así que se puede llamar fuera de una transacción y desde
+     * varios hilos a la vez; la plantilla ya compilada sale de la caché de Thymeleaf.
+     * </p>
+     *
+     * @param factura datos de la factura vencida y de su cliente.
+     * @return un arreglo de bytes que representa el archivo PDF generado.
+     * @throws CargaFallidaException si ocurre un error durante el proceso de generación del PDF.
+     */
+    @Override
+    public byte[] generarAvisoFacturaVencidaPdf(AvisoFacturaVencidaDto factura) {
+
+        Context context = new Context();
+        context.setVariable("idFactura", factura.idFactura());
+        context.setVariable("periodo", factura.periodo());
+        context.setVariable("nombreCliente", factura.nombreCliente());
+        context.setVariable("emailCliente", factura.emailCliente());
+        context.setVariable("fechaActual", LocalDate.now());
+        context.setVariable("montoTotal", factura.valorTotal());
+        context.setVariable("fechaPago", factura.fechaPago());
+
+        return generar("aviso-deuda", factura.idFactura(), context, Map.of());
+    }
+
+
+    /**
+     * Procesa la plantilla y devuelve el PDF correspondiente, reutilizando el ya generado
+     * si el HTML resultante y sus imágenes son idénticos.
+     *
+     * @param plantilla  nombre de la plantilla Thymeleaf.
+     * @param idContrato ID del contrato (o de la factura) del documento, parte de la clave de la caché.
+     * @param context    variables de la plantilla.
+     * @param imagenes   imágenes referenciadas por la plantilla como {@code firma:<nombre>}.
+     * @return los bytes del PDF.
+     */
+    private byte[] generar(String plantilla, Long idContrato, Context context, Map<String, byte[]> imagenes) {
+        // Procesar el HTML con los datos inyectados (la plantilla ya compilada sale de la caché de Thymeleaf)
+        String html = templateEngine.process(plantilla, context);
+        return documentosPdfCache.obtener(documentosPdfCache.clave(plantilla, idContrato, html, imagenes),
+                () -> renderizadorPdf.renderizar(html, imagenes));
+    }
 }
@@ -94,6 +94,25 @@ public class PhoneServicioImpl implements PhoneServicio {
         }}
 
 
+    /**
+     * Normaliza un número formateado internacionalmente (ej. +57 312 4567890) al formato E.164 (ej. +573124567890).
+     * Si la librería no logra interpretarlo, se conservan solo el signo {@code +} y los dígitos.
+     *
+     * @param telefono Número con prefijo internacional.
+     * @return Número en formato E.164, o {@code null} si está vacío.
+     */
+    @Override
+    public String normalizarTelefono(String telefono) {
+        if (telefono == null || telefono.isBlank()) return null;
+        try {
+            Phonenumber.PhoneNumber numero = phoneNumberUtil.parse(telefono, null);
+            return phoneNumberUtil.format(numero, PhoneNumberUtil.PhoneNumberFormat.E164);
+        } catch (NumberParseException e) {
+            // Números guardados sin prefijo internacional: se comparan solo por sus dígitos
+            return telefono.replaceAll("[^+0-9]", "");
+        }}
+
+
     /**
      * Obtiene el código de país ISO a partir del nombre de un país.
      * Utiliza la clase Locale para recorrer todos los países disponibles.
@@ -0,0 +1,169 @@
+package co.edu.uniquindio.service.utils.impl;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.exception.CargaFallidaException;
+import com.lowagie.text.Image;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xhtmlrenderer.pdf.ITextFSImage;
+import org.xhtmlrenderer.pdf.ITextOutputDevice;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+import org.xhtmlrenderer.pdf.ITextUserAgent;
+import org.xhtmlrenderer.resource.ImageResource;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Convierte HTML ya procesado por Thymeleaf en PDF usando Flying Saucer.
+ * <p>
+ * Crear un {@link ITextRenderer} tiene costo (contexto compartido, resolutor de fuentes, agente de usuario)
+ * y su agente de usuario guarda las imágenes que ya descargó, como el logo de las plantillas.
+ * Por eso los renderizadores se reutilizan desde un pool: cada uno atiende un documento a la vez
+ * (no son seguros entre hilos) y el semáforo limita cuántos PDF se generan en paralelo,
+ * ya que el renderizado usa CPU de forma intensiva.
+ * </p>
+ *
+ * <p>
+ * Las imágenes propias de cada documento (las firmas) no viajan en el HTML como {@code data:} en Base64:
+ * la plantilla las referencia con una URI {@code firma:<nombre>} y el agente de usuario las lee
+ * directamente de los bytes recibidos, sin guardarlas en su caché, así que un renderizador reutilizado
+ * nunca muestra la firma de un documento anterior.
+ * </p>
+ *
+ * <p>
+ * Las plantillas solo usan fuentes base del PDF (Times), que iText incluye sin leer archivos; no hay
+ * fuentes que precargar, y el resolutor de fuentes de cada renderizador se conserva al reutilizarlo.
+ * Un renderizador que falla se descarta en lugar de volver al pool, por si quedó en un estado inconsistente.
+ * </p>
+ */
+@Component
+public class RenderizadorPdf {
+
+    /**
+     * Prefijo de las URI de imágenes que se entregan junto con el HTML en {@link #renderizar(String, Map)}.
+     */
+    public static final String PREFIJO_IMAGEN = "firma:";
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderizadorPdf.class);
+
+    private final ConcurrentLinkedDeque<Motor> disponibles = new ConcurrentLinkedDeque<>();
+    private final Semaphore permisos;
+    private final Timer tiempoRenderizado;
+
+
+    public RenderizadorPdf(@Value("${store-it.pdf.renderizadores:0}") int renderizadores, MeterRegistry registry) {
+        // Con 0 se usa un renderizador por procesador disponible
+        int maximo = renderizadores > 0 ? renderizadores : Runtime.getRuntime().availableProcessors();
+        this.permisos = new Semaphore(maximo, true);
+        this.tiempoRenderizado = Timer.builder("storeit.pdf.renderizado")
+                .description("Tiempo de maquetación y generación de un PDF")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+
+        // Se precalienta un renderizador para que la primera solicitud no pague la inicialización
+        disponibles.push(new Motor());
+    }
+
+
+    /**
+     * Genera el PDF de un documento HTML sin imágenes propias.
+     *
+     * @param html documento XHTML bien formado.
+     * @return los bytes del PDF.
+     * @throws CargaFallidaException si el documento no se puede maquetar o escribir.
+     */
+    public byte[] renderizar(String html) {
+        return renderizar(html, Map.of());
+    }
+
+
+    /**
+     * Genera el PDF de un documento HTML.
+     *
+     * @param html     documento XHTML bien formado.
+     * @param imagenes bytes de las imágenes referenciadas como {@code firma:<nombre>}, por nombre.
+     * @return los bytes del PDF.
+     * @throws CargaFallidaException si el documento no se puede maquetar o escribir.
+     */
+    public byte[] renderizar(String html, Map<String, byte[]> imagenes) {
+        permisos.acquireUninterruptibly();
+        try {
+            Motor motor = disponibles.poll();
+            if (motor == null) motor = new Motor();
+
+            long inicio = System.nanoTime();
+            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024)) {
+                motor.agente.imagenes = imagenes;
+                motor.renderer.setDocumentFromString(html); // Cargar el HTML renderizado
+                motor.renderer.layout();                    // Aplicar estilos y disposición
+                motor.renderer.createPDF(outputStream);     // Generar PDF
+                motor.agente.imagenes = Map.of();
+                disponibles.push(motor);                    // Solo vuelve al pool si terminó bien
+                return outputStream.toByteArray();
+            } catch (Exception e) {
+                throw new CargaFallidaException(MensajeError.ERROR_CONSTRUIR_PDF, e);
+            } finally {
+                tiempoRenderizado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            permisos.release();
+        }
+    }
+
+
+    /**
+     * Renderizador de Flying Saucer con el agente de usuario que resuelve las imágenes del documento.
+     */
+    private static final class Motor {
+
+        private final ITextRenderer renderer = new ITextRenderer();
+        private final AgenteImagenes agente = new AgenteImagenes(renderer.getOutputDevice());
+
+        private Motor() {
+            agente.setSharedContext(renderer.getSharedContext());
+            renderer.getSharedContext().setUserAgentCallback(agente);
+        }
+    }
+
+
+    /**
+     * Agente de usuario que entrega las imágenes {@code firma:<nombre>} desde memoria y delega
+     * el resto (con su caché) en el agente por defecto de Flying Saucer.
+     */
+    private static final class AgenteImagenes extends ITextUserAgent {
+
+        // Imágenes del documento en curso; el motor atiende un documento a la vez
+        private Map<String, byte[]> imagenes = Map.of();
+
+        private AgenteImagenes(ITextOutputDevice outputDevice) {
+            super(outputDevice);
+        }
+
+        @Override
+        public ImageResource getImageResource(String uri) {
+            if (!uri.startsWith(PREFIJO_IMAGEN)) return super.getImageResource(uri);
+
+            byte[] bytes = imagenes.get(uri.substring(PREFIJO_IMAGEN.length()));
+            if (bytes == null) return new ImageResource(uri, null);
+            try {
+                Image imagen = Image.getInstance(bytes);
+                // Misma escala que aplica ITextUserAgent a las imágenes que descarga
+                float factor = getSharedContext().getDotsPerPixel();
+                imagen.scaleAbsolute(imagen.getPlainWidth() * factor, imagen.getPlainHeight() * factor);
+                return new ImageResource(uri, new ITextFSImage(imagen));
+            } catch (Exception e) {
+                // Igual que con las imágenes descargadas: el documento se genera sin la imagen ilegible
+                logger.warn("No se pudo leer la imagen {} del documento: {}", uri, e.getMessage());
+                return new ImageResource(uri, null);
+            }
+        }
+    }
+}
@@ -1,20 +1,24 @@
 package co.edu.uniquindio.service.utils.impl;
 
 import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.users.common.IdentidadDto;
 import co.edu.uniquindio.exception.ElementoEliminadoException;
 import co.edu.uniquindio.exception.ElementoRepetidoException;
 import co.edu.uniquindio.model.users.base.Persona;
 import co.edu.uniquindio.model.users.base.enums.EstadoCuenta;
-import co.edu.uniquindio.repository.users.AgenteVentasRepo;
-import co.edu.uniquindio.repository.users.ClienteRepo;
-import co.edu.uniquindio.repository.users.PersonalBodegaRepo;
-import co.edu.uniquindio.repository.users.RecursosHumanosRepo;
+import co.edu.uniquindio.model.users.common.IndiceTelefono;
+import co.edu.uniquindio.model.users.enums.RolPersona;
+import co.edu.uniquindio.model.users.enums.TipoEmail;
+import co.edu.uniquindio.service.common.DirectorioIdentidadServicio;
+import co.edu.uniquindio.service.common.IndiceTelefonoServicio;
+import co.edu.uniquindio.service.utils.PhoneServicio;
 import co.edu.uniquindio.service.utils.ValidacionCuentaServicio;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
-import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de validación de datos únicos de cuentas.
@@ -23,17 +27,17 @@ import java.util.stream.Stream;
  * y números de teléfono no estén registrados previamente en el sistema.
  * </p>
  * <p>
- * La verificación incluye las entidades: Cliente, Agente de Ventas y Personal de Bodega.
+ * La verificación incluye las entidades: Cliente, Agente de Ventas, Personal de Bodega y Recursos Humanos.
+ * Los emails se resuelven con el {@link DirectorioIdentidadServicio} y los teléfonos con el {@link IndiceTelefonoServicio}.
  */
 @Service
 @RequiredArgsConstructor
 public class ValidacionCuentaServicioImpl implements ValidacionCuentaServicio {
 
 
-    private final ClienteRepo clienteRepo;
-    private final AgenteVentasRepo agenteRepo;
-    private final PersonalBodegaRepo personalRepo;
-    private final RecursosHumanosRepo recursosHumanosRepo;
+    private final DirectorioIdentidadServicio directorioIdentidadServicio;
+    private final IndiceTelefonoServicio indiceTelefonoServicio;
+    private final PhoneServicio phoneServicio;
 
 
     /**
@@ -47,18 +51,12 @@ public class ValidacionCuentaServicioImpl implements ValidacionCuentaServicio {
      */
     @Override
     public void validarEmailNoRepetido(String email) throws ElementoRepetidoException, ElementoEliminadoException {
-        // Se busca en el repositorio de cada tipo de usuario (Cliente, Agente de Ventas, Personal de Bodega, Recursos Humanos)
-        // Si el email existe en alguno de los repositorios, se retorna la persona encontrada.
-        Optional<? extends Persona> persona =
-                clienteRepo.findByUser_Email(email)
-                        .map(c -> (Persona) c)// // Sí se encuentra, casteamos el objeto como Persona.
-                        .or(() -> agenteRepo.findByUser_Email(email).map(a -> (Persona) a))
-                        .or(() -> personalRepo.findByUser_Email(email).map(p -> (Persona) p))
-                        .or(() -> recursosHumanosRepo.findByUser_Email(email).map(r->(Persona)r));
-
-        if (persona.isPresent()) {
+        // Una sola búsqueda en el directorio de identidades cubre los cuatro tipos de usuario
+        Optional<IdentidadDto> identidad = directorioIdentidadServicio.buscar(email, TipoEmail.PERSONAL);
+
+        if (identidad.isPresent()) {
             // Verifica si la cuenta no esta eliminada.
-            if (persona.get().getUser().getEstadoCuenta().equals(EstadoCuenta.ELIMINADO)) {
+            if (identidad.get().estadoCuenta().equals(EstadoCuenta.ELIMINADO)) {
                 throw new ElementoEliminadoException(MensajeError.EMAIL_CUENTA_ELIMINADA);}
 
             throw new ElementoRepetidoException(MensajeError.EMAIL_YA_EXISTE);
@@ -74,14 +72,10 @@ public class ValidacionCuentaServicioImpl implements ValidacionCuentaServicio {
      */
     @Override
     public void validarEmailEmpresarialNoRepetido(String emailEmpresarial) throws ElementoRepetidoException  {
-        Optional<? extends Persona> persona =
-                agenteRepo.findByDatosLaborales_EmailEmpresarial(emailEmpresarial)
-                        .map(c -> (Persona) c)// // Sí se encuentra, casteamos el objeto como Persona.
-                        .or(() -> personalRepo.findByDatosLaborales_EmailEmpresarial(emailEmpresarial).map(p -> (Persona) p))
-                        .or(() -> recursosHumanosRepo.findByDatosLaborales_EmailEmpresarial(emailEmpresarial).map(r->(Persona)r));
-
-        if (persona.isPresent()) {
-            if (persona.get().getUser().getEstadoCuenta().equals(EstadoCuenta.ELIMINADO)) {
+        Optional<IdentidadDto> identidad = directorioIdentidadServicio.buscar(emailEmpresarial, TipoEmail.EMPRESARIAL);
+
+        if (identidad.isPresent()) {
+            if (identidad.get().estadoCuenta().equals(EstadoCuenta.ELIMINADO)) {
                 throw new ElementoEliminadoException(MensajeError.EMAIL_CUENTA_ELIMINADA);
             }
 
@@ -95,6 +89,8 @@ public class ValidacionCuentaServicioImpl implements ValidacionCuentaServicio {
      * en clientes, agentes de ventas, personal de bodega o recursos humanos.
      * <p>
      * El número debe estar previamente formateado (por ejemplo, con libphonenumber).
+     * Se resuelve con el {@link IndiceTelefonoServicio}: el filtro de Bloom descarta sin consultas
+     * los teléfonos libres y el resto se confirma con una sola búsqueda indexada.
      * @param telefono Número de teléfono a validar.
      * @throws ElementoRepetidoException Si el teléfono ya está registrado en cualquier entidad.
      */
@@ -105,20 +101,73 @@ public class ValidacionCuentaServicioImpl implements ValidacionCuentaServicio {
         if (telefono == null || telefono.isBlank()) {
             return;}
 
-        // Checamos si el teléfono o teléfono secundario ya existe en cualquiera de las entidades
-        boolean existe = Stream.of(
-                clienteRepo.findByTelefono(telefono),
-                clienteRepo.findByTelefonoSecundario(telefono),
-                agenteRepo.findByTelefono(telefono),
-                agenteRepo.findByTelefonoSecundario(telefono),
-                personalRepo.findByTelefono(telefono),
-                personalRepo.findByTelefonoSecundario(telefono),
-                recursosHumanosRepo.findByTelefono(telefono),
-                recursosHumanosRepo.findByTelefonoSecundario(telefono)
-        ).anyMatch(Optional::isPresent); // Si alguno está presente, el teléfono ya existe
-
-        if (existe) {
+        if (indiceTelefonoServicio.buscar(telefono).isPresent()) {
             throw new ElementoRepetidoException(MensajeError.TELEFONO_YA_EXISTENTE);}
     }
 
+
+    /**
+     * Verifica que el número de teléfono no esté registrado por una persona distinta a la indicada.
+     * <p>
+     * Se usa al editar una cuenta, donde conservar el propio teléfono no es una repetición.
+     * @param telefono Número de teléfono formateado a validar.
+     * @param persona Persona que está editando sus datos.
+     * @throws ElementoRepetidoException Si el teléfono pertenece a otra persona.
+     */
+    @Override
+    public void validarTelefonoNoRepetido(String telefono, Persona persona) throws ElementoRepetidoException {
+
+        if (telefono == null || telefono.isBlank()) {
+            return;}
+
+        Optional<IndiceTelefono> registro = indiceTelefonoServicio.buscar(telefono);
+        if (registro.isPresent()
+                && !(registro.get().getRol() == RolPersona.de(persona)
+                && registro.get().getPersonaId().equals(persona.getId()))) {
+            throw new ElementoRepetidoException(MensajeError.TELEFONO_YA_EXISTENTE);}
+    }
+
+
+    @Override
+    public void validarTelefonosNoRepetidos(String telefono, String telefonoSecundario) throws ElementoRepetidoException {
+        validarTelefonosDistintos(telefono, telefonoSecundario);
+        validarTelefonoNoRepetido(telefono);
+        validarTelefonoNoRepetido(telefonoSecundario);
+    }
+
+
+    @Override
+    public void validarTelefonosNoRepetidos(String telefono, String telefonoSecundario, Persona persona)
+            throws ElementoRepetidoException {
+        validarTelefonosDistintos(telefono, telefonoSecundario);
+        validarTelefonoNoRepetido(telefono, persona);
+        validarTelefonoNoRepetido(telefonoSecundario, persona);
+    }
+
+
+    @Override
+    public ElementoRepetidoException traducirRepetido(DataIntegrityViolationException e) {
+        String detalle = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase();
+
+        if (detalle.contains("UK_INDICE_TELEFONO")) {
+            return new ElementoRepetidoException(MensajeError.TELEFONO_YA_EXISTENTE);}
+
+        // El resto de claves únicas de una cuenta son de emails (personal, empresarial o el directorio)
+        if (e instanceof DuplicateKeyException || detalle.contains("ORA-00001")) {
+            return new ElementoRepetidoException(MensajeError.EMAIL_YA_EXISTE);}
+
+        throw e;
+    }
+
+
+    /**
+     * Rechaza un teléfono secundario igual al principal; se comparan en formato E.164
+     * porque el índice de teléfonos los guarda así y los trataría como el mismo.
+     */
+    private void validarTelefonosDistintos(String telefono, String telefonoSecundario) throws ElementoRepetidoException {
+        String principal = phoneServicio.normalizarTelefono(telefono);
+        if (principal != null && principal.equals(phoneServicio.normalizarTelefono(telefonoSecundario))) {
+            throw new ElementoRepetidoException(MensajeError.TELEFONOS_IGUALES);}
+    }
+
 }
@@ -0,0 +1,51 @@
+package co.edu.uniquindio.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * {@link StatementInspector} de Hibernate que cuenta las sentencias SQL preparadas por el hilo actual.
+ * <p>
+ * Hibernate invoca este inspector una vez por cada sentencia que prepara; cuando el batching JDBC está
+ * activo, un lote completo de inserciones o actualizaciones se prepara una sola vez, por lo que el conteo
+ * se aproxima al número de viajes a la base de datos.
+ * </p>
+ *
+ * <p>El contador es por hilo, de modo que cada solicitud HTTP obtiene su propio conteo.</p>
+ */
+public class ConteoSentenciasInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+
+
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get()[0]++;
+        return sql;
+    }
+
+
+    /**
+     * Reinicia el contador del hilo actual.
+     */
+    public static void reiniciar() {
+        CONTADOR.get()[0] = 0;
+    }
+
+
+    /**
+     * Obtiene el número de sentencias preparadas por el hilo actual desde el último reinicio.
+     *
+     * @return número de sentencias SQL.
+     */
+    public static int obtenerConteo() {
+        return CONTADOR.get()[0];
+    }
+
+
+    /**
+     * Libera el contador del hilo actual.
+     */
+    public static void limpiar() {
+        CONTADOR.remove();
+    }
+}
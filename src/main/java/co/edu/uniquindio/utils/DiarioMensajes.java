@@ -0,0 +1,393 @@
+package co.edu.uniquindio.utils;
+
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Diario local de los mensajes de chat ya confirmados que todavía no están en la base de datos.
+ * <p>
+ * Los mensajes se agregan al segmento activo ({@code mensajes-<n>.diario}). Cerrar un lote fuerza ese
+ * segmento a disco, abre el siguiente y entrega los mensajes del anterior; una vez guardados, el segmento se
+ * borra con {@link #confirmar(Lote)}. Al abrir el diario, los segmentos que dejó una ejecución anterior se
+ * entregan como lotes por recuperar.
+ * </p>
+ *
+ * <p>
+ * Cada registro lleva su longitud y un CRC32, y un registro incompleto al final de un segmento (una caída a
+ * mitad de escritura) se descarta al leerlo. La sincronización con el disco se agrupa: los hilos que agregan
+ * a la vez comparten una sola llamada a {@code force}.
+ * </p>
+ *
+ * <p>
+ * Si un {@code force} falla, el segmento queda inservible: fallan todos los mensajes que aún no estaban en
+ * disco, incluidos los que se agreguen después hasta cerrar el lote, y el lote entrega solo los que sí
+ * llegaron. Al cerrarlo se recorta el archivo hasta lo último sincronizado, para que los mensajes rechazados
+ * no reaparezcan al recuperar el diario.
+ * </p>
+ *
+ * <p>
+ * Los mensajes que la base de datos rechaza se apartan con {@link #apartar(List)} en archivos
+ * {@code rechazados-<n>.diario}, con el mismo formato, para revisarlos a mano; no se recuperan al abrir.
+ * </p>
+ */
+public class DiarioMensajes implements Closeable {
+
+    private static final String PREFIJO = "mensajes-";
+    private static final String PREFIJO_RECHAZADOS = "rechazados-";
+    private static final String EXTENSION = ".diario";
+    private static final RemitenteChat[] REMITENTES = RemitenteChat.values();
+
+    private final Path directorio;
+    private final AperturaSegmento apertura;
+    private final List<Lote> recuperados = new ArrayList<>();
+    private long siguienteNumero;
+
+    // Protegido por el candado del diario
+    private Segmento activo;
+
+
+    /**
+     * Mensajes de un segmento cerrado, en el orden en que se agregaron.
+     */
+    public record Lote(Path segmento, List<MensajeChatResumenDto> mensajes) {}
+
+
+    /**
+     * Abre el archivo de un segmento nuevo; las pruebas la reemplazan para simular fallas del disco.
+     */
+    @FunctionalInterface
+    interface AperturaSegmento {
+        FileChannel abrir(Path ruta) throws IOException;
+    }
+
+
+    /**
+     * Abre el diario en el directorio indicado, leyendo los segmentos que hayan quedado sin confirmar.
+     */
+    public DiarioMensajes(Path directorio) throws IOException {
+        this(directorio, ruta -> FileChannel.open(ruta, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+
+    DiarioMensajes(Path directorio, AperturaSegmento apertura) throws IOException {
+        this.directorio = directorio;
+        this.apertura = apertura;
+        Files.createDirectories(directorio);
+
+        List<Path> anteriores = listarSegmentos();
+        for (Path segmento : anteriores) {
+            List<MensajeChatResumenDto> mensajes = leer(segmento);
+            if (mensajes.isEmpty()) Files.delete(segmento);
+            else recuperados.add(new Lote(segmento, mensajes));
+        }
+        siguienteNumero = anteriores.isEmpty() ? 1 : numero(anteriores.get(anteriores.size() - 1)) + 1;
+        activo = abrirSegmento();
+    }
+
+
+    /**
+     * @return lotes que quedaron de la ejecución anterior, del más antiguo al más reciente.
+     */
+    public List<Lote> recuperados() {
+        return Collections.unmodifiableList(recuperados);
+    }
+
+
+    /**
+     * Agrega un mensaje y espera a que esté en disco. Si falla, el mensaje no se entrega en ningún lote.
+     */
+    public void agregar(MensajeChatResumenDto mensaje) throws IOException {
+        ByteBuffer registro = codificar(mensaje);
+        Segmento segmento;
+        long fin;
+        synchronized (this) {
+            segmento = activo;
+            fin = segmento.escribir(registro);
+            segmento.escritos.add(new Escrito(mensaje, fin));
+        }
+        segmento.sincronizar(fin);
+    }
+
+
+    /**
+     * Cierra el segmento activo y entrega sus mensajes; los siguientes van a un segmento nuevo.
+     *
+     * @return el lote cerrado, o {@code null} si no había mensajes pendientes o ninguno llegó a disco.
+     */
+    public Lote cerrarLote() throws IOException {
+        Segmento anterior;
+        synchronized (this) {
+            if (activo.escritos.isEmpty()) return null;
+            anterior = activo;
+            activo = abrirSegmento();
+        }
+        List<MensajeChatResumenDto> mensajes = anterior.cerrar();
+        if (mensajes.isEmpty()) {
+            Files.deleteIfExists(anterior.ruta);
+            return null;
+        }
+        return new Lote(anterior.ruta, mensajes);
+    }
+
+
+    /**
+     * Descarta el segmento de un lote ya guardado en la base de datos.
+     */
+    public void confirmar(Lote lote) throws IOException {
+        Files.deleteIfExists(lote.segmento());
+    }
+
+
+    /**
+     * Escribe en un archivo aparte, y lleva a disco, mensajes que no se pudieron guardar.
+     *
+     * @return ruta del archivo escrito.
+     */
+    public Path apartar(List<MensajeChatResumenDto> mensajes) throws IOException {
+        Path ruta;
+        synchronized (this) {
+            ruta = directorio.resolve(PREFIJO_RECHAZADOS + siguienteNumero++ + EXTENSION);
+        }
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (MensajeChatResumenDto mensaje : mensajes) {
+                ByteBuffer registro = codificar(mensaje);
+                while (registro.hasRemaining()) {
+                    canal.write(registro);
+                }
+            }
+            canal.force(false);
+        }
+        sincronizarDirectorio();
+        return ruta;
+    }
+
+
+    /**
+     * @return mensajes agregados al segmento activo, aún sin cerrar en un lote.
+     */
+    public synchronized int pendientes() {
+        return activo.escritos.size();
+    }
+
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (activo.cerrar().isEmpty()) Files.deleteIfExists(activo.ruta);
+    }
+
+
+    private Segmento abrirSegmento() throws IOException {
+        Path ruta = directorio.resolve(PREFIJO + siguienteNumero + EXTENSION);
+        FileChannel canal = apertura.abrir(ruta);
+        siguienteNumero++;
+        sincronizarDirectorio();
+        return new Segmento(ruta, canal);
+    }
+
+
+    /**
+     * Lleva a disco la entrada del segmento nuevo; no todos los sistemas permiten abrir un directorio.
+     */
+    private void sincronizarDirectorio() {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Sin soporte: la entrada se sincroniza con el primer force del segmento
+        }
+    }
+
+
+    private List<Path> listarSegmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(ruta -> {
+                        String nombre = ruta.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted(Comparator.comparingLong(DiarioMensajes::numero))
+                    .toList();
+        }
+    }
+
+
+    private static long numero(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+
+    /**
+     * Registro: longitud, ID, sesión, remitente, fecha (segundos UTC y nanos), contenido UTF-8 y CRC32.
+     */
+    private static ByteBuffer codificar(MensajeChatResumenDto mensaje) {
+        byte[] contenido = mensaje.contenido().getBytes(StandardCharsets.UTF_8);
+        int longitud = 8 + 8 + 1 + 8 + 4 + 4 + contenido.length;
+
+        ByteBuffer registro = ByteBuffer.allocate(4 + longitud + 4);
+        registro.putInt(longitud)
+                .putLong(mensaje.id())
+                .putLong(mensaje.idChatSession())
+                .put((byte) mensaje.remitente().ordinal())
+                .putLong(mensaje.fechaEnvio().toEpochSecond(ZoneOffset.UTC))
+                .putInt(mensaje.fechaEnvio().getNano())
+                .putInt(contenido.length)
+                .put(contenido);
+
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), 4, longitud);
+        registro.putInt((int) crc.getValue());
+        return registro.flip();
+    }
+
+
+    /**
+     * Lee los registros completos de un segmento; se detiene en el primero incompleto o dañado.
+     */
+    static List<MensajeChatResumenDto> leer(Path segmento) throws IOException {
+        ByteBuffer datos = ByteBuffer.wrap(Files.readAllBytes(segmento));
+        List<MensajeChatResumenDto> mensajes = new ArrayList<>();
+
+        while (datos.remaining() >= 4) {
+            int inicio = datos.position();
+            int longitud = datos.getInt();
+            if (longitud < 33 || datos.remaining() < longitud + 4) break;
+
+            CRC32 crc = new CRC32();
+            crc.update(datos.array(), inicio + 4, longitud);
+            if (datos.getInt(inicio + 4 + longitud) != (int) crc.getValue()) break;
+
+            Long id = datos.getLong();
+            Long idChatSession = datos.getLong();
+            RemitenteChat remitente = REMITENTES[datos.get()];
+            LocalDateTime fechaEnvio = LocalDateTime.ofEpochSecond(datos.getLong(), datos.getInt(), ZoneOffset.UTC);
+            byte[] contenido = new byte[datos.getInt()];
+            datos.get(contenido);
+            datos.getInt(); // CRC ya verificado
+
+            mensajes.add(new MensajeChatResumenDto(id, idChatSession, remitente,
+                    new String(contenido, StandardCharsets.UTF_8), fechaEnvio));
+        }
+        return mensajes;
+    }
+
+
+    private record Escrito(MensajeChatResumenDto mensaje, long fin) {}
+
+
+    /**
+     * Archivo de un segmento. La posición de escritura y los mensajes escritos avanzan con el candado del
+     * diario; la sincronización usa el candado del segmento para que una sola llamada a {@code force} cubra a
+     * todos los que esperan.
+     */
+    private static final class Segmento {
+
+        private final Path ruta;
+        private final FileChannel canal;
+        private final List<Escrito> escritos = new ArrayList<>();
+        private volatile long posicion;
+        private long sincronizado;
+        private IOException fallo;
+        private boolean cerrado;
+
+
+        private Segmento(Path ruta, FileChannel canal) {
+            this.ruta = ruta;
+            this.canal = canal;
+        }
+
+
+        /**
+         * @return posición final del registro escrito.
+         */
+        private long escribir(ByteBuffer registro) throws IOException {
+            long inicio = posicion;
+            try {
+                while (registro.hasRemaining()) {
+                    canal.write(registro);
+                }
+            } catch (IOException e) {
+                // Se quita el registro parcial para que no oculte los siguientes al leer el segmento
+                canal.truncate(inicio);
+                canal.position(inicio);
+                throw e;
+            }
+            posicion = canal.position();
+            return posicion;
+        }
+
+
+        private synchronized void sincronizar(long hasta) throws IOException {
+            if (sincronizado >= hasta) return; // Otro hilo ya lo llevó a disco
+            if (fallo != null) throw new IOException("El segmento " + ruta + " no se pudo llevar a disco", fallo);
+
+            long objetivo = posicion;
+            try {
+                canal.force(false);
+            } catch (IOException e) {
+                fallo = e;
+                throw e;
+            }
+            sincronizado = objetivo;
+        }
+
+
+        /**
+         * Lleva el segmento a disco y lo cierra.
+         *
+         * @return mensajes que llegaron a disco, en el orden en que se agregaron.
+         */
+        private synchronized List<MensajeChatResumenDto> cerrar() throws IOException {
+            if (!cerrado) {
+                try {
+                    if (fallo == null) {
+                        try {
+                            canal.force(false);
+                            sincronizado = posicion;
+                        } catch (IOException e) {
+                            fallo = e;
+                        }
+                    }
+                    if (fallo != null) recortar();
+                } finally {
+                    cerrado = true;
+                    canal.close();
+                }
+            }
+            return escritos.stream()
+                    .filter(escrito -> escrito.fin() <= sincronizado)
+                    .map(Escrito::mensaje)
+                    .toList();
+        }
+
+
+        /**
+         * Quita lo que quedó después del último {@code force} exitoso. Si tampoco se puede, esos registros
+         * siguen en el archivo hasta que el lote se confirme y el segmento se borre.
+         */
+        private void recortar() {
+            try {
+                canal.truncate(sincronizado);
+                canal.force(false);
+            } catch (IOException e) {
+                // El lote ya excluye esos mensajes
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package co.edu.uniquindio.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Envía archivos inmutables del almacén directamente a la respuesta HTTP.
+ * <p>
+ * Soporta validación condicional con {@code ETag} ({@code If-None-Match} responde {@code 304})
+ * y descargas parciales con un único rango de bytes ({@code Range}, {@code If-Range}, respuestas
+ * {@code 206} y {@code 416}). Las solicitudes con varios rangos reciben el archivo completo, como
+ * permite la especificación.
+ * </p>
+ *
+ * <p>
+ * El contenido se copia con {@link FileChannel#transferTo}, sin pasar por un búfer propio ni cargar
+ * el archivo en memoria.
+ * </p>
+ */
+public final class EnvioArchivos {
+
+    /** El contenido de una huella no cambia, pero la misma URL puede apuntar luego a otra versión. */
+    public static final String CACHE_REVALIDAR = "private, no-cache";
+
+    /** Para URLs que incluyen la huella: el contenido nunca cambia y se puede guardar un año. */
+    public static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+
+    // Marca de un rango que no se puede satisfacer (se responde 416)
+    private static final long[] RANGO_INVALIDO = new long[0];
+
+    private EnvioArchivos() {}
+
+
+    /**
+     * Escribe el archivo (o el rango pedido) en la respuesta.
+     *
+     * @param request      solicitud HTTP.
+     * @param response     respuesta HTTP; no debe estar confirmada.
+     * @param archivo      ruta del archivo.
+     * @param huella       identificador del contenido, usado como ETag fuerte.
+     * @param tipoContenido tipo MIME del archivo.
+     * @param nombre       nombre sugerido para el archivo descargado.
+     * @throws IOException si el archivo no se puede leer o el cliente cierra la conexión.
+     */
+    public static void enviar(HttpServletRequest request, HttpServletResponse response, Path archivo,
+                              String huella, String tipoContenido, String nombre) throws IOException {
+        enviar(request, response, archivo, huella, tipoContenido, nombre, CACHE_REVALIDAR);
+    }
+
+
+    /**
+     * Igual que {@link #enviar(HttpServletRequest, HttpServletResponse, Path, String, String, String)},
+     * con el encabezado {@code Cache-Control} indicado.
+     *
+     * @param cacheControl valor de {@code Cache-Control}, por ejemplo {@link #CACHE_INMUTABLE}.
+     */
+    public static void enviar(HttpServletRequest request, HttpServletResponse response, Path archivo,
+                              String huella, String tipoContenido, String nombre, String cacheControl) throws IOException {
+
+        long tamano = Files.size(archivo);
+        String etag = "\"" + huella + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+
+        if (coincideEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long inicio = 0;
+        long fin = tamano - 1;
+
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rango != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] pedido = interpretarRango(rango, tamano);
+            if (pedido == RANGO_INVALIDO) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (pedido != null) {
+                inicio = pedido[0];
+                fin = pedido[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + tamano);
+            }
+        }
+
+        long longitud = fin - inicio + 1;
+        response.setContentType(tipoContenido);
+        response.setContentLengthLong(longitud);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(nombre, StandardCharsets.UTF_8).build().toString());
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod())) return;
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = inicio;
+            long restante = longitud;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicion, restante, salida);
+                if (enviados <= 0) break; // El archivo se truncó mientras se enviaba
+                posicion += enviados;
+                restante -= enviados;
+            }
+        }
+        response.flushBuffer();
+    }
+
+
+    /**
+     * Interpreta un encabezado {@code Range} de un único rango de bytes.
+     *
+     * @return {@code {inicio, fin}} inclusivos; {@code null} si el encabezado se debe ignorar
+     * (sintaxis inválida o varios rangos); {@link #RANGO_INVALIDO} si el rango no se puede satisfacer.
+     */
+    static long[] interpretarRango(String rango, long tamano) {
+        if (!rango.startsWith("bytes=")) return null;
+        String especificacion = rango.substring("bytes=".length()).trim();
+        if (especificacion.contains(",")) return null;
+
+        int guion = especificacion.indexOf('-');
+        if (guion < 0) return null;
+
+        try {
+            String desde = especificacion.substring(0, guion).trim();
+            String hasta = especificacion.substring(guion + 1).trim();
+
+            if (desde.isEmpty()) {
+                // Sufijo: los últimos N bytes
+                long sufijo = Long.parseLong(hasta);
+                if (sufijo <= 0 || tamano == 0) return RANGO_INVALIDO;
+                return new long[]{Math.max(0, tamano - sufijo), tamano - 1};
+            }
+
+            long inicio = Long.parseLong(desde);
+            long fin = hasta.isEmpty() ? tamano - 1 : Long.parseLong(hasta);
+            if (inicio < 0 || fin < inicio) return null;
+            if (inicio >= tamano) return RANGO_INVALIDO;
+            return new long[]{inicio, Math.min(fin, tamano - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Indica si un encabezado {@code If-None-Match} incluye la ETag del archivo.
+     */
+    private static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) valor = valor.substring(2); // Comparación débil
+            if (valor.equals("*") || valor.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package co.edu.uniquindio.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro para uso concurrente.
+ * <p>
+ * Responde "seguro que no está" o "puede que esté": nunca da falsos negativos para los valores
+ * agregados, y la probabilidad de falsos positivos se fija al crearlo según el número de elementos esperado.
+ * Los valores no se pueden quitar; para descartar bits de valores eliminados se construye un filtro nuevo.
+ * </p>
+ *
+ * <p>
+ * Las posiciones se calculan con doble hashing ({@code h1 + i·h2}) a partir de un hash de 64 bits
+ * del texto, y los bits se guardan en un {@link AtomicLongArray} para que agregar y consultar
+ * no requieran bloqueos.
+ * </p>
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long numeroBits;
+    private final int numeroHashes;
+
+
+    /**
+     * Crea un filtro dimensionado para la cantidad de elementos y la tasa de falsos positivos indicadas.
+     *
+     * @param elementosEsperados  número de elementos que se espera agregar.
+     * @param probabilidadFalsos  probabilidad de falso positivo deseada (entre 0 y 1, exclusivo).
+     */
+    public FiltroBloom(long elementosEsperados, double probabilidadFalsos) {
+        if (elementosEsperados < 1) elementosEsperados = 1;
+        if (probabilidadFalsos <= 0 || probabilidadFalsos >= 1) {
+            throw new IllegalArgumentException("La probabilidad de falsos positivos debe estar entre 0 y 1");
+        }
+
+        // m = -n·ln(p) / ln(2)²  y  k = m/n · ln(2)
+        long m = (long) Math.ceil(-elementosEsperados * Math.log(probabilidadFalsos) / (Math.log(2) * Math.log(2)));
+        long palabras = Math.max(1, (m + 63) / 64);
+
+        this.bits = new AtomicLongArray(Math.toIntExact(palabras));
+        this.numeroBits = palabras * 64;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / elementosEsperados * Math.log(2)));
+    }
+
+
+    /**
+     * Agrega un valor al filtro.
+     *
+     * @param valor valor a agregar; los nulos se ignoran.
+     */
+    public void agregar(String valor) {
+        if (valor == null) return;
+
+        long hash = hash64(valor);
+        long h1 = hash;
+        long h2 = mezclar(hash ^ 0x9E3779B97F4A7C15L) | 1; // impar, para recorrer todas las posiciones
+
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numeroBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << (bit & 63);
+
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) break;
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+
+    /**
+     * Indica si el valor pudo haber sido agregado.
+     *
+     * @param valor valor a consultar.
+     * @return {@code false} si el valor seguro no fue agregado; {@code true} si puede haberlo sido.
+     */
+    public boolean puedeContener(String valor) {
+        if (valor == null) return false;
+
+        long hash = hash64(valor);
+        long h1 = hash;
+        long h2 = mezclar(hash ^ 0x9E3779B97F4A7C15L) | 1;
+
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numeroBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Hash FNV-1a de 64 bits sobre los caracteres del texto, con mezcla final para repartir los bits.
+     */
+    private static long hash64(String valor) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            hash ^= valor.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mezclar(hash);
+    }
+
+
+    /**
+     * Función de mezcla final de MurmurHash3 (fmix64).
+     */
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85A53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
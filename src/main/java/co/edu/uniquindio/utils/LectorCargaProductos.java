@@ -0,0 +1,195 @@
+package co.edu.uniquindio.utils;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.objects.producto.LineaCargaProductoDto;
+import co.edu.uniquindio.dto.objects.producto.ProductoLoteDto;
+import co.edu.uniquindio.exception.ElementoIncorrectoException;
+import co.edu.uniquindio.exception.ElementoNoValido;
+import co.edu.uniquindio.model.objects.enums.TipoProducto;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector de cargas masivas de productos.
+ * <p>
+ * El cuerpo de la solicitud se recorre de forma incremental, sin construir el árbol del documento completo:
+ * un arreglo JSON de {@link ProductoLoteDto} se lee elemento por elemento con un {@link JsonParser}, y un CSV
+ * línea por línea. Las líneas leídas sí se acumulan en una lista, porque la carga se valida y su área se
+ * reserva de una sola vez; la memoria crece con el número de productos, no con el tamaño del texto.
+ * Los errores de una línea no detienen la lectura: se reportan en la {@link LineaCargaProductoDto}
+ * correspondiente. Un elemento {@code null} en el arreglo JSON rechaza la carga completa.
+ * </p>
+ *
+ * <p>El CSV debe tener encabezado con las columnas {@code nombre, descripcion, areaOcupada, altura, tipoProducto}
+ * (en cualquier orden).</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class LectorCargaProductos {
+
+    public static final String TEXT_CSV = "text/csv";
+
+    private final ObjectMapper objectMapper;
+
+
+    /**
+     * Lee una carga masiva en formato JSON o CSV según el tipo de contenido.
+     *
+     * @param contenido   flujo con el cuerpo de la solicitud.
+     * @param tipoContenido encabezado Content-Type de la solicitud.
+     * @return líneas leídas, en el orden de la carga.
+     * @throws ElementoIncorrectoException si el documento no se puede leer.
+     * @throws ElementoNoValido si el arreglo JSON contiene un elemento nulo.
+     */
+    public List<LineaCargaProductoDto> leer(InputStream contenido, String tipoContenido)
+            throws ElementoIncorrectoException {
+        try {
+            if (tipoContenido != null && tipoContenido.toLowerCase(Locale.ROOT).startsWith(TEXT_CSV)) {
+                return leerCsv(contenido);
+            }
+            return leerJson(contenido);
+        } catch (IOException e) {
+            throw new ElementoIncorrectoException(MensajeError.FORMATO_CARGA_INVALIDO);
+        }
+    }
+
+
+    private List<LineaCargaProductoDto> leerJson(InputStream contenido) throws IOException, ElementoIncorrectoException {
+        List<LineaCargaProductoDto> lineas = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(contenido)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ElementoIncorrectoException(MensajeError.FORMATO_CARGA_INVALIDO);
+            }
+
+            int numero = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                numero++;
+                // Cada elemento se lee como árbol para que un error de tipos no afecte a los siguientes
+                JsonNode nodo = parser.readValueAsTree();
+                if (nodo == null || nodo.isNull()) {
+                    throw new ElementoNoValido(MensajeError.LINEA_CARGA_NULA);
+                }
+                try {
+                    lineas.add(new LineaCargaProductoDto(numero, objectMapper.treeToValue(nodo, ProductoLoteDto.class), null));
+                } catch (JsonProcessingException e) {
+                    lineas.add(new LineaCargaProductoDto(numero, null, e.getOriginalMessage()));
+                }
+            }
+        }
+        return lineas;
+    }
+
+
+    private List<LineaCargaProductoDto> leerCsv(InputStream contenido) throws IOException, ElementoIncorrectoException {
+        List<LineaCargaProductoDto> lineas = new ArrayList<>();
+
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(contenido, StandardCharsets.UTF_8))) {
+            String encabezado = lector.readLine();
+            if (encabezado == null) {
+                throw new ElementoIncorrectoException(MensajeError.FORMATO_CARGA_INVALIDO);
+            }
+
+            // Posición de cada columna según el encabezado
+            Map<String, Integer> columnas = new HashMap<>();
+            List<String> nombres = separarCampos(encabezado);
+            for (int i = 0; i < nombres.size(); i++) {
+                columnas.put(nombres.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+
+            String linea;
+            int numero = 1;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank()) continue;
+
+                List<String> campos = separarCampos(linea);
+                try {
+                    ProductoLoteDto producto = new ProductoLoteDto(
+                            campo(campos, columnas, "nombre"),
+                            campo(campos, columnas, "descripcion"),
+                            numero(campo(campos, columnas, "areaocupada")),
+                            numero(campo(campos, columnas, "altura")),
+                            tipo(campo(campos, columnas, "tipoproducto")));
+                    lineas.add(new LineaCargaProductoDto(numero, producto, null));
+                } catch (IllegalArgumentException e) {
+                    lineas.add(new LineaCargaProductoDto(numero, null, e.getMessage()));
+                }
+            }
+        }
+        return lineas;
+    }
+
+
+    /**
+     * Separa una línea CSV en campos, respetando comillas dobles (y {@code ""} como comilla escapada).
+     */
+    private List<String> separarCampos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                if (entreComillas && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = !entreComillas;
+                }
+            } else if (c == ',' && !entreComillas) {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+
+    private String campo(List<String> campos, Map<String, Integer> columnas, String nombre) {
+        Integer indice = columnas.get(nombre);
+        if (indice == null || indice >= campos.size()) return null;
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+
+    private Double numero(String valor) {
+        if (valor == null) return null;
+        try {
+            return Double.parseDouble(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico no válido: " + valor);
+        }
+    }
+
+
+    private TipoProducto tipo(String valor) {
+        if (valor == null) return null;
+        try {
+            return TipoProducto.valueOf(valor.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de producto no válido: " + valor);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package co.edu.uniquindio.utils;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro en memoria de la carga (chats activos) de cada agente, para asignar el menos ocupado.
+ * <p>
+ * Los agentes se reparten en una franja por sede, cada una con su propio candado y un árbol ordenado por
+ * carga y, a igual carga, por la asignación más antigua; así los empates se reparten en turno rotativo.
+ * Asignar dentro de una sede toma el primero del árbol y lo reinserta con la carga aumentada, en
+ * {@code O(log n)} y sin bloquear las demás sedes. Asignar sin sede compara el primero de cada franja.
+ * </p>
+ *
+ * <p>
+ * La carga solo cambia con el candado de la franja tomado y nunca supera el límite por agente, de modo que
+ * dos asignaciones simultáneas no pueden entregar el mismo cupo.
+ * </p>
+ *
+ * <p>
+ * Cada asignación queda reservada hasta que el chat se guarda ({@link #confirmar}) o falla ({@link #cancelar}).
+ * {@link #ajustar} no toca a los agentes con reservas en curso ni a los que cambiaron desde la {@link #marca()}
+ * tomada antes de contar sus chats en la base de datos: ese conteo pudo no incluir sus últimos cambios.
+ * </p>
+ */
+public class RegistroCargaAgentes {
+
+    private static final Comparator<Carga> ORDEN = Comparator
+            .comparingInt(Carga::activas)
+            .thenComparingLong(Carga::ultimaAsignacion)
+            .thenComparing(Carga::idAgente);
+
+    private final int maximoPorAgente;
+    private final Map<Long, Franja> franjas = new ConcurrentHashMap<>();
+    // Sede de cada agente registrado
+    private final Map<Long, Long> sedes = new ConcurrentHashMap<>();
+    private final AtomicLong turno = new AtomicLong();
+
+
+    /**
+     * @param maximoPorAgente chats activos simultáneos que puede atender un agente.
+     */
+    public RegistroCargaAgentes(int maximoPorAgente) {
+        if (maximoPorAgente < 1) throw new IllegalArgumentException("El máximo de chats por agente debe ser positivo");
+        this.maximoPorAgente = maximoPorAgente;
+    }
+
+
+    /**
+     * Registra un agente con su carga actual o, si ya estaba, actualiza su sede conservando su carga.
+     * Las altas y bajas son poco frecuentes y se serializan entre sí; no bloquean las asignaciones.
+     *
+     * @param activas carga con la que se registra si no estaba registrado.
+     */
+    public synchronized void registrar(Long idAgente, Long idSede, int activas) {
+        Long sedeAnterior = sedes.get(idAgente);
+        if (Objects.equals(sedeAnterior, idSede)) return;
+
+        Carga anterior = sedeAnterior == null ? null : franja(sedeAnterior).quitar(idAgente);
+        franja(idSede).agregar(anterior == null
+                ? new Carga(idAgente, activas, 0, 0, 0)
+                : new Carga(idAgente, anterior.activas(), anterior.reservadas(), 0, anterior.cambio()));
+        sedes.put(idAgente, idSede);
+    }
+
+
+    /**
+     * Quita un agente del registro; no vuelve a recibir chats.
+     */
+    public synchronized void retirar(Long idAgente) {
+        Long idSede = sedes.remove(idAgente);
+        if (idSede != null) franja(idSede).quitar(idAgente);
+    }
+
+
+    /**
+     * Asigna un chat al agente menos ocupado que todavía tenga cupo. El cupo queda reservado hasta
+     * {@link #confirmar} o {@link #cancelar}.
+     *
+     * @param idSede sede en la que se busca, o {@code null} para buscar en todas.
+     * @return ID del agente asignado, o {@code null} si todos están en su límite.
+     */
+    public Long asignar(Long idSede) {
+        if (idSede != null) {
+            Franja franja = franjas.get(idSede);
+            return franja == null ? null : franja.asignar();
+        }
+
+        // Se intenta primero la franja con el agente menos cargado; si otro hilo le ganó el cupo, la siguiente
+        while (true) {
+            Franja mejor = null;
+            int menor = Integer.MAX_VALUE;
+            for (Franja franja : franjas.values()) {
+                int carga = franja.menorCarga();
+                if (carga < menor) {
+                    menor = carga;
+                    mejor = franja;
+                }
+            }
+            if (mejor == null || menor >= maximoPorAgente) return null;
+
+            Long idAgente = mejor.asignar();
+            if (idAgente != null) return idAgente;
+        }
+    }
+
+
+    /**
+     * Cierra la reserva de un chat ya guardado; el cupo sigue ocupado.
+     */
+    public void confirmar(Long idAgente) {
+        Long idSede = sedes.get(idAgente);
+        if (idSede != null) franja(idSede).cambiar(idAgente, 0, -1);
+    }
+
+
+    /**
+     * Devuelve el cupo reservado de un chat que no se pudo guardar.
+     */
+    public void cancelar(Long idAgente) {
+        Long idSede = sedes.get(idAgente);
+        if (idSede != null) franja(idSede).cambiar(idAgente, -1, -1);
+    }
+
+
+    /**
+     * Descuenta un chat terminado de la carga del agente.
+     */
+    public void liberar(Long idAgente) {
+        Long idSede = sedes.get(idAgente);
+        if (idSede != null) franja(idSede).cambiar(idAgente, -1, 0);
+    }
+
+
+    /**
+     * @return marca del último cambio de carga; se toma antes de contar los chats que se pasan a {@link #ajustar}.
+     */
+    public long marca() {
+        return turno.get();
+    }
+
+
+    /**
+     * Reemplaza la carga del agente por la contada en la base de datos, conservando su turno.
+     * No hace nada si el agente no está registrado, tiene reservas sin confirmar o su carga cambió después
+     * de {@code marca}; la siguiente sincronización lo vuelve a intentar.
+     *
+     * @param marca valor de {@link #marca()} tomado antes de contar {@code activas}.
+     */
+    public void ajustar(Long idAgente, int activas, long marca) {
+        Long idSede = sedes.get(idAgente);
+        if (idSede != null) franja(idSede).ajustar(idAgente, activas, marca);
+    }
+
+
+    /**
+     * @return chats activos registrados para el agente, o {@code -1} si no está registrado.
+     */
+    public int carga(Long idAgente) {
+        Long idSede = sedes.get(idAgente);
+        return idSede == null ? -1 : franja(idSede).carga(idAgente);
+    }
+
+
+    /**
+     * @return IDs de los agentes registrados.
+     */
+    public Set<Long> agentes() {
+        return Collections.unmodifiableSet(sedes.keySet());
+    }
+
+
+    private Franja franja(Long idSede) {
+        return franjas.computeIfAbsent(idSede == null ? 0L : idSede, id -> new Franja());
+    }
+
+
+    /**
+     * Carga de un agente. Es inmutable mientras está dentro del árbol: para cambiarla se saca y se reinserta.
+     *
+     * @param reservadas asignaciones cuyo chat todavía no se guardó (incluidas en {@code activas}).
+     * @param cambio     turno del último cambio de {@code activas} o {@code reservadas}.
+     */
+    private record Carga(Long idAgente, int activas, int reservadas, long ultimaAsignacion, long cambio) {}
+
+
+    /**
+     * Agentes de una sede, protegidos por un solo candado.
+     */
+    private final class Franja {
+
+        private final ReentrantLock candado = new ReentrantLock();
+        private final TreeSet<Carga> orden = new TreeSet<>(ORDEN);
+        private final Map<Long, Carga> porAgente = new HashMap<>();
+
+
+        private void agregar(Carga carga) {
+            candado.lock();
+            try {
+                Carga anterior = porAgente.put(carga.idAgente(), carga);
+                if (anterior != null) orden.remove(anterior);
+                orden.add(carga);
+            } finally {
+                candado.unlock();
+            }
+        }
+
+
+        private Carga quitar(Long idAgente) {
+            candado.lock();
+            try {
+                Carga carga = porAgente.remove(idAgente);
+                if (carga != null) orden.remove(carga);
+                return carga;
+            } finally {
+                candado.unlock();
+            }
+        }
+
+
+        private Long asignar() {
+            candado.lock();
+            try {
+                if (orden.isEmpty() || orden.first().activas() >= maximoPorAgente) return null;
+
+                Carga carga = orden.pollFirst();
+                long ahora = turno.incrementAndGet();
+                Carga asignada = new Carga(carga.idAgente(), carga.activas() + 1, carga.reservadas() + 1, ahora, ahora);
+                orden.add(asignada);
+                porAgente.put(asignada.idAgente(), asignada);
+                return asignada.idAgente();
+            } finally {
+                candado.unlock();
+            }
+        }
+
+
+        private void cambiar(Long idAgente, int deltaActivas, int deltaReservadas) {
+            candado.lock();
+            try {
+                Carga carga = porAgente.get(idAgente);
+                if (carga == null) return;
+
+                reemplazar(carga, new Carga(idAgente, Math.max(carga.activas() + deltaActivas, 0),
+                        Math.max(carga.reservadas() + deltaReservadas, 0), carga.ultimaAsignacion(),
+                        turno.incrementAndGet()));
+            } finally {
+                candado.unlock();
+            }
+        }
+
+
+        private void ajustar(Long idAgente, int activas, long marca) {
+            candado.lock();
+            try {
+                Carga carga = porAgente.get(idAgente);
+                if (carga == null || carga.activas() == activas || carga.reservadas() > 0 || carga.cambio() > marca) {
+                    return;
+                }
+                reemplazar(carga, new Carga(idAgente, activas, 0, carga.ultimaAsignacion(), carga.cambio()));
+            } finally {
+                candado.unlock();
+            }
+        }
+
+
+        // Con el candado tomado
+        private void reemplazar(Carga anterior, Carga nueva) {
+            orden.remove(anterior);
+            orden.add(nueva);
+            porAgente.put(nueva.idAgente(), nueva);
+        }
+
+
+        private int menorCarga() {
+            candado.lock();
+            try {
+                return orden.isEmpty() ? Integer.MAX_VALUE : orden.first().activas();
+            } finally {
+                candado.unlock();
+            }
+        }
+
+
+        private int carga(Long idAgente) {
+            candado.lock();
+            try {
+                Carga carga = porAgente.get(idAgente);
+                return carga == null ? -1 : carga.activas();
+            } finally {
+                candado.unlock();
+            }
+        }
+    }
+}
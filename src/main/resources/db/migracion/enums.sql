@@ -0,0 +1,21 @@
+-- Hibernate genera restricciones CHECK con los valores de cada enum al crear las tablas,
+-- pero ddl-auto=update no las actualiza cuando el enum crece. Este script elimina la
+-- restricción de las columnas cuyo enum recibió valores nuevos (la validación la hace JPA).
+--
+-- Idempotente: solo elimina restricciones que existan.
+DECLARE
+    PROCEDURE quitar_check(p_tabla VARCHAR2, p_columna VARCHAR2) IS
+    BEGIN
+        FOR r IN (SELECT constraint_name
+                    FROM user_constraints
+                   WHERE table_name = UPPER(p_tabla)
+                     AND constraint_type = 'C'
+                     AND UPPER(search_condition_vc) LIKE '%' || UPPER(p_columna) || ' IN%') LOOP
+            EXECUTE IMMEDIATE 'ALTER TABLE ' || p_tabla || ' DROP CONSTRAINT ' || r.constraint_name;
+        END LOOP;
+    END;
+BEGIN
+    -- TipoMovimiento.TRASLADO
+    quitar_check('movimientos_producto', 'tipo_movimiento');
+END;
+/
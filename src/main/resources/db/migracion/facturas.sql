@@ -0,0 +1,39 @@
+-- Columna facturas.periodo (mes facturado, yyyy-MM), obligatoria y única por cliente.
+--
+-- Hibernate (ddl-auto=update) no puede agregar una columna NOT NULL a una tabla con filas
+-- (ORA-01758). Este script la agrega sin la restricción, la llena con el mes de fecha_emision
+-- de las facturas existentes y solo entonces la vuelve obligatoria.
+--
+-- Si un cliente tiene más de una factura del mismo mes, Hibernate no podrá crear
+-- uk_factura_cliente_periodo hasta depurarlas; el script lo informa en la salida del servidor.
+--
+-- Idempotente: sobre una base de datos vacía no hace nada y Hibernate crea la tabla completa.
+DECLARE
+    v_existe   NUMBER;
+    v_nullable VARCHAR2(1);
+BEGIN
+    SELECT COUNT(*) INTO v_existe FROM user_tables WHERE table_name = 'FACTURAS';
+    IF v_existe = 0 THEN
+        RETURN;
+    END IF;
+
+    SELECT COUNT(*) INTO v_existe FROM user_tab_columns WHERE table_name = 'FACTURAS' AND column_name = 'PERIODO';
+    IF v_existe = 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE facturas ADD periodo VARCHAR2(7 CHAR)';
+    END IF;
+
+    EXECUTE IMMEDIATE 'UPDATE facturas SET periodo = TO_CHAR(fecha_emision, ''YYYY-MM'') WHERE periodo IS NULL';
+
+    SELECT nullable INTO v_nullable FROM user_tab_columns WHERE table_name = 'FACTURAS' AND column_name = 'PERIODO';
+    IF v_nullable = 'Y' THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE facturas MODIFY periodo NOT NULL';
+    END IF;
+    COMMIT;
+
+    EXECUTE IMMEDIATE 'SELECT COUNT(*) FROM (SELECT 1 FROM facturas GROUP BY id_cliente, periodo HAVING COUNT(*) > 1)'
+        INTO v_existe;
+    IF v_existe > 0 THEN
+        DBMS_OUTPUT.PUT_LINE(v_existe || ' clientes tienen más de una factura en un mismo periodo');
+    END IF;
+END;
+/
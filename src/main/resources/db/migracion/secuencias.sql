@@ -0,0 +1,50 @@
+-- Migración de columnas IDENTITY a secuencias con optimizador pooled-lo.
+--
+-- Para cada secuencia:
+--   1. Quita la identidad de la columna id de sus tablas (si existen y aún la tienen),
+--      para que Hibernate pueda insertar los IDs que toma de la secuencia.
+--   2. Crea la secuencia iniciando después del mayor ID existente, con el mismo
+--      incremento que el allocationSize de las entidades (50).
+--
+-- El script es idempotente: puede ejecutarse en cada arranque y sobre una base de datos vacía.
+DECLARE
+    TYPE t_tablas IS TABLE OF VARCHAR2(128);
+
+    PROCEDURE migrar(p_secuencia VARCHAR2, p_tablas t_tablas) IS
+        v_existe NUMBER;
+        v_max    NUMBER := 0;
+        v_actual NUMBER;
+    BEGIN
+        FOR i IN 1 .. p_tablas.COUNT LOOP
+            SELECT COUNT(*) INTO v_existe FROM user_tables WHERE table_name = UPPER(p_tablas(i));
+            IF v_existe > 0 THEN
+                SELECT COUNT(*) INTO v_existe FROM user_tab_identity_cols
+                 WHERE table_name = UPPER(p_tablas(i)) AND column_name = 'ID';
+                IF v_existe > 0 THEN
+                    EXECUTE IMMEDIATE 'ALTER TABLE ' || p_tablas(i) || ' MODIFY id DROP IDENTITY';
+                END IF;
+                EXECUTE IMMEDIATE 'SELECT NVL(MAX(id), 0) FROM ' || p_tablas(i) INTO v_actual;
+                v_max := GREATEST(v_max, v_actual);
+            END IF;
+        END LOOP;
+
+        SELECT COUNT(*) INTO v_existe FROM user_sequences WHERE sequence_name = UPPER(p_secuencia);
+        IF v_existe = 0 THEN
+            EXECUTE IMMEDIATE 'CREATE SEQUENCE ' || p_secuencia
+                || ' START WITH ' || (v_max + 1) || ' INCREMENT BY 50';
+        END IF;
+    END;
+BEGIN
+    migrar('bodegas_seq', t_tablas('bodegas'));
+    migrar('espacios_seq', t_tablas('espacios'));
+    migrar('sedes_seq', t_tablas('sedes'));
+    migrar('producto_seq', t_tablas('producto'));
+    migrar('movimientos_producto_seq', t_tablas('movimientos_producto'));
+    migrar('contratos_seq', t_tablas('contratos'));
+    migrar('facturas_seq', t_tablas('facturas'));
+    migrar('detalle_factura_seq', t_tablas('detalle_factura'));
+    migrar('chat_sessions_seq', t_tablas('chat_sessions'));
+    migrar('mensajes_chat_seq', t_tablas('mensajes_chat'));
+    migrar('personas_seq', t_tablas('clientes', 'agente_ventas', 'recursos_humanos', 'personal_bodega'));
+END;
+/
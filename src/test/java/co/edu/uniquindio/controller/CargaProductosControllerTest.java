@@ -0,0 +1,98 @@
+package co.edu.uniquindio.controller;
+
+import co.edu.uniquindio.controller.personalBodega.PersonalProductoController;
+import co.edu.uniquindio.dto.objects.producto.LineaCargaProductoDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoCargaProductosDto;
+import co.edu.uniquindio.dto.objects.producto.ResultadoLineaProductoDto;
+import co.edu.uniquindio.exception.RestExceptionHandler;
+import co.edu.uniquindio.service.objects.ProductoServicio;
+import co.edu.uniquindio.utils.LectorCargaProductos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas del endpoint de carga masiva de productos, con el servicio simulado.
+ */
+public class CargaProductosControllerTest {
+
+    private static final String URL = "/api/personal-bodega/producto/espacio/{idEspacio}/registrar-productos";
+
+    private ProductoServicio productoServicio;
+    private MockMvc mockMvc;
+
+
+    @BeforeEach
+    public void configurar() {
+        productoServicio = mock(ProductoServicio.class);
+        PersonalProductoController controller = new PersonalProductoController(productoServicio,
+                new LectorCargaProductos(new ObjectMapper()));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cargaCsvEntregaLasLineasAlServicio() throws Exception {
+        when(productoServicio.registrarProductosLote(eq(7L), eq(3L), anyList()))
+                .thenReturn(new ResultadoCargaProductosDto(7L, 1, 1, 1.5, List.of(
+                        new ResultadoLineaProductoDto(2, true, 100L, null),
+                        new ResultadoLineaProductoDto(3, false, null, "Tipo de producto no válido: X"))));
+
+        mockMvc.perform(post(URL, 7L)
+                        .param("idPersonalBodega", "3")
+                        .contentType("text/csv")
+                        .content("nombre,areaOcupada,altura,tipoProducto\nCaja,1.5,0.8,FRAGIL\nSilla,1,1,X\n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.mensaje.registrados").value(1))
+                .andExpect(jsonPath("$.mensaje.lineas[1].mensaje").value("Tipo de producto no válido: X"));
+
+        ArgumentCaptor<List<LineaCargaProductoDto>> lineas = ArgumentCaptor.forClass(List.class);
+        verify(productoServicio).registrarProductosLote(eq(7L), eq(3L), lineas.capture());
+        assertEquals(2, lineas.getValue().size());
+        assertNotNull(lineas.getValue().get(0).producto());
+        assertNotNull(lineas.getValue().get(1).error());
+    }
+
+
+    @Test
+    public void elementoNuloEnJsonResponde422SinLlamarAlServicio() throws Exception {
+        mockMvc.perform(post(URL, 7L)
+                        .param("idPersonalBodega", "3")
+                        .contentType("application/json")
+                        .content("[null]"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value(true));
+
+        verify(productoServicio, never()).registrarProductosLote(any(), any(), any());
+    }
+
+
+    @Test
+    public void documentoQueNoEsArregloResponde400() throws Exception {
+        mockMvc.perform(post(URL, 7L)
+                        .param("idPersonalBodega", "3")
+                        .contentType("application/json")
+                        .content("{\"nombre\": \"Caja\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(productoServicio, never()).registrarProductosLote(any(), any(), any());
+    }
+}
@@ -0,0 +1,141 @@
+package co.edu.uniquindio.security;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.exception.ElementoNoActivadoException;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de la autenticación y la autorización de las tramas STOMP del chat en {@link ChatStompInterceptor}.
+ */
+public class ChatStompInterceptorTest {
+
+    private static final Authentication CLIENTE = new UsernamePasswordAuthenticationToken("7", null, List.of());
+
+    private JWTFilter jwtFilter;
+    private ChatTiempoRealServicio chatTiempoRealServicio;
+    private ChatStompInterceptor interceptor;
+    private final MessageChannel canal = mock(MessageChannel.class);
+
+
+    @BeforeEach
+    public void configurar() {
+        jwtFilter = mock(JWTFilter.class);
+        chatTiempoRealServicio = mock(ChatTiempoRealServicio.class);
+        interceptor = new ChatStompInterceptor(jwtFilter, chatTiempoRealServicio);
+    }
+
+
+    @Test
+    public void connectSinTokenSeRechaza() {
+        StompHeaderAccessor accessor = trama(StompCommand.CONNECT);
+
+        assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(mensaje(accessor), canal));
+        verifyNoInteractions(jwtFilter);
+    }
+
+
+    @Test
+    public void connectConTokenInvalidoSeRechaza() {
+        StompHeaderAccessor accessor = trama(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer vencido");
+        when(jwtFilter.autenticar("vencido")).thenThrow(new JwtException("JWT expired"));
+
+        assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(mensaje(accessor), canal));
+        assertNull(accessor.getUser());
+    }
+
+
+    @Test
+    public void connectConTokenValidoAsociaLaPersonaALaConexion() {
+        StompHeaderAccessor accessor = trama(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer valido");
+        when(jwtFilter.autenticar("valido")).thenReturn(CLIENTE);
+
+        interceptor.preSend(mensaje(accessor), canal);
+
+        assertSame(CLIENTE, accessor.getUser());
+    }
+
+
+    @Test
+    public void subscribeSinConexionAutenticadaSeRechaza() throws Exception {
+        StompHeaderAccessor accessor = suscripcion("/topic/chat/5");
+        accessor.setUser(null);
+
+        assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(mensaje(accessor), canal));
+        verify(chatTiempoRealServicio, never()).suscribirStomp(any(), any(), any(), any());
+    }
+
+
+    @Test
+    public void subscribeAUnDestinoQueNoEsDeChatSeRechaza() throws Exception {
+        StompHeaderAccessor accessor = suscripcion("/topic/chat/5/../../contratos");
+
+        assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(mensaje(accessor), canal));
+        verify(chatTiempoRealServicio, never()).suscribirStomp(any(), any(), any(), any());
+    }
+
+
+    @Test
+    public void subscribeDeQuienNoParticipaSeRechaza() throws Exception {
+        when(chatTiempoRealServicio.suscribirStomp(anyString(), anyString(), any(), anyString()))
+                .thenThrow(new ElementoNoActivadoException(MensajeError.CHAT_SIN_ACCESO));
+
+        MessageDeliveryException e = assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(mensaje(suscripcion("/topic/chat/5")), canal));
+
+        assertEquals(MensajeError.CHAT_SIN_ACCESO, e.getMessage());
+    }
+
+
+    @Test
+    public void subscribeAutorizadoRegistraLaSuscripcionConLaPersonaDeLaConexion() throws Exception {
+        when(chatTiempoRealServicio.suscribirStomp("conexion-1", "sub-0", 5L, "7")).thenReturn(RemitenteChat.CLIENTE);
+
+        interceptor.preSend(mensaje(suscripcion("/topic/chat/5")), canal);
+
+        verify(chatTiempoRealServicio).suscribirStomp("conexion-1", "sub-0", 5L, "7");
+        verify(chatTiempoRealServicio, never()).autorizar(any(), any());
+    }
+
+
+    private StompHeaderAccessor suscripcion(String destino) {
+        StompHeaderAccessor accessor = trama(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destino);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setUser(CLIENTE);
+        return accessor;
+    }
+
+
+    private StompHeaderAccessor trama(StompCommand comando) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(comando);
+        accessor.setSessionId("conexion-1");
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+
+
+    private Message<byte[]> mensaje(StompHeaderAccessor accessor) {
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,134 @@
+package co.edu.uniquindio.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de la caché de tokens verificados del {@link JWTFilter}: un token repetido se verifica
+ * una sola vez y el costo por solicitud baja frente al filtro sin caché.
+ */
+public class JWTFilterRendimientoTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JWTFilterRendimientoTest.class);
+
+    private static final int CALENTAMIENTO = 20_000;
+    private static final int ITERACIONES = 200_000;
+
+    private final JWTUtils jwtUtils = new JWTUtils();
+
+
+    @AfterEach
+    public void limpiarContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+
+    @Test
+    public void tokenRepetidoSeVerificaUnaSolaVez() throws Exception {
+        String token = jwtUtils.generateToken("1", Map.of("rol", "ROLE_CLIENTE"));
+        JWTUtils conCache = spy(jwtUtils);
+        JWTUtils sinCache = spy(jwtUtils);
+        JWTFilter filtroConCache = crearFiltro(true, conCache);
+        JWTFilter filtroSinCache = crearFiltro(false, sinCache);
+        MockHttpServletRequest solicitud = solicitud(token);
+
+        for (int i = 0; i < 100; i++) {
+            ejecutar(filtroConCache, solicitud);
+            ejecutar(filtroSinCache, solicitud);
+        }
+
+        // Con caché la firma se verifica solo en la primera solicitud; sin ella, en todas
+        verify(conCache, times(1)).parseJwt(token);
+        verify(sinCache, times(100)).parseJwt(token);
+    }
+
+
+    @Test
+    public void laCacheReduceElCostoPorSolicitud() throws Exception {
+        String token = jwtUtils.generateToken("1", Map.of("rol", "ROLE_CLIENTE"));
+
+        double sinCache = medir(crearFiltro(false), token);
+        double conCache = medir(crearFiltro(true), token);
+        logger.debug("JWTFilter sin caché: {} ns/solicitud, con caché: {} ns/solicitud",
+                Math.round(sinCache), Math.round(conCache));
+
+        assertTrue(conCache < sinCache);
+    }
+
+
+    @Test
+    public void tokenEnCacheAutenticaIgualQueVerificado() throws Exception {
+        JWTFilter filtro = crearFiltro(true);
+        String token = jwtUtils.generateToken("7", Map.of("rol", "ROLE_CLIENTE"));
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse respuesta = new MockHttpServletResponse();
+            filtro.doFilter(solicitud(token), respuesta, new MockFilterChain());
+
+            assertEquals(200, respuesta.getStatus());
+            assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+            assertEquals("7", SecurityContextHolder.getContext().getAuthentication().getName());
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+
+    private JWTFilter crearFiltro(boolean cacheHabilitada) {
+        return crearFiltro(cacheHabilitada, jwtUtils);
+    }
+
+
+    private JWTFilter crearFiltro(boolean cacheHabilitada, JWTUtils utils) {
+        TokensVerificadosCache cache = new TokensVerificadosCache();
+        ReflectionTestUtils.setField(cache, "habilitado", cacheHabilitada);
+        ReflectionTestUtils.setField(cache, "maximo", 10_000);
+        return new JWTFilter(utils, cache);
+    }
+
+
+    /**
+     * Ejecuta el filtro con el mismo token y devuelve el tiempo promedio por solicitud en nanosegundos.
+     */
+    private double medir(JWTFilter filtro, String token) throws Exception {
+        MockHttpServletRequest solicitud = solicitud(token);
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            ejecutar(filtro, solicitud);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            ejecutar(filtro, solicitud);
+        }
+        return (double) (System.nanoTime() - inicio) / ITERACIONES;
+    }
+
+
+    private void ejecutar(JWTFilter filtro, MockHttpServletRequest solicitud) throws Exception {
+        // El filtro es OncePerRequestFilter: se limpia la marca de ejecución para reutilizar la solicitud
+        solicitud.removeAttribute(filtro.getClass().getName() + ".FILTERED");
+        filtro.doFilter(solicitud, new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+    }
+
+
+    private MockHttpServletRequest solicitud(String token) {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("GET", "/api/cliente/1");
+        solicitud.addHeader("Authorization", "Bearer " + token);
+        return solicitud;
+    }
+}
@@ -0,0 +1,114 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.repository.objects.FacturaRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica contra la base de datos el {@code UPDATE} condicional de {@link FacturaRepo#marcarAvisada}: dos
+ * cobranzas simultáneas registran el aviso de una factura una sola vez, y no se repite hasta que pasa el plazo
+ * de reenvío.
+ * <p>
+ * Usa una factura pendiente existente (se omite si no hay) y al terminar le devuelve su fecha de último aviso.
+ * </p>
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class AvisoFacturaTest {
+
+    private static final int REENVIO_DIAS = 7;
+
+    @Autowired
+    private FacturaRepo facturaRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long idFactura;
+    private Date avisoOriginal;
+
+
+    @BeforeEach
+    public void prepararFactura() {
+        List<Long> pendientes = jdbcTemplate.queryForList(
+                "SELECT id FROM facturas WHERE estado_factura = 'PENDIENTE' ORDER BY id FETCH FIRST 1 ROWS ONLY", Long.class);
+        Assumptions.assumeFalse(pendientes.isEmpty(), "Se necesita una factura pendiente");
+        idFactura = pendientes.get(0);
+        avisoOriginal = jdbcTemplate.queryForObject("SELECT fecha_ultimo_aviso FROM facturas WHERE id = ?",
+                Date.class, idFactura);
+        jdbcTemplate.update("UPDATE facturas SET fecha_ultimo_aviso = NULL WHERE id = ?", idFactura);
+    }
+
+
+    @AfterEach
+    public void restaurarFactura() {
+        if (idFactura != null) {
+            jdbcTemplate.update("UPDATE facturas SET fecha_ultimo_aviso = ? WHERE id = ?", avisoOriginal, idFactura);
+        }
+    }
+
+
+    @Test
+    public void dosCobranzasSimultaneasAvisanUnaSolaVez() throws Exception {
+        LocalDate hoy = LocalDate.now();
+        CyclicBarrier salida = new CyclicBarrier(2);
+        Callable<Integer> cobranza = () -> {
+            salida.await(10, TimeUnit.SECONDS);
+            return marcar(hoy);
+        };
+
+        // La segunda espera el bloqueo de la fila y, tras el commit de la primera, ya no cumple la condición
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            int registrados = 0;
+            for (Future<Integer> resultado : hilos.invokeAll(List.of(cobranza, cobranza), 30, TimeUnit.SECONDS)) {
+                registrados += resultado.get();
+            }
+            assertEquals(1, registrados);
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void elAvisoSeRepiteSoloDespuesDelPlazoDeReenvio() {
+        LocalDate hoy = LocalDate.now();
+
+        assertEquals(1, marcar(hoy));
+        assertEquals(0, marcar(hoy));
+        assertEquals(0, marcar(hoy.plusDays(REENVIO_DIAS - 1)));
+        assertEquals(1, marcar(hoy.plusDays(REENVIO_DIAS)));
+    }
+
+
+    /**
+     * Registra el aviso en su propia transacción, como lo hace cada lote de la cobranza.
+     */
+    private int marcar(LocalDate hoy) {
+        Integer filas = transactionTemplate.execute(status ->
+                facturaRepo.marcarAvisada(idFactura, hoy, hoy.minusDays(REENVIO_DIAS)));
+        return filas == null ? 0 : filas;
+    }
+}
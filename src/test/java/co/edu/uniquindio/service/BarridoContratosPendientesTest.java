@@ -0,0 +1,98 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.dto.objects.contrato.ContactoContratoDto;
+import co.edu.uniquindio.mapper.objects.ContratoMapper;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.EspacioRepo;
+import co.edu.uniquindio.repository.users.AgenteVentasRepo;
+import co.edu.uniquindio.repository.users.ClienteRepo;
+import co.edu.uniquindio.service.objects.Impl.ContratoServicioImpl;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del barrido de contratos pendientes de {@link ContratoServicioImpl}: cancela por lotes, cada uno
+ * en su propia transacción, hasta encontrar un lote vacío.
+ */
+public class BarridoContratosPendientesTest {
+
+    private static final int LOTE = 2;
+
+    private ContratoRepo contratoRepo;
+    private EspacioRepo espacioRepo;
+    private EmailServicio emailServicio;
+    private BloqueoFilasRepo bloqueoFilasRepo;
+    private PlatformTransactionManager transactionManager;
+    private ContratoServicioImpl contratoServicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        contratoRepo = mock(ContratoRepo.class);
+        espacioRepo = mock(EspacioRepo.class);
+        emailServicio = mock(EmailServicio.class);
+        bloqueoFilasRepo = mock(BloqueoFilasRepo.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        contratoServicio = new ContratoServicioImpl(contratoRepo, mock(ContratoMapper.class), mock(ClienteRepo.class),
+                mock(AgenteVentasRepo.class), espacioRepo, mock(ApplicationEventPublisher.class), emailServicio,
+                new TransactionTemplate(transactionManager), bloqueoFilasRepo);
+        ReflectionTestUtils.setField(contratoServicio, "loteBarrido", LOTE);
+
+        when(contratoRepo.listarContactos(anyCollection())).thenAnswer(invocacion -> {
+            Collection<Long> ids = invocacion.getArgument(0);
+            return ids.stream().map(id -> new ContactoContratoDto(id, "cliente" + id + "@storeit.test", "Cliente",
+                    "agente@storeit.test", "Agente", LocalDate.now())).toList();
+        });
+    }
+
+
+    @Test
+    public void cancelaLotePorLoteHastaUnLoteVacio() {
+        // El segundo lote sale corto porque saltó una fila bloqueada; el barrido sigue hasta el vacío
+        when(bloqueoFilasRepo.bloquear(eq(ContratoRepo.PENDIENTES_SIN_FIRMA), eq(LOTE), any(LocalDate.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+
+        contratoServicio.verificarContratosPendientes();
+
+        verify(contratoRepo).cancelarTodos(List.of(1L, 2L));
+        verify(espacioRepo).liberarDeContratos(List.of(1L, 2L));
+        verify(contratoRepo).cancelarTodos(List.of(3L));
+        verify(espacioRepo).liberarDeContratos(List.of(3L));
+        verify(bloqueoFilasRepo, times(3)).bloquear(eq(ContratoRepo.PENDIENTES_SIN_FIRMA), eq(LOTE), any(LocalDate.class));
+
+        // Un correo al cliente y otro al agente por contrato, y una transacción confirmada por lote
+        verify(emailServicio, times(6)).enviarCorreo(any(EmailDto.class));
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+
+    @Test
+    public void sinPendientesNoCancelaNada() {
+        when(bloqueoFilasRepo.bloquear(eq(ContratoRepo.PENDIENTES_SIN_FIRMA), eq(LOTE), any(LocalDate.class)))
+                .thenReturn(List.of());
+
+        contratoServicio.verificarContratosPendientes();
+
+        verify(contratoRepo, never()).cancelarTodos(any());
+        verify(emailServicio, never()).enviarCorreo(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+}
@@ -0,0 +1,96 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica contra la base de datos que el barrido de pendientes salta, sin esperar, un contrato que
+ * {@code firmarContratoPorCliente} tiene bloqueado con {@link ContratoRepo#bloquearPorId}.
+ * <p>
+ * Las dos transacciones se revierten: usa los contratos pendientes existentes y se omite si no los hay.
+ * </p>
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class BloqueoContratoFirmaTest {
+
+    @Autowired
+    private ContratoRepo contratoRepo;
+
+    @Autowired
+    private BloqueoFilasRepo bloqueoFilasRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+
+    @Test
+    public void elBarridoSaltaElContratoQueSeEstaFirmando() throws Exception {
+        @SuppressWarnings("unchecked")
+        List<Number> pendientes = entityManager.createNativeQuery("""
+                        SELECT id FROM contratos
+                        WHERE estado = 'PENDIENTE_VERIFICACION' AND firma_cliente IS NULL
+                        ORDER BY fecha_inicio, id
+                        """)
+                .setMaxResults(2).getResultList();
+        Assumptions.assumeFalse(pendientes.isEmpty(), "Se necesita un contrato pendiente sin firma");
+        Long idFirmado = pendientes.get(0).longValue();
+        // Con este límite todos los pendientes sin firma entran en el barrido
+        LocalDate limite = LocalDate.now().plusYears(100);
+
+        CountDownLatch bloqueado = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        ExecutorService firma = Executors.newSingleThreadExecutor();
+        try {
+            // La firma del cliente toma el bloqueo de la fila y lo mantiene hasta que el barrido termina
+            Future<?> firmando = firma.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                contratoRepo.bloquearPorId(idFirmado).orElseThrow();
+                bloqueado.countDown();
+                try {
+                    terminar.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                status.setRollbackOnly();
+            }));
+            assertTrue(bloqueado.await(10, TimeUnit.SECONDS), "La firma no tomó el bloqueo");
+
+            List<Long> lote = assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    transactionTemplate.execute(status -> {
+                        status.setRollbackOnly();
+                        return bloqueoFilasRepo.bloquear(ContratoRepo.PENDIENTES_SIN_FIRMA, 1000, limite);
+                    }), "El barrido esperó el bloqueo de la firma");
+
+            assertFalse(lote.contains(idFirmado));
+            if (pendientes.size() > 1) {
+                assertFalse(lote.isEmpty(), "El barrido debe tomar los demás pendientes");
+            }
+
+            terminar.countDown();
+            firmando.get(10, TimeUnit.SECONDS);
+        } finally {
+            terminar.countDown();
+            firma.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.common.chat.EventoChatDto;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ParticipantesChatDto;
+import co.edu.uniquindio.exception.ElementoNoActivadoException;
+import co.edu.uniquindio.model.common.enums.EstadoChat;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.model.common.enums.TipoEventoChat;
+import co.edu.uniquindio.repository.common.ChatSessionRepo;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import co.edu.uniquindio.service.common.impl.ChatTiempoRealServicioImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de la presencia y las suscripciones STOMP de {@link ChatTiempoRealServicioImpl},
+ * con el repositorio y el broker simulados.
+ */
+public class ChatTiempoRealTest {
+
+    private static final Long ID_CHAT = 5L;
+    private static final String DESTINO = ChatTiempoRealServicio.DESTINO + ID_CHAT;
+
+    private ChatSessionRepo chatSessionRepo;
+    private SimpMessagingTemplate mensajeria;
+    private ThreadPoolTaskExecutor chatExecutor;
+    private SimpleMeterRegistry registry;
+    private ChatTiempoRealServicioImpl tiempoReal;
+
+
+    @BeforeEach
+    public void configurar() {
+        chatSessionRepo = mock(ChatSessionRepo.class);
+        mensajeria = mock(SimpMessagingTemplate.class);
+        chatExecutor = new ThreadPoolTaskExecutor();
+        chatExecutor.setCorePoolSize(1);
+        chatExecutor.initialize();
+        registry = new SimpleMeterRegistry();
+        tiempoReal = new ChatTiempoRealServicioImpl(chatSessionRepo, mensajeria, chatExecutor, registry);
+        ReflectionTestUtils.setField(tiempoReal, "inactividadMs", 1_800_000L);
+        ReflectionTestUtils.setField(tiempoReal, "escribiendoMs", 2000L);
+
+        when(chatSessionRepo.buscarParticipantes(ID_CHAT))
+                .thenReturn(Optional.of(new ParticipantesChatDto(ID_CHAT, 7L, 9L, EstadoChat.ACTIVO)));
+    }
+
+
+    @AfterEach
+    public void cerrar() {
+        chatExecutor.shutdown();
+    }
+
+
+    @Test
+    public void suscribirsePublicaLaPresenciaDelParticipante() throws Exception {
+        assertEquals(RemitenteChat.CLIENTE, tiempoReal.suscribirStomp("conexion-1", "sub-0", ID_CHAT, "7"));
+        assertEquals(RemitenteChat.AGENTE, tiempoReal.suscribirStomp("conexion-2", "sub-0", ID_CHAT, "9"));
+
+        verify(mensajeria).convertAndSend(eq(DESTINO), evento(TipoEventoChat.CONECTADO, RemitenteChat.CLIENTE));
+        verify(mensajeria).convertAndSend(eq(DESTINO), evento(TipoEventoChat.CONECTADO, RemitenteChat.AGENTE));
+        // Los participantes se leen una sola vez por sesión y nodo
+        verify(chatSessionRepo, times(1)).buscarParticipantes(ID_CHAT);
+    }
+
+
+    @Test
+    public void quienNoParticipaNoQuedaSuscrito() {
+        ElementoNoActivadoException e = assertThrows(ElementoNoActivadoException.class,
+                () -> tiempoReal.suscribirStomp("conexion-1", "sub-0", ID_CHAT, "8"));
+
+        assertEquals(MensajeError.CHAT_SIN_ACCESO, e.getMessage());
+        verify(mensajeria, never()).convertAndSend(any(String.class), any(Object.class));
+        assertEquals(0, registry.get("storeit.chat.suscripciones").tag("canal", "stomp").gauge().value());
+    }
+
+
+    @Test
+    public void alCerrarseLaConexionSePublicaLaDesconexion() throws Exception {
+        tiempoReal.suscribirStomp("conexion-1", "sub-0", ID_CHAT, "7");
+        tiempoReal.suscribirStomp("conexion-2", "sub-0", ID_CHAT, "9");
+
+        tiempoReal.conexionCerrada(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), "conexion-2", CloseStatus.NORMAL));
+
+        verify(mensajeria).convertAndSend(eq(DESTINO), evento(TipoEventoChat.DESCONECTADO, RemitenteChat.AGENTE));
+        assertEquals(1, registry.get("storeit.chat.suscripciones").tag("canal", "stomp").gauge().value());
+
+        // El cliente sigue suscrito y recibe los mensajes
+        tiempoReal.publicarMensaje(new MensajeChatResumenDto(1L, ID_CHAT, RemitenteChat.CLIENTE, "hola",
+                LocalDateTime.now()));
+        verify(mensajeria).convertAndSend(eq(DESTINO), evento(TipoEventoChat.MENSAJE, RemitenteChat.CLIENTE));
+    }
+
+
+    @Test
+    public void unCanalSinSuscripcionesSeEliminaEnElBarrido() throws Exception {
+        tiempoReal.suscribirStomp("conexion-1", "sub-0", ID_CHAT, "7");
+        tiempoReal.canceladoStomp("conexion-1", "sub-0");
+        ReflectionTestUtils.setField(tiempoReal, "inactividadMs", -60_000L);
+
+        tiempoReal.mantenerConexiones();
+
+        assertEquals(0, registry.get("storeit.chat.canales").gauge().value());
+    }
+
+
+    @Test
+    public void elBarridoNoDejaSuscripcionesEnCanalesEliminados() throws Exception {
+        // Todo canal cuenta como inactivo: el barrido elimina el canal cada vez que no tiene suscripciones
+        ReflectionTestUtils.setField(tiempoReal, "inactividadMs", -60_000L);
+        AtomicBoolean suscribiendo = new AtomicBoolean(true);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(5);
+        try {
+            Future<?> barrido = hilos.submit(() -> {
+                while (suscribiendo.get()) tiempoReal.mantenerConexiones();
+            });
+            List<Future<?>> altas = new ArrayList<>();
+            for (int h = 0; h < 4; h++) {
+                int hilo = h;
+                altas.add(hilos.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String conexion = "conexion-" + hilo + "-" + i;
+                        tiempoReal.suscribirStomp(conexion, "sub-0", ID_CHAT, "7");
+                        tiempoReal.canceladoStomp(conexion, "sub-0");
+                    }
+                    tiempoReal.suscribirStomp("final-" + hilo, "sub-0", ID_CHAT, "7");
+                    return null;
+                }));
+            }
+            for (Future<?> alta : altas) alta.get();
+            suscribiendo.set(false);
+            barrido.get();
+        } finally {
+            hilos.shutdown();
+        }
+
+        // Las cuatro suscripciones finales quedaron en el canal registrado, que por eso sobrevive al barrido
+        tiempoReal.mantenerConexiones();
+        assertEquals(1, registry.get("storeit.chat.canales").gauge().value());
+        for (int h = 0; h < 4; h++) tiempoReal.canceladoStomp("final-" + h, "sub-0");
+        tiempoReal.mantenerConexiones();
+        assertEquals(0, registry.get("storeit.chat.canales").gauge().value());
+    }
+
+
+    private static EventoChatDto evento(TipoEventoChat tipo, RemitenteChat remitente) {
+        return argThat(evento -> evento != null && evento.tipo() == tipo && evento.remitente() == remitente);
+    }
+}
@@ -0,0 +1,143 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.objects.factura.AvisoFacturaVencidaDto;
+import co.edu.uniquindio.dto.objects.factura.ResumenCobranzaDto;
+import co.edu.uniquindio.exception.CargaFallidaException;
+import co.edu.uniquindio.model.objects.enums.EstadoFactura;
+import co.edu.uniquindio.repository.objects.FacturaRepo;
+import co.edu.uniquindio.repository.objects.ResumenDeudaClienteRepo;
+import co.edu.uniquindio.service.objects.Impl.CobranzaServicioImpl;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import co.edu.uniquindio.service.utils.PdfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de {@link CobranzaServicioImpl} con los repositorios simulados: el aviso condicional (una factura
+ * se avisa una sola vez por día aunque la cobranza corra dos veces), los PDF que fallan y el recálculo del
+ * resumen de deuda. El {@code UPDATE} condicional se prueba contra la base de datos en {@link AvisoFacturaTest}.
+ */
+public class CobranzaTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 4, 10);
+    private static final int REENVIO_DIAS = 7;
+
+    private FacturaRepo facturaRepo;
+    private ResumenDeudaClienteRepo resumenDeudaClienteRepo;
+    private PdfService pdfService;
+    private EmailServicio emailServicio;
+    private PlatformTransactionManager transactionManager;
+    private ThreadPoolTaskExecutor executor;
+
+    // Fecha del último aviso de cada factura, como la columna fecha_ultimo_aviso
+    private final Map<Long, LocalDate> ultimoAviso = new ConcurrentHashMap<>();
+
+
+    @BeforeEach
+    public void configurar() {
+        facturaRepo = mock(FacturaRepo.class);
+        resumenDeudaClienteRepo = mock(ResumenDeudaClienteRepo.class);
+        pdfService = mock(PdfService.class);
+        emailServicio = mock(EmailServicio.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.initialize();
+
+        List<AvisoFacturaVencidaDto> vencidas = List.of(factura(1L), factura(2L), factura(3L));
+        when(facturaRepo.listarVencidasPorAvisar(eq(EstadoFactura.PENDIENTE), eq(HOY), any(), eq(0L), any(Pageable.class)))
+                .thenReturn(vencidas);
+        when(pdfService.generarAvisoFacturaVencidaPdf(any())).thenReturn(new byte[]{1});
+
+        // UPDATE condicional: solo registra el aviso si nadie la avisó después del límite de reenvío
+        when(facturaRepo.marcarAvisada(anyLong(), eq(HOY), any())).thenAnswer(invocacion -> {
+            Long id = invocacion.getArgument(0);
+            LocalDate limiteReaviso = invocacion.getArgument(2);
+            boolean[] registrado = {false};
+            ultimoAviso.compute(id, (clave, anterior) -> {
+                if (anterior != null && anterior.isAfter(limiteReaviso)) return anterior;
+                registrado[0] = true;
+                return HOY;
+            });
+            return registrado[0] ? 1 : 0;
+        });
+    }
+
+
+    @AfterEach
+    public void cerrar() {
+        executor.shutdown();
+    }
+
+
+    @Test
+    public void unaSegundaEjecucionElMismoDiaNoRepiteLosAvisos() {
+        CobranzaServicioImpl cobranza = crearServicio();
+
+        assertEquals(3, cobranza.procesarCobranza(HOY).avisos());
+        assertEquals(0, cobranza.procesarCobranza(HOY).avisos());
+
+        verify(emailServicio, times(3)).enviarCorreoConPdf(any(), any());
+    }
+
+
+    @Test
+    public void unPdfQueFallaNoMarcaLaFacturaYSeReintenta() {
+        when(pdfService.generarAvisoFacturaVencidaPdf(argThat(factura -> factura != null && factura.idFactura() == 2L)))
+                .thenThrow(new CargaFallidaException("plantilla inválida"));
+
+        ResumenCobranzaDto resumen = crearServicio().procesarCobranza(HOY);
+
+        assertEquals(2, resumen.avisos());
+        assertEquals(1, resumen.fallidos());
+        verify(facturaRepo, never()).marcarAvisada(eq(2L), any(), any());
+        assertFalse(ultimoAviso.containsKey(2L)); // Sin marcar: la próxima ejecución la vuelve a intentar
+    }
+
+
+    @Test
+    public void elResumenSeDepuraYRecalculaEnUnaTransaccion() {
+        when(resumenDeudaClienteRepo.recalcular(eq(HOY), any())).thenReturn(2);
+
+        ResumenCobranzaDto resumen = crearServicio().procesarCobranza(HOY);
+
+        assertEquals(2, resumen.clientesConDeuda());
+        InOrder orden = inOrder(transactionManager, resumenDeudaClienteRepo);
+        orden.verify(transactionManager).getTransaction(any());
+        orden.verify(resumenDeudaClienteRepo).eliminarSinDeuda(HOY);
+        orden.verify(resumenDeudaClienteRepo).recalcular(eq(HOY), any());
+        orden.verify(transactionManager).commit(any());
+    }
+
+
+    private CobranzaServicioImpl crearServicio() {
+        CobranzaServicioImpl cobranza = new CobranzaServicioImpl(facturaRepo, resumenDeudaClienteRepo, pdfService,
+                emailServicio, executor, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cobranza, "lote", 50);
+        ReflectionTestUtils.setField(cobranza, "reenvioDias", REENVIO_DIAS);
+        return cobranza;
+    }
+
+
+    private AvisoFacturaVencidaDto factura(Long id) {
+        return new AvisoFacturaVencidaDto(id, "2026-02", "Cliente " + id, "cliente" + id + "@storeit.test",
+                new BigDecimal("416500.00"), LocalDate.of(2026, 3, 1));
+    }
+}
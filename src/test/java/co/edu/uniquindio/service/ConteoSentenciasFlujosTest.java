@@ -0,0 +1,167 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.dto.objects.producto.CrearProductoDto;
+import co.edu.uniquindio.dto.users.personalBodega.TrasladoPersonalBodegaDto;
+import co.edu.uniquindio.model.objects.Bodega;
+import co.edu.uniquindio.model.objects.Contrato;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.objects.enums.TipoProducto;
+import co.edu.uniquindio.model.users.PersonalBodega;
+import co.edu.uniquindio.service.objects.ContratoServicio;
+import co.edu.uniquindio.service.objects.ProductoServicio;
+import co.edu.uniquindio.service.users.RecursosHumanosServicio;
+import co.edu.uniquindio.utils.ConteoSentenciasInspector;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuenta, con el {@link ConteoSentenciasInspector}, las sentencias SQL de los flujos principales que se
+ * llevaron a una sola unidad de trabajo: ninguno debe cargar colecciones del lado inverso ni guardar
+ * entidades ya administradas.
+ * <p>
+ * Las entidades que el flujo busca por ID se cargan antes de reiniciar el contador, de modo que se mide
+ * solo lo que el flujo agrega. Cada prueba se revierte al terminar: usa los datos existentes en la base
+ * de datos y se omite si no los hay.
+ * </p>
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class ConteoSentenciasFlujosTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConteoSentenciasFlujosTest.class);
+
+    @Autowired
+    private ContratoServicio contratoServicio;
+
+    @Autowired
+    private ProductoServicio productoServicio;
+
+    @Autowired
+    private RecursosHumanosServicio recursosHumanosServicio;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+
+    @Test
+    public void firmaDelAgenteEsUnSoloUpdate() {
+        List<Long> contratos = entityManager.createQuery(
+                        "SELECT c.id FROM Contrato c WHERE c.estadoContrato = :estado", Long.class)
+                .setParameter("estado", EstadoContrato.VERIFICADO_POR_CLIENTE)
+                .setMaxResults(1).getResultList();
+        Assumptions.assumeFalse(contratos.isEmpty(), "Se necesita un contrato firmado por el cliente");
+
+        int sentencias = medir(() -> {
+            Contrato contrato = entityManager.find(Contrato.class, contratos.get(0));
+            ConteoSentenciasInspector.reiniciar();
+
+            contratoServicio.firmarContratoPorAgente(contrato.getId(),
+                    new MockMultipartFile("firma", "firma.png", "image/png", new byte[]{1, 2, 3}));
+
+            assertFalse(Hibernate.isInitialized(contrato.getCliente().getContratos()),
+                    "La firma no debe cargar los contratos del cliente");
+        });
+
+        // Solo el UPDATE del contrato; los correos se encolan al confirmar y esta prueba se revierte
+        assertEquals(1, sentencias);
+    }
+
+
+    @Test
+    public void trasladoDePersonalNoCargaElPersonalDeLasBodegas() {
+        List<Object[]> candidatos = entityManager.createQuery("""
+                        SELECT p.id, b.id FROM PersonalBodega p, Bodega b WHERE p.bodega.id <> b.id
+                        """, Object[].class)
+                .setMaxResults(1).getResultList();
+        Assumptions.assumeFalse(candidatos.isEmpty(), "Se necesita un personal de bodega y otra bodega");
+        Long idPersonal = (Long) candidatos.get(0)[0];
+        Long idBodega = (Long) candidatos.get(0)[1];
+
+        int sentencias = medir(() -> {
+            PersonalBodega personal = entityManager.find(PersonalBodega.class, idPersonal);
+            Bodega anterior = personal.getBodega();
+            Bodega nueva = entityManager.find(Bodega.class, idBodega);
+            ConteoSentenciasInspector.reiniciar();
+
+            recursosHumanosServicio.trasladoBodegaPersonal(new TrasladoPersonalBodegaDto(idPersonal, idBodega));
+
+            assertFalse(Hibernate.isInitialized(anterior.getPersonalBodega()));
+            assertFalse(Hibernate.isInitialized(nueva.getPersonalBodega()));
+        });
+
+        // UPDATE del personal e INSERT del correo, más la secuencia de la bandeja si se agotó su bloque
+        assertTrue(sentencias >= 2 && sentencias <= 3, "Se prepararon " + sentencias + " sentencias");
+    }
+
+
+    @Test
+    public void creacionDeProductoEsUnaPersistenciaEnCascada() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> candidatos = entityManager.createNativeQuery("""
+                        SELECT c.id, e.id, p.id FROM contratos c
+                        JOIN espacios e ON e.id = c.espacio_id
+                        JOIN personal_bodega p ON p.bodega_id = e.bodega_id
+                        WHERE e.area_disponible - e.area_ocupada >= 0.01
+                        """)
+                .setMaxResults(1).getResultList();
+        Assumptions.assumeFalse(candidatos.isEmpty(), "Se necesita un contrato con área libre y personal en su bodega");
+        Long idContrato = ((Number) candidatos.get(0)[0]).longValue();
+        Long idEspacio = ((Number) candidatos.get(0)[1]).longValue();
+        Long idPersonal = ((Number) candidatos.get(0)[2]).longValue();
+
+        int sentencias = medir(() -> {
+            Contrato contrato = entityManager.find(Contrato.class, idContrato);
+            entityManager.find(PersonalBodega.class, idPersonal);
+            ConteoSentenciasInspector.reiniciar();
+
+            productoServicio.crearProducto(new CrearProductoDto("Caja de prueba", "Conteo de sentencias", 0.01, 0.1,
+                    TipoProducto.NO_FRAGIL, idEspacio, contrato.getCliente().getUser().getEmail(), idPersonal));
+        });
+
+        // Consultas del cliente y del contrato, reserva de área, INSERT de producto, movimiento y correo,
+        // y como mucho una llamada a cada secuencia
+        assertTrue(sentencias >= 6 && sentencias <= 9, "Se prepararon " + sentencias + " sentencias");
+    }
+
+
+    /**
+     * Ejecuta el flujo en una transacción que se revierte, forzando el flush antes de leer el contador.
+     *
+     * @return sentencias preparadas desde el último reinicio del contador.
+     */
+    private int medir(Flujo flujo) {
+        return transactionTemplate.execute(status -> {
+            try {
+                flujo.ejecutar();
+                entityManager.flush();
+                return ConteoSentenciasInspector.obtenerConteo();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                status.setRollbackOnly();
+                logger.debug("{} sentencias SQL", ConteoSentenciasInspector.obtenerConteo());
+            }
+        });
+    }
+
+
+    @FunctionalInterface
+    private interface Flujo {
+        void ejecutar() throws Exception;
+    }
+}
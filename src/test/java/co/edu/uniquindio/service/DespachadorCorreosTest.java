@@ -0,0 +1,90 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import co.edu.uniquindio.service.utils.impl.DespachadorCorreos;
+import co.edu.uniquindio.utils.ServidorSmtpPrueba;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Envía correos de la bandeja de salida contra un servidor SMTP local en memoria y verifica
+ * que todos lleguen reutilizando unas pocas conexiones en lugar de abrir una por correo.
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class DespachadorCorreosTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DespachadorCorreosTest.class);
+    private static final int CORREOS = 20;
+    private static final int CONCURRENCIA = 4;
+
+    private static final ServidorSmtpPrueba SERVIDOR;
+
+    static {
+        try {
+            SERVIDOR = new ServidorSmtpPrueba();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void configurarSmtp(DynamicPropertyRegistry registry) {
+        registry.add("smtp.host", () -> "localhost");
+        registry.add("smtp.port", SERVIDOR::puerto);
+        registry.add("store-it.correo.transporte", () -> "SMTP");
+        registry.add("store-it.correo.concurrencia", () -> CONCURRENCIA);
+    }
+
+    @Autowired
+    private EmailServicio emailServicio;
+
+    @Autowired
+    private DespachadorCorreos despachadorCorreos;
+
+
+    @AfterAll
+    public static void detenerServidor() throws IOException {
+        SERVIDOR.close();
+    }
+
+
+    @Test
+    public void drenaLaBandejaReutilizandoConexiones() throws Exception {
+        String marca = UUID.randomUUID().toString();
+        for (int i = 0; i < CORREOS; i++) {
+            emailServicio.enviarCorreo(new EmailDto("cliente" + i + "@prueba.com", "Prueba " + marca, "Correo " + i));
+        }
+
+        long inicio = System.currentTimeMillis();
+        while (recibidos(marca) < CORREOS && System.currentTimeMillis() - inicio < 30_000) {
+            despachadorCorreos.despachar();
+        }
+        long duracion = System.currentTimeMillis() - inicio;
+
+        logger.debug("{} correos entregados en {} ms usando {} conexiones SMTP",
+                recibidos(marca), duracion, SERVIDOR.conexiones());
+
+        assertEquals(CORREOS, recibidos(marca));
+        assertTrue(SERVIDOR.conexiones() <= CONCURRENCIA + 1,
+                "Los envíos deben reutilizar las conexiones del pool");
+    }
+
+
+    private long recibidos(String marca) {
+        return SERVIDOR.mensajes().stream().filter(m -> m.contains(marca)).count();
+    }
+}
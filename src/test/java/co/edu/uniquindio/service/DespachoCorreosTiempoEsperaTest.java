@@ -0,0 +1,109 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.model.common.CorreoSaliente;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.common.CorreoSalienteRepo;
+import co.edu.uniquindio.service.utils.impl.DespachadorCorreos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.simplejavamail.api.mailer.Mailer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del {@link DespachadorCorreos} cuando un envío supera el tiempo de espera,
+ * con el repositorio y el {@link Mailer} simulados.
+ */
+public class DespachoCorreosTiempoEsperaTest {
+
+    private CorreoSalienteRepo correoSalienteRepo;
+    private Mailer mailer;
+    private DespachadorCorreos despachador;
+
+
+    @BeforeEach
+    public void configurar() {
+        correoSalienteRepo = mock(CorreoSalienteRepo.class);
+        BloqueoFilasRepo bloqueoFilasRepo = mock(BloqueoFilasRepo.class);
+        mailer = mock(Mailer.class);
+        despachador = new DespachadorCorreos(correoSalienteRepo, bloqueoFilasRepo, mailer,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(despachador, "remitente", "storeit@prueba.com");
+        ReflectionTestUtils.setField(despachador, "tamanoLote", 50);
+        ReflectionTestUtils.setField(despachador, "maxIntentos", 6);
+        ReflectionTestUtils.setField(despachador, "esperaBaseMs", 30_000L);
+        ReflectionTestUtils.setField(despachador, "timeoutMs", 20L);
+
+        CorreoSaliente correo = new CorreoSaliente();
+        correo.setId(1L);
+        correo.setDestinatario("cliente@prueba.com");
+        correo.setAsunto("Prueba");
+        correo.setCuerpo("Correo de prueba");
+        when(bloqueoFilasRepo.bloquear(eq(CorreoSalienteRepo.LISTOS_PARA_ENVIO), eq(50), any()))
+                .thenReturn(List.of(1L));
+        when(correoSalienteRepo.findAllById(List.of(1L))).thenReturn(List.of(correo));
+    }
+
+
+    @Test
+    public void unEnvioLentoNoSeReprogramaMientrasSigueEnCurso() {
+        CompletableFuture<Void> envio = new CompletableFuture<>();
+        when(mailer.sendMail(any(), eq(true))).thenReturn(envio);
+
+        despachador.despachar();
+
+        // Superó el tiempo de espera, pero el servidor aún puede aceptarlo: no se reintenta ni se marca
+        verify(correoSalienteRepo, never()).registrarFallo(anyLong(), any(), anyString(), anyInt(), any(), any());
+        verify(correoSalienteRepo, never()).marcarEnviados(anyList(), any(), any());
+
+        envio.complete(null);
+
+        // Se marca con la hora del reclamo que lo envió
+        LocalDateTime reclamo = reclamo();
+        verify(correoSalienteRepo).marcarEnviados(eq(List.of(1L)), eq(reclamo), any(LocalDateTime.class));
+        verify(correoSalienteRepo, never()).registrarFallo(anyLong(), any(), anyString(), anyInt(), any(), any());
+    }
+
+
+    @Test
+    public void unEnvioLentoQueFallaSeReprogramaAlTerminar() {
+        CompletableFuture<Void> envio = new CompletableFuture<>();
+        when(mailer.sendMail(any(), eq(true))).thenReturn(envio);
+
+        despachador.despachar();
+        envio.completeExceptionally(new IllegalStateException("Conexión SMTP cerrada"));
+
+        verify(correoSalienteRepo).registrarFallo(eq(1L), eq(reclamo()), eq("PENDIENTE"), eq(1),
+                any(LocalDateTime.class), eq("Conexión SMTP cerrada"));
+        verify(correoSalienteRepo, never()).marcarEnviados(anyList(), any(), any());
+    }
+
+
+    @Test
+    public void liberarAbandonadosCuentaElIntento() {
+        when(correoSalienteRepo.liberarAbandonados(any(), anyInt())).thenReturn(1);
+
+        despachador.liberarAbandonados();
+
+        verify(correoSalienteRepo).liberarAbandonados(any(LocalDateTime.class), eq(6));
+    }
+
+
+    /**
+     * Hora con la que el último ciclo reclamó el lote.
+     */
+    private LocalDateTime reclamo() {
+        ArgumentCaptor<LocalDateTime> reclamo = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(correoSalienteRepo).marcarEnviando(eq(List.of(1L)), reclamo.capture());
+        return reclamo.getValue();
+    }
+}
@@ -0,0 +1,134 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.users.common.IdentidadDto;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.base.enums.EstadoCuenta;
+import co.edu.uniquindio.model.users.enums.RolPersona;
+import co.edu.uniquindio.model.users.enums.TipoEmail;
+import co.edu.uniquindio.repository.users.IdentidadDirectorioRepo;
+import co.edu.uniquindio.service.common.impl.DirectorioIdentidadServicioImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de la caché del {@link DirectorioIdentidadServicioImpl}, con el repositorio y JDBC simulados.
+ */
+public class DirectorioIdentidadCacheTest {
+
+    private static final String EMAIL = "ana@storeit.test";
+    private static final IdentidadDto IDENTIDAD = new IdentidadDto(EMAIL, TipoEmail.PERSONAL, RolPersona.CLIENTE,
+            1L, EstadoCuenta.ACTIVO);
+
+    private IdentidadDirectorioRepo identidadDirectorioRepo;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private DirectorioIdentidadServicioImpl directorio;
+
+
+    @BeforeEach
+    public void configurar() {
+        identidadDirectorioRepo = mock(IdentidadDirectorioRepo.class);
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        directorio = new DirectorioIdentidadServicioImpl(identidadDirectorioRepo, jdbcTemplate,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(directorio, "cacheHabilitado", true);
+        ReflectionTestUtils.setField(directorio, "cacheMaximo", 100);
+        ReflectionTestUtils.setField(directorio, "cacheTtl", Duration.ofMinutes(1));
+
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+                .thenReturn(List.of(EMAIL));
+    }
+
+
+    @Test
+    public void unEmailRegistradoSeConsultaUnaSolaVez() {
+        when(identidadDirectorioRepo.buscarPorEmail(EMAIL)).thenReturn(List.of(IDENTIDAD));
+
+        assertEquals(List.of(IDENTIDAD), directorio.buscar(EMAIL));
+        assertEquals(List.of(IDENTIDAD), directorio.buscar(EMAIL));
+
+        verify(identidadDirectorioRepo, times(1)).buscarPorEmail(EMAIL);
+    }
+
+
+    @Test
+    public void unEmailNoRegistradoNoQuedaEnCache() {
+        when(identidadDirectorioRepo.buscarPorEmail(EMAIL)).thenReturn(List.of(), List.of(IDENTIDAD));
+
+        assertTrue(directorio.buscar(EMAIL).isEmpty());
+        // Registrado después (por ejemplo, en otro nodo): se ve sin esperar a que venza nada
+        assertEquals(List.of(IDENTIDAD), directorio.buscar(EMAIL));
+    }
+
+
+    @Test
+    public void lasEntradasVencen() {
+        ReflectionTestUtils.setField(directorio, "cacheTtl", Duration.ZERO);
+        when(identidadDirectorioRepo.buscarPorEmail(EMAIL)).thenReturn(List.of(IDENTIDAD));
+
+        directorio.buscar(EMAIL);
+        directorio.buscar(EMAIL);
+
+        verify(identidadDirectorioRepo, times(2)).buscarPorEmail(EMAIL);
+    }
+
+
+    @Test
+    public void unaEscrituraDuranteLaConsultaImpideGuardarElValorLeido() {
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        // La persona se elimina mientras la primera búsqueda está consultando la base de datos
+        when(identidadDirectorioRepo.buscarPorEmail(EMAIL))
+                .thenAnswer(invocacion -> {
+                    directorio.eliminar(cliente);
+                    return List.of(IDENTIDAD);
+                })
+                .thenReturn(List.of());
+
+        assertEquals(List.of(IDENTIDAD), directorio.buscar(EMAIL));
+        assertTrue(directorio.buscar(EMAIL).isEmpty());
+
+        verify(identidadDirectorioRepo, times(2)).buscarPorEmail(EMAIL);
+    }
+
+
+    @Test
+    public void unaEscrituraInvalidaLaEntradaEnCache() {
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        when(identidadDirectorioRepo.buscarPorEmail(EMAIL)).thenReturn(List.of(IDENTIDAD), List.of());
+
+        directorio.buscar(EMAIL);
+        directorio.eliminar(cliente);
+
+        assertTrue(directorio.buscar(EMAIL).isEmpty());
+    }
+
+
+    @Test
+    public void unaReconstruccionFallidaNoDetieneElArranque() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbcTemplate.getJdbcTemplate()).thenReturn(jdbc);
+        when(jdbc.queryForObject(anyString(), eq(Integer.class))).thenReturn(0);
+        when(jdbc.update(startsWith("DELETE"))).thenReturn(10);
+        when(jdbc.update(contains("INSERT"))).thenThrow(new DuplicateKeyException("uk_directorio_email_tipo_rol"));
+
+        assertDoesNotThrow(directorio::reconstruccionInicial);
+        verify(transactionManager).rollback(any());
+    }
+}
@@ -0,0 +1,127 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.model.users.AgenteVentas;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.base.User;
+import co.edu.uniquindio.model.users.base.enums.EstadoCuenta;
+import co.edu.uniquindio.model.users.common.DatosLaborales;
+import co.edu.uniquindio.service.common.DirectorioIdentidadServicio;
+import co.edu.uniquindio.service.common.impl.DirectorioIdentidadListener;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del {@link DirectorioIdentidadListener}: una actualización solo sincroniza el directorio si cambió
+ * un email o el estado de la cuenta.
+ */
+public class DirectorioIdentidadListenerTest {
+
+    private static final String[] PROPIEDADES = {"nombre", "user", "datosLaborales"};
+
+    private DirectorioIdentidadServicio directorio;
+    private EntityPersister persister;
+    private DirectorioIdentidadListener listener;
+
+
+    @BeforeEach
+    public void configurar() {
+        directorio = mock(DirectorioIdentidadServicio.class);
+        persister = mock(EntityPersister.class);
+        when(persister.getPropertyNames()).thenReturn(PROPIEDADES);
+        listener = new DirectorioIdentidadListener(directorio, mock(EntityManagerFactory.class));
+    }
+
+
+    @Test
+    public void cambiarElNombreNoTocaElDirectorio() {
+        Cliente cliente = cliente();
+        User user = usuario("ana@storeit.test", EstadoCuenta.ACTIVO);
+
+        listener.onPostUpdate(actualizacion(cliente, new Object[]{"Ana", user, null},
+                new Object[]{"Ana María", user, null}, 0));
+
+        verify(directorio, never()).sincronizar(any());
+    }
+
+
+    @Test
+    public void cambiarLaContrasenaNoTocaElDirectorio() {
+        User antes = usuario("ana@storeit.test", EstadoCuenta.ACTIVO);
+        User despues = usuario("ana@storeit.test", EstadoCuenta.ACTIVO);
+        despues.setPassword("otra");
+
+        listener.onPostUpdate(actualizacion(cliente(), new Object[]{"Ana", antes, null},
+                new Object[]{"Ana", despues, null}, 1));
+
+        verify(directorio, never()).sincronizar(any());
+    }
+
+
+    @Test
+    public void cambiarElEmailOElEstadoSincroniza() {
+        Cliente cliente = cliente();
+        User antes = usuario("ana@storeit.test", EstadoCuenta.ACTIVO);
+
+        listener.onPostUpdate(actualizacion(cliente, new Object[]{"Ana", antes, null},
+                new Object[]{"Ana", usuario("ana.maria@storeit.test", EstadoCuenta.ACTIVO), null}, 1));
+        listener.onPostUpdate(actualizacion(cliente, new Object[]{"Ana", antes, null},
+                new Object[]{"Ana", usuario("ana@storeit.test", EstadoCuenta.ELIMINADO), null}, 1));
+
+        verify(directorio, times(2)).sincronizar(cliente);
+    }
+
+
+    @Test
+    public void cambiarElEmailEmpresarialSincroniza() {
+        AgenteVentas agente = new AgenteVentas();
+        agente.setId(2L);
+        User user = usuario("luis@storeit.test", EstadoCuenta.ACTIVO);
+        DatosLaborales antes = new DatosLaborales();
+        antes.setEmailEmpresarial("luis@empresa.test");
+        DatosLaborales despues = new DatosLaborales();
+        despues.setEmailEmpresarial("luis.perez@empresa.test");
+
+        listener.onPostUpdate(actualizacion(agente, new Object[]{"Luis", user, antes},
+                new Object[]{"Luis", user, despues}, 2));
+
+        verify(directorio).sincronizar(agente);
+    }
+
+
+    @Test
+    public void sinEstadoAnteriorSiempreSincroniza() {
+        Cliente cliente = cliente();
+
+        listener.onPostUpdate(new PostUpdateEvent(cliente, cliente.getId(),
+                new Object[]{"Ana", usuario("ana@storeit.test", EstadoCuenta.ACTIVO), null},
+                null, null, persister, null));
+
+        verify(directorio).sincronizar(cliente);
+    }
+
+
+    private PostUpdateEvent actualizacion(Object entidad, Object[] anterior, Object[] actual, int... sucias) {
+        return new PostUpdateEvent(entidad, 1L, actual, anterior, sucias, persister, null);
+    }
+
+
+    private Cliente cliente() {
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        return cliente;
+    }
+
+
+    private User usuario(String email, EstadoCuenta estado) {
+        User user = new User();
+        user.setEmail(email);
+        user.setEstadoCuenta(estado);
+        return user;
+    }
+}
@@ -0,0 +1,140 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.objects.contrato.DocumentoPdfDto;
+import co.edu.uniquindio.model.objects.Contrato;
+import co.edu.uniquindio.model.objects.DocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.objects.enums.EstadoDocumentoPdf;
+import co.edu.uniquindio.model.objects.enums.TipoDocumentoPdf;
+import co.edu.uniquindio.model.users.AgenteVentas;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.DocumentoPdfRepo;
+import co.edu.uniquindio.service.objects.Impl.DocumentoPdfServicioImpl;
+import co.edu.uniquindio.service.utils.AlmacenArchivosServicio;
+import co.edu.uniquindio.service.utils.PdfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de las solicitudes de {@link DocumentoPdfServicioImpl}: un documento fallido no se vuelve a generar
+ * en cada consulta y dos primeras solicitudes simultáneas no terminan en error.
+ */
+public class DocumentoPdfSolicitudTest {
+
+    private static final Long ID_CONTRATO = 3L;
+    private static final Long ID_CLIENTE = 7L;
+
+    private DocumentoPdfRepo documentoPdfRepo;
+    private ThreadPoolTaskExecutor pdfExecutor;
+    private DocumentoPdfServicioImpl documentoPdfServicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        documentoPdfRepo = mock(DocumentoPdfRepo.class);
+        pdfExecutor = mock(ThreadPoolTaskExecutor.class);
+        ContratoRepo contratoRepo = mock(ContratoRepo.class);
+        when(contratoRepo.findById(ID_CONTRATO)).thenReturn(Optional.of(contrato()));
+
+        documentoPdfServicio = new DocumentoPdfServicioImpl(documentoPdfRepo, contratoRepo, mock(PdfService.class),
+                mock(AlmacenArchivosServicio.class), pdfExecutor, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(documentoPdfServicio, "reintentoFallido", Duration.ofMinutes(5));
+
+        when(documentoPdfRepo.save(any())).thenAnswer(invocacion -> {
+            DocumentoPdf documento = invocacion.getArgument(0);
+            documento.setId(11L);
+            return documento;
+        });
+    }
+
+
+    @Test
+    public void unFallidoRecienteNoSeVuelveAGenerar() throws Exception {
+        when(documentoPdfRepo.findByIdContratoAndTipo(ID_CONTRATO, TipoDocumentoPdf.CONTRATO))
+                .thenReturn(Optional.of(fallido(LocalDateTime.now().minusMinutes(1))));
+
+        DocumentoPdfDto documento = documentoPdfServicio.consultar(ID_CONTRATO, TipoDocumentoPdf.CONTRATO, ID_CLIENTE);
+
+        assertEquals(EstadoDocumentoPdf.FALLIDO, documento.estado());
+        verify(documentoPdfRepo, never()).save(any());
+        verify(pdfExecutor, never()).execute(any());
+    }
+
+
+    @Test
+    public void unFallidoViejoSeVuelveAPedir() throws Exception {
+        when(documentoPdfRepo.findByIdContratoAndTipo(ID_CONTRATO, TipoDocumentoPdf.CONTRATO))
+                .thenReturn(Optional.of(fallido(LocalDateTime.now().minusMinutes(6))));
+
+        DocumentoPdfDto documento = documentoPdfServicio.consultar(ID_CONTRATO, TipoDocumentoPdf.CONTRATO, ID_CLIENTE);
+
+        assertEquals(EstadoDocumentoPdf.PENDIENTE, documento.estado());
+        verify(documentoPdfRepo).save(any());
+        verify(pdfExecutor).execute(any());
+    }
+
+
+    @Test
+    public void unaPrimeraSolicitudConcurrenteReleeLaFila() {
+        DocumentoPdf creadoPorOtra = new DocumentoPdf();
+        creadoPorOtra.setId(11L);
+        creadoPorOtra.setIdContrato(ID_CONTRATO);
+        creadoPorOtra.setTipo(TipoDocumentoPdf.CONTRATO);
+        creadoPorOtra.setVersion(1);
+
+        // La primera lectura no ve la fila; el INSERT choca con la que acaba de confirmar la otra solicitud
+        when(documentoPdfRepo.findByIdContratoAndTipo(ID_CONTRATO, TipoDocumentoPdf.CONTRATO))
+                .thenReturn(Optional.empty(), Optional.of(creadoPorOtra));
+        when(documentoPdfRepo.save(any()))
+                .thenThrow(new DataIntegrityViolationException("uk_documento_contrato_tipo"))
+                .thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        documentoPdfServicio.solicitar(ID_CONTRATO, TipoDocumentoPdf.CONTRATO);
+
+        assertEquals(2, creadoPorOtra.getVersion());
+        assertEquals(EstadoDocumentoPdf.PENDIENTE, creadoPorOtra.getEstado());
+        verify(pdfExecutor).execute(any());
+    }
+
+
+    private DocumentoPdf fallido(LocalDateTime fechaSolicitud) {
+        DocumentoPdf documento = new DocumentoPdf();
+        documento.setId(11L);
+        documento.setIdContrato(ID_CONTRATO);
+        documento.setTipo(TipoDocumentoPdf.CONTRATO);
+        documento.setEstado(EstadoDocumentoPdf.FALLIDO);
+        documento.setVersion(1);
+        documento.setFechaSolicitud(fechaSolicitud);
+        return documento;
+    }
+
+
+    private Contrato contrato() {
+        Cliente cliente = new Cliente();
+        cliente.setId(ID_CLIENTE);
+        AgenteVentas agente = new AgenteVentas();
+        agente.setId(8L);
+
+        Contrato contrato = new Contrato();
+        contrato.setId(ID_CONTRATO);
+        contrato.setCliente(cliente);
+        contrato.setAgenteVentas(agente);
+        contrato.setEstadoContrato(EstadoContrato.ACTIVO);
+        return contrato;
+    }
+}
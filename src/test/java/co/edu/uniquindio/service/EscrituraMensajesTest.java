@@ -0,0 +1,175 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ParticipantesChatDto;
+import co.edu.uniquindio.exception.ElementoNoActivadoException;
+import co.edu.uniquindio.model.common.enums.EstadoChat;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.repository.common.ChatSessionRepo;
+import co.edu.uniquindio.service.common.impl.EscrituraMensajesServicioImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del {@link EscrituraMensajesServicioImpl} con JDBC simulado y el diario en un directorio temporal:
+ * IDs pooled-lo, lotes que nunca se pueden guardar, cursores de mensajes sin guardar y sesiones cerradas en
+ * otro nodo.
+ */
+public class EscrituraMensajesTest {
+
+    private static final Long ID_CHAT = 5L;
+
+    @TempDir
+    Path directorio;
+
+    private ChatSessionRepo chatSessionRepo;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry registry;
+    private EscrituraMensajesServicioImpl escritura;
+
+    // IDs de mensaje que la base de datos rechaza, como una clave foránea violada
+    private final Set<Long> invalidos = ConcurrentHashMap.newKeySet();
+    private final List<Long> guardados = new ArrayList<>();
+
+
+    @BeforeEach
+    public void configurar() throws Exception {
+        chatSessionRepo = mock(ChatSessionRepo.class);
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        jdbc = mock(JdbcTemplate.class);
+        registry = new SimpleMeterRegistry();
+        escritura = new EscrituraMensajesServicioImpl(chatSessionRepo, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), registry);
+        ReflectionTestUtils.setField(escritura, "directorio", directorio.toString());
+        ReflectionTestUtils.setField(escritura, "intervaloMs", 10L);
+        ReflectionTestUtils.setField(escritura, "lote", 500);
+        ReflectionTestUtils.setField(escritura, "reintentoMs", 1000L);
+        ReflectionTestUtils.setField(escritura, "maximoIntentos", 2);
+        ReflectionTestUtils.setField(escritura, "maximoPendientes", 50_000);
+        ReflectionTestUtils.setField(escritura, "revalidacionMs", 30_000L);
+        escritura.inicializar();
+
+        when(chatSessionRepo.buscarParticipantes(ID_CHAT))
+                .thenReturn(Optional.of(new ParticipantesChatDto(ID_CHAT, 7L, 9L, EstadoChat.ACTIVO)));
+        when(jdbcTemplate.getJdbcTemplate()).thenReturn(jdbc);
+        when(jdbc.queryForObject(contains("NEXTVAL"), eq(Long.class))).thenReturn(101L, 151L);
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenAnswer(invocacion -> {
+            String sentencia = invocacion.getArgument(0);
+            SqlParameterSource[] filas = invocacion.getArgument(1);
+            if (!sentencia.contains("mensajes_chat")) return new int[filas.length];
+            for (SqlParameterSource fila : filas) {
+                if (invalidos.contains((Long) fila.getValue("id"))) {
+                    throw new DataIntegrityViolationException("ORA-02291: restricción de integridad violada");
+                }
+            }
+            for (SqlParameterSource fila : filas) guardados.add((Long) fila.getValue("id"));
+            return new int[filas.length];
+        });
+    }
+
+
+    @AfterEach
+    public void cerrar() throws Exception {
+        invalidos.clear();
+        escritura.detener();
+    }
+
+
+    @Test
+    public void losIdsEmpiezanEnElValorDeLaSecuencia() throws Exception {
+        // pooled-lo, como Hibernate: NEXTVAL = 101 reserva 101..150
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 51; i++) ids.add(agregar("Mensaje " + i).id());
+
+        assertEquals(101L, ids.get(0));
+        assertEquals(150L, ids.get(49));
+        assertEquals(151L, ids.get(50));
+        verify(jdbc, times(2)).queryForObject(contains("NEXTVAL"), eq(Long.class));
+    }
+
+
+    @Test
+    public void unLoteImposibleSeGuardaFilaPorFilaYApartaLaRechazada() throws Exception {
+        MensajeChatResumenDto invalido = agregar("Sesión borrada en la base de datos");
+        MensajeChatResumenDto valido = agregar("Hola");
+        invalidos.add(invalido.id());
+
+        assertFalse(escritura.vaciar()); // INSERT del lote
+        assertFalse(escritura.vaciar()); // MERGE: segundo intento
+
+        // Agotados los intentos: fila por fila, y el mensaje siguiente ya no queda detrás
+        MensajeChatResumenDto siguiente = agregar("¿Sigue ahí?");
+        assertTrue(escritura.vaciar());
+
+        assertEquals(List.of(valido.id(), siguiente.id()), guardados);
+        assertEquals(1, registry.get("storeit.chat.escritura.rechazados").counter().count());
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            List<Path> rechazados = archivos
+                    .filter(ruta -> ruta.getFileName().toString().startsWith("rechazados-"))
+                    .toList();
+            assertEquals(1, rechazados.size());
+            assertTrue(Files.size(rechazados.get(0)) > 0);
+        }
+        assertTrue(escritura.buscarFechaEnvio(invalido.id(), ID_CHAT).isEmpty());
+    }
+
+
+    @Test
+    public void unMensajeSinGuardarSirveDeCursor() throws Exception {
+        MensajeChatResumenDto mensaje = agregar("Hola");
+
+        assertEquals(Optional.of(mensaje.fechaEnvio()), escritura.buscarFechaEnvio(mensaje.id(), ID_CHAT));
+        assertTrue(escritura.buscarFechaEnvio(mensaje.id(), 6L).isEmpty());
+
+        // Ya guardado, el cursor se resuelve en la base de datos
+        assertTrue(escritura.vaciar());
+        assertTrue(escritura.buscarFechaEnvio(mensaje.id(), ID_CHAT).isEmpty());
+    }
+
+
+    @Test
+    public void unaSesionCerradaEnOtroNodoDejaDeAceptarMensajesTrasElLote() throws Exception {
+        agregar("Hola");
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(ID_CHAT));
+
+        assertTrue(escritura.vaciar());
+
+        assertThrows(ElementoNoActivadoException.class, () -> agregar("¿Sigue ahí?"));
+        // Sin esperar a que venza la revalidación
+        verify(chatSessionRepo, times(1)).buscarParticipantes(ID_CHAT);
+    }
+
+
+    private MensajeChatResumenDto agregar(String contenido) throws Exception {
+        return escritura.agregar(ID_CHAT, RemitenteChat.CLIENTE, contenido);
+    }
+}
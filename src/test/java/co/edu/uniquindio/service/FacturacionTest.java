@@ -0,0 +1,195 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.objects.factura.ContratoFacturableDto;
+import co.edu.uniquindio.dto.objects.factura.EjecucionFacturacionDto;
+import co.edu.uniquindio.dto.objects.factura.ResumenFacturacionDto;
+import co.edu.uniquindio.model.objects.Factura;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.FacturaRepo;
+import co.edu.uniquindio.repository.users.ClienteRepo;
+import co.edu.uniquindio.service.objects.Impl.FacturacionServicioImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de {@link FacturacionServicioImpl} con los repositorios simulados: idempotencia por cliente y
+ * periodo cuando otra ejecución factura al mismo tiempo, ejecución bajo demanda y rendimiento con
+ * 100.000 contratos.
+ */
+public class FacturacionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacturacionTest.class);
+    private static final LocalDate FECHA = LocalDate.of(2026, 3, 1);
+    private static final String PERIODO = "2026-03";
+    private static final int PARTICION = 200;
+
+    private FacturaRepo facturaRepo;
+    private ContratoRepo contratoRepo;
+    private ClienteRepo clienteRepo;
+    private PlatformTransactionManager transactionManager;
+    private ThreadPoolTaskExecutor executor;
+
+
+    @BeforeEach
+    public void configurar() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(8);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+
+
+    @AfterEach
+    public void cerrar() {
+        executor.shutdown();
+    }
+
+
+    @Test
+    public void unaParticionConClientesYaFacturadosSeReintentaClientePorCliente() {
+        crearMocks(false);
+        when(facturaRepo.buscarClientesPorFacturar(PERIODO, 0L, PARTICION)).thenReturn(List.of(1L, 2L, 3L));
+        when(contratoRepo.listarFacturables(eq(EstadoContrato.ACTIVO), anyCollection())).thenReturn(List.of(
+                contrato(10L, 1L), contrato(11L, 1L), contrato(20L, 2L), contrato(30L, 3L)));
+        // Otra ejecución facturó al cliente 2 después de que se armó la partición
+        when(facturaRepo.save(argThat(factura -> factura.getCliente().getId() == 2L)))
+                .thenThrow(new DataIntegrityViolationException("ORA-00001: (STOREIT.UK_FACTURA_CLIENTE_PERIODO)"));
+        when(facturaRepo.existsByCliente_IdAndPeriodo(2L, PERIODO)).thenReturn(true);
+
+        ResumenFacturacionDto resumen = crearServicio().facturarPeriodo(FECHA);
+
+        assertEquals(2, resumen.facturas());
+        assertEquals(3, resumen.contratos());
+        assertEquals(1, resumen.omitidas());
+        verify(transactionManager, times(1)).rollback(any()); // Solo la transacción de la partición completa
+        verify(facturaRepo, times(1)).save(argThat(factura -> factura.getCliente().getId() == 2L));
+    }
+
+
+    @Test
+    public void unDuplicadoConcurrenteDuranteElReintentoSeOmite() {
+        crearMocks(false);
+        when(facturaRepo.buscarClientesPorFacturar(PERIODO, 0L, PARTICION)).thenReturn(List.of(1L, 2L));
+        when(contratoRepo.listarFacturables(eq(EstadoContrato.ACTIVO), anyCollection())).thenReturn(List.of(
+                contrato(10L, 1L), contrato(20L, 2L)));
+        // El cliente 2 no existía al consultar, pero otra instancia lo insertó antes del commit
+        when(facturaRepo.save(argThat(factura -> factura.getCliente().getId() == 2L)))
+                .thenThrow(new DataIntegrityViolationException("ORA-00001: (STOREIT.UK_FACTURA_CLIENTE_PERIODO)"));
+
+        ResumenFacturacionDto resumen = crearServicio().facturarPeriodo(FECHA);
+
+        assertEquals(1, resumen.facturas());
+        assertEquals(1, resumen.contratos());
+        assertEquals(1, resumen.omitidas());
+    }
+
+
+    @Test
+    public void laFacturacionBajoDemandaDevuelveUnaEjecucionConsultable() throws Exception {
+        crearMocks(false);
+        when(facturaRepo.buscarClientesPorFacturar(PERIODO, 0L, PARTICION)).thenReturn(List.of(1L));
+        when(contratoRepo.listarFacturables(eq(EstadoContrato.ACTIVO), anyCollection()))
+                .thenReturn(List.of(contrato(10L, 1L)));
+        FacturacionServicioImpl servicio = crearServicio();
+
+        EjecucionFacturacionDto iniciada = servicio.iniciarFacturacion(FECHA);
+        assertEquals(PERIODO, iniciada.periodo());
+
+        EjecucionFacturacionDto ejecucion = servicio.consultarEjecucion(iniciada.id());
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (ejecucion.estado() == EjecucionFacturacionDto.Estado.EN_CURSO && System.nanoTime() < limite) {
+            Thread.sleep(20);
+            ejecucion = servicio.consultarEjecucion(iniciada.id());
+        }
+
+        assertEquals(EjecucionFacturacionDto.Estado.TERMINADA, ejecucion.estado());
+        assertEquals(1, ejecucion.resumen().facturas());
+    }
+
+
+    @Test
+    public void cienMilContratosSeFacturanEnMinutos() {
+        crearMocks(true);
+        int clientes = 20_000, contratosPorCliente = 5;
+        // Páginas de clientes en orden de ID a partir del último de la página anterior
+        when(facturaRepo.buscarClientesPorFacturar(eq(PERIODO), anyLong(), eq(PARTICION))).thenAnswer(invocacion -> {
+            long desde = invocacion.getArgument(1);
+            List<Long> pagina = new ArrayList<>(PARTICION);
+            for (long id = desde + 1; id <= clientes && pagina.size() < PARTICION; id++) pagina.add(id);
+            return pagina;
+        });
+        when(contratoRepo.listarFacturables(eq(EstadoContrato.ACTIVO), anyCollection())).thenAnswer(invocacion -> {
+            Collection<Long> ids = invocacion.getArgument(1);
+            List<ContratoFacturableDto> contratos = new ArrayList<>(ids.size() * contratosPorCliente);
+            for (Long id : ids) {
+                for (int i = 0; i < contratosPorCliente; i++) contratos.add(contrato(id * 10 + i, id));
+            }
+            return contratos;
+        });
+
+        ResumenFacturacionDto resumen = crearServicio().facturarPeriodo(FECHA);
+
+        logger.debug("Facturación de {} contratos en {} ms ({} contratos/s)", resumen.contratos(),
+                resumen.duracionMs(), Math.round(resumen.contratosPorSegundo()));
+        assertEquals(clientes, resumen.facturas());
+        assertEquals(clientes * contratosPorCliente, resumen.contratos());
+        // Sin la base de datos esto mide solo el armado y el reparto; el objetivo es de minutos con ella
+        assertTrue(resumen.duracionMs() < Duration.ofMinutes(1).toMillis());
+    }
+
+
+    /**
+     * @param soloStubs sin registro de invocaciones, para la prueba de volumen.
+     */
+    private void crearMocks(boolean soloStubs) {
+        facturaRepo = soloStubs ? mock(FacturaRepo.class, withSettings().stubOnly()) : mock(FacturaRepo.class);
+        contratoRepo = soloStubs ? mock(ContratoRepo.class, withSettings().stubOnly()) : mock(ContratoRepo.class);
+        clienteRepo = soloStubs ? mock(ClienteRepo.class, withSettings().stubOnly()) : mock(ClienteRepo.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(clienteRepo.getReferenceById(anyLong())).thenAnswer(invocacion -> {
+            Cliente cliente = new Cliente();
+            cliente.setId(invocacion.getArgument(0));
+            return cliente;
+        });
+        when(facturaRepo.save(any(Factura.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+    }
+
+
+    private FacturacionServicioImpl crearServicio() {
+        FacturacionServicioImpl servicio = new FacturacionServicioImpl(facturaRepo, contratoRepo, clienteRepo, executor,
+                transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(servicio, "iva", new BigDecimal("0.19"));
+        ReflectionTestUtils.setField(servicio, "particion", PARTICION);
+        return servicio;
+    }
+
+
+    private ContratoFacturableDto contrato(Long idContrato, Long idCliente) {
+        return new ContratoFacturableDto(idContrato, idCliente, new BigDecimal("350000"));
+    }
+}
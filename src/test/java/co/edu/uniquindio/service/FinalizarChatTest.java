@@ -0,0 +1,100 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ParticipantesChatDto;
+import co.edu.uniquindio.mapper.common.ChatSessionMapper;
+import co.edu.uniquindio.model.common.enums.EstadoChat;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.repository.common.ChatSessionRepo;
+import co.edu.uniquindio.repository.common.MensajeRepo;
+import co.edu.uniquindio.repository.users.AgenteVentasRepo;
+import co.edu.uniquindio.repository.users.ClienteRepo;
+import co.edu.uniquindio.service.common.AsignacionAgentesServicio;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import co.edu.uniquindio.service.common.EscrituraMensajesServicio;
+import co.edu.uniquindio.service.common.impl.ChatSessionServicioImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del cierre de una sesión de chat en {@link ChatSessionServicioImpl}: el cupo del agente se libera
+ * y el mensaje de cierre se escribe una sola vez aunque los dos participantes cierren a la vez.
+ */
+public class FinalizarChatTest {
+
+    private static final Long ID_CHAT = 5L;
+    private static final Long ID_AGENTE = 9L;
+
+    private ChatSessionRepo chatSessionRepo;
+    private ChatTiempoRealServicio chatTiempoRealServicio;
+    private AsignacionAgentesServicio asignacionAgentesServicio;
+    private EscrituraMensajesServicio escrituraMensajesServicio;
+    private ChatSessionServicioImpl chatSessionServicio;
+
+
+    @BeforeEach
+    public void configurar() throws Exception {
+        chatSessionRepo = mock(ChatSessionRepo.class);
+        chatTiempoRealServicio = mock(ChatTiempoRealServicio.class);
+        asignacionAgentesServicio = mock(AsignacionAgentesServicio.class);
+        escrituraMensajesServicio = mock(EscrituraMensajesServicio.class);
+        chatSessionServicio = new ChatSessionServicioImpl(mock(ChatSessionMapper.class), chatSessionRepo,
+                mock(MensajeRepo.class), mock(ClienteRepo.class), mock(AgenteVentasRepo.class),
+                chatTiempoRealServicio, asignacionAgentesServicio, escrituraMensajesServicio);
+
+        when(chatSessionRepo.buscarParticipantes(ID_CHAT))
+                .thenReturn(Optional.of(new ParticipantesChatDto(ID_CHAT, 7L, ID_AGENTE, EstadoChat.ACTIVO)));
+        when(escrituraMensajesServicio.agregarCierre(eq(ID_CHAT), any(), anyString())).thenAnswer(invocacion ->
+                new MensajeChatResumenDto(1L, ID_CHAT, invocacion.getArgument(1), invocacion.getArgument(2),
+                        LocalDateTime.now()));
+    }
+
+
+    @Test
+    public void elCierreQueCambiaLaFilaLiberaElCupo() throws Exception {
+        when(chatSessionRepo.finalizarActiva(eq(ID_CHAT), any())).thenReturn(1);
+
+        chatSessionServicio.finalizarChat(ID_CHAT, RemitenteChat.CLIENTE);
+
+        verify(asignacionAgentesServicio).liberar(ID_AGENTE);
+        verify(escrituraMensajesServicio).agregarCierre(ID_CHAT, RemitenteChat.CLIENTE, "El cliente finalizó la conversación.");
+        verify(chatTiempoRealServicio).cerrarChat(ID_CHAT, RemitenteChat.CLIENTE);
+    }
+
+
+    @Test
+    public void dosCierresSimultaneosLiberanElCupoUnaSolaVez() throws Exception {
+        // Los dos leyeron la sesión activa; el UPDATE condicional solo cambia la fila una vez
+        when(chatSessionRepo.finalizarActiva(eq(ID_CHAT), any())).thenReturn(1, 0);
+
+        chatSessionServicio.finalizarChat(ID_CHAT, RemitenteChat.CLIENTE);
+        chatSessionServicio.finalizarChat(ID_CHAT, RemitenteChat.AGENTE);
+
+        verify(asignacionAgentesServicio, times(1)).liberar(ID_AGENTE);
+        verify(chatTiempoRealServicio, times(1)).cerrarChat(eq(ID_CHAT), any());
+        // El que perdió la carrera no deja un segundo mensaje de cierre
+        verify(escrituraMensajesServicio, times(1)).agregarCierre(eq(ID_CHAT), any(), anyString());
+        verify(escrituraMensajesServicio, never()).agregar(any(), any(), any());
+    }
+
+
+    @Test
+    public void unaSesionYaCerradaNoSeVuelveAFinalizar() throws Exception {
+        when(chatSessionRepo.buscarParticipantes(ID_CHAT))
+                .thenReturn(Optional.of(new ParticipantesChatDto(ID_CHAT, 7L, ID_AGENTE, EstadoChat.FINALIZADO)));
+
+        chatSessionServicio.finalizarChat(ID_CHAT, RemitenteChat.AGENTE);
+
+        verify(chatSessionRepo, never()).finalizarActiva(any(), any());
+        verify(escrituraMensajesServicio, never()).agregarCierre(any(), any(), any());
+        verify(asignacionAgentesServicio, never()).liberar(any());
+    }
+}
@@ -0,0 +1,209 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.common.chat.HistorialChatDto;
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.model.common.ChatSession;
+import co.edu.uniquindio.model.common.Mensaje;
+import co.edu.uniquindio.model.common.enums.EstadoChat;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.model.users.AgenteVentas;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.service.common.ChatSessionServicio;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del historial de chat paginado por cursor contra la base de datos: límites de página, mensajes
+ * con la misma {@code fecha_envio} (el ID desempata) y cursores de otra sesión.
+ * Requiere al menos un cliente y un agente de ventas en la base de datos.
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class HistorialChatTest {
+
+    // Siete mensajes; del segundo al cuarto comparten fecha de envío
+    private static final int[] MINUTOS = {0, 1, 1, 1, 2, 3, 4};
+    private static final LocalDateTime INICIO = LocalDateTime.of(2026, 1, 15, 10, 0);
+
+    @Autowired
+    private ChatSessionServicio chatSessionServicio;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String idCliente;
+    private Long idSesion;
+    private Long idOtraSesion;
+    // IDs de los mensajes de la sesión, en orden de envío
+    private final List<Long> mensajes = new ArrayList<>();
+    private Long mensajeOtraSesion;
+
+
+    @BeforeEach
+    public void crearDatos() {
+        List<Long> clientes = entityManager.createQuery("SELECT c.id FROM Cliente c", Long.class)
+                .setMaxResults(1).getResultList();
+        List<Long> agentes = entityManager.createQuery("SELECT a.id FROM AgenteVentas a", Long.class)
+                .setMaxResults(1).getResultList();
+        Assumptions.assumeFalse(clientes.isEmpty() || agentes.isEmpty(),
+                "Se necesita al menos un cliente y un agente de ventas");
+        idCliente = clientes.get(0).toString();
+
+        transactionTemplate.executeWithoutResult(s -> {
+            ChatSession sesion = sesion(clientes.get(0), agentes.get(0));
+            ChatSession otra = sesion(clientes.get(0), agentes.get(0));
+            idSesion = sesion.getId();
+            idOtraSesion = otra.getId();
+            // Se persisten en orden: a igual fecha, el ID sigue el orden de envío
+            for (int i = 0; i < MINUTOS.length; i++) {
+                mensajes.add(mensaje(sesion, "Mensaje " + (i + 1), INICIO.plusMinutes(MINUTOS[i])));
+            }
+            mensajeOtraSesion = mensaje(otra, "Mensaje de otra sesión", INICIO.plusMinutes(1));
+        });
+    }
+
+
+    @AfterEach
+    public void eliminarDatos() {
+        if (idSesion == null) return;
+        transactionTemplate.executeWithoutResult(s -> {
+            entityManager.createQuery("DELETE FROM Mensaje m WHERE m.chatSession.id IN :ids")
+                    .setParameter("ids", List.of(idSesion, idOtraSesion)).executeUpdate();
+            entityManager.createQuery("DELETE FROM ChatSession c WHERE c.id IN :ids")
+                    .setParameter("ids", List.of(idSesion, idOtraSesion)).executeUpdate();
+        });
+    }
+
+
+    @Test
+    public void sinCursorDevuelveLaUltimaPaginaEnOrdenDeEnvio() throws Exception {
+        HistorialChatDto pagina = historial(null, null, 2);
+
+        assertEquals(List.of(mensajes.get(5), mensajes.get(6)), ids(pagina));
+        assertTrue(pagina.hayAnteriores());
+        assertFalse(pagina.hayPosteriores());
+    }
+
+
+    @Test
+    public void haciaAtrasLosEmpatesDeFechaSeOrdenanPorId() throws Exception {
+        // El cursor es el cuarto mensaje: los dos anteriores tienen su misma fecha
+        HistorialChatDto pagina = historial(mensajes.get(3), null, 2);
+
+        assertEquals(List.of(mensajes.get(1), mensajes.get(2)), ids(pagina));
+        assertTrue(pagina.hayAnteriores());
+        assertTrue(pagina.hayPosteriores());
+    }
+
+
+    @Test
+    public void haciaAdelanteLosEmpatesDeFechaSeOrdenanPorId() throws Exception {
+        // El cursor es el segundo mensaje: los dos siguientes tienen su misma fecha
+        HistorialChatDto pagina = historial(null, mensajes.get(1), 2);
+
+        assertEquals(List.of(mensajes.get(2), mensajes.get(3)), ids(pagina));
+        assertTrue(pagina.hayAnteriores());
+        assertTrue(pagina.hayPosteriores());
+    }
+
+
+    @Test
+    public void unaPaginaJustaNoAnunciaOtra() throws Exception {
+        HistorialChatDto posteriores = historial(null, mensajes.get(4), 2);
+        assertEquals(List.of(mensajes.get(5), mensajes.get(6)), ids(posteriores));
+        assertFalse(posteriores.hayPosteriores());
+
+        HistorialChatDto anteriores = historial(mensajes.get(2), null, 2);
+        assertEquals(List.of(mensajes.get(0), mensajes.get(1)), ids(anteriores));
+        assertFalse(anteriores.hayAnteriores());
+
+        assertTrue(historial(mensajes.get(0), null, 2).mensajes().isEmpty());
+        assertTrue(historial(null, mensajes.get(6), 2).mensajes().isEmpty());
+    }
+
+
+    @Test
+    public void recorrerTodasLasPaginasVisitaCadaMensajeUnaVez() throws Exception {
+        for (int tamano = 1; tamano <= 3; tamano++) {
+            List<Long> haciaAtras = new ArrayList<>();
+            HistorialChatDto pagina = historial(null, null, tamano);
+            haciaAtras.addAll(0, ids(pagina));
+            while (pagina.hayAnteriores()) {
+                pagina = historial(pagina.mensajes().get(0).id(), null, tamano);
+                haciaAtras.addAll(0, ids(pagina));
+            }
+            assertEquals(mensajes, haciaAtras);
+
+            List<Long> haciaAdelante = new ArrayList<>(List.of(mensajes.get(0)));
+            pagina = historial(null, mensajes.get(0), tamano);
+            haciaAdelante.addAll(ids(pagina));
+            while (pagina.hayPosteriores()) {
+                pagina = historial(null, pagina.mensajes().get(pagina.mensajes().size() - 1).id(), tamano);
+                haciaAdelante.addAll(ids(pagina));
+            }
+            assertEquals(mensajes, haciaAdelante);
+        }
+    }
+
+
+    @Test
+    public void unCursorDeOtraSesionSeRechaza() {
+        ElementoNoEncontradoException antes = assertThrows(ElementoNoEncontradoException.class,
+                () -> historial(mensajeOtraSesion, null, 2));
+        assertEquals(MensajeError.MENSAJE_CHAT_NO_ENCONTRADO, antes.getMessage());
+
+        assertThrows(ElementoNoEncontradoException.class, () -> historial(null, mensajeOtraSesion, 2));
+    }
+
+
+    private HistorialChatDto historial(Long antes, Long despues, int tamano) throws ElementoNoEncontradoException {
+        return chatSessionServicio.obtenerHistorial(idSesion, idCliente, antes, despues, tamano);
+    }
+
+
+    private List<Long> ids(HistorialChatDto pagina) {
+        return pagina.mensajes().stream().map(MensajeChatResumenDto::id).toList();
+    }
+
+
+    private ChatSession sesion(Long idCliente, Long idAgente) {
+        ChatSession sesion = new ChatSession();
+        sesion.setCliente(entityManager.getReference(Cliente.class, idCliente));
+        sesion.setAgenteVentas(entityManager.getReference(AgenteVentas.class, idAgente));
+        sesion.setEstado(EstadoChat.FINALIZADO);
+        sesion.setInicioChat(INICIO);
+        sesion.setFinChat(INICIO.plusMinutes(MINUTOS[MINUTOS.length - 1]));
+        // Actividad reciente: la limpieza programada no la archiva mientras corre la prueba
+        sesion.setUltimaActividad(LocalDateTime.now());
+        entityManager.persist(sesion);
+        return sesion;
+    }
+
+
+    private Long mensaje(ChatSession sesion, String contenido, LocalDateTime fechaEnvio) {
+        Mensaje mensaje = new Mensaje();
+        mensaje.setChatSession(sesion);
+        mensaje.setRemitente(RemitenteChat.CLIENTE);
+        mensaje.setContenido(contenido);
+        mensaje.setFechaEnvio(fechaEnvio);
+        entityManager.persist(mensaje);
+        return mensaje.getId();
+    }
+}
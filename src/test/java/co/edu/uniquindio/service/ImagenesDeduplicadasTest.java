@@ -0,0 +1,130 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.model.common.ImagenAlmacenada;
+import co.edu.uniquindio.repository.common.ImagenAlmacenadaRepo;
+import co.edu.uniquindio.service.utils.CloudinaryServicio;
+import co.edu.uniquindio.service.utils.impl.ImagenesDeduplicadasServicio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de {@link ImagenesDeduplicadasServicio}: el archivo de la solicitud se lee una sola vez,
+ * tanto para calcular su huella como para subirlo, y dos subidas simultáneas del mismo contenido terminan
+ * apuntando a la misma imagen.
+ */
+public class ImagenesDeduplicadasTest {
+
+    private static final byte[] CONTENIDO = {1, 2, 3, 4, 5};
+    private static final String URL_PROPIA = "https://res.cloudinary.com/storeit/foto.png";
+    private static final String URL_REGISTRADA = "https://res.cloudinary.com/storeit/primera.png";
+
+    private CloudinaryServicio almacen;
+    private ImagenAlmacenadaRepo imagenAlmacenadaRepo;
+    private ImagenesDeduplicadasServicio servicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        almacen = mock(CloudinaryServicio.class);
+        imagenAlmacenadaRepo = mock(ImagenAlmacenadaRepo.class);
+        servicio = new ImagenesDeduplicadasServicio(almacen, imagenAlmacenadaRepo, Duration.ofDays(1),
+                new SimpleMeterRegistry());
+        when(imagenAlmacenadaRepo.findByHuella(anyString())).thenReturn(Optional.empty());
+        when(almacen.uploadImage(any())).thenReturn(URL_PROPIA);
+        when(almacen.extraerIdImagen(anyString())).thenAnswer(invocacion -> "id:" + invocacion.getArgument(0));
+    }
+
+
+    @Test
+    public void laSubidaReutilizaLosBytesLeidosParaLaHuella() throws Exception {
+        MultipartFile archivo = mock(MultipartFile.class);
+        when(archivo.getBytes()).thenReturn(CONTENIDO);
+        when(archivo.getOriginalFilename()).thenReturn("foto.png");
+
+        servicio.uploadImage(archivo);
+
+        ArgumentCaptor<MultipartFile> subido = ArgumentCaptor.forClass(MultipartFile.class);
+        verify(almacen).uploadImage(subido.capture());
+        assertSame(CONTENIDO, subido.getValue().getBytes());
+        assertEquals("foto.png", subido.getValue().getOriginalFilename());
+
+        verify(archivo, times(1)).getBytes();
+        verify(archivo, never()).getInputStream();
+
+        String huella = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENIDO));
+        verify(imagenAlmacenadaRepo).registrar(eq(huella), anyString(), any(), any());
+    }
+
+
+    @Test
+    public void unaSubidaSimultaneaDevuelveLaImagenYaRegistrada() throws Exception {
+        // Ninguna de las dos encontró la huella; la otra confirmó su registro antes del MERGE de esta
+        when(imagenAlmacenadaRepo.findByHuella(anyString()))
+                .thenReturn(Optional.empty(), Optional.of(registrada()));
+
+        assertEquals(URL_REGISTRADA, servicio.uploadImage(archivo()));
+
+        verify(imagenAlmacenadaRepo).registrar(anyString(), eq(URL_PROPIA), any(), any());
+        verify(almacen).eliminarImagen("id:" + URL_PROPIA);
+    }
+
+
+    @Test
+    public void dosInsercionesSimultaneasSumanLaReferenciaALaFilaExistente() throws Exception {
+        when(imagenAlmacenadaRepo.findByHuella(anyString()))
+                .thenReturn(Optional.empty(), Optional.of(registrada()));
+        when(imagenAlmacenadaRepo.registrar(anyString(), anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("uk_imagen_huella"))
+                .thenReturn(1);
+
+        assertEquals(URL_REGISTRADA, servicio.uploadImage(archivo()));
+
+        verify(imagenAlmacenadaRepo, times(2)).registrar(anyString(), eq(URL_PROPIA), any(), any());
+        verify(almacen).eliminarImagen("id:" + URL_PROPIA);
+    }
+
+
+    @Test
+    public void unaListaConCopiasSimultaneasBorraLaSubidaPropiaUnaSolaVez() throws Exception {
+        // Las dos apariciones son la misma huella: se sube una vez y se registra dos veces
+        when(imagenAlmacenadaRepo.findByHuella(anyString()))
+                .thenReturn(Optional.empty(), Optional.of(registrada()));
+        when(almacen.uploadImages(anyList())).thenReturn(List.of(URL_PROPIA));
+
+        List<String> urls = servicio.uploadImages(List.of(archivo(), archivo()));
+
+        assertEquals(List.of(URL_REGISTRADA, URL_REGISTRADA), urls);
+        verify(imagenAlmacenadaRepo).registrar(anyString(), eq(URL_PROPIA), any(), any());
+        verify(imagenAlmacenadaRepo).registrar(anyString(), eq(URL_REGISTRADA), any(), any());
+        verify(almacen, times(1)).eliminarImagen("id:" + URL_PROPIA);
+    }
+
+
+    private MultipartFile archivo() throws Exception {
+        MultipartFile archivo = mock(MultipartFile.class);
+        when(archivo.getBytes()).thenReturn(CONTENIDO);
+        return archivo;
+    }
+
+
+    private ImagenAlmacenada registrada() {
+        ImagenAlmacenada imagen = new ImagenAlmacenada();
+        imagen.setId(1L);
+        imagen.setUrl(URL_REGISTRADA);
+        return imagen;
+    }
+}
@@ -0,0 +1,90 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.exception.ElementoNoEncontradoException;
+import co.edu.uniquindio.service.utils.ImagenesLocalesServicio.ImagenLocal;
+import co.edu.uniquindio.service.utils.impl.ImagenesLocalesServicioImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica el almacén local de imágenes: nombres por contenido, directorios repartidos y miniaturas.
+ */
+public class ImagenesLocalesTest {
+
+    private static final String URL_BASE = "http://localhost:8080/api/store-it/imagenes";
+
+    @TempDir
+    Path directorio;
+
+    private ImagenesLocalesServicioImpl servicio;
+
+
+    @BeforeEach
+    public void crearServicio() throws Exception {
+        servicio = new ImagenesLocalesServicioImpl();
+        ReflectionTestUtils.setField(servicio, "directorio", directorio.toString());
+        ReflectionTestUtils.setField(servicio, "urlBase", URL_BASE);
+        ReflectionTestUtils.setField(servicio, "anchos", List.of(256, 64));
+        servicio.inicializar();
+    }
+
+
+    @Test
+    public void laMismaImagenSeGuardaUnaSolaVez() throws Exception {
+        byte[] png = png(400, 200);
+
+        String primera = servicio.uploadImage(new MockMultipartFile("foto", "a.png", "image/png", png));
+        String segunda = servicio.uploadImage(new MockMultipartFile("foto", "b.png", "image/png", png));
+
+        assertEquals(primera, segunda);
+        assertTrue(primera.startsWith(URL_BASE + "/") && primera.endsWith(".png"));
+
+        String nombre = servicio.extraerIdImagen(primera);
+        ImagenLocal imagen = servicio.buscar(nombre, null);
+        assertEquals(directorio.resolve(nombre.substring(0, 2)).resolve(nombre.substring(2, 4)).resolve(nombre), imagen.ruta());
+        assertArrayEquals(png, Files.readAllBytes(imagen.ruta()));
+    }
+
+
+    @Test
+    public void generaLaMiniaturaConElSiguienteAnchoPermitido() throws Exception {
+        String nombre = servicio.extraerIdImagen(
+                servicio.uploadImage(new MockMultipartFile("foto", "a.png", "image/png", png(400, 200))));
+
+        ImagenLocal miniatura = servicio.buscar(nombre, 100);
+
+        BufferedImage reducida = ImageIO.read(miniatura.ruta().toFile());
+        assertEquals(256, reducida.getWidth());
+        assertEquals(128, reducida.getHeight());
+        assertEquals(miniatura.ruta(), servicio.buscar(nombre, 200).ruta()); // Se reutiliza la ya generada
+
+        servicio.eliminarImagen(nombre);
+        assertFalse(Files.exists(miniatura.ruta()));
+        assertThrows(ElementoNoEncontradoException.class, () -> servicio.buscar(nombre, null));
+    }
+
+
+    @Test
+    public void rechazaNombresFueraDelAlmacen() {
+        assertThrows(ElementoNoEncontradoException.class, () -> servicio.buscar("../application.yml", null));
+    }
+
+
+    private byte[] png(int ancho, int alto) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB), "png", salida);
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.common.IndiceTelefono;
+import co.edu.uniquindio.repository.users.IndiceTelefonoRepo;
+import co.edu.uniquindio.service.common.impl.IndiceTelefonoServicioImpl;
+import co.edu.uniquindio.service.utils.PhoneServicio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de la recarga del filtro de Bloom de {@link IndiceTelefonoServicioImpl}, con JDBC simulado.
+ */
+public class IndiceTelefonoFiltroTest {
+
+    private static final String REGISTRADO = "+573009998877";
+    private static final String NUEVO = "+573001112233";
+
+    private IndiceTelefonoRepo indiceTelefonoRepo;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private JdbcTemplate jdbc;
+    private IndiceTelefonoServicioImpl indiceTelefonoServicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        indiceTelefonoRepo = mock(IndiceTelefonoRepo.class);
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        jdbc = mock(JdbcTemplate.class);
+        when(jdbcTemplate.getJdbcTemplate()).thenReturn(jdbc);
+
+        PhoneServicio phoneServicio = mock(PhoneServicio.class);
+        when(phoneServicio.normalizarTelefono(any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        indiceTelefonoServicio = new IndiceTelefonoServicioImpl(indiceTelefonoRepo, jdbcTemplate, phoneServicio);
+        ReflectionTestUtils.setField(indiceTelefonoServicio, "elementosEsperados", 1000L);
+        ReflectionTestUtils.setField(indiceTelefonoServicio, "probabilidadFalsos", 0.01);
+
+        // La persona aún no tiene teléfonos en el índice
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+                .thenReturn(List.of());
+        when(indiceTelefonoRepo.findByTelefono(anyString()))
+                .thenAnswer(invocacion -> Optional.of(new IndiceTelefono()));
+    }
+
+
+    @Test
+    public void unTelefonoInsertadoDuranteLaRecargaLlegaAlFiltroNuevo() {
+        // El registro se confirma justo después de la consulta del filtro nuevo
+        when(jdbc.queryForList("SELECT telefono FROM indice_telefonos", String.class)).thenAnswer(invocacion -> {
+            indiceTelefonoServicio.sincronizar(cliente(NUEVO));
+            return List.of(REGISTRADO);
+        });
+
+        indiceTelefonoServicio.recargarFiltro();
+
+        assertTrue(indiceTelefonoServicio.buscar(NUEVO).isPresent());
+        assertTrue(indiceTelefonoServicio.buscar(REGISTRADO).isPresent());
+        verify(indiceTelefonoRepo).findByTelefono(NUEVO);
+    }
+
+
+    @Test
+    public void unTelefonoInsertadoDespuesDeLaRecargaLlegaAlFiltroPublicado() {
+        when(jdbc.queryForList("SELECT telefono FROM indice_telefonos", String.class)).thenReturn(List.of(REGISTRADO));
+
+        indiceTelefonoServicio.recargarFiltro();
+        indiceTelefonoServicio.sincronizar(cliente(NUEVO));
+
+        assertTrue(indiceTelefonoServicio.buscar(NUEVO).isPresent());
+    }
+
+
+    private Cliente cliente(String telefono) {
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        cliente.setTelefono(telefono);
+        return cliente;
+    }
+}
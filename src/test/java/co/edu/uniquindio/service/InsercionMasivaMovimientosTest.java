@@ -0,0 +1,108 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.model.objects.Movimiento;
+import co.edu.uniquindio.model.objects.Producto;
+import co.edu.uniquindio.model.objects.enums.TipoMovimiento;
+import co.edu.uniquindio.model.users.PersonalBodega;
+import co.edu.uniquindio.utils.ConteoSentenciasInspector;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de inserción de 100.000 {@link Movimiento} en una sola transacción.
+ * <p>
+ * Verifica el número de sentencias SQL preparadas: con IDs por secuencia (pooled-lo) y batching JDBC
+ * (configurados también en el application.yml de pruebas) deben ser del orden de filas / batch_size;
+ * con IDENTITY eran una por fila. Requiere al menos un producto y un personal de bodega en la base de datos.
+ * </p>
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class InsercionMasivaMovimientosTest {
+
+    private static final int TOTAL = 100_000;
+    // Debe coincidir con hibernate.jdbc.batch_size
+    private static final int LOTE = 50;
+    private static final String MARCA = "Benchmark de inserción masiva";
+    private static final Logger logger = LoggerFactory.getLogger(InsercionMasivaMovimientosTest.class);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+
+    @AfterEach
+    public void eliminarMovimientos() {
+        transactionTemplate.executeWithoutResult(s -> entityManager
+                .createQuery("DELETE FROM Movimiento m WHERE m.detalle = :marca")
+                .setParameter("marca", MARCA)
+                .executeUpdate());
+    }
+
+
+    @Test
+    public void insertarMovimientosEnLotesTest() {
+
+        List<Long> productos = entityManager.createQuery("SELECT p.id FROM Producto p", Long.class)
+                .setMaxResults(1).getResultList();
+        List<Long> personal = entityManager.createQuery("SELECT p.id FROM PersonalBodega p", Long.class)
+                .setMaxResults(1).getResultList();
+        Assumptions.assumeFalse(productos.isEmpty() || personal.isEmpty(),
+                "Se necesita al menos un producto y un personal de bodega");
+
+        ConteoSentenciasInspector.reiniciar();
+        long inicio = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(s -> {
+            Producto producto = entityManager.getReference(Producto.class, productos.get(0));
+            PersonalBodega responsable = entityManager.getReference(PersonalBodega.class, personal.get(0));
+
+            for (int i = 1; i <= TOTAL; i++) {
+                Movimiento movimiento = new Movimiento();
+                movimiento.setProducto(producto);
+                movimiento.setPersonalResponsable(responsable);
+                movimiento.setTipoMovimiento(TipoMovimiento.INGRESO);
+                movimiento.setFechaMovimiento(LocalDateTime.now());
+                movimiento.setDetalle(MARCA);
+                entityManager.persist(movimiento);
+
+                // Vaciamos el contexto por lotes para no acumular 100k entidades en memoria
+                if (i % LOTE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    producto = entityManager.getReference(Producto.class, productos.get(0));
+                    responsable = entityManager.getReference(PersonalBodega.class, personal.get(0));
+                }
+            }
+        });
+
+        long nanos = System.nanoTime() - inicio;
+        int sentencias = ConteoSentenciasInspector.obtenerConteo();
+        logger.debug("Inserción de {} movimientos: {} ms ({} filas/s), {} sentencias SQL",
+                TOTAL, nanos / 1_000_000, Math.round(TOTAL / (nanos / 1e9)), sentencias);
+
+        // Por cada lote: un INSERT en batch y, como mucho, una llamada a la secuencia (bloques de 50 IDs)
+        assertTrue(sentencias <= 2 * (TOTAL / LOTE) + 10,
+                "Se esperaban del orden de " + (2 * TOTAL / LOTE) + " sentencias y se prepararon " + sentencias);
+
+        Long insertados = entityManager.createQuery(
+                        "SELECT COUNT(m) FROM Movimiento m WHERE m.detalle = :marca", Long.class)
+                .setParameter("marca", MARCA).getSingleResult();
+        assertEquals(TOTAL, insertados);
+    }
+}
@@ -0,0 +1,180 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.dto.common.chat.ResumenArchivoChatDto;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.common.ChatSessionRepo;
+import co.edu.uniquindio.repository.common.MensajeRepo;
+import co.edu.uniquindio.service.common.AsignacionAgentesServicio;
+import co.edu.uniquindio.service.common.ChatTiempoRealServicio;
+import co.edu.uniquindio.service.common.EscrituraMensajesServicio;
+import co.edu.uniquindio.service.common.impl.LimpiezaChatServicioImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de {@link LimpiezaChatServicioImpl}: el cierre de sesiones inactivas y el archivado de mensajes,
+ * incluido un lote cuyos mensajes eliminados no coinciden con los archivados.
+ */
+public class LimpiezaChatTest {
+
+    private static final int LOTE = 2;
+    private static final LocalDateTime AHORA = LocalDateTime.of(2026, 10, 17, 2, 45);
+    private static final LocalDateTime LIMITE_ARCHIVO = AHORA.minusDays(180);
+
+    @TempDir
+    Path directorio;
+
+    private ChatSessionRepo chatSessionRepo;
+    private BloqueoFilasRepo bloqueoFilasRepo;
+    private MensajeRepo mensajeRepo;
+    private AsignacionAgentesServicio asignacionAgentesServicio;
+    private EscrituraMensajesServicio escrituraMensajesServicio;
+    private ChatTiempoRealServicio chatTiempoRealServicio;
+    private PlatformTransactionManager transactionManager;
+    private LimpiezaChatServicioImpl limpiezaChatServicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        chatSessionRepo = mock(ChatSessionRepo.class);
+        bloqueoFilasRepo = mock(BloqueoFilasRepo.class);
+        mensajeRepo = mock(MensajeRepo.class);
+        asignacionAgentesServicio = mock(AsignacionAgentesServicio.class);
+        escrituraMensajesServicio = mock(EscrituraMensajesServicio.class);
+        chatTiempoRealServicio = mock(ChatTiempoRealServicio.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocacion -> new SimpleTransactionStatus());
+
+        limpiezaChatServicio = new LimpiezaChatServicioImpl(chatSessionRepo, bloqueoFilasRepo, mensajeRepo,
+                asignacionAgentesServicio, escrituraMensajesServicio, chatTiempoRealServicio,
+                new TransactionTemplate(transactionManager), new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(limpiezaChatServicio, "inactividad", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(limpiezaChatServicio, "retencion", Duration.ofDays(180));
+        ReflectionTestUtils.setField(limpiezaChatServicio, "lote", LOTE);
+        ReflectionTestUtils.setField(limpiezaChatServicio, "directorio", directorio.toString());
+    }
+
+
+    @Test
+    public void cierraLasSesionesInactivasYDevuelveElCupoDeSusAgentes() {
+        when(bloqueoFilasRepo.bloquear(ChatSessionRepo.INACTIVAS, LOTE, AHORA.minusMinutes(30)))
+                .thenReturn(List.of(1L, 2L), List.of());
+        when(chatSessionRepo.listarAgentes(List.of(1L, 2L))).thenReturn(List.of(5L, 5L));
+
+        assertEquals(2, limpiezaChatServicio.cerrarInactivas(AHORA));
+
+        verify(chatSessionRepo).finalizarTodas(List.of(1L, 2L), AHORA);
+        for (Long idChatSession : List.of(1L, 2L)) {
+            verify(escrituraMensajesServicio).cerrarSesion(idChatSession);
+            verify(chatTiempoRealServicio).cerrarChat(idChatSession, null);
+        }
+        // Un cupo por sesión, aunque las atienda el mismo agente
+        verify(asignacionAgentesServicio, times(2)).liberar(5L);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+
+    @Test
+    public void archivaLosMensajesAntesDeEliminarlos() throws Exception {
+        when(bloqueoFilasRepo.bloquear(ChatSessionRepo.POR_ARCHIVAR, LOTE, LIMITE_ARCHIVO))
+                .thenReturn(List.of(1L, 2L), List.of());
+        List<MensajeChatResumenDto> mensajes = List.of(
+                mensaje(1L, 1L, "¿Tienen bodegas en Armenia?"),
+                mensaje(2L, 1L, "Sí, en el norte."),
+                mensaje(3L, 2L, "Gracias"));
+        when(mensajeRepo.listarPorSesiones(List.of(1L, 2L))).thenAnswer(invocacion -> mensajes.stream());
+        when(mensajeRepo.eliminarPorSesiones(List.of(1L, 2L))).thenReturn(3);
+
+        ResumenArchivoChatDto resumen = limpiezaChatServicio.archivarMensajes(AHORA);
+
+        assertEquals(new ResumenArchivoChatDto(2, 3, 1), resumen);
+        verify(chatSessionRepo).marcarArchivadas(List.of(1L, 2L), AHORA);
+
+        List<Path> archivos = archivos();
+        assertEquals(1, archivos.size());
+        assertTrue(archivos.get(0).getFileName().toString().endsWith("-1.jsonl.gz"));
+        assertEquals(3, leer(archivos.get(0)).size());
+    }
+
+
+    @Test
+    public void unLoteDescuadradoSeRevierteYSeApartaSinDetenerElArchivado() throws Exception {
+        // El primer lote elimina un mensaje que no alcanzó a quedar en el archivo
+        when(bloqueoFilasRepo.bloquear(ChatSessionRepo.POR_ARCHIVAR, LOTE, LIMITE_ARCHIVO))
+                .thenReturn(List.of(1L, 2L));
+        when(mensajeRepo.listarPorSesiones(List.of(1L, 2L)))
+                .thenAnswer(invocacion -> Stream.of(mensaje(1L, 1L, "Hola"), mensaje(2L, 2L, "Buenas")));
+        when(mensajeRepo.eliminarPorSesiones(List.of(1L, 2L))).thenReturn(3);
+
+        // Los siguientes lotes vuelven a traer las sesiones apartadas, que se descartan
+        when(bloqueoFilasRepo.bloquear(ChatSessionRepo.POR_ARCHIVAR, LOTE + 2, LIMITE_ARCHIVO))
+                .thenReturn(List.of(1L, 2L, 3L), List.of(1L, 2L));
+        when(mensajeRepo.listarPorSesiones(List.of(3L)))
+                .thenAnswer(invocacion -> Stream.of(mensaje(3L, 3L, "Adiós")));
+        when(mensajeRepo.eliminarPorSesiones(List.of(3L))).thenReturn(1);
+
+        ResumenArchivoChatDto resumen = limpiezaChatServicio.archivarMensajes(AHORA);
+
+        assertEquals(new ResumenArchivoChatDto(1, 1, 1), resumen);
+        verify(chatSessionRepo, never()).marcarArchivadas(eq(List.of(1L, 2L)), any());
+        verify(chatSessionRepo).marcarArchivadas(List.of(3L), AHORA);
+        verify(mensajeRepo, times(2)).listarPorSesiones(anyCollection());
+
+        // Solo la transacción del lote descuadrado se revierte
+        ArgumentCaptor<TransactionStatus> transacciones = ArgumentCaptor.forClass(TransactionStatus.class);
+        verify(transactionManager, times(3)).commit(transacciones.capture());
+        assertEquals(List.of(true, false, false),
+                transacciones.getAllValues().stream().map(TransactionStatus::isRollbackOnly).toList());
+
+        // El archivo del lote revertido se eliminó; sus mensajes siguen en la base de datos
+        List<Path> archivos = archivos();
+        assertEquals(1, archivos.size());
+        assertTrue(archivos.get(0).getFileName().toString().endsWith("-3.jsonl.gz"));
+    }
+
+
+    private List<Path> archivos() throws Exception {
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            return rutas.filter(Files::isRegularFile).toList();
+        }
+    }
+
+
+    private List<String> leer(Path archivo) throws Exception {
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(archivo))) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+
+    private MensajeChatResumenDto mensaje(Long id, Long idChatSession, String contenido) {
+        return new MensajeChatResumenDto(id, idChatSession, RemitenteChat.CLIENTE, contenido,
+                AHORA.minusDays(200).plusMinutes(id));
+    }
+}
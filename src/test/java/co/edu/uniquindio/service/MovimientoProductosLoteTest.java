@@ -0,0 +1,163 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.objects.producto.ResultadoMovimientoLoteDto;
+import co.edu.uniquindio.dto.objects.producto.RetiroLoteDto;
+import co.edu.uniquindio.dto.objects.producto.TrasladoLoteDto;
+import co.edu.uniquindio.exception.ElementoIncorrectoException;
+import co.edu.uniquindio.mapper.objects.EspacioMapper;
+import co.edu.uniquindio.mapper.objects.ProductoMapper;
+import co.edu.uniquindio.model.objects.Contrato;
+import co.edu.uniquindio.model.objects.Espacio;
+import co.edu.uniquindio.model.objects.Movimiento;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.base.User;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.EspacioRepo;
+import co.edu.uniquindio.repository.objects.ProductoRepo;
+import co.edu.uniquindio.repository.users.ClienteRepo;
+import co.edu.uniquindio.repository.users.PersonalBodegaRepo;
+import co.edu.uniquindio.service.objects.Impl.ProductoServicioImpl;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del retiro y el traslado masivo de productos de {@link ProductoServicioImpl},
+ * con los repositorios y el {@link EntityManager} simulados.
+ */
+public class MovimientoProductosLoteTest {
+
+    private ProductoRepo productoRepo;
+    private EspacioRepo espacioRepo;
+    private PersonalBodegaRepo personalBodegaRepo;
+    private EntityManager entityManager;
+    private ProductoServicioImpl productoServicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        productoRepo = mock(ProductoRepo.class);
+        espacioRepo = mock(EspacioRepo.class);
+        personalBodegaRepo = mock(PersonalBodegaRepo.class);
+        entityManager = mock(EntityManager.class);
+        productoServicio = new ProductoServicioImpl(productoRepo, mock(ClienteRepo.class), espacioRepo,
+                personalBodegaRepo, mock(ContratoRepo.class), mock(ProductoMapper.class), mock(EmailServicio.class),
+                mock(EspacioMapper.class), entityManager);
+        when(personalBodegaRepo.existsById(3L)).thenReturn(true);
+    }
+
+
+    @Test
+    public void retiroRespetaElLimiteDeInYRegistraUnMovimientoPorProducto() throws Exception {
+        Espacio espacio = espacio(10L, cliente(1L));
+        when(espacioRepo.findById(10L)).thenReturn(Optional.of(espacio));
+
+        // 1200 productos pedidos; el último no está en bodega y no se bloquea
+        List<Long> solicitados = LongStream.rangeClosed(1, 1200).boxed().toList();
+        when(productoRepo.bloquearProductosEnBodega(eq(10L), anyList())).thenAnswer(invocacion -> {
+            List<Long> bloque = invocacion.getArgument(1);
+            assertTrue(bloque.size() <= 1000);
+            List<Object[]> filas = new ArrayList<>();
+            for (Long id : bloque) if (id != 1200L) filas.add(new Object[]{id, 0.5});
+            return filas;
+        });
+
+        ResultadoMovimientoLoteDto resultado = productoServicio.retirarProductosLote(
+                new RetiroLoteDto(10L, 3L, solicitados));
+
+        assertEquals(1199, resultado.productosMovidos());
+        assertEquals(1199 * 0.5, resultado.areaMovida(), 1e-9);
+        assertEquals(List.of(1200L), resultado.noEncontrados());
+
+        verify(productoRepo, times(2)).bloquearProductosEnBodega(eq(10L), anyList());
+        verify(productoRepo, times(2)).marcarRetirados(anyList());
+        verify(entityManager, times(1199)).persist(any(Movimiento.class));
+        verify(espacioRepo).liberarArea(10L, 1199 * 0.5);
+    }
+
+
+    @Test
+    public void trasladoSinAreaEnElDestinoNoEscribeNada() {
+        Cliente cliente = cliente(1L);
+        when(espacioRepo.findById(10L)).thenReturn(Optional.of(espacio(10L, cliente)));
+        when(espacioRepo.findById(20L)).thenReturn(Optional.of(espacio(20L, cliente)));
+        when(productoRepo.bloquearProductosEnBodega(10L)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 4.0}, new Object[]{2L, 6.0}));
+        when(espacioRepo.reservarArea(20L, 10.0)).thenReturn(0);
+
+        assertThrows(ElementoIncorrectoException.class, () -> productoServicio.trasladarProductosLote(
+                new TrasladoLoteDto(10L, 20L, 3L, List.of())));
+
+        verify(entityManager, never()).persist(any());
+        verify(productoRepo, never()).cambiarEspacio(anyList(), anyLong());
+        verify(espacioRepo, never()).liberarArea(anyLong(), anyDouble());
+    }
+
+
+    @Test
+    public void trasladoEntreClientesDistintosSeRechazaAntesDeBloquear() {
+        when(espacioRepo.findById(10L)).thenReturn(Optional.of(espacio(10L, cliente(1L))));
+        when(espacioRepo.findById(20L)).thenReturn(Optional.of(espacio(20L, cliente(2L))));
+
+        assertThrows(ElementoIncorrectoException.class, () -> productoServicio.trasladarProductosLote(
+                new TrasladoLoteDto(10L, 20L, 3L, List.of())));
+
+        verify(productoRepo, never()).bloquearProductosEnBodega(anyLong());
+        verify(espacioRepo, never()).reservarArea(anyLong(), anyDouble());
+    }
+
+
+    @Test
+    public void trasladoReservaEnElDestinoYLiberaEnElOrigen() throws Exception {
+        Cliente cliente = cliente(1L);
+        when(espacioRepo.findById(10L)).thenReturn(Optional.of(espacio(10L, cliente)));
+        when(espacioRepo.findById(20L)).thenReturn(Optional.of(espacio(20L, cliente)));
+        when(productoRepo.bloquearProductosEnBodega(10L)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 4.0}, new Object[]{2L, 6.0}));
+        when(espacioRepo.reservarArea(20L, 10.0)).thenReturn(1);
+
+        ResultadoMovimientoLoteDto resultado = productoServicio.trasladarProductosLote(
+                new TrasladoLoteDto(10L, 20L, 3L, List.of()));
+
+        assertEquals(2, resultado.productosMovidos());
+        verify(entityManager, times(2)).persist(any(Movimiento.class));
+        verify(productoRepo).cambiarEspacio(List.of(1L, 2L), 20L);
+        verify(espacioRepo).liberarArea(10L, 10.0);
+    }
+
+
+    private Cliente cliente(Long id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setNombre("Cliente " + id);
+        User user = new User();
+        user.setEmail("cliente" + id + "@storeit.test");
+        cliente.setUser(user);
+        return cliente;
+    }
+
+
+    private Espacio espacio(Long id, Cliente cliente) {
+        Espacio espacio = new Espacio();
+        espacio.setId(id);
+        Contrato contrato = new Contrato();
+        contrato.setCliente(cliente);
+        contrato.setEspacio(espacio);
+        espacio.setContrato(contrato);
+        return espacio;
+    }
+}
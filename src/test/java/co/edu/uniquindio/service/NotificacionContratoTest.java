@@ -0,0 +1,157 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.event.contrato.ContratoCancelado;
+import co.edu.uniquindio.event.contrato.ContratoFirmado;
+import co.edu.uniquindio.model.objects.Contrato;
+import co.edu.uniquindio.model.objects.NotificacionContrato;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.objects.enums.EstadoNotificacionContrato;
+import co.edu.uniquindio.model.objects.enums.TipoNotificacionContrato;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.base.User;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.NotificacionContratoRepo;
+import co.edu.uniquindio.service.objects.Impl.NotificacionContratoListener;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import co.edu.uniquindio.service.utils.PdfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de las notificaciones de contratos de {@link NotificacionContratoListener}: la fila se escribe
+ * en la transacción del cambio y un fallo al generar el PDF no deja correos encolados a medias.
+ */
+public class NotificacionContratoTest {
+
+    private NotificacionContratoRepo notificacionContratoRepo;
+    private BloqueoFilasRepo bloqueoFilasRepo;
+    private ContratoRepo contratoRepo;
+    private PdfService pdfService;
+    private EmailServicio emailServicio;
+    private PlatformTransactionManager transactionManager;
+    private NotificacionContratoListener listener;
+
+
+    @BeforeEach
+    public void configurar() {
+        notificacionContratoRepo = mock(NotificacionContratoRepo.class);
+        bloqueoFilasRepo = mock(BloqueoFilasRepo.class);
+        contratoRepo = mock(ContratoRepo.class);
+        pdfService = mock(PdfService.class);
+        emailServicio = mock(EmailServicio.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        listener = new NotificacionContratoListener(notificacionContratoRepo, bloqueoFilasRepo, contratoRepo,
+                pdfService, emailServicio, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(listener, "tamanoLote", 50);
+        ReflectionTestUtils.setField(listener, "maxIntentos", 6);
+        ReflectionTestUtils.setField(listener, "esperaBaseMs", 30000L);
+    }
+
+
+    @Test
+    public void laFirmaDelClienteSeRegistraComoPendiente() {
+        listener.registrar(new ContratoFirmado(7L, ContratoFirmado.Firmante.CLIENTE));
+
+        ArgumentCaptor<NotificacionContrato> captor = ArgumentCaptor.forClass(NotificacionContrato.class);
+        verify(notificacionContratoRepo).save(captor.capture());
+        assertEquals(7L, captor.getValue().getIdContrato());
+        assertEquals(TipoNotificacionContrato.FIRMADO_CLIENTE, captor.getValue().getTipo());
+        assertEquals(EstadoNotificacionContrato.PENDIENTE, captor.getValue().getEstado());
+    }
+
+
+    @Test
+    public void laCancelacionDeUnContratoNoActivoNoSeNotifica() {
+        listener.registrar(new ContratoCancelado(7L, EstadoContrato.PENDIENTE));
+
+        verify(notificacionContratoRepo, never()).save(any());
+    }
+
+
+    @Test
+    public void unaNotificacionProcesadaQuedaEncolada() {
+        reclamar(notificacion(5L, TipoNotificacionContrato.MODIFICADO));
+        when(pdfService.generarContratoPdf(any())).thenReturn(new byte[]{1});
+
+        listener.despachar();
+
+        verify(emailServicio).enviarCorreoConPdf(any(), any());
+        verify(notificacionContratoRepo).marcarEncolada(5L);
+        verify(notificacionContratoRepo, never()).registrarFallo(anyLong(), anyInt(), anyLong(), any(), any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+
+    @Test
+    public void unFalloAlGenerarElPdfSeReintentaSinEncolarCorreos() {
+        reclamar(notificacion(5L, TipoNotificacionContrato.MODIFICADO));
+        when(pdfService.generarContratoPdf(any())).thenThrow(new IllegalStateException("plantilla inválida"));
+
+        listener.despachar();
+
+        verify(emailServicio, never()).enviarCorreoConPdf(any(), any());
+        verify(notificacionContratoRepo, never()).marcarEncolada(anyLong());
+        verify(transactionManager).rollback(any());
+        verify(notificacionContratoRepo).registrarFallo(eq(5L), eq(6), eq(30000L), any(), eq("plantilla inválida"));
+    }
+
+
+    @Test
+    public void unFalloDespuesDeEncolarRevierteLosCorreos() {
+        reclamar(notificacion(5L, TipoNotificacionContrato.MODIFICADO));
+        when(pdfService.generarContratoPdf(any())).thenReturn(new byte[]{1});
+        when(notificacionContratoRepo.marcarEncolada(5L)).thenThrow(new IllegalStateException("conexión cerrada"));
+
+        listener.despachar();
+
+        // El correo se registró en la transacción revertida: la notificación vuelve a quedar pendiente
+        verify(transactionManager).rollback(any());
+        verify(notificacionContratoRepo).registrarFallo(eq(5L), eq(6), eq(30000L), any(), eq("conexión cerrada"));
+    }
+
+
+    private void reclamar(NotificacionContrato notificacion) {
+        when(bloqueoFilasRepo.bloquear(eq(NotificacionContratoRepo.LISTAS), eq(1), any()))
+                .thenReturn(List.of(notificacion.getId()), List.of());
+        when(notificacionContratoRepo.findById(notificacion.getId())).thenReturn(Optional.of(notificacion));
+        when(contratoRepo.findById(notificacion.getIdContrato())).thenReturn(Optional.of(contrato(notificacion.getIdContrato())));
+    }
+
+
+    private NotificacionContrato notificacion(Long id, TipoNotificacionContrato tipo) {
+        NotificacionContrato notificacion = new NotificacionContrato();
+        notificacion.setId(id);
+        notificacion.setIdContrato(7L);
+        notificacion.setTipo(tipo);
+        notificacion.setEstado(EstadoNotificacionContrato.PENDIENTE);
+        notificacion.setProximoIntento(LocalDateTime.now());
+        notificacion.setFechaCreacion(LocalDateTime.now());
+        return notificacion;
+    }
+
+
+    private Contrato contrato(Long id) {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Ana");
+        User user = new User();
+        user.setEmail("ana@storeit.test");
+        cliente.setUser(user);
+        Contrato contrato = new Contrato();
+        contrato.setId(id);
+        contrato.setCliente(cliente);
+        return contrato;
+    }
+}
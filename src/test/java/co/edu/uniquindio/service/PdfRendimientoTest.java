@@ -0,0 +1,187 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.config.ThymeleafConfig;
+import co.edu.uniquindio.model.common.Ubicacion;
+import co.edu.uniquindio.model.objects.Bodega;
+import co.edu.uniquindio.model.objects.Contrato;
+import co.edu.uniquindio.model.objects.Espacio;
+import co.edu.uniquindio.model.objects.enums.EstadoContrato;
+import co.edu.uniquindio.model.users.AgenteVentas;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.base.User;
+import co.edu.uniquindio.service.utils.impl.DocumentosPdfCache;
+import co.edu.uniquindio.service.utils.impl.PdfServiceImpl;
+import co.edu.uniquindio.service.utils.impl.RenderizadorPdf;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.TemplateEngine;
+import tech.units.indriya.quantity.Quantities;
+import tech.units.indriya.unit.Units;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mide cuántos PDF de contrato por segundo genera {@link PdfServiceImpl} con y sin la caché
+ * de documentos, y verifica que un cambio en el contrato invalide el documento guardado y que
+ * reutilizar un renderizador no altere el resultado.
+ */
+public class PdfRendimientoTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfRendimientoTest.class);
+
+    private static final int CALENTAMIENTO = 5;
+    private static final int ITERACIONES = 30;
+
+
+    @Test
+    public void pdfPorSegundoConYSinCache() {
+        Contrato contrato = crearContrato();
+
+        double sinCache = medir(crearServicio(false), contrato);
+        double conCache = medir(crearServicio(true), contrato);
+
+        logger.debug("Contrato PDF: {} renderizados/s sin caché, {} con caché",
+                String.format("%.1f", sinCache), String.format("%.1f", conCache));
+        assertTrue(conCache > 0 && sinCache > 0);
+    }
+
+
+    @Test
+    public void mismoContratoSeRenderizaUnaVez() {
+        PdfServiceImpl pdfService = crearServicio(true);
+        Contrato contrato = crearContrato();
+
+        byte[] paraAgente = pdfService.generarContratoPdf(contrato);
+        byte[] paraCliente = pdfService.generarContratoPdf(contrato);
+        assertSame(paraAgente, paraCliente, "El mismo contrato debe salir de la caché");
+
+        contrato.setFirmaCliente(new byte[]{1, 2, 3});
+        contrato.setEstadoContrato(EstadoContrato.VERIFICADO_POR_CLIENTE);
+        byte[] firmado = pdfService.generarContratoPdf(contrato);
+        assertNotSame(paraAgente, firmado, "Un contrato modificado debe volver a renderizarse");
+        assertTrue(firmado.length > 0);
+    }
+
+
+    @Test
+    public void unRenderizadorReutilizadoProduceElMismoPdfQueUnoNuevo() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Un solo renderizador: todos los documentos pasan por la misma instancia
+        RenderizadorPdf reutilizado = new RenderizadorPdf(1, registry);
+        String html = "<html><body><p>Firma</p><img src=\"" + RenderizadorPdf.PREFIJO_IMAGEN + "cliente\"/></body></html>";
+
+        byte[] anterior = reutilizado.renderizar(html, Map.of("cliente", firma(Color.RED)));
+        byte[] despues = reutilizado.renderizar(html, Map.of("cliente", firma(Color.BLUE)));
+        byte[] nuevo = new RenderizadorPdf(1, registry).renderizar(html, Map.of("cliente", firma(Color.BLUE)));
+
+        // La firma del documento anterior no queda en la caché de imágenes del renderizador
+        assertArrayEquals(normalizar(nuevo), normalizar(despues));
+        assertFalse(Arrays.equals(normalizar(anterior), normalizar(despues)));
+    }
+
+
+    private PdfServiceImpl crearServicio(boolean cacheHabilitada) {
+        ThymeleafConfig thymeleafConfig = new ThymeleafConfig();
+        ReflectionTestUtils.setField(thymeleafConfig, "cachePlantillas", true);
+        TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(thymeleafConfig.templateResolver());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DocumentosPdfCache cache = new DocumentosPdfCache(registry);
+        ReflectionTestUtils.setField(cache, "habilitado", cacheHabilitada);
+        ReflectionTestUtils.setField(cache, "maximoBytes", 16L * 1024 * 1024);
+
+        return new PdfServiceImpl(templateEngine, new RenderizadorPdf(0, registry), cache);
+    }
+
+
+    /**
+     * Genera el mismo contrato repetidamente y devuelve los PDF por segundo.
+     */
+    private double medir(PdfServiceImpl pdfService, Contrato contrato) {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            pdfService.generarContratoPdf(contrato);
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            pdfService.generarContratoPdf(contrato);
+        }
+        return ITERACIONES / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+    }
+
+
+    /**
+     * Imagen PNG de una firma de un solo color.
+     */
+    private byte[] firma(Color color) throws Exception {
+        BufferedImage imagen = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graficos = imagen.createGraphics();
+        graficos.setColor(color);
+        graficos.fillRect(0, 0, 40, 20);
+        graficos.dispose();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", salida);
+        return salida.toByteArray();
+    }
+
+
+    /**
+     * Quita del PDF lo que cambia en cada escritura (fechas de creación y modificación, identificador del archivo),
+     * todos de longitud fija, para comparar el resto byte a byte.
+     */
+    private byte[] normalizar(byte[] pdf) {
+        String contenido = new String(pdf, StandardCharsets.ISO_8859_1)
+                .replaceAll("/(CreationDate|ModDate)\\s*\\(D:[^)]*\\)", "/$1()")
+                .replaceAll("/ID\\s*\\[<[0-9a-fA-F]*>\\s*<[0-9a-fA-F]*>\\]", "/ID[]");
+        return contenido.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+
+    private Contrato crearContrato() {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setCiudad("Armenia");
+        Bodega bodega = new Bodega();
+        bodega.setUbicacion(ubicacion);
+
+        Espacio espacio = new Espacio();
+        espacio.setId(15L);
+        espacio.setAreaTotal(Quantities.getQuantity(40, Units.SQUARE_METRE));
+        espacio.setBodega(bodega);
+
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente de Prueba");
+        cliente.setUser(new User());
+        cliente.getUser().setEmail("cliente@prueba.com");
+
+        AgenteVentas agente = new AgenteVentas();
+        agente.setNombre("Agente de Prueba");
+        agente.setUser(new User());
+        agente.getUser().setEmail("agente@prueba.com");
+
+        Contrato contrato = new Contrato();
+        contrato.setId(1L);
+        contrato.setFechaInicio(LocalDate.of(2025, 1, 15));
+        contrato.setFechaFin(LocalDate.of(2025, 12, 15));
+        contrato.setValor(new BigDecimal("350000"));
+        contrato.setEstadoContrato(EstadoContrato.PENDIENTE_VERIFICACION);
+        contrato.setCliente(cliente);
+        contrato.setAgenteVentas(agente);
+        contrato.setEspacio(espacio);
+        return contrato;
+    }
+}
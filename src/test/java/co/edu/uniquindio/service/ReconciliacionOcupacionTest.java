@@ -0,0 +1,117 @@
+package co.edu.uniquindio.service;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.dto.objects.ocupacion.DesviacionOcupacionDto;
+import co.edu.uniquindio.model.common.Ubicacion;
+import co.edu.uniquindio.model.objects.Bodega;
+import co.edu.uniquindio.model.objects.Espacio;
+import co.edu.uniquindio.model.objects.enums.EstadoBodega;
+import co.edu.uniquindio.model.objects.enums.EstadoEspacio;
+import co.edu.uniquindio.repository.objects.BodegaRepo;
+import co.edu.uniquindio.repository.objects.EspacioRepo;
+import co.edu.uniquindio.service.objects.Impl.OcupacionServicioImpl;
+import co.edu.uniquindio.service.objects.OcupacionServicio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.units.indriya.quantity.Quantities;
+import tech.units.indriya.unit.Units;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que la reconciliación de ocupación corrige un contador {@code area_ocupada} desviado
+ * y deja constancia de la desviación en el log.
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class ReconciliacionOcupacionTest {
+
+    private static final double AREA_ESPACIO = 50.0;
+
+    @Autowired
+    private OcupacionServicio ocupacionServicio;
+
+    @Autowired
+    private BodegaRepo bodegaRepo;
+
+    @Autowired
+    private EspacioRepo espacioRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Bodega bodega;
+    private Espacio espacio;
+    private ListAppender<ILoggingEvent> registros;
+
+
+    @BeforeEach
+    public void crearDatos() {
+        bodega = new Bodega();
+        bodega.setUbicacion(new Ubicacion("Colombia", "Armenia", 4.53, -75.68));
+        bodega.setDireccion("Bodega de pruebas de reconciliación");
+        bodega.setTelefono("+57 300 0000001");
+        bodega.setAreaTotal(Quantities.getQuantity(200.0, Units.SQUARE_METRE));
+        bodega.setAltura(10.0);
+        bodega.setEstadoBodega(EstadoBodega.ACTIVA);
+        bodega = bodegaRepo.save(bodega);
+
+        // Sin productos: el área ocupada real del espacio es 0 y la de la bodega es el área del espacio
+        espacio = new Espacio();
+        espacio.setAreaTotal(Quantities.getQuantity(AREA_ESPACIO, Units.SQUARE_METRE));
+        espacio.setAreaDisponible(Quantities.getQuantity(AREA_ESPACIO, Units.SQUARE_METRE));
+        espacio.setAltura(5.0);
+        espacio.setEstadoEspacio(EstadoEspacio.CONTRATADO_DISPONIBLE);
+        espacio.setBodega(bodega);
+        espacio = espacioRepo.save(espacio);
+
+        registros = new ListAppender<>();
+        registros.start();
+        ((Logger) LoggerFactory.getLogger(OcupacionServicioImpl.class)).addAppender(registros);
+    }
+
+
+    @AfterEach
+    public void eliminarDatos() {
+        ((Logger) LoggerFactory.getLogger(OcupacionServicioImpl.class)).detachAppender(registros);
+        espacioRepo.deleteById(espacio.getId());
+        bodegaRepo.deleteById(bodega.getId());
+    }
+
+
+    @Test
+    public void contadoresDesviadosSeCorrigenYSeReportan() {
+        // Deriva simulada: una actualización que se perdió en cada contador
+        transactionTemplate.executeWithoutResult(s -> {
+            espacioRepo.actualizarAreaOcupada(espacio.getId(), 7.5);
+            bodegaRepo.actualizarAreaOcupada(bodega.getId(), 0.0);
+        });
+
+        List<DesviacionOcupacionDto> desviaciones = ocupacionServicio.reconciliarOcupacion();
+
+        assertTrue(desviaciones.contains(new DesviacionOcupacionDto("ESPACIO", espacio.getId(), 7.5, 0.0)));
+        assertTrue(desviaciones.contains(new DesviacionOcupacionDto("BODEGA", bodega.getId(), 0.0, AREA_ESPACIO)));
+        assertEquals(0.0, (double) espacioRepo.findById(espacio.getId()).orElseThrow().getAreaOcupada(), 1e-6);
+        assertEquals(AREA_ESPACIO, (double) bodegaRepo.findById(bodega.getId()).orElseThrow().getAreaOcupada(), 1e-6);
+
+        List<String> mensajes = registros.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertTrue(mensajes.contains("Desviación de ocupación en ESPACIO " + espacio.getId()
+                + ": registrada 7.5 m², calculada 0.0 m²"));
+        assertTrue(mensajes.contains("Desviación de ocupación en BODEGA " + bodega.getId()
+                + ": registrada 0.0 m², calculada " + AREA_ESPACIO + " m²"));
+
+        // Ya corregidos, una segunda pasada no los vuelve a tocar
+        assertTrue(ocupacionServicio.reconciliarOcupacion().stream()
+                .noneMatch(d -> d.id().equals(espacio.getId()) && d.entidad().equals("ESPACIO")
+                        || d.id().equals(bodega.getId()) && d.entidad().equals("BODEGA")));
+    }
+}
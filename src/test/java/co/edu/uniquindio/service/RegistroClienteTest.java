@@ -0,0 +1,137 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.constants.MensajeError;
+import co.edu.uniquindio.dto.users.cliente.CrearClienteDto;
+import co.edu.uniquindio.dto.users.common.CrearUserDto;
+import co.edu.uniquindio.exception.ElementoRepetidoException;
+import co.edu.uniquindio.mapper.users.ClienteMapper;
+import co.edu.uniquindio.model.users.Cliente;
+import co.edu.uniquindio.model.users.base.User;
+import co.edu.uniquindio.model.users.common.IndiceTelefono;
+import co.edu.uniquindio.repository.users.ClienteRepo;
+import co.edu.uniquindio.service.common.DirectorioIdentidadServicio;
+import co.edu.uniquindio.service.common.IndiceTelefonoServicio;
+import co.edu.uniquindio.service.users.impl.ClienteServicioImpl;
+import co.edu.uniquindio.service.utils.CloudinaryServicio;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import co.edu.uniquindio.service.utils.PhoneServicio;
+import co.edu.uniquindio.service.utils.impl.ValidacionCuentaServicioImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del orden de validación al registrar un cliente: los teléfonos se rechazan antes de subir
+ * la imagen de perfil, y las violaciones de unicidad concurrentes se responden como elemento repetido.
+ */
+public class RegistroClienteTest {
+
+    private static final String URL_IMAGEN = "https://res.cloudinary.com/storeit/perfil.jpg";
+
+    private ClienteRepo clienteRepo;
+    private ClienteMapper clienteMapper;
+    private CloudinaryServicio cloudinaryServicio;
+    private PasswordEncoder passwordEncoder;
+    private IndiceTelefonoServicio indiceTelefonoServicio;
+    private ClienteServicioImpl clienteServicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        clienteRepo = mock(ClienteRepo.class);
+        clienteMapper = mock(ClienteMapper.class);
+        cloudinaryServicio = mock(CloudinaryServicio.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        indiceTelefonoServicio = mock(IndiceTelefonoServicio.class);
+
+        // Los teléfonos ya llegan con prefijo internacional; E.164 solo quita los espacios
+        PhoneServicio phoneServicio = mock(PhoneServicio.class);
+        when(phoneServicio.obtenerTelefonoFormateado(anyString(), any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+        when(phoneServicio.normalizarTelefono(any())).thenAnswer(invocacion -> {
+            String telefono = invocacion.getArgument(0);
+            return telefono == null || telefono.isBlank() ? null : telefono.replace(" ", "");
+        });
+
+        ValidacionCuentaServicioImpl validacion = new ValidacionCuentaServicioImpl(
+                mock(DirectorioIdentidadServicio.class), indiceTelefonoServicio, phoneServicio);
+        clienteServicio = new ClienteServicioImpl(clienteRepo, clienteMapper, cloudinaryServicio, passwordEncoder,
+                mock(EmailServicio.class), phoneServicio, validacion);
+
+        when(clienteMapper.toEntity(any(CrearClienteDto.class))).thenAnswer(invocacion -> {
+            CrearClienteDto dto = invocacion.getArgument(0);
+            Cliente cliente = new Cliente();
+            cliente.setNombre(dto.nombre());
+            cliente.setTelefono(dto.telefono());
+            cliente.setTelefonoSecundario(dto.telefonoSecundario());
+            User user = new User();
+            user.setEmail(dto.user().email());
+            cliente.setUser(user);
+            return cliente;
+        });
+        when(cloudinaryServicio.uploadImage(any())).thenReturn(URL_IMAGEN);
+    }
+
+
+    @Test
+    public void telefonoRegistradoSeRechazaSinSubirLaImagen() {
+        when(indiceTelefonoServicio.buscar("+57 300 1112233")).thenReturn(Optional.of(new IndiceTelefono()));
+
+        ElementoRepetidoException e = assertThrows(ElementoRepetidoException.class,
+                () -> clienteServicio.registrarCliente(cuenta("+57 300 1112233", null)));
+
+        assertEquals(MensajeError.TELEFONO_YA_EXISTENTE, e.getMessage());
+        verify(cloudinaryServicio, never()).uploadImage(any());
+        verify(passwordEncoder, never()).encode(any());
+        verify(clienteRepo, never()).save(any());
+    }
+
+
+    @Test
+    public void telefonoSecundarioIgualAlPrincipalSeRechaza() {
+        ElementoRepetidoException e = assertThrows(ElementoRepetidoException.class,
+                () -> clienteServicio.registrarCliente(cuenta("+57 300 1112233", "+573001112233")));
+
+        assertEquals(MensajeError.TELEFONOS_IGUALES, e.getMessage());
+        verify(cloudinaryServicio, never()).uploadImage(any());
+        verify(clienteRepo, never()).save(any());
+    }
+
+
+    @Test
+    public void registroConcurrenteDelMismoTelefonoRespondeRepetidoYLiberaLaImagen() {
+        when(clienteRepo.save(any(Cliente.class))).thenThrow(new DataIntegrityViolationException(
+                "ORA-00001: restricción única (STOREIT.UK_INDICE_TELEFONO) violada"));
+
+        ElementoRepetidoException e = assertThrows(ElementoRepetidoException.class,
+                () -> clienteServicio.registrarCliente(cuenta("+57 300 1112233", null)));
+
+        assertEquals(MensajeError.TELEFONO_YA_EXISTENTE, e.getMessage());
+        verify(cloudinaryServicio).eliminarImagen(URL_IMAGEN);
+    }
+
+
+    @Test
+    public void violacionQueNoEsDeUnicidadSePropaga() {
+        when(clienteRepo.save(any(Cliente.class))).thenThrow(new DataIntegrityViolationException(
+                "ORA-01400: no se puede realizar una inserción NULL en (\"STOREIT\".\"CLIENTES\".\"NOMBRE\")"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> clienteServicio.registrarCliente(cuenta("+57 300 1112233", null)));
+    }
+
+
+    private CrearClienteDto cuenta(String telefono, String telefonoSecundario) {
+        MultipartFile imagen = mock(MultipartFile.class);
+        return new CrearClienteDto("Ana", telefono, "CO", telefonoSecundario, "CO", imagen,
+                new CrearUserDto("ana@storeit.test", "secreta1"), null, null);
+    }
+}
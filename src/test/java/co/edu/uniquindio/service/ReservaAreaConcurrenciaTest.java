@@ -0,0 +1,147 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.StoreItApplication;
+import co.edu.uniquindio.model.common.Ubicacion;
+import co.edu.uniquindio.model.objects.Bodega;
+import co.edu.uniquindio.model.objects.Espacio;
+import co.edu.uniquindio.model.objects.enums.EstadoBodega;
+import co.edu.uniquindio.model.objects.enums.EstadoEspacio;
+import co.edu.uniquindio.repository.objects.BodegaRepo;
+import co.edu.uniquindio.repository.objects.EspacioRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.units.indriya.quantity.Quantities;
+import tech.units.indriya.unit.Units;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica que las reservas de área concurrentes (bodega → espacio y espacio → producto)
+ * nunca superen la capacidad disponible, y registra (en debug) el throughput con 1, 8 y 32 escritores.
+ */
+@SpringBootTest(classes = StoreItApplication.class)
+public class ReservaAreaConcurrenciaTest {
+
+    // Capacidad en m² y área reservada por cada operación
+    private static final double CAPACIDAD = 200.0;
+    private static final double AREA_RESERVA = 1.0;
+    private static final int[] ESCRITORES = {1, 8, 32};
+    private static final Logger logger = LoggerFactory.getLogger(ReservaAreaConcurrenciaTest.class);
+
+    @Autowired
+    private BodegaRepo bodegaRepo;
+
+    @Autowired
+    private EspacioRepo espacioRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Bodega bodega;
+    private Espacio espacio;
+
+
+    @BeforeEach
+    public void crearDatos() {
+        bodega = new Bodega();
+        bodega.setUbicacion(new Ubicacion("Colombia", "Armenia", 4.53, -75.68));
+        bodega.setDireccion("Bodega de pruebas de concurrencia");
+        bodega.setTelefono("+57 300 0000000");
+        bodega.setAreaTotal(Quantities.getQuantity(CAPACIDAD, Units.SQUARE_METRE));
+        bodega.setAltura(10.0);
+        bodega.setEstadoBodega(EstadoBodega.ACTIVA);
+        bodega = bodegaRepo.save(bodega);
+
+        espacio = new Espacio();
+        espacio.setAreaTotal(Quantities.getQuantity(CAPACIDAD, Units.SQUARE_METRE));
+        espacio.setAreaDisponible(Quantities.getQuantity(CAPACIDAD, Units.SQUARE_METRE));
+        espacio.setAltura(5.0);
+        espacio.setEstadoEspacio(EstadoEspacio.CONTRATADO_DISPONIBLE);
+        espacio.setBodega(bodega);
+        espacio = espacioRepo.save(espacio);
+    }
+
+
+    @AfterEach
+    public void eliminarDatos() {
+        espacioRepo.deleteById(espacio.getId());
+        bodegaRepo.deleteById(bodega.getId());
+    }
+
+
+    @Test
+    public void reservaBodegaSinSobreasignacionTest() throws Exception {
+        for (int escritores : ESCRITORES) {
+            transactionTemplate.executeWithoutResult(s -> bodegaRepo.actualizarAreaOcupada(bodega.getId(), 0.0));
+
+            int reservas = ejecutarConcurrente("bodega", escritores,
+                    id -> transactionTemplate.execute(s -> bodegaRepo.reservarArea(id, AREA_RESERVA)), bodega.getId());
+
+            // Exactamente la capacidad, nunca más
+            assertEquals((int) (CAPACIDAD / AREA_RESERVA), reservas);
+            assertEquals(CAPACIDAD, (double) bodegaRepo.findById(bodega.getId()).orElseThrow().getAreaOcupada(), 1e-6);
+        }
+    }
+
+
+    @Test
+    public void reservaEspacioSinSobreasignacionTest() throws Exception {
+        for (int escritores : ESCRITORES) {
+            transactionTemplate.executeWithoutResult(s -> espacioRepo.actualizarAreaOcupada(espacio.getId(), 0.0));
+
+            int reservas = ejecutarConcurrente("espacio", escritores,
+                    id -> transactionTemplate.execute(s -> espacioRepo.reservarArea(id, AREA_RESERVA)), espacio.getId());
+
+            Espacio resultado = espacioRepo.findById(espacio.getId()).orElseThrow();
+            assertEquals((int) (CAPACIDAD / AREA_RESERVA), reservas);
+            assertEquals(CAPACIDAD, (double) resultado.getAreaOcupada(), 1e-6);
+            assertEquals(EstadoEspacio.CONTRATADO_LLENO, resultado.getEstadoEspacio());
+        }
+    }
+
+
+    /**
+     * Lanza {@code escritores} hilos que reservan área hasta que la capacidad se agota
+     * e imprime el throughput de reservas aplicadas.
+     *
+     * @return número total de reservas aplicadas.
+     */
+    private int ejecutarConcurrente(String destino, int escritores, LongToIntFunction reserva, Long id) throws Exception {
+        AtomicInteger aplicadas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(escritores);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < escritores; i++) {
+            tareas.add(executor.submit(() -> {
+                // Cada escritor reserva hasta que el UPDATE condicional deja de aplicar
+                while (reserva.applyAsInt(id) == 1) {
+                    aplicadas.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        long nanos = System.nanoTime() - inicio;
+        executor.shutdown();
+
+        logger.debug("Reserva {} con {} escritores: {} reservas en {} ms ({} reservas/s)",
+                destino, escritores, aplicadas.get(), nanos / 1_000_000, Math.round(aplicadas.get() / (nanos / 1e9)));
+        return aplicadas.get();
+    }
+}
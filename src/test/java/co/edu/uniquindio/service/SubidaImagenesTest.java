@@ -0,0 +1,87 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.service.utils.impl.CloudinaryServicioImpl;
+import co.edu.uniquindio.utils.ServidorCloudinaryPrueba;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sube las fotos de una bodega contra un servidor local que imita la API de Cloudinary
+ * y verifica que las subidas corren en paralelo, respetando el límite de concurrencia.
+ */
+public class SubidaImagenesTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubidaImagenesTest.class);
+
+    private static final long DEMORA_MS = 300;
+    private static final int FOTOS = 10;
+
+
+    @Test
+    public void diezFotosTardanCasiComoLaMasLenta() throws Exception {
+        try (ServidorCloudinaryPrueba servidor = new ServidorCloudinaryPrueba(DEMORA_MS)) {
+            // Con la concurrencia configurada en application.yml, no con una elegida para la prueba
+            CloudinaryServicioImpl cloudinaryServicio = crearServicio(servidor, concurrenciaConfigurada());
+
+            long inicio = System.currentTimeMillis();
+            List<String> urls = cloudinaryServicio.uploadImages(fotos());
+            long duracion = System.currentTimeMillis() - inicio;
+
+            logger.debug("{} fotos subidas en {} ms (una sola tarda {} ms)", FOTOS, duracion, DEMORA_MS);
+
+            assertEquals(FOTOS, urls.size());
+            assertEquals(FOTOS, servidor.subidas());
+            assertTrue(duracion < DEMORA_MS * 3, "Las subidas deben correr en paralelo");
+        }
+    }
+
+
+    @Test
+    public void respetaElLimiteDeSubidasSimultaneas() throws Exception {
+        try (ServidorCloudinaryPrueba servidor = new ServidorCloudinaryPrueba(DEMORA_MS)) {
+            CloudinaryServicioImpl cloudinaryServicio = crearServicio(servidor, 3);
+
+            List<String> urls = cloudinaryServicio.uploadImages(fotos());
+
+            assertEquals(FOTOS, urls.size());
+            assertTrue(servidor.maximoSimultaneo() <= 3,
+                    "No debe haber más de 3 subidas simultáneas, hubo " + servidor.maximoSimultaneo());
+        }
+    }
+
+
+    /**
+     * Valor de {@code store-it.imagenes.concurrencia} en la configuración de la aplicación
+     * (la de pruebas, que tiene el mismo nombre en el classpath, no lo define).
+     */
+    private int concurrenciaConfigurada() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new FileSystemResource("src/main/resources/application.yml"));
+        return Integer.parseInt(yaml.getObject().getProperty("store-it.imagenes.concurrencia"));
+    }
+
+
+    private CloudinaryServicioImpl crearServicio(ServidorCloudinaryPrueba servidor, int concurrencia) {
+        return new CloudinaryServicioImpl("prueba", "123", "secreto", servidor.url(), concurrencia);
+    }
+
+
+    private List<MultipartFile> fotos() {
+        List<MultipartFile> fotos = new ArrayList<>();
+        for (int i = 0; i < FOTOS; i++) {
+            fotos.add(new MockMultipartFile("fotos", "foto" + i + ".png", "image/png", new byte[16 * 1024]));
+        }
+        return fotos;
+    }
+}
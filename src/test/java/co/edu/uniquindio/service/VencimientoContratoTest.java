@@ -0,0 +1,115 @@
+package co.edu.uniquindio.service;
+
+import co.edu.uniquindio.dto.common.email.EmailDto;
+import co.edu.uniquindio.dto.objects.contrato.ContactoContratoDto;
+import co.edu.uniquindio.dto.objects.contrato.ResumenVencimientoDto;
+import co.edu.uniquindio.repository.common.BloqueoFilasRepo;
+import co.edu.uniquindio.repository.objects.ContratoRepo;
+import co.edu.uniquindio.repository.objects.EspacioRepo;
+import co.edu.uniquindio.service.objects.Impl.VencimientoContratoServicioImpl;
+import co.edu.uniquindio.service.utils.EmailServicio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de {@link VencimientoContratoServicioImpl}: la finalización y los recordatorios se procesan por lotes
+ * hasta un lote vacío, y cada recordatorio se marca en la transacción que lo encola.
+ */
+public class VencimientoContratoTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 3, 10);
+    private static final int LOTE = 2;
+    private static final int DIAS_AVISO = 15;
+
+    private ContratoRepo contratoRepo;
+    private EspacioRepo espacioRepo;
+    private EmailServicio emailServicio;
+    private BloqueoFilasRepo bloqueoFilasRepo;
+    private PlatformTransactionManager transactionManager;
+    private VencimientoContratoServicioImpl vencimientoServicio;
+
+
+    @BeforeEach
+    public void configurar() {
+        contratoRepo = mock(ContratoRepo.class);
+        espacioRepo = mock(EspacioRepo.class);
+        emailServicio = mock(EmailServicio.class);
+        bloqueoFilasRepo = mock(BloqueoFilasRepo.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        vencimientoServicio = new VencimientoContratoServicioImpl(contratoRepo, espacioRepo, emailServicio,
+                new TransactionTemplate(transactionManager), bloqueoFilasRepo);
+        ReflectionTestUtils.setField(vencimientoServicio, "lote", LOTE);
+        ReflectionTestUtils.setField(vencimientoServicio, "diasAviso", DIAS_AVISO);
+
+        when(bloqueoFilasRepo.bloquear(eq(ContratoRepo.ACTIVOS_VENCIDOS), eq(LOTE), any())).thenReturn(List.of());
+        when(bloqueoFilasRepo.bloquear(eq(ContratoRepo.ACTIVOS_SIN_RECORDATORIO), eq(LOTE), any(), any()))
+                .thenReturn(List.of());
+        when(contratoRepo.listarContactos(anyCollection())).thenAnswer(invocacion -> {
+            Collection<Long> ids = invocacion.getArgument(0);
+            return ids.stream().map(id -> new ContactoContratoDto(id, "cliente" + id + "@storeit.test", "Cliente",
+                    "agente@storeit.test", "Agente", HOY.plusDays(id))).toList();
+        });
+    }
+
+
+    @Test
+    public void finalizaLosVencidosLotePorLote() {
+        when(bloqueoFilasRepo.bloquear(ContratoRepo.ACTIVOS_VENCIDOS, LOTE, HOY))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+
+        ResumenVencimientoDto resumen = vencimientoServicio.procesarVencimientos(HOY);
+
+        assertEquals(3, resumen.finalizados());
+        verify(contratoRepo).finalizarTodos(List.of(1L, 2L));
+        verify(espacioRepo).liberarDeContratos(List.of(1L, 2L));
+        verify(contratoRepo).finalizarTodos(List.of(3L));
+        verify(espacioRepo).liberarDeContratos(List.of(3L));
+        verify(bloqueoFilasRepo, times(3)).bloquear(ContratoRepo.ACTIVOS_VENCIDOS, LOTE, HOY);
+    }
+
+
+    @Test
+    public void recuerdaTodosLosQueVencenEnElPlazoYLosMarca() {
+        // El contrato 1 vence mañana: se activó cuando su día de aviso ya había pasado y aun así se recuerda
+        when(bloqueoFilasRepo.bloquear(ContratoRepo.ACTIVOS_SIN_RECORDATORIO, LOTE, HOY, HOY.plusDays(DIAS_AVISO)))
+                .thenReturn(List.of(1L, 7L), List.of(15L), List.of());
+
+        ResumenVencimientoDto resumen = vencimientoServicio.procesarVencimientos(HOY);
+
+        assertEquals(3, resumen.recordatorios());
+        verify(contratoRepo).marcarRecordados(eq(List.of(1L, 7L)), any());
+        verify(contratoRepo).marcarRecordados(eq(List.of(15L)), any());
+
+        ArgumentCaptor<EmailDto> correos = ArgumentCaptor.forClass(EmailDto.class);
+        verify(emailServicio, times(6)).enviarCorreo(correos.capture());
+        assertTrue(correos.getAllValues().get(0).cuerpo().contains("11/03/2026"));
+        assertTrue(correos.getAllValues().get(4).cuerpo().contains("25/03/2026"));
+    }
+
+
+    @Test
+    public void sinContratosNoEnviaNiMarcaNada() {
+        ResumenVencimientoDto resumen = vencimientoServicio.procesarVencimientos(HOY);
+
+        assertEquals(new ResumenVencimientoDto(0, 0), resumen);
+        verify(emailServicio, never()).enviarCorreo(any());
+        verify(contratoRepo, never()).marcarRecordados(any(), any());
+        // Una transacción por fase, que encuentra el lote vacío
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
@@ -0,0 +1,271 @@
+package co.edu.uniquindio.utils;
+
+import co.edu.uniquindio.dto.common.chat.MensajeChatResumenDto;
+import co.edu.uniquindio.model.common.enums.RemitenteChat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del {@link DiarioMensajes} que respalda la escritura diferida de los mensajes de chat.
+ */
+public class DiarioMensajesTest {
+
+    @TempDir
+    Path directorio;
+
+
+    @Test
+    public void recuperaLosMensajesSinConfirmarYDescartaElRegistroIncompleto() throws Exception {
+        DiarioMensajes diario = new DiarioMensajes(directorio);
+        List<MensajeChatResumenDto> enviados = List.of(
+                mensaje(1L, 7L, RemitenteChat.CLIENTE, "Hola, ¿tienen bodegas de 20 m²?"),
+                mensaje(2L, 7L, RemitenteChat.AGENTE, "Sí, en la sede norte."),
+                mensaje(3L, 8L, RemitenteChat.CLIENTE, "Buenas tardes"));
+        for (MensajeChatResumenDto mensaje : enviados) diario.agregar(mensaje);
+
+        // Caída a mitad de escritura: queda basura al final del segmento y el diario nunca se cierra
+        try (Stream<Path> segmentos = Files.list(directorio)) {
+            Path segmento = segmentos.findFirst().orElseThrow();
+            Files.write(segmento, new byte[]{0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+        }
+
+        DiarioMensajes reabierto = new DiarioMensajes(directorio);
+        assertEquals(1, reabierto.recuperados().size());
+        DiarioMensajes.Lote lote = reabierto.recuperados().get(0);
+        assertEquals(enviados, lote.mensajes());
+
+        reabierto.confirmar(lote);
+        reabierto.close();
+        try (Stream<Path> segmentos = Files.list(directorio)) {
+            assertEquals(0, segmentos.count());
+        }
+    }
+
+
+    @Test
+    public void cadaMensajeQuedaEnUnSoloLoteConEscriturasConcurrentes() throws Exception {
+        DiarioMensajes diario = new DiarioMensajes(directorio);
+        int hilos = 8, porHilo = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            long base = (long) h * porHilo;
+            tareas.add(executor.submit(() -> {
+                inicio.await();
+                for (int i = 1; i <= porHilo; i++) {
+                    diario.agregar(mensaje(base + i, base, RemitenteChat.CLIENTE, "mensaje " + (base + i)));
+                }
+                return null;
+            }));
+        }
+
+        // Mientras se escribe, se cierran lotes como lo hace el escritor
+        List<DiarioMensajes.Lote> lotes = new ArrayList<>();
+        inicio.countDown();
+        while (tareas.stream().anyMatch(tarea -> !tarea.isDone())) {
+            DiarioMensajes.Lote lote = diario.cerrarLote();
+            if (lote != null) lotes.add(lote);
+        }
+        for (Future<?> tarea : tareas) tarea.get();
+        executor.shutdown();
+        DiarioMensajes.Lote ultimo = diario.cerrarLote();
+        if (ultimo != null) lotes.add(ultimo);
+
+        Set<Long> ids = new HashSet<>();
+        for (DiarioMensajes.Lote lote : lotes) {
+            // Lo que entrega el lote es exactamente lo que quedó en su segmento
+            assertEquals(lote.mensajes(), DiarioMensajes.leer(lote.segmento()));
+            for (MensajeChatResumenDto mensaje : lote.mensajes()) assertTrue(ids.add(mensaje.id()));
+        }
+        assertEquals(hilos * porHilo, ids.size());
+        assertEquals(0, diario.pendientes());
+        diario.close();
+    }
+
+
+    @Test
+    public void unForceFallidoNoEntregaLosMensajesQueNoLlegaronADisco() throws Exception {
+        List<CanalConFallas> canales = new ArrayList<>();
+        DiarioMensajes diario = new DiarioMensajes(directorio, ruta -> {
+            CanalConFallas canal = new CanalConFallas(
+                    FileChannel.open(ruta, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+            canales.add(canal);
+            return canal;
+        });
+        MensajeChatResumenDto guardado = mensaje(1L, 7L, RemitenteChat.CLIENTE, "Hola");
+        diario.agregar(guardado);
+
+        // El disco falla: el cliente recibe el error y el segmento ya no acepta más mensajes
+        canales.get(0).fallar = true;
+        assertThrows(IOException.class, () -> diario.agregar(mensaje(2L, 7L, RemitenteChat.AGENTE, "Buenas")));
+        canales.get(0).fallar = false;
+        assertThrows(IOException.class, () -> diario.agregar(mensaje(3L, 7L, RemitenteChat.CLIENTE, "¿Hola?")));
+
+        DiarioMensajes.Lote lote = diario.cerrarLote();
+        assertEquals(List.of(guardado), lote.mensajes());
+        assertEquals(List.of(guardado), DiarioMensajes.leer(lote.segmento()));
+
+        // El segmento siguiente funciona normalmente
+        MensajeChatResumenDto siguiente = mensaje(4L, 7L, RemitenteChat.AGENTE, "Con gusto");
+        diario.agregar(siguiente);
+        assertEquals(List.of(siguiente), diario.cerrarLote().mensajes());
+        diario.close();
+    }
+
+
+    @Test
+    public void unSegmentoSinMensajesEnDiscoNoEntregaLote() throws Exception {
+        List<CanalConFallas> canales = new ArrayList<>();
+        DiarioMensajes diario = new DiarioMensajes(directorio, ruta -> {
+            CanalConFallas canal = new CanalConFallas(
+                    FileChannel.open(ruta, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+            canales.add(canal);
+            return canal;
+        });
+        canales.get(0).fallar = true;
+        assertThrows(IOException.class, () -> diario.agregar(mensaje(1L, 7L, RemitenteChat.CLIENTE, "Hola")));
+        canales.get(0).fallar = false;
+
+        assertNull(diario.cerrarLote());
+        assertEquals(0, diario.pendientes());
+        diario.close();
+        try (Stream<Path> segmentos = Files.list(directorio)) {
+            assertEquals(0, segmentos.count());
+        }
+    }
+
+
+    private MensajeChatResumenDto mensaje(Long id, Long idChatSession, RemitenteChat remitente, String contenido) {
+        return new MensajeChatResumenDto(id, idChatSession, remitente, contenido,
+                LocalDateTime.of(2026, 10, 17, 9, 30).plusNanos(id * 1000));
+    }
+
+
+    /**
+     * Canal de archivo cuyo {@code force} falla mientras se le indique; el resto lo delega en el canal real.
+     */
+    private static final class CanalConFallas extends FileChannel {
+
+        private final FileChannel canal;
+        private volatile boolean fallar;
+
+
+        private CanalConFallas(FileChannel canal) {
+            this.canal = canal;
+        }
+
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (fallar) throw new IOException("Error de E/S simulado");
+            canal.force(metaData);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return canal.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return canal.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            canal.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return canal.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            canal.truncate(size);
+            return this;
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            canal.close();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
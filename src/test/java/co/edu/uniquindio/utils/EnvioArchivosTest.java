@@ -0,0 +1,105 @@
+package co.edu.uniquindio.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifica las respuestas completas, parciales y condicionales de {@link EnvioArchivos}.
+ */
+public class EnvioArchivosTest {
+
+    private static final String HUELLA = "abc123";
+    private static final byte[] CONTENIDO = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directorio;
+
+
+    @Test
+    public void enviaElArchivoCompletoConEtag() throws Exception {
+        MockHttpServletResponse respuesta = enviar(new MockHttpServletRequest("GET", "/pdf"));
+
+        assertEquals(200, respuesta.getStatus());
+        assertEquals("\"" + HUELLA + "\"", respuesta.getHeader("ETag"));
+        assertEquals("bytes", respuesta.getHeader("Accept-Ranges"));
+        assertArrayEquals(CONTENIDO, respuesta.getContentAsByteArray());
+    }
+
+
+    @Test
+    public void respondeNoModificadoSiLaEtagCoincide() throws Exception {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("GET", "/pdf");
+        solicitud.addHeader("If-None-Match", "\"otra\", \"" + HUELLA + "\"");
+
+        MockHttpServletResponse respuesta = enviar(solicitud);
+
+        assertEquals(304, respuesta.getStatus());
+        assertEquals(0, respuesta.getContentAsByteArray().length);
+    }
+
+
+    @Test
+    public void enviaSoloElRangoPedido() throws Exception {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("GET", "/pdf");
+        solicitud.addHeader("Range", "bytes=2-5");
+
+        MockHttpServletResponse respuesta = enviar(solicitud);
+
+        assertEquals(206, respuesta.getStatus());
+        assertEquals("bytes 2-5/10", respuesta.getHeader("Content-Range"));
+        assertEquals("2345", respuesta.getContentAsString());
+    }
+
+
+    @Test
+    public void rangoFueraDelArchivoNoSePuedeSatisfacer() throws Exception {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("GET", "/pdf");
+        solicitud.addHeader("Range", "bytes=20-");
+
+        MockHttpServletResponse respuesta = enviar(solicitud);
+
+        assertEquals(416, respuesta.getStatus());
+        assertEquals("bytes */10", respuesta.getHeader("Content-Range"));
+    }
+
+
+    @Test
+    public void ifRangeDesactualizadoEnviaElArchivoCompleto() throws Exception {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("GET", "/pdf");
+        solicitud.addHeader("Range", "bytes=2-5");
+        solicitud.addHeader("If-Range", "\"version-anterior\"");
+
+        MockHttpServletResponse respuesta = enviar(solicitud);
+
+        assertEquals(200, respuesta.getStatus());
+        assertArrayEquals(CONTENIDO, respuesta.getContentAsByteArray());
+    }
+
+
+    @Test
+    public void interpretaRangosDeSufijoYAbiertos() {
+        assertArrayEquals(new long[]{7, 9}, EnvioArchivos.interpretarRango("bytes=-3", 10));
+        assertArrayEquals(new long[]{4, 9}, EnvioArchivos.interpretarRango("bytes=4-", 10));
+        assertArrayEquals(new long[]{8, 9}, EnvioArchivos.interpretarRango("bytes=8-100", 10));
+        assertNull(EnvioArchivos.interpretarRango("bytes=0-1,4-5", 10)); // Varios rangos: archivo completo
+        assertNull(EnvioArchivos.interpretarRango("items=0-1", 10));
+    }
+
+
+    private MockHttpServletResponse enviar(MockHttpServletRequest solicitud) throws Exception {
+        Path archivo = Files.write(directorio.resolve(HUELLA), CONTENIDO);
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        EnvioArchivos.enviar(solicitud, respuesta, archivo, HUELLA, "application/pdf", "contrato-1.pdf");
+        return respuesta;
+    }
+}
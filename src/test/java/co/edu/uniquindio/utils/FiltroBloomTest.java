@@ -0,0 +1,34 @@
+package co.edu.uniquindio.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del {@link FiltroBloom} usado delante del índice de teléfonos.
+ */
+public class FiltroBloomTest {
+
+    @Test
+    public void sinFalsosNegativosYConTasaDeFalsosAcotada() {
+        int elementos = 10_000;
+        FiltroBloom filtro = new FiltroBloom(elementos, 0.01);
+
+        for (int i = 0; i < elementos; i++) {
+            filtro.agregar("+57300" + (1_000_000 + i));
+        }
+
+        // Todo valor agregado debe reconocerse
+        for (int i = 0; i < elementos; i++) {
+            assertTrue(filtro.puedeContener("+57300" + (1_000_000 + i)));
+        }
+
+        // Valores nunca agregados: la tasa de falsos positivos debe rondar el 1 %
+        int falsos = 0;
+        for (int i = 0; i < elementos; i++) {
+            if (filtro.puedeContener("+57310" + (1_000_000 + i))) falsos++;
+        }
+        double tasa = (double) falsos / elementos;
+        assertTrue(tasa < 0.02, "Falsos positivos: " + falsos + " de " + elementos);
+    }
+}
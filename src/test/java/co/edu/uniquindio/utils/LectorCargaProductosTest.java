@@ -0,0 +1,95 @@
+package co.edu.uniquindio.utils;
+
+import co.edu.uniquindio.dto.objects.producto.LineaCargaProductoDto;
+import co.edu.uniquindio.dto.objects.producto.ProductoLoteDto;
+import co.edu.uniquindio.exception.ElementoIncorrectoException;
+import co.edu.uniquindio.exception.ElementoNoValido;
+import co.edu.uniquindio.model.objects.enums.TipoProducto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del {@link LectorCargaProductos} con cargas JSON y CSV.
+ */
+public class LectorCargaProductosTest {
+
+    private final LectorCargaProductos lector = new LectorCargaProductos(new ObjectMapper());
+
+
+    @Test
+    public void leeElArregloJsonYReportaLasLineasConErrorDeTipos() throws Exception {
+        String json = """
+                [
+                  {"nombre": "Caja", "descripcion": "Vajilla", "areaOcupada": 1.5, "altura": 0.8, "tipoProducto": "FRAGIL"},
+                  {"nombre": "Silla", "areaOcupada": "mucha", "altura": 1.0, "tipoProducto": "NO_FRAGIL"},
+                  {"nombre": "Mesa", "areaOcupada": 2, "altura": 0.9, "tipoProducto": "NO_FRAGIL"}
+                ]
+                """;
+
+        List<LineaCargaProductoDto> lineas = lector.leer(flujo(json), "application/json");
+
+        assertEquals(3, lineas.size());
+        assertEquals(new ProductoLoteDto("Caja", "Vajilla", 1.5, 0.8, TipoProducto.FRAGIL), lineas.get(0).producto());
+        assertNull(lineas.get(1).producto());
+        assertNotNull(lineas.get(1).error());
+        assertEquals(3, lineas.get(2).numero());
+        assertNull(lineas.get(2).error());
+    }
+
+
+    @Test
+    public void rechazaUnElementoNuloEnElArregloJson() {
+        String json = """
+                [{"nombre": "Caja", "areaOcupada": 1.5, "altura": 0.8, "tipoProducto": "FRAGIL"}, null]
+                """;
+
+        assertThrows(ElementoNoValido.class, () -> lector.leer(flujo(json), "application/json"));
+    }
+
+
+    @Test
+    public void rechazaUnDocumentoJsonQueNoEsArreglo() {
+        assertThrows(ElementoIncorrectoException.class,
+                () -> lector.leer(flujo("{\"nombre\": \"Caja\"}"), "application/json"));
+    }
+
+
+    @Test
+    public void leeElCsvConColumnasEnCualquierOrdenYComillas() throws Exception {
+        String csv = """
+                tipoProducto,nombre,altura,areaOcupada,descripcion
+                FRAGIL,"Caja \"\"grande\"\"",0.8,1.5,"Vajilla, loza"
+
+                no_fragil,Silla,1.0,abc,
+                """;
+
+        List<LineaCargaProductoDto> lineas = lector.leer(flujo(csv), "text/csv; charset=UTF-8");
+
+        // La línea en blanco se omite, pero la numeración sigue la del archivo
+        assertEquals(2, lineas.size());
+        assertEquals(2, lineas.get(0).numero());
+        assertEquals(new ProductoLoteDto("Caja \"grande\"", "Vajilla, loza", 1.5, 0.8, TipoProducto.FRAGIL),
+                lineas.get(0).producto());
+        assertEquals(4, lineas.get(1).numero());
+        assertNull(lineas.get(1).producto());
+        assertTrue(lineas.get(1).error().contains("abc"));
+    }
+
+
+    @Test
+    public void rechazaUnCsvSinEncabezado() {
+        assertThrows(ElementoIncorrectoException.class, () -> lector.leer(flujo(""), "text/csv"));
+    }
+
+
+    private InputStream flujo(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
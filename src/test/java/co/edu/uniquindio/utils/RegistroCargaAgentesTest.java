@@ -0,0 +1,150 @@
+package co.edu.uniquindio.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del {@link RegistroCargaAgentes} usado para asignar los chats.
+ */
+public class RegistroCargaAgentesTest {
+
+    private static final int AGENTES = 20;
+    private static final int MAXIMO = 3;
+    private static final int HILOS = 32;
+
+
+    @Test
+    public void asignacionesConcurrentesNuncaSuperanElCupo() throws Exception {
+        RegistroCargaAgentes registro = new RegistroCargaAgentes(MAXIMO);
+        for (long id = 1; id <= AGENTES; id++) {
+            registro.registrar(id, id % 4, 0); // Cuatro sedes
+        }
+
+        // Más solicitudes que cupos, todas a la vez
+        int solicitudes = AGENTES * MAXIMO * 2;
+        Map<Long, AtomicInteger> asignados = new ConcurrentHashMap<>();
+        AtomicInteger rechazados = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < solicitudes; i++) {
+                tareas.add(hilos.submit(() -> {
+                    salida.await();
+                    Long idAgente = registro.asignar(null);
+                    if (idAgente == null) rechazados.incrementAndGet();
+                    else asignados.computeIfAbsent(idAgente, id -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) tarea.get();
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        // Cada cupo se entrega exactamente una vez
+        assertEquals(AGENTES, asignados.size());
+        asignados.forEach((idAgente, chats) -> {
+            assertEquals(MAXIMO, chats.get(), "Agente " + idAgente);
+            assertEquals(MAXIMO, registro.carga(idAgente));
+        });
+        assertEquals(solicitudes - AGENTES * MAXIMO, rechazados.get());
+        assertNull(registro.asignar(null));
+    }
+
+
+    @Test
+    public void repartePorIgualYRespetaLaSede() {
+        RegistroCargaAgentes registro = new RegistroCargaAgentes(MAXIMO);
+        registro.registrar(1L, 10L, 0);
+        registro.registrar(2L, 10L, 1);
+        registro.registrar(3L, 20L, 0);
+
+        // El menos cargado primero y, a igual carga, el que lleva más tiempo sin recibir chats
+        assertEquals(1L, registro.asignar(10L));
+        assertEquals(2L, registro.asignar(10L));
+        assertEquals(1L, registro.asignar(10L));
+        assertEquals(2, registro.carga(1L));
+        assertEquals(2, registro.carga(2L));
+        assertEquals(3L, registro.asignar(20L));
+
+        // Un chat terminado devuelve el cupo
+        registro.liberar(3L);
+        assertEquals(0, registro.carga(3L));
+
+        // El traslado conserva la carga y el agente retirado no recibe más chats
+        registro.registrar(3L, 10L, 99);
+        assertEquals(0, registro.carga(3L));
+        registro.retirar(3L);
+        assertEquals(-1, registro.carga(3L));
+        assertNull(registro.asignar(20L));
+    }
+
+
+    @Test
+    public void ajustarReemplazaLaCargaAunqueLaSedeNoCambie() {
+        RegistroCargaAgentes registro = new RegistroCargaAgentes(1);
+        registro.registrar(1L, 10L, 0);
+        assertEquals(1L, registro.asignar(10L));
+        registro.confirmar(1L);
+
+        // El chat se cerró en otro nodo: registrar con la misma sede no toca la carga, ajustar sí
+        registro.registrar(1L, 10L, 0);
+        assertNull(registro.asignar(10L));
+        registro.ajustar(1L, 0, registro.marca());
+        assertEquals(1L, registro.asignar(10L));
+
+        registro.ajustar(2L, 0, registro.marca());
+        assertEquals(-1, registro.carga(2L));
+    }
+
+
+    @Test
+    public void ajustarNoPisaUnaReservaSinGuardar() {
+        RegistroCargaAgentes registro = new RegistroCargaAgentes(1);
+        registro.registrar(1L, 10L, 0);
+
+        // El chat está reservado pero su fila todavía no se confirmó: el conteo de la base de datos dice 0
+        assertEquals(1L, registro.asignar(10L));
+        registro.ajustar(1L, 0, registro.marca());
+        assertEquals(1, registro.carga(1L));
+        assertNull(registro.asignar(10L));
+
+        // Confirmado después de contar: el conteo viejo tampoco se aplica
+        long marca = registro.marca();
+        registro.confirmar(1L);
+        registro.ajustar(1L, 0, marca);
+        assertEquals(1, registro.carga(1L));
+
+        // Con un conteo tomado después de confirmar, el ajuste vuelve a aplicarse
+        registro.ajustar(1L, 0, registro.marca());
+        assertEquals(0, registro.carga(1L));
+    }
+
+
+    @Test
+    public void cancelarDevuelveElCupoReservado() {
+        RegistroCargaAgentes registro = new RegistroCargaAgentes(1);
+        registro.registrar(1L, 10L, 0);
+
+        assertEquals(1L, registro.asignar(10L));
+        registro.cancelar(1L);
+
+        assertEquals(0, registro.carga(1L));
+        registro.ajustar(1L, 0, registro.marca());
+        assertEquals(1L, registro.asignar(10L));
+    }
+}
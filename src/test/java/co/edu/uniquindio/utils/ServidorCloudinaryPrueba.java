@@ -0,0 +1,87 @@
+package co.edu.uniquindio.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor HTTP mínimo que imita la API de subida de Cloudinary para pruebas.
+ * <p>
+ * Cada subida tarda una demora fija (simulando la latencia de red) y responde con una URL única.
+ * Registra cuántas subidas recibió y el máximo de subidas atendidas al mismo tiempo.
+ * </p>
+ */
+public class ServidorCloudinaryPrueba implements AutoCloseable {
+
+    private final HttpServer servidor;
+    private final long demoraMs;
+    private final AtomicInteger subidas = new AtomicInteger();
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicInteger maximoSimultaneo = new AtomicInteger();
+
+
+    public ServidorCloudinaryPrueba(long demoraMs) throws IOException {
+        this.demoraMs = demoraMs;
+        this.servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.servidor.createContext("/", this::atender);
+        this.servidor.setExecutor(Executors.newCachedThreadPool());
+        this.servidor.start();
+    }
+
+
+    /**
+     * URL base para la propiedad {@code cloudinary.upload_prefix}.
+     */
+    public String url() {
+        return "http://localhost:" + servidor.getAddress().getPort();
+    }
+
+
+    public int subidas() {
+        return subidas.get();
+    }
+
+
+    public int maximoSimultaneo() {
+        return maximoSimultaneo.get();
+    }
+
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        int actuales = enCurso.incrementAndGet();
+        maximoSimultaneo.accumulateAndGet(actuales, Math::max);
+        try (InputStream cuerpo = intercambio.getRequestBody()) {
+            cuerpo.transferTo(OutputStream.nullOutputStream());
+            Thread.sleep(demoraMs);
+
+            int numero = subidas.incrementAndGet();
+            byte[] respuesta = ("{\"public_id\":\"usuarios/imagen" + numero + "\","
+                    + "\"url\":\"http://res.prueba/usuarios/imagen" + numero + ".png\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, respuesta.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(respuesta);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            intercambio.sendResponseHeaders(500, -1);
+        } finally {
+            enCurso.decrementAndGet();
+            intercambio.close();
+        }
+    }
+
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+    }
+}
@@ -0,0 +1,110 @@
+package co.edu.uniquindio.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor SMTP mínimo en memoria para pruebas.
+ * <p>
+ * Acepta cualquier remitente y destinatario sin autenticación ni TLS, guarda el contenido de cada
+ * mensaje recibido y cuenta las conexiones abiertas, para comprobar que los envíos reutilizan conexiones.
+ * </p>
+ */
+public class ServidorSmtpPrueba implements AutoCloseable {
+
+    private final ServerSocket servidor;
+    private final List<String> mensajes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger conexiones = new AtomicInteger();
+
+
+    public ServidorSmtpPrueba() throws IOException {
+        this.servidor = new ServerSocket(0);
+        Thread aceptador = new Thread(this::aceptar, "smtp-prueba");
+        aceptador.setDaemon(true);
+        aceptador.start();
+    }
+
+
+    public int puerto() {
+        return servidor.getLocalPort();
+    }
+
+
+    public List<String> mensajes() {
+        return mensajes;
+    }
+
+
+    public int conexiones() {
+        return conexiones.get();
+    }
+
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                conexiones.incrementAndGet();
+                Thread sesion = new Thread(() -> atender(socket), "smtp-prueba-sesion");
+                sesion.setDaemon(true);
+                sesion.start();
+            } catch (IOException e) {
+                return; // Servidor cerrado
+            }
+        }
+    }
+
+
+    private void atender(Socket socket) {
+        try (socket;
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream salida = socket.getOutputStream()) {
+
+            responder(salida, "220 localhost ESMTP prueba");
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                String comando = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                switch (comando) {
+                    case "EHLO", "HELO" -> responder(salida, "250 localhost");
+                    case "DATA" -> {
+                        responder(salida, "354 Fin de datos con <CR><LF>.<CR><LF>");
+                        StringBuilder mensaje = new StringBuilder();
+                        String dato;
+                        while ((dato = entrada.readLine()) != null && !dato.equals(".")) {
+                            mensaje.append(dato).append('\n');
+                        }
+                        mensajes.add(mensaje.toString());
+                        responder(salida, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        responder(salida, "221 Adiós");
+                        return;
+                    }
+                    default -> responder(salida, "250 OK"); // MAIL, RCPT, RSET, NOOP
+                }
+            }
+        } catch (IOException ignored) {
+            // El cliente cerró la conexión
+        }
+    }
+
+
+    private void responder(OutputStream salida, String linea) throws IOException {
+        salida.write((linea + "\r\n").getBytes(StandardCharsets.UTF_8));
+        salida.flush();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+    }
+}